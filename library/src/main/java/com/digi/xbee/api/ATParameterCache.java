@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class represents a cache of the AT parameter values of an XBee device.
+ * 
+ * <p>When the cache of a device is enabled, the values read with 
+ * {@code getParameter} are kept for a time to live, so reading them again 
+ * does not send any AT command to the device. Each parameter may have its 
+ * own time to live, and parameters whose value changes by itself, like the 
+ * RSSI or the association indication, are not cached by default.</p>
+ * 
+ * <p>The cached value of a parameter is discarded when it is set, and all the 
+ * values are discarded when any command is executed (for example, applying 
+ * or writing the changes) or the device is reset.</p>
+ * 
+ * @see AbstractXBeeDevice#enableParameterCache(long)
+ * @see AbstractXBeeDevice#getParameterCache()
+ */
+public class ATParameterCache {
+	
+	// Constants.
+	
+	/**
+	 * Parameters that are never cached unless a time to live is configured 
+	 * for them, since their value changes without setting them.
+	 */
+	private static final Set<String> VOLATILE_PARAMETERS = new HashSet<String>(Arrays.asList(
+			"AI", "DB", "EA", "EC", "ER", "GD", "TR", "%V", "TP", "IS"));
+	
+	// Variables.
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final ConcurrentHashMap<String, Long> timesToLive = new ConcurrentHashMap<String, Long>();
+	
+	private final long defaultTimeToLive;
+	
+	// Incremented on every invalidation so values read before it are not cached.
+	private final AtomicLong generation = new AtomicLong();
+	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	
+	/**
+	 * Class constructor. Instantiates a new {@code ATParameterCache} with the 
+	 * given default time to live.
+	 * 
+	 * @param defaultTimeToLive Time to live of the cached values in 
+	 *                          milliseconds.
+	 * 
+	 * @throws IllegalArgumentException if {@code defaultTimeToLive <= 0}.
+	 */
+	ATParameterCache(long defaultTimeToLive) {
+		if (defaultTimeToLive <= 0)
+			throw new IllegalArgumentException("Time to live must be greater than 0.");
+		
+		this.defaultTimeToLive = defaultTimeToLive;
+	}
+	
+	/**
+	 * Returns a copy of the cached value of the given parameter, counting a 
+	 * hit or a miss.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * 
+	 * @return A copy of the cached value, {@code null} if it is not cached 
+	 *         or has expired.
+	 */
+	byte[] get(String parameter) {
+		String key = key(parameter);
+		if (getTimeToLive(key) == 0)
+			return null;
+		
+		Entry entry = entries.get(key);
+		if (entry == null || entry.expiration - System.currentTimeMillis() <= 0) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return entry.value.clone();
+	}
+	
+	/**
+	 * Returns the current generation of the cache, to be given to 
+	 * {@link #put(String, byte[], long)} once the value has been read.
+	 * 
+	 * @return The current generation of the cache.
+	 */
+	long getGeneration() {
+		return generation.get();
+	}
+	
+	/**
+	 * Caches the given value of a parameter, unless the cache was invalidated 
+	 * since the value was requested.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * @param value The value of the parameter.
+	 * @param generation The generation of the cache when the value was 
+	 *                   requested.
+	 * 
+	 * @see #getGeneration()
+	 */
+	void put(String parameter, byte[] value, long generation) {
+		String key = key(parameter);
+		long timeToLive = getTimeToLive(key);
+		if (value == null || timeToLive == 0)
+			return;
+		
+		entries.put(key, new Entry(value.clone(), System.currentTimeMillis() + timeToLive));
+		// Discard it if the cache was invalidated in the meantime.
+		if (this.generation.get() != generation)
+			entries.remove(key);
+	}
+	
+	/**
+	 * Discards the cached value of the given parameter.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * 
+	 * @throws NullPointerException if {@code parameter == null}.
+	 */
+	public void invalidate(String parameter) {
+		if (parameter == null)
+			throw new NullPointerException("Parameter cannot be null.");
+		
+		generation.incrementAndGet();
+		entries.remove(key(parameter));
+	}
+	
+	/**
+	 * Discards all the cached values.
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+	
+	/**
+	 * Configures the time to live of the given parameter.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * @param timeToLive Time to live of the parameter value in milliseconds, 
+	 *                   {@code 0} not to cache it.
+	 * 
+	 * @throws IllegalArgumentException if {@code timeToLive < 0}.
+	 * @throws NullPointerException if {@code parameter == null}.
+	 * 
+	 * @see #getTimeToLive(String)
+	 */
+	public void setTimeToLive(String parameter, long timeToLive) {
+		if (parameter == null)
+			throw new NullPointerException("Parameter cannot be null.");
+		if (timeToLive < 0)
+			throw new IllegalArgumentException("Time to live cannot be less than 0.");
+		
+		timesToLive.put(key(parameter), timeToLive);
+		invalidate(parameter);
+	}
+	
+	/**
+	 * Returns the time to live of the given parameter.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * 
+	 * @return Time to live of the parameter value in milliseconds, {@code 0} 
+	 *         if it is not cached.
+	 * 
+	 * @throws NullPointerException if {@code parameter == null}.
+	 * 
+	 * @see #setTimeToLive(String, long)
+	 */
+	public long getTimeToLive(String parameter) {
+		if (parameter == null)
+			throw new NullPointerException("Parameter cannot be null.");
+		
+		String key = key(parameter);
+		Long timeToLive = timesToLive.get(key);
+		if (timeToLive != null)
+			return timeToLive;
+		return VOLATILE_PARAMETERS.contains(key) ? 0 : defaultTimeToLive;
+	}
+	
+	/**
+	 * Returns the time to live of the parameters without a specific one.
+	 * 
+	 * @return Default time to live in milliseconds.
+	 */
+	public long getDefaultTimeToLive() {
+		return defaultTimeToLive;
+	}
+	
+	/**
+	 * Returns the number of parameter reads served from the cache.
+	 * 
+	 * @return The number of cache hits.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+	
+	/**
+	 * Returns the number of parameter reads that had to be sent to the 
+	 * device because the value was not cached or had expired.
+	 * 
+	 * @return The number of cache misses.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	/**
+	 * Returns the number of cached values, including the expired ones not 
+	 * discarded yet.
+	 * 
+	 * @return The number of cached values.
+	 */
+	public int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Returns the key of the given parameter, since AT commands are not case 
+	 * sensitive.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * 
+	 * @return The key of the parameter.
+	 */
+	private static String key(String parameter) {
+		return parameter.toUpperCase(Locale.ENGLISH);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [hits=" + hits.get() + ", misses=" + misses.get() 
+				+ ", size=" + entries.size() + "]";
+	}
+	
+	/**
+	 * Cached value of a parameter.
+	 */
+	private static class Entry {
+		
+		// Variables.
+		private final byte[] value;
+		private final long expiration;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Entry} with the given 
+		 * parameters.
+		 * 
+		 * @param value The value of the parameter.
+		 * @param expiration Time when the value expires in milliseconds.
+		 */
+		private Entry(byte[] value, long expiration) {
+			this.value = value;
+			this.expiration = expiration;
+		}
+	}
+}
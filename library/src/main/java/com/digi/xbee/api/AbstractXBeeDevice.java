@@ -14,8 +14,14 @@ package com.digi.xbee.api;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +49,7 @@ import com.digi.xbee.api.models.ATCommand;
 import com.digi.xbee.api.models.ATCommandResponse;
 import com.digi.xbee.api.models.ATCommandStatus;
 import com.digi.xbee.api.models.AssociationIndicationStatus;
+import com.digi.xbee.api.models.ConfigurationProfile;
 import com.digi.xbee.api.models.HardwareVersion;
 import com.digi.xbee.api.models.PowerLevel;
 import com.digi.xbee.api.models.RemoteATCommandOptions;
@@ -112,6 +119,18 @@ public abstract class AbstractXBeeDevice {
 	 */
 	protected final static int TIMEOUT_ENTER_COMMAND_MODE = 1500;
 	
+	/**
+	 * Maximum number of AT commands that are in flight at the same time when 
+	 * sending a batch of AT commands: {@value}.
+	 * 
+	 * <p>Commands are written back-to-back in groups of this size so the 
+	 * serial buffer of the module is not overrun and frame IDs never wrap 
+	 * around inside a group.</p>
+	 * 
+	 * @see #sendATCommands(List)
+	 */
+	protected final static int AT_COMMAND_PIPELINE_SIZE = 8;
+	
 	// Variables.
 	protected IConnectionInterface connectionInterface;
 	
@@ -125,6 +144,10 @@ public abstract class AbstractXBeeDevice {
 	protected XBee64BitAddress xbee64BitAddress = XBee64BitAddress.UNKNOWN_ADDRESS;
 	
 	protected int currentFrameID = 0xFF;
+	private final Object frameIDLock = new Object();
+	// Frame IDs whose answers are still awaited, indexed by frame ID.
+	private final boolean[] framesInFlight = new boolean[0x100];
+	private int framesInFlightCount = 0;
 	protected int receiveTimeout = DEFAULT_RECEIVE_TIMETOUT;
 	
 	protected AbstractXBeeDevice localXBeeDevice;
@@ -141,6 +164,8 @@ public abstract class AbstractXBeeDevice {
 	private boolean ioPacketReceived = false;
 	private boolean applyConfigurationChanges = true;
 	
+	private volatile ATParameterCache parameterCache;
+	
 	private byte[] ioPacketPayload;
 	
 	/**
@@ -358,16 +383,59 @@ public abstract class AbstractXBeeDevice {
 	 * @see #setNodeID(String)
 	 */
 	public void readDeviceInfo() throws TimeoutException, XBeeException {
+		readDeviceInfo(false);
+	}
+	
+	/**
+	 * Reads some parameters from this device and obtains its protocol, 
+	 * optionally reading again the values that are read only once.
+	 * 
+	 * <p>Refreshing allows verifying an identity restored from a cache 
+	 * within the same batch of AT commands.</p>
+	 * 
+	 * @param refresh {@code true} to read again the 64-bit address and the 
+	 *                hardware version and determine again the protocol of 
+	 *                a generic device, {@code false} to read them only if 
+	 *                they are not initialized.
+	 * 
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws TimeoutException if there is a timeout reading the parameters.
+	 * @throws XBeeException if there is any error trying to read the device information or
+	 *                       if there is any other XBee related exception.
+	 * 
+	 * @see #readDeviceInfo()
+	 * @see #restoreDeviceInfo(XBeeProtocol, HardwareVersion, String)
+	 */
+	void readDeviceInfo(boolean refresh) throws TimeoutException, XBeeException {
 		byte[] response = null;
+		
+		// Request all the parameters at once. Those rejected by the device 
+		// are requested again one by one to report the proper error.
+		boolean read64BitAddress = refresh || xbee64BitAddress == null || xbee64BitAddress == XBee64BitAddress.UNKNOWN_ADDRESS;
+		boolean readHardwareVersion = refresh || hardwareVersion == null;
+		ArrayList<String> parameters = new ArrayList<String>();
+		if (read64BitAddress) {
+			parameters.add("SH");
+			parameters.add("SL");
+		}
+		parameters.add("NI");
+		if (readHardwareVersion)
+			parameters.add("HV");
+		parameters.add("VR");
+		if (xbeeProtocol != XBeeProtocol.DIGI_MESH 
+				&& xbeeProtocol != XBeeProtocol.DIGI_POINT)
+			parameters.add("MY");
+		Map<String, byte[]> values = readParameters(parameters.toArray(new String[parameters.size()]));
+		
 		// Get the 64-bit address.
-		if (xbee64BitAddress == null || xbee64BitAddress == XBee64BitAddress.UNKNOWN_ADDRESS) {
+		if (read64BitAddress) {
 			String addressHigh;
 			String addressLow;
 			
-			response = getParameter("SH");
+			response = getParameter(values, "SH");
 			addressHigh = HexUtils.byteArrayToHexString(response);
 			
-			response = getParameter("SL");
+			response = getParameter(values, "SL");
 			addressLow = HexUtils.byteArrayToHexString(response);
 			
 			while(addressLow.length() < 8)
@@ -376,20 +444,26 @@ public abstract class AbstractXBeeDevice {
 			xbee64BitAddress = new XBee64BitAddress(addressHigh + addressLow);
 		}
 		// Get the Node ID.
-		response = getParameter("NI");
+		response = getParameter(values, "NI");
+		String oldNodeID = nodeID;
 		nodeID = new String(response);
+		updateNetworkIndexes(xbee16BitAddress, oldNodeID);
 		
 		// Get the hardware version.
-		if (hardwareVersion == null) {
-			response = getParameter("HV");
+		if (readHardwareVersion) {
+			response = getParameter(values, "HV");
 			hardwareVersion = HardwareVersion.get(response[0]);
 		}
 		// Get the firmware version.
-		response = getParameter("VR");
+		response = getParameter(values, "VR");
 		firmwareVersion = HexUtils.byteArrayToHexString(response);
 		
-		// Original value of the protocol.
+		// Original value of the protocol. When refreshing a generic device, 
+		// a protocol that was only restored is determined again instead of 
+		// checked. Devices of a specific protocol always check it.
 		XBeeProtocol origProtocol = getXBeeProtocol();
+		if (refresh && origProtocol == xbeeProtocol && isGenericDevice())
+			origProtocol = XBeeProtocol.UNKNOWN;
 		
 		// Obtain the device protocol.
 		xbeeProtocol = XBeeProtocol.determineProtocol(hardwareVersion, firmwareVersion);
@@ -408,8 +482,13 @@ public abstract class AbstractXBeeDevice {
 		if (protocol != XBeeProtocol.DIGI_MESH 
 				&& protocol != XBeeProtocol.DIGI_POINT
 				&& protocol != XBeeProtocol.UNKNOWN) {
-			response = getParameter("MY");
+			response = getParameter(values, "MY");
+			XBee16BitAddress oldAddress = xbee16BitAddress;
 			xbee16BitAddress = new XBee16BitAddress(response);
+			updateNetworkIndexes(oldAddress, nodeID);
+		} else {
+			// Let the network store the read versions.
+			updateNetworkIndexes(xbee16BitAddress, nodeID);
 		}
 	}
 	
@@ -470,6 +549,22 @@ public abstract class AbstractXBeeDevice {
 		return xbeeProtocol;
 	}
 	
+	/**
+	 * Returns whether or not this is a generic device, that is, a device 
+	 * whose class does not declare a specific protocol.
+	 * 
+	 * @return {@code true} if the protocol of this device is determined from 
+	 *         the module, {@code false} if it is declared by its class.
+	 * 
+	 * @see #getXBeeProtocol()
+	 */
+	private boolean isGenericDevice() {
+		return !(this instanceof ZigBeeDevice || this instanceof DigiMeshDevice 
+				|| this instanceof DigiPointDevice || this instanceof Raw802Device 
+				|| this instanceof RemoteZigBeeDevice || this instanceof RemoteDigiMeshDevice 
+				|| this instanceof RemoteDigiPointDevice || this instanceof RemoteRaw802Device);
+	}
+	
 	/**
 	 * Returns the node identifier of this XBee device.
 	 * 
@@ -504,7 +599,9 @@ public abstract class AbstractXBeeDevice {
 		
 		setParameter("NI", nodeID.getBytes());
 		
+		String oldNodeID = this.nodeID;
 		this.nodeID = nodeID;
+		updateNetworkIndexes(xbee16BitAddress, oldNodeID);
 	}
 	
 	/**
@@ -534,6 +631,22 @@ public abstract class AbstractXBeeDevice {
 		return hardwareVersion;
 	}
 	
+	/**
+	 * Sets the protocol, hardware version and firmware version of this XBee 
+	 * device from previously stored values instead of reading them.
+	 * 
+	 * @param protocol The XBee protocol.
+	 * @param hardwareVersion The hardware version, {@code null} if unknown.
+	 * @param firmwareVersion The firmware version, {@code null} if unknown.
+	 * 
+	 * @see #readDeviceInfo()
+	 */
+	void restoreDeviceInfo(XBeeProtocol protocol, HardwareVersion hardwareVersion, String firmwareVersion) {
+		this.xbeeProtocol = protocol;
+		this.hardwareVersion = hardwareVersion;
+		this.firmwareVersion = firmwareVersion;
+	}
+	
 	/**
 	 * Updates the current device reference with the data provided for the 
 	 * given device.
@@ -547,6 +660,9 @@ public abstract class AbstractXBeeDevice {
 		// TODO Should be allow to update a local from a remote or viceversa?? Maybe 
 		// this must be in the Local/Remote device class(es) and not here... 
 		
+		String oldNodeID = nodeID;
+		XBee16BitAddress oldAddress = xbee16BitAddress;
+		
 		// Only update the Node Identifier if the provided is not null.
 		if (device.getNodeID() != null)
 			this.nodeID = device.getNodeID();
@@ -567,6 +683,8 @@ public abstract class AbstractXBeeDevice {
 			xbee16BitAddress = addr16;
 		}
 		
+		updateNetworkIndexes(oldAddress, oldNodeID);
+		
 		//this.deviceType = device.deviceType; // This is not yet done.
 		
 		// The operating mode: only API/API2. Do we need this for a remote device?
@@ -575,6 +693,25 @@ public abstract class AbstractXBeeDevice {
 		// The firmware version can change...
 	}
 	
+	/**
+	 * Updates the indexes and the snapshot of the network of the local XBee 
+	 * device after the data of this remote device changed.
+	 * 
+	 * <p>If this is a local device or it is not in the network, this method 
+	 * does nothing.</p>
+	 * 
+	 * @param oldAddress The previous 16-bit address of this device.
+	 * @param oldNodeID The previous node identifier of this device.
+	 */
+	private void updateNetworkIndexes(XBee16BitAddress oldAddress, String oldNodeID) {
+		if (!isRemote() || !(localXBeeDevice instanceof XBeeDevice))
+			return;
+		
+		XBeeNetwork network = ((XBeeDevice)localXBeeDevice).network;
+		if (network != null)
+			network.updateDeviceIndexes((RemoteXBeeDevice)this, oldAddress, oldNodeID);
+	}
+	
 	/**
 	 * Adds the provided listener to the list of listeners to be notified
 	 * when new packets are received. 
@@ -842,29 +979,8 @@ public abstract class AbstractXBeeDevice {
 		case API:
 		case API_ESCAPE:
 			// Create the corresponding AT command packet depending on if the device is local or remote.
-			XBeePacket packet;
-			if (isRemote()) {
-				XBee16BitAddress remote16BitAddress = get16BitAddress();
-				if (remote16BitAddress == null)
-					remote16BitAddress = XBee16BitAddress.UNKNOWN_ADDRESS;
-				
-				int remoteATCommandOptions = RemoteATCommandOptions.OPTION_NONE;
-				if (isApplyConfigurationChangesEnabled())
-					remoteATCommandOptions |= RemoteATCommandOptions.OPTION_APPLY_CHANGES;
-				
-				packet = new RemoteATCommandPacket(getNextFrameID(), get64BitAddress(), 
-						remote16BitAddress, remoteATCommandOptions, command.getCommand(), command.getParameter());
-			} else {
-				if (isApplyConfigurationChangesEnabled())
-					packet = new ATCommandPacket(getNextFrameID(), command.getCommand(), command.getParameter());
-				else
-					packet = new ATCommandQueuePacket(getNextFrameID(), command.getCommand(), command.getParameter());
-			}
-			if (command.getParameter() == null)
-				logger.debug(toString() + "Sending AT command '{}'.", command.getCommand());
-			else
-				logger.debug(toString() + "Sending AT command '{} {}'.", command.getCommand(), 
-						HexUtils.prettyHexString(command.getParameter()));
+			int[] frameIDs = reserveFrameIDs(1);
+			XBeePacket packet = createATCommandPacket(frameIDs[0], command, isApplyConfigurationChangesEnabled());
 			try {
 				// Send the packet and build the corresponding response depending on if the device is local or remote.
 				XBeePacket answerPacket;
@@ -887,11 +1003,277 @@ public abstract class AbstractXBeeDevice {
 					logger.debug(toString() + "AT command response: null.");
 			} catch (ClassCastException e) {
 				logger.error("Received an invalid packet type after sending an AT command packet." + e);
+			} finally {
+				releaseFrameIDs(frameIDs);
 			}
 		}
 		return response;
 	}
 	
+	/**
+	 * Sends the given list of AT commands back-to-back, each one with its 
+	 * own frame ID, and waits for all the answers or until the configured 
+	 * receive timeout expires.
+	 * 
+	 * <p>Instead of waiting for the answer of a command before sending the 
+	 * next one, up to {@value #AT_COMMAND_PIPELINE_SIZE} commands are in 
+	 * flight at the same time, so reading several parameters costs about one 
+	 * round-trip instead of one per command.</p>
+	 * 
+	 * <p>The returned list has the same size and order as the given one. Each 
+	 * entry contains the response of the corresponding command with its own 
+	 * status, or {@code null} if that command was not answered in time.</p>
+	 * 
+	 * @param commands List of AT commands to be sent.
+	 * @return A list with the {@code ATCommandResponse} of each command.
+	 * 
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws InvalidOperatingModeException if the operating mode is different 
+	 *                                       than {@link OperatingMode#API} and 
+	 *                                       {@link OperatingMode#API_ESCAPE}.
+	 * @throws IOException if an I/O error occurs while sending the AT commands.
+	 * @throws NullPointerException if {@code commands == null} or 
+	 *                              if any of the commands is {@code null}.
+	 * 
+	 * @see #sendATCommand(ATCommand)
+	 * @see #sendATCommands(List, boolean)
+	 * @see com.digi.xbee.api.models.ATCommand
+	 * @see com.digi.xbee.api.models.ATCommandResponse
+	 */
+	protected List<ATCommandResponse> sendATCommands(List<ATCommand> commands) 
+			throws InvalidOperatingModeException, IOException {
+		return sendATCommands(commands, isApplyConfigurationChangesEnabled());
+	}
+	
+	/**
+	 * Sends the given list of AT commands back-to-back, applying or not the 
+	 * changes regardless of the 'apply configuration changes' option, and 
+	 * waits for all the answers or until the configured receive timeout 
+	 * expires.
+	 * 
+	 * @param commands List of AT commands to be sent.
+	 * @param applyChanges {@code true} to apply the changes with each 
+	 *                     command, {@code false} to queue them until they 
+	 *                     are applied.
+	 * @return A list with the {@code ATCommandResponse} of each command.
+	 * 
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws InvalidOperatingModeException if the operating mode is different 
+	 *                                       than {@link OperatingMode#API} and 
+	 *                                       {@link OperatingMode#API_ESCAPE}.
+	 * @throws IOException if an I/O error occurs while sending the AT commands.
+	 * @throws NullPointerException if {@code commands == null} or 
+	 *                              if any of the commands is {@code null}.
+	 * 
+	 * @see #sendATCommands(List)
+	 * @see #sendATCommands(List, boolean, int)
+	 */
+	protected List<ATCommandResponse> sendATCommands(List<ATCommand> commands, boolean applyChanges) 
+			throws InvalidOperatingModeException, IOException {
+		// AT commands of remote devices are answered through the local device.
+		AbstractXBeeDevice device = isRemote() ? localXBeeDevice : this;
+		return sendATCommands(commands, applyChanges, device.receiveTimeout);
+	}
+	
+	/**
+	 * Sends the given list of AT commands back-to-back, applying or not the 
+	 * changes, and waits for all the answers or until the given timeout 
+	 * expires.
+	 * 
+	 * <p>This allows waiting longer for the answers of remote devices that 
+	 * are several hops away than for the answers of the local device.</p>
+	 * 
+	 * @param commands List of AT commands to be sent.
+	 * @param applyChanges {@code true} to apply the changes with each 
+	 *                     command, {@code false} to queue them until they 
+	 *                     are applied.
+	 * @param timeout Maximum time to wait for the answers of each group of 
+	 *                pipelined commands in milliseconds.
+	 * @return A list with the {@code ATCommandResponse} of each command.
+	 * 
+	 * @throws IllegalArgumentException if {@code timeout < 0}.
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws InvalidOperatingModeException if the operating mode is different 
+	 *                                       than {@link OperatingMode#API} and 
+	 *                                       {@link OperatingMode#API_ESCAPE}.
+	 * @throws IOException if an I/O error occurs while sending the AT commands.
+	 * @throws NullPointerException if {@code commands == null} or 
+	 *                              if any of the commands is {@code null}.
+	 * 
+	 * @see #sendATCommands(List, boolean)
+	 */
+	protected List<ATCommandResponse> sendATCommands(List<ATCommand> commands, boolean applyChanges, int timeout) 
+			throws InvalidOperatingModeException, IOException {
+		if (timeout < 0)
+			throw new IllegalArgumentException("Timeout cannot be less than 0.");
+		// Check if commands are null.
+		if (commands == null)
+			throw new NullPointerException("AT commands cannot be null.");
+		for (ATCommand command : commands) {
+			if (command == null)
+				throw new NullPointerException("AT command cannot be null.");
+		}
+		// Check connection.
+		if (!connectionInterface.isOpen())
+			throw new InterfaceNotOpenException();
+		
+		OperatingMode operatingMode = getOperatingMode();
+		if (operatingMode != OperatingMode.API && operatingMode != OperatingMode.API_ESCAPE)
+			throw new InvalidOperatingModeException(operatingMode);
+		
+		ATCommandResponse[] responses = new ATCommandResponse[commands.size()];
+		for (int start = 0; start < commands.size(); start += AT_COMMAND_PIPELINE_SIZE)
+			sendATCommandGroup(commands, start, Math.min(start + AT_COMMAND_PIPELINE_SIZE, commands.size()), applyChanges, 
+					timeout, responses);
+		
+		return Arrays.asList(responses);
+	}
+	
+	/**
+	 * Sends the AT commands of the given range without waiting between them 
+	 * and collects their answers until all of them arrive or the receive 
+	 * timeout expires.
+	 * 
+	 * @param commands List of AT commands.
+	 * @param start Index of the first command of the group (inclusive).
+	 * @param end Index of the last command of the group (exclusive).
+	 * @param applyChanges {@code true} to apply the changes with each 
+	 *                     command, {@code false} to queue them.
+	 * @param timeout Maximum time to wait for the answers in milliseconds.
+	 * @param responses Array to store the response of each command.
+	 * 
+	 * @throws InvalidOperatingModeException if the operating mode is different 
+	 *                                       than {@link OperatingMode#API} and 
+	 *                                       {@link OperatingMode#API_ESCAPE}.
+	 * @throws IOException if an I/O error occurs while sending the AT commands.
+	 * 
+	 * @see #sendATCommands(List)
+	 */
+	private void sendATCommandGroup(final List<ATCommand> commands, final int start, int end, boolean applyChanges, 
+			int timeout, final ATCommandResponse[] responses) throws InvalidOperatingModeException, IOException {
+		// AT commands of remote devices are sent and answered through the local device.
+		AbstractXBeeDevice device = isRemote() ? localXBeeDevice : this;
+		final boolean remote = isRemote();
+		
+		final int[] frameIDs = reserveFrameIDs(end - start);
+		final XBeeAPIPacket[] packets = new XBeeAPIPacket[end - start];
+		for (int i = 0; i < packets.length; i++)
+			packets[i] = createATCommandPacket(frameIDs[i], commands.get(start + i), applyChanges);
+		
+		final CountDownLatch pending = new CountDownLatch(packets.length);
+		
+		IPacketReceiveListener packetReceiveListener = new IPacketReceiveListener() {
+			/*
+			 * (non-Javadoc)
+			 * @see com.digi.xbee.api.listeners.IPacketReceiveListener#packetReceived(com.digi.xbee.api.packet.XBeePacket)
+			 */
+			@Override
+			public void packetReceived(XBeePacket receivedPacket) {
+				String command;
+				byte[] value;
+				ATCommandStatus status;
+				if (!remote && receivedPacket instanceof ATCommandResponsePacket) {
+					ATCommandResponsePacket r = (ATCommandResponsePacket)receivedPacket;
+					command = r.getCommand();
+					value = r.getCommandValue();
+					status = r.getStatus();
+				} else if (remote && receivedPacket instanceof RemoteATCommandResponsePacket) {
+					RemoteATCommandResponsePacket r = (RemoteATCommandResponsePacket)receivedPacket;
+					// Other remote devices may answer with the same frame ID.
+					if (!isAnswerFrom(r, get64BitAddress(), get16BitAddress()))
+						return;
+					command = r.getCommand();
+					value = r.getCommandValue();
+					status = r.getStatus();
+				} else {
+					return;
+				}
+				
+				int frameID = ((XBeeAPIPacket)receivedPacket).getFrameID();
+				for (int i = 0; i < packets.length; i++) {
+					if (packets[i].getFrameID() != frameID 
+							|| !commands.get(start + i).getCommand().equalsIgnoreCase(command))
+						continue;
+					
+					synchronized (responses) {
+						if (responses[start + i] != null)
+							return;
+						responses[start + i] = new ATCommandResponse(commands.get(start + i), value, status);
+					}
+					if (value != null)
+						logger.debug(AbstractXBeeDevice.this.toString() + "AT command '{}' response: {}.", 
+								command, HexUtils.prettyHexString(value));
+					else
+						logger.debug(AbstractXBeeDevice.this.toString() + "AT command '{}' response: null.", command);
+					pending.countDown();
+					return;
+				}
+			}
+		};
+		
+		device.addPacketListener(packetReceiveListener);
+		try {
+			// Write all the packets without waiting for the answers.
+			for (XBeeAPIPacket packet : packets)
+				device.sendXBeePacketAsync(packet);
+			
+			// Wait until all the responses are received or timeout.
+			try {
+				pending.await(timeout, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		} finally {
+			// Always remove the packet listener from the list.
+			device.removePacketListener(packetReceiveListener);
+			releaseFrameIDs(frameIDs);
+		}
+	}
+	
+	/**
+	 * Creates the packet to send the given AT command to this device.
+	 * 
+	 * <p>Remote devices use a remote AT command packet and local devices use 
+	 * an AT command packet or an AT command queue packet depending on if the 
+	 * configuration changes must be applied.</p>
+	 * 
+	 * @param frameID Frame ID of the packet.
+	 * @param command AT command to be sent.
+	 * @param applyChanges {@code true} to apply the changes, {@code false} 
+	 *                     to queue them.
+	 * 
+	 * @return The packet with the given AT command and frame ID.
+	 * 
+	 * @see #reserveFrameIDs(int)
+	 * @see com.digi.xbee.api.models.ATCommand
+	 */
+	private XBeeAPIPacket createATCommandPacket(int frameID, ATCommand command, boolean applyChanges) {
+		XBeeAPIPacket packet;
+		if (isRemote()) {
+			XBee16BitAddress remote16BitAddress = get16BitAddress();
+			if (remote16BitAddress == null)
+				remote16BitAddress = XBee16BitAddress.UNKNOWN_ADDRESS;
+			
+			int remoteATCommandOptions = RemoteATCommandOptions.OPTION_NONE;
+			if (applyChanges)
+				remoteATCommandOptions |= RemoteATCommandOptions.OPTION_APPLY_CHANGES;
+			
+			packet = new RemoteATCommandPacket(frameID, get64BitAddress(), 
+					remote16BitAddress, remoteATCommandOptions, command.getCommand(), command.getParameter());
+		} else {
+			if (applyChanges)
+				packet = new ATCommandPacket(frameID, command.getCommand(), command.getParameter());
+			else
+				packet = new ATCommandQueuePacket(frameID, command.getCommand(), command.getParameter());
+		}
+		if (command.getParameter() == null)
+			logger.debug(toString() + "Sending AT command '{}'.", command.getCommand());
+		else
+			logger.debug(toString() + "Sending AT command '{} {}'.", command.getCommand(), 
+					HexUtils.prettyHexString(command.getParameter()));
+		return packet;
+	}
+	
 	/**
 	 * Sends the given XBee packet asynchronously.
 	 * 
@@ -1137,6 +1519,11 @@ public abstract class AbstractXBeeDevice {
 								return;
 							if (!((RemoteATCommandPacket)sentAPIPacket).getCommand().equalsIgnoreCase(((RemoteATCommandResponsePacket)receivedPacket).getCommand()))
 								return;
+							// Other remote devices may answer with the same frame ID.
+							if (!isAnswerFrom((RemoteATCommandResponsePacket)receivedPacket, 
+									((RemoteATCommandPacket)sentAPIPacket).get64bitDestinationAddress(), 
+									((RemoteATCommandPacket)sentAPIPacket).get16bitDestinationAddress()))
+								return;
 						}
 					}
 					
@@ -1155,6 +1542,36 @@ public abstract class AbstractXBeeDevice {
 		return packetReceiveListener;
 	}
 	
+	/**
+	 * Returns whether the given remote AT command response was sent by the 
+	 * device with the given addresses.
+	 * 
+	 * <p>The 64-bit address is compared when it is known, otherwise the 
+	 * 16-bit address is compared when both of them are known. If none of the 
+	 * addresses can be compared the answer is accepted.</p>
+	 * 
+	 * @param response Remote AT command response.
+	 * @param address64 64-bit address of the device the command was sent to.
+	 * @param address16 16-bit address of the device the command was sent to.
+	 * 
+	 * @return {@code true} if the response comes from the device, 
+	 *         {@code false} otherwise.
+	 */
+	private static boolean isAnswerFrom(RemoteATCommandResponsePacket response, XBee64BitAddress address64, 
+			XBee16BitAddress address16) {
+		if (address64 != null && !address64.equals(XBee64BitAddress.UNKNOWN_ADDRESS) 
+				&& !address64.equals(XBee64BitAddress.BROADCAST_ADDRESS) 
+				&& !address64.equals(XBee64BitAddress.COORDINATOR_ADDRESS))
+			return address64.equals(response.get64bitSourceAddress());
+		
+		XBee16BitAddress source16 = response.get16bitSourceAddress();
+		if (address16 == null || address16.equals(XBee16BitAddress.UNKNOWN_ADDRESS) 
+				|| address16.equals(XBee16BitAddress.BROADCAST_ADDRESS) 
+				|| source16 == null || source16.equals(XBee16BitAddress.UNKNOWN_ADDRESS))
+			return true;
+		return address16.equals(source16);
+	}
+	
 	/**
 	 * Writes the given XBee packet in the connection interface of this device.
 	 * 
@@ -1182,17 +1599,119 @@ public abstract class AbstractXBeeDevice {
 	/**
 	 * Returns the next Frame ID of this XBee device.
 	 * 
+	 * <p>The frame IDs reserved for answers that are still awaited are 
+	 * skipped while there are free ones.</p>
+	 * 
 	 * @return The next Frame ID.
+	 * 
+	 * @see #reserveFrameIDs(int)
 	 */
 	protected int getNextFrameID() {
 		if (isRemote())
 			return localXBeeDevice.getNextFrameID();
-		if (currentFrameID == 0xff) {
+		// Remote devices share the frame IDs of the local one from several threads.
+		synchronized (frameIDLock) {
+			if (framesInFlightCount < 0xFF)
+				return findFreeFrameID();
+			// All of them are in flight.
+			advanceFrameID();
+			return currentFrameID;
+		}
+	}
+	
+	/**
+	 * Reserves the given number of frame IDs of this XBee device, waiting 
+	 * until there are enough free ones.
+	 * 
+	 * <p>The frame IDs are shared by the local device and all the remote 
+	 * devices reached through it, so a reserved frame ID is not given to any 
+	 * other packet until it is released. This way an answer is never matched 
+	 * with a packet sent later with the same frame ID.</p>
+	 * 
+	 * @param count Number of frame IDs to reserve, all of them at once.
+	 * 
+	 * @return The reserved frame IDs.
+	 * 
+	 * @throws IllegalArgumentException if {@code count < 1} or 
+	 *                                  if {@code count > 255}.
+	 * @throws IOException if the thread is interrupted while waiting for free 
+	 *                     frame IDs.
+	 * 
+	 * @see #getNextFrameID()
+	 * @see #releaseFrameIDs(int[])
+	 */
+	protected int[] reserveFrameIDs(int count) throws IOException {
+		if (count < 1 || count > 0xFF)
+			throw new IllegalArgumentException("Frame IDs count must be between 1 and 255.");
+		if (isRemote())
+			return localXBeeDevice.reserveFrameIDs(count);
+		
+		synchronized (frameIDLock) {
+			while (0xFF - framesInFlightCount < count) {
+				try {
+					frameIDLock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while waiting for free frame IDs.");
+				}
+			}
+			int[] frameIDs = new int[count];
+			for (int i = 0; i < count; i++) {
+				frameIDs[i] = findFreeFrameID();
+				framesInFlight[frameIDs[i]] = true;
+				framesInFlightCount++;
+			}
+			return frameIDs;
+		}
+	}
+	
+	/**
+	 * Releases the given frame IDs of this XBee device so they can be used 
+	 * again.
+	 * 
+	 * @param frameIDs Frame IDs to release.
+	 * 
+	 * @see #reserveFrameIDs(int)
+	 */
+	protected void releaseFrameIDs(int[] frameIDs) {
+		if (isRemote()) {
+			localXBeeDevice.releaseFrameIDs(frameIDs);
+			return;
+		}
+		
+		synchronized (frameIDLock) {
+			for (int frameID : frameIDs) {
+				if (frameID < 1 || frameID > 0xFF || !framesInFlight[frameID])
+					continue;
+				framesInFlight[frameID] = false;
+				framesInFlightCount--;
+			}
+			frameIDLock.notifyAll();
+		}
+	}
+	
+	/**
+	 * Returns the next frame ID that is not in flight. There must be at least 
+	 * one and the frame ID lock must be held.
+	 * 
+	 * @return The next free frame ID.
+	 */
+	private int findFreeFrameID() {
+		do {
+			advanceFrameID();
+		} while (framesInFlight[currentFrameID]);
+		return currentFrameID;
+	}
+	
+	/**
+	 * Moves the frame ID counter to the next frame ID, skipping 0.
+	 */
+	private void advanceFrameID() {
+		if (currentFrameID >= 0xff) {
 			// Reset counter.
 			currentFrameID = 1;
 		} else
 			currentFrameID ++;
-		return currentFrameID;
 	}
 	
 	/**
@@ -1315,6 +1834,216 @@ public abstract class AbstractXBeeDevice {
 		return dioMode;
 	}
 	
+	/**
+	 * Sets the configuration of several IO lines of this XBee device at once.
+	 * 
+	 * <p>All the configuration commands are sent without waiting for the 
+	 * answer of each one before sending the next one.</p>
+	 * 
+	 * @param configurations Map with the IO mode to set to each IO line.
+	 * 
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws NullPointerException if {@code configurations == null} or 
+	 *                              if any IO line or IO mode is {@code null}.
+	 * @throws TimeoutException if there is a timeout sending any of the set 
+	 *                          configuration commands.
+	 * @throws XBeeException if there is any other XBee related exception.
+	 * 
+	 * @see #getIOConfigurations(IOLine...)
+	 * @see #setIOConfiguration(IOLine, IOMode)
+	 * @see com.digi.xbee.api.io.IOLine
+	 * @see com.digi.xbee.api.io.IOMode
+	 */
+	public void setIOConfigurations(Map<IOLine, IOMode> configurations) throws TimeoutException, XBeeException {
+		if (configurations == null)
+			throw new NullPointerException("IO configurations cannot be null.");
+		
+		ArrayList<ATCommand> atCommands = new ArrayList<ATCommand>(configurations.size());
+		for (Map.Entry<IOLine, IOMode> configuration : configurations.entrySet()) {
+			// Check IO line.
+			if (configuration.getKey() == null)
+				throw new NullPointerException("IO line cannot be null.");
+			if (configuration.getValue() == null)
+				throw new NullPointerException("IO mode cannot be null.");
+			atCommands.add(new ATCommand(configuration.getKey().getConfigurationATCommand(), 
+					new byte[]{(byte)configuration.getValue().getID()}));
+		}
+		// Check connection.
+		if (!connectionInterface.isOpen())
+			throw new InterfaceNotOpenException();
+		
+		List<ATCommandResponse> responses;
+		try {
+			responses = sendATCommands(atCommands, "Error writing in the communication interface.");
+		} finally {
+			ATParameterCache cache = parameterCache;
+			if (cache != null) {
+				for (ATCommand atCommand : atCommands)
+					cache.invalidate(atCommand.getCommand());
+			}
+		}
+		checkATCommandResponsesAreValid(responses);
+	}
+	
+	/**
+	 * Returns the configuration mode of several IO lines of this XBee device 
+	 * at once.
+	 * 
+	 * <p>All the IO lines are requested without waiting for the answer of 
+	 * each one before requesting the next one.</p>
+	 * 
+	 * @param ioLines The IO lines to get their configuration.
+	 * 
+	 * @return A map with the IO mode (configuration) of each IO line.
+	 * 
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws NullPointerException if {@code ioLines == null} or 
+	 *                              if any IO line is {@code null}.
+	 * @throws TimeoutException if there is a timeout sending any of the get 
+	 *                          configuration commands.
+	 * @throws XBeeException if there is any other XBee related exception.
+	 * 
+	 * @see #getIOConfiguration(IOLine)
+	 * @see #setIOConfigurations(Map)
+	 * @see com.digi.xbee.api.io.IOLine
+	 * @see com.digi.xbee.api.io.IOMode
+	 */
+	public Map<IOLine, IOMode> getIOConfigurations(IOLine... ioLines) throws TimeoutException, XBeeException {
+		if (ioLines == null)
+			throw new NullPointerException("IO lines cannot be null.");
+		String[] parameters = new String[ioLines.length];
+		for (int i = 0; i < ioLines.length; i++) {
+			// Check IO line.
+			if (ioLines[i] == null)
+				throw new NullPointerException("DIO pin cannot be null.");
+			parameters[i] = ioLines[i].getConfigurationATCommand();
+		}
+		// Check connection.
+		if (!connectionInterface.isOpen())
+			throw new InterfaceNotOpenException();
+		
+		Map<String, byte[]> values = getParameters(parameters);
+		
+		LinkedHashMap<IOLine, IOMode> configurations = new LinkedHashMap<IOLine, IOMode>();
+		for (IOLine ioLine : ioLines) {
+			// Check if the received configuration mode is valid.
+			int ioModeValue = values.get(ioLine.getConfigurationATCommand())[0];
+			IOMode dioMode = IOMode.getIOMode(ioModeValue, ioLine);
+			if (dioMode == null)
+				throw new OperationNotSupportedException("Received configuration mode '" + HexUtils.integerToHexString(ioModeValue, 1) + "' is not valid.");
+			configurations.put(ioLine, dioMode);
+		}
+		return configurations;
+	}
+	
+	/**
+	 * Applies the given configuration profile to this XBee device, setting 
+	 * only the parameters whose value is different.
+	 * 
+	 * <p>The current value of all the parameters of the profile is read at 
+	 * once. The changed parameters are then set at once without applying 
+	 * them, except the last one, which is set after the rest have been 
+	 * accepted and applies all the changes together.</p>
+	 * 
+	 * <p>If any parameter cannot be set, the changes are not applied, but the 
+	 * ones already accepted remain queued in the device until the changes 
+	 * are applied or discarded.</p>
+	 * 
+	 * @param profile The configuration profile to apply.
+	 * @param writeChanges {@code true} to also write the changes so they 
+	 *                     persist through resets, {@code false} otherwise.
+	 * 
+	 * @return The list of parameters that were changed, empty if the device 
+	 *         already had the configuration of the profile.
+	 * 
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws NullPointerException if {@code profile == null}.
+	 * @throws TimeoutException if there is a timeout reading or setting any 
+	 *                          parameter.
+	 * @throws XBeeException if any parameter value is not supported or 
+	 *                       if there is any other XBee related exception.
+	 * 
+	 * @see #applyChanges()
+	 * @see #writeChanges()
+	 * @see com.digi.xbee.api.models.ConfigurationProfile
+	 */
+	public List<String> applyConfigurationProfile(ConfigurationProfile profile, boolean writeChanges) 
+			throws TimeoutException, XBeeException {
+		if (profile == null)
+			throw new NullPointerException("Configuration profile cannot be null.");
+		// Check connection.
+		if (!connectionInterface.isOpen())
+			throw new InterfaceNotOpenException();
+		
+		// Read the current values at once from the device, not from the cache.
+		ArrayList<ATCommand> reads = new ArrayList<ATCommand>(profile.size());
+		for (String parameter : profile.getParameters())
+			reads.add(new ATCommand(parameter));
+		List<ATCommandResponse> currentValues = sendATCommands(reads, "Error writing in the communication interface.");
+		
+		// Compare them with the profile, the parameters that could not be read are set anyway.
+		ArrayList<String> changes = new ArrayList<String>();
+		ArrayList<ATCommand> writes = new ArrayList<ATCommand>();
+		for (int i = 0; i < reads.size(); i++) {
+			String parameter = reads.get(i).getCommand();
+			byte[] value = profile.getParameter(parameter);
+			ATCommandResponse response = currentValues.get(i);
+			if (response != null 
+					&& response.getResponseStatus() == ATCommandStatus.OK 
+					&& ByteUtils.isSameValue(response.getResponse(), value))
+				continue;
+			changes.add(parameter);
+			writes.add(new ATCommand(parameter, value));
+		}
+		if (writes.isEmpty()) {
+			logger.debug(toString() + "Configuration profile already applied.");
+			return changes;
+		}
+		logger.debug(toString() + "Applying configuration profile, changed parameters: {}.", changes);
+		
+		try {
+			// Queue all the changes but the last one.
+			checkATCommandResponsesAreValid(sendATCommands(writes.subList(0, writes.size() - 1), false));
+			// The last change applies all of them.
+			checkATCommandResponsesAreValid(sendATCommands(writes.subList(writes.size() - 1, writes.size()), true));
+		} catch (IOException e) {
+			throw new XBeeException("Error writing in the communication interface.", e);
+		} finally {
+			ATParameterCache cache = parameterCache;
+			if (cache != null) {
+				for (String parameter : changes)
+					cache.invalidate(parameter);
+			}
+		}
+		
+		if (writeChanges)
+			writeChanges();
+		
+		return changes;
+	}
+	
+	/**
+	 * Checks that all the given responses of a batch of AT commands are 
+	 * valid.
+	 * 
+	 * @param responses The responses of a batch of AT commands.
+	 * 
+	 * @throws ATCommandException if the status of any response is not 
+	 *                            {@link ATCommandStatus#OK}.
+	 * @throws TimeoutException if any command was not answered.
+	 * 
+	 * @see #checkATCommandResponseIsValid(ATCommandResponse)
+	 */
+	private void checkATCommandResponsesAreValid(List<ATCommandResponse> responses) 
+			throws ATCommandException, TimeoutException {
+		for (ATCommandResponse response : responses) {
+			// A missing response means that the command was not answered in time.
+			if (response == null)
+				throw new TimeoutException();
+			checkATCommandResponseIsValid(response);
+		}
+	}
+	
 	/**
 	 * Sets the digital value (high or low) to the provided IO line of this 
 	 * XBee device.
@@ -1964,7 +2693,14 @@ public abstract class AbstractXBeeDevice {
 		if (parameterValue == null)
 			throw new NullPointerException("Value of the parameter cannot be null.");
 		
-		sendParameter(parameter, parameterValue);
+		try {
+			sendParameter(parameter, parameterValue);
+		} finally {
+			// The new value may have been set even if the response was not received.
+			ATParameterCache cache = parameterCache;
+			if (cache != null && parameter != null)
+				cache.invalidate(parameter);
+		}
 	}
 	
 	/**
@@ -1984,14 +2720,175 @@ public abstract class AbstractXBeeDevice {
 	 * @see #setParameter(String, byte[])
 	 */
 	public byte[] getParameter(String parameter) throws TimeoutException, XBeeException {
+		return getParameter(parameter, true);
+	}
+	
+	/**
+	 * Gets the value of the given parameter from this XBee device, taking it 
+	 * from the parameter cache if requested.
+	 * 
+	 * <p>The read value is stored in the parameter cache, if it is enabled, 
+	 * even if it was not taken from it.</p>
+	 * 
+	 * @param parameter The name of the parameter to retrieve its value.
+	 * @param useCache {@code true} to return the cached value, if any, 
+	 *                 {@code false} to always read it from the device.
+	 * 
+	 * @return A byte array containing the value of the parameter.
+	 * 
+	 * @throws IllegalArgumentException if {@code parameter.length() != 2}.
+	 * @throws NullPointerException if {@code parameter == null}.
+	 * @throws TimeoutException if there is a timeout getting the parameter value.
+	 * @throws XBeeException if {@code parameter} is not supported by the module or
+	 *                       if there is any other XBee related exception.
+	 * 
+	 * @see #getParameter(String)
+	 */
+	private byte[] getParameter(String parameter, boolean useCache) throws TimeoutException, XBeeException {
+		ATParameterCache cache = parameterCache;
+		long generation = 0;
+		if (cache != null && parameter != null) {
+			byte[] cachedValue = useCache ? cache.get(parameter) : null;
+			if (cachedValue != null)
+				return cachedValue;
+			generation = cache.getGeneration();
+		}
+		
 		byte[] parameterValue = sendParameter(parameter, null);
 		
 		// Check if the response is null, if so throw an exception (maybe it was a write-only parameter).
 		if (parameterValue == null)
 			throw new OperationNotSupportedException("Couldn't get the '" + parameter + "' value.");
+		
+		if (cache != null)
+			cache.put(parameter, parameterValue, generation);
 		return parameterValue;
 	}
 	
+	/**
+	 * Gets the values of the given parameters from this XBee device.
+	 * 
+	 * <p>All the parameters are requested at once, without waiting for the 
+	 * value of one parameter before requesting the next one, so this is 
+	 * faster than calling {@link #getParameter(String)} for each of them, 
+	 * especially for remote devices.</p>
+	 * 
+	 * @param parameters The names of the parameters to retrieve their values.
+	 * 
+	 * @return A map with the value of each parameter, in the same order as 
+	 *         they were requested.
+	 * 
+	 * @throws IllegalArgumentException if the length of any parameter is not 2.
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws NullPointerException if {@code parameters == null} or 
+	 *                              if any of the parameters is {@code null}.
+	 * @throws TimeoutException if there is a timeout getting any of the values.
+	 * @throws XBeeException if any parameter is not supported by the module or
+	 *                       if there is any other XBee related exception.
+	 * 
+	 * @see #getParameter(String)
+	 */
+	public Map<String, byte[]> getParameters(String... parameters) throws TimeoutException, XBeeException {
+		List<ATCommandResponse> responses = sendParameters(true, parameters);
+		
+		LinkedHashMap<String, byte[]> values = new LinkedHashMap<String, byte[]>();
+		for (int i = 0; i < parameters.length; i++) {
+			ATCommandResponse response = responses.get(i);
+			// A missing response means that the command was not answered in time.
+			if (response == null)
+				throw new TimeoutException();
+			checkATCommandResponseIsValid(response);
+			// Check if the response is null, if so throw an exception (maybe it was a write-only parameter).
+			if (response.getResponse() == null)
+				throw new OperationNotSupportedException("Couldn't get the '" + parameters[i] + "' value.");
+			values.put(parameters[i], response.getResponse());
+		}
+		return values;
+	}
+	
+	/**
+	 * Reads the values of the given parameters from this XBee device at once.
+	 * 
+	 * <p>The returned map only contains the parameters that were read 
+	 * successfully. It is empty if the connection is not open or the device 
+	 * is not in API mode. Use {@link #getParameter(Map, String)} to read the 
+	 * missing ones and get the proper error.</p>
+	 * 
+	 * <p>If none of the parameters is answered in time, the device is not 
+	 * responding, so reading them again one by one would only wait the 
+	 * timeout once more for each of them. In that case a timeout exception 
+	 * is thrown instead.</p>
+	 * 
+	 * <p>The values are always read from the device, never from the 
+	 * parameter cache, so they can be used to refresh the information of 
+	 * the device. The read values are stored in the cache if it is enabled.
+	 * </p>
+	 * 
+	 * @param parameters The names of the parameters to retrieve their values.
+	 * 
+	 * @return A map with the value of the parameters that were read.
+	 * 
+	 * @throws TimeoutException if none of the parameters was answered in 
+	 *                          time.
+	 * 
+	 * @see #getParameters(String...)
+	 */
+	Map<String, byte[]> readParameters(String... parameters) throws TimeoutException {
+		HashMap<String, byte[]> values = new HashMap<String, byte[]>();
+		if (!connectionInterface.isOpen())
+			return values;
+		OperatingMode operatingMode = getOperatingMode();
+		if (operatingMode != OperatingMode.API && operatingMode != OperatingMode.API_ESCAPE)
+			return values;
+		
+		List<ATCommandResponse> responses;
+		try {
+			responses = sendParameters(false, parameters);
+		} catch (TimeoutException e) {
+			throw e;
+		} catch (XBeeException e) {
+			logger.debug(toString() + "Could not read the parameters at once: {}", e.getMessage());
+			return values;
+		}
+		boolean answered = false;
+		for (int i = 0; i < parameters.length; i++) {
+			ATCommandResponse response = responses.get(i);
+			if (response == null)
+				continue;
+			answered = true;
+			if (response.getResponseStatus() == ATCommandStatus.OK 
+					&& response.getResponse() != null)
+				values.put(parameters[i], response.getResponse());
+		}
+		if (!answered && parameters.length > 0)
+			throw new TimeoutException();
+		return values;
+	}
+	
+	/**
+	 * Returns the value of the given parameter from the given map of values 
+	 * or, if it is not there, reads it from this XBee device without using 
+	 * the parameter cache.
+	 * 
+	 * @param values Map of values previously read.
+	 * @param parameter The name of the parameter to retrieve its value.
+	 * 
+	 * @return A byte array containing the value of the parameter.
+	 * 
+	 * @throws TimeoutException if there is a timeout getting the parameter value.
+	 * @throws XBeeException if {@code parameter} is not supported by the module or
+	 *                       if there is any other XBee related exception.
+	 * 
+	 * @see #getParameter(String)
+	 * @see #readParameters(String...)
+	 */
+	private byte[] getParameter(Map<String, byte[]> values, String parameter) throws TimeoutException, XBeeException {
+		byte[] value = values.get(parameter);
+		if (value != null)
+			return value;
+		return getParameter(parameter, false);
+	}
+	
 	/**
 	 * Executes the given command in this XBee device.
 	 * 
@@ -2010,7 +2907,12 @@ public abstract class AbstractXBeeDevice {
 	 * @see #setParameter(String, byte[])
 	 */
 	public void executeParameter(String parameter) throws TimeoutException, XBeeException {
-		sendParameter(parameter, null);
+		try {
+			sendParameter(parameter, null);
+		} finally {
+			// Commands may apply, write or restore any parameter.
+			invalidateParameterCache();
+		}
 	}
 	
 	/**
@@ -2035,12 +2937,7 @@ public abstract class AbstractXBeeDevice {
 	 * @see #setParameter(String, byte[])
 	 */
 	private byte[] sendParameter(String parameter, byte[] parameterValue) throws TimeoutException, XBeeException {
-		if (parameter == null)
-			throw new NullPointerException("Parameter cannot be null.");
-		if (parameter.length() != 2)
-			throw new IllegalArgumentException("Parameter must contain exactly 2 characters.");
-		
-		ATCommand atCommand = new ATCommand(parameter, parameterValue);
+		ATCommand atCommand = createParameterCommand(parameter, parameterValue);
 		
 		// Create and send the AT Command.
 		ATCommandResponse response = null;
@@ -2057,6 +2954,104 @@ public abstract class AbstractXBeeDevice {
 		return response.getResponse();
 	}
 	
+	/**
+	 * Sends the given AT parameters to this XBee device at once and returns 
+	 * the response of each of them.
+	 * 
+	 * <p>The values read from the device are stored in the parameter cache, 
+	 * if it is enabled, even if it is not used to answer them.</p>
+	 * 
+	 * @param useCache {@code true} to answer the parameters with the cached 
+	 *                 values, if any, {@code false} to always read them 
+	 *                 from the device.
+	 * @param parameters The names of the AT commands to be executed.
+	 * 
+	 * @return A list with the response of each parameter, {@code null} for 
+	 *         those that were not answered in time.
+	 * 
+	 * @throws IllegalArgumentException if the length of any parameter is not 2.
+	 * @throws NullPointerException if {@code parameters == null} or 
+	 *                              if any of the parameters is {@code null}.
+	 * @throws XBeeException if there is any XBee related exception.
+	 * 
+	 * @see #sendATCommands(List)
+	 */
+	private List<ATCommandResponse> sendParameters(boolean useCache, String... parameters) throws XBeeException {
+		if (parameters == null)
+			throw new NullPointerException("Parameters cannot be null.");
+		
+		ATParameterCache cache = parameterCache;
+		long generation = cache == null ? 0 : cache.getGeneration();
+		
+		// Take the cached values and send only the rest of parameters.
+		ATCommandResponse[] responses = new ATCommandResponse[parameters.length];
+		ArrayList<ATCommand> atCommands = new ArrayList<ATCommand>(parameters.length);
+		ArrayList<Integer> indexes = new ArrayList<Integer>(parameters.length);
+		for (int i = 0; i < parameters.length; i++) {
+			ATCommand atCommand = createParameterCommand(parameters[i], null);
+			byte[] cachedValue = cache == null || !useCache ? null : cache.get(parameters[i]);
+			if (cachedValue != null) {
+				responses[i] = new ATCommandResponse(atCommand, cachedValue, ATCommandStatus.OK);
+			} else {
+				atCommands.add(atCommand);
+				indexes.add(i);
+			}
+		}
+		if (atCommands.isEmpty())
+			return Arrays.asList(responses);
+		
+		List<ATCommandResponse> sent = sendATCommands(atCommands, "Error writing in the communication interface.");
+		for (int i = 0; i < indexes.size(); i++) {
+			ATCommandResponse response = sent.get(i);
+			responses[indexes.get(i)] = response;
+			if (cache != null && response != null && response.getResponseStatus() == ATCommandStatus.OK)
+				cache.put(parameters[indexes.get(i)], response.getResponse(), generation);
+		}
+		return Arrays.asList(responses);
+	}
+	
+	/**
+	 * Sends the given AT commands at once converting the I/O errors into 
+	 * {@code XBeeException}.
+	 * 
+	 * @param commands List of AT commands to be sent.
+	 * @param error Message of the exception thrown if there is an I/O error.
+	 * 
+	 * @return A list with the response of each command, {@code null} for 
+	 *         those that were not answered in time.
+	 * 
+	 * @throws XBeeException if there is any XBee related exception.
+	 * 
+	 * @see #sendATCommands(List)
+	 */
+	private List<ATCommandResponse> sendATCommands(List<ATCommand> commands, String error) throws XBeeException {
+		try {
+			return sendATCommands(commands);
+		} catch (IOException e) {
+			throw new XBeeException(error, e);
+		}
+	}
+	
+	/**
+	 * Creates the AT command for the given parameter and value.
+	 * 
+	 * @param parameter The name of the AT command.
+	 * @param parameterValue The value of the parameter to set (if any).
+	 * 
+	 * @return The AT command.
+	 * 
+	 * @throws IllegalArgumentException if {@code parameter.length() != 2}.
+	 * @throws NullPointerException if {@code parameter == null}.
+	 */
+	private ATCommand createParameterCommand(String parameter, byte[] parameterValue) {
+		if (parameter == null)
+			throw new NullPointerException("Parameter cannot be null.");
+		if (parameter.length() != 2)
+			throw new IllegalArgumentException("Parameter must contain exactly 2 characters.");
+		
+		return new ATCommand(parameter, parameterValue);
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see java.lang.Object#toString()
@@ -2107,6 +3102,68 @@ public abstract class AbstractXBeeDevice {
 		return applyConfigurationChanges;
 	}
 	
+	/**
+	 * Enables the cache of the AT parameter values of this device.
+	 * 
+	 * <p>While enabled, the values read with {@link #getParameter(String)} 
+	 * are kept for the given time to live, so reading them again does not 
+	 * send any AT command to the device. The cached value of a parameter is 
+	 * discarded when it is set, and all the values are discarded when any 
+	 * command is executed or the device is reset.</p>
+	 * 
+	 * <p>If the cache was already enabled, it is replaced by an empty one.</p>
+	 * 
+	 * @param timeToLive Time to live of the cached values in milliseconds.
+	 * 
+	 * @return The parameter cache, to configure the time to live of each 
+	 *         parameter and get its metrics.
+	 * 
+	 * @throws IllegalArgumentException if {@code timeToLive <= 0}.
+	 * 
+	 * @see #disableParameterCache()
+	 * @see #getParameterCache()
+	 * @see ATParameterCache
+	 */
+	public ATParameterCache enableParameterCache(long timeToLive) {
+		ATParameterCache cache = new ATParameterCache(timeToLive);
+		parameterCache = cache;
+		return cache;
+	}
+	
+	/**
+	 * Disables the cache of the AT parameter values of this device, so all 
+	 * the parameters are read from the device again.
+	 * 
+	 * @see #enableParameterCache(long)
+	 */
+	public void disableParameterCache() {
+		parameterCache = null;
+	}
+	
+	/**
+	 * Returns the cache of the AT parameter values of this device.
+	 * 
+	 * @return The parameter cache, {@code null} if it is not enabled.
+	 * 
+	 * @see #enableParameterCache(long)
+	 * @see ATParameterCache
+	 */
+	public ATParameterCache getParameterCache() {
+		return parameterCache;
+	}
+	
+	/**
+	 * Discards all the values of the parameter cache of this device, if it 
+	 * is enabled.
+	 * 
+	 * @see #enableParameterCache(long)
+	 */
+	protected void invalidateParameterCache() {
+		ATParameterCache cache = parameterCache;
+		if (cache != null)
+			cache.invalidateAll();
+	}
+	
 	/**
 	 * Configures the 16-bit address (network address) of this XBee device with 
 	 * the provided one.
@@ -0,0 +1,342 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.digi.xbee.api.connection.IConnectionInterface;
+import com.digi.xbee.api.connection.serial.AbstractSerialPort;
+import com.digi.xbee.api.models.HardwareVersion;
+import com.digi.xbee.api.models.OperatingMode;
+import com.digi.xbee.api.models.XBee64BitAddress;
+import com.digi.xbee.api.models.XBeeProtocol;
+
+/**
+ * This class stores the last known identity of the local XBee devices, 
+ * keyed by the port they are connected to, so they can be opened without 
+ * waiting for their information to be read.
+ * 
+ * <p>The identity of a device consists of its operating mode, 64-bit 
+ * address, hardware version, firmware version and protocol. The cache can 
+ * be kept in memory or persisted in a properties file, which is rewritten 
+ * every time an identity changes.</p>
+ * 
+ * @see XBeeDevice#openAsync(DeviceIdentityCache)
+ */
+public class DeviceIdentityCache {
+	
+	// Constants.
+	private static final String PROPERTY_MODE = ".mode";
+	private static final String PROPERTY_ADDRESS = ".address";
+	private static final String PROPERTY_HARDWARE = ".hardware";
+	private static final String PROPERTY_FIRMWARE = ".firmware";
+	private static final String PROPERTY_PROTOCOL = ".protocol";
+	
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final String FILE_COMMENT = "XBee device identities";
+	
+	// Variables.
+	private final File file;
+	
+	private final Map<String, Identity> identities = new HashMap<String, Identity>();
+	
+	private Logger logger;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code DeviceIdentityCache} kept 
+	 * only in memory.
+	 * 
+	 * @see #DeviceIdentityCache(File)
+	 */
+	public DeviceIdentityCache() {
+		this.file = null;
+		this.logger = LoggerFactory.getLogger(DeviceIdentityCache.class);
+	}
+	
+	/**
+	 * Class constructor. Instantiates a new {@code DeviceIdentityCache} 
+	 * persisted in the given file, loading the identities it contains if it 
+	 * exists.
+	 * 
+	 * @param file The properties file to store the identities.
+	 * 
+	 * @throws IOException if the file exists but cannot be read.
+	 * @throws NullPointerException if {@code file == null}.
+	 * 
+	 * @see #DeviceIdentityCache()
+	 */
+	public DeviceIdentityCache(File file) throws IOException {
+		if (file == null)
+			throw new NullPointerException("File cannot be null.");
+		
+		this.file = file;
+		this.logger = LoggerFactory.getLogger(DeviceIdentityCache.class);
+		
+		if (file.exists())
+			load();
+	}
+	
+	/**
+	 * Loads the identities stored in the file, ignoring the invalid ones.
+	 * 
+	 * @throws IOException if the file cannot be read.
+	 */
+	private void load() throws IOException {
+		Properties properties = new Properties();
+		FileInputStream input = new FileInputStream(file);
+		try {
+			properties.load(input);
+		} finally {
+			input.close();
+		}
+		
+		for (String name : properties.stringPropertyNames()) {
+			if (!name.endsWith(PROPERTY_MODE))
+				continue;
+			String port = name.substring(0, name.length() - PROPERTY_MODE.length());
+			try {
+				Identity identity = new Identity(
+						OperatingMode.valueOf(properties.getProperty(port + PROPERTY_MODE)), 
+						new XBee64BitAddress(properties.getProperty(port + PROPERTY_ADDRESS)), 
+						HardwareVersion.get(Integer.parseInt(properties.getProperty(port + PROPERTY_HARDWARE), 16)), 
+						properties.getProperty(port + PROPERTY_FIRMWARE), 
+						XBeeProtocol.valueOf(properties.getProperty(port + PROPERTY_PROTOCOL)));
+				if (identity.firmwareVersion != null)
+					identities.put(port, identity);
+			} catch (RuntimeException e) {
+				logger.warn("Ignoring the invalid identity of port {}: {}", port, e.toString());
+			}
+		}
+	}
+	
+	/**
+	 * Saves all the identities in the file, if any. The file is written 
+	 * first with a temporary name so a failure does not corrupt it.
+	 * 
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void save() throws IOException {
+		if (file == null)
+			return;
+		
+		Properties properties = new Properties();
+		for (Map.Entry<String, Identity> entry : identities.entrySet()) {
+			String port = entry.getKey();
+			Identity identity = entry.getValue();
+			properties.setProperty(port + PROPERTY_MODE, identity.operatingMode.name());
+			properties.setProperty(port + PROPERTY_ADDRESS, identity.address64.toString());
+			properties.setProperty(port + PROPERTY_HARDWARE, Integer.toHexString(identity.hardwareVersion.getValue()));
+			properties.setProperty(port + PROPERTY_FIRMWARE, identity.firmwareVersion);
+			properties.setProperty(port + PROPERTY_PROTOCOL, identity.protocol.name());
+		}
+		
+		File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+		FileOutputStream output = new FileOutputStream(tempFile);
+		try {
+			properties.store(output, FILE_COMMENT);
+		} finally {
+			output.close();
+		}
+		if (!tempFile.renameTo(file)) {
+			// Some platforms cannot rename over an existing file.
+			file.delete();
+			if (!tempFile.renameTo(file))
+				throw new IOException("Could not replace the identity cache file: " + file.getPath() + ".");
+		}
+	}
+	
+	/**
+	 * Returns the key of the given connection interface: the port name for 
+	 * serial ports or the description of the interface otherwise.
+	 * 
+	 * @param connectionInterface The connection interface.
+	 * 
+	 * @return The key of the connection interface.
+	 */
+	static String getKey(IConnectionInterface connectionInterface) {
+		if (connectionInterface instanceof AbstractSerialPort)
+			return ((AbstractSerialPort)connectionInterface).getPort();
+		return connectionInterface.toString();
+	}
+	
+	/**
+	 * Returns the identity of the device connected to the given port.
+	 * 
+	 * @param port The port the device is connected to.
+	 * 
+	 * @return The identity of the device, {@code null} if it is unknown.
+	 */
+	synchronized Identity get(String port) {
+		return identities.get(port);
+	}
+	
+	/**
+	 * Stores the identity of the given local device, persisting it if it 
+	 * changed. Devices whose identity is not completely known are ignored.
+	 * 
+	 * @param port The port the device is connected to.
+	 * @param device The local XBee device.
+	 */
+	synchronized void put(String port, XBeeDevice device) {
+		OperatingMode operatingMode = device.getOperatingMode();
+		if ((operatingMode != OperatingMode.API && operatingMode != OperatingMode.API_ESCAPE) 
+				|| device.get64BitAddress() == null 
+				|| device.get64BitAddress().equals(XBee64BitAddress.UNKNOWN_ADDRESS) 
+				|| device.getHardwareVersion() == null 
+				|| device.getFirmwareVersion() == null)
+			return;
+		
+		Identity identity = new Identity(operatingMode, device.get64BitAddress(), 
+				device.getHardwareVersion(), device.getFirmwareVersion(), device.getXBeeProtocol());
+		if (identity.equals(identities.put(port, identity)))
+			return;
+		try {
+			save();
+		} catch (IOException e) {
+			logger.warn("Could not save the identity cache: {}", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Returns whether the identity of the device connected to the given 
+	 * port is known.
+	 * 
+	 * @param port The port the device is connected to.
+	 * 
+	 * @return {@code true} if the identity is known, {@code false} 
+	 *         otherwise.
+	 */
+	public synchronized boolean contains(String port) {
+		return identities.containsKey(port);
+	}
+	
+	/**
+	 * Forgets the identity of the device connected to the given port, for 
+	 * example after replacing the device.
+	 * 
+	 * @param port The port the device is connected to.
+	 * 
+	 * @throws IOException if the cache file cannot be written.
+	 * 
+	 * @see #clear()
+	 */
+	public synchronized void remove(String port) throws IOException {
+		if (identities.remove(port) != null)
+			save();
+	}
+	
+	/**
+	 * Forgets the identities of all the devices.
+	 * 
+	 * @throws IOException if the cache file cannot be written.
+	 * 
+	 * @see #remove(String)
+	 */
+	public synchronized void clear() throws IOException {
+		identities.clear();
+		save();
+	}
+	
+	/**
+	 * Returns the number of known identities.
+	 * 
+	 * @return The number of known identities.
+	 */
+	public synchronized int size() {
+		return identities.size();
+	}
+	
+	/**
+	 * Returns the file where the identities are persisted.
+	 * 
+	 * @return The cache file, {@code null} if the cache is kept only in 
+	 *         memory.
+	 */
+	public File getFile() {
+		return file;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString() {
+		return getClass().getSimpleName() + " [file=" + file + ", identities=" + identities.keySet() + "]";
+	}
+	
+	/**
+	 * Last known identity of a local XBee device.
+	 */
+	static class Identity {
+		
+		// Variables.
+		final OperatingMode operatingMode;
+		final XBee64BitAddress address64;
+		final HardwareVersion hardwareVersion;
+		final String firmwareVersion;
+		final XBeeProtocol protocol;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Identity} with the 
+		 * given parameters.
+		 * 
+		 * @param operatingMode The operating mode of the device.
+		 * @param address64 The 64-bit address of the device.
+		 * @param hardwareVersion The hardware version of the device.
+		 * @param firmwareVersion The firmware version of the device.
+		 * @param protocol The protocol of the device.
+		 */
+		Identity(OperatingMode operatingMode, XBee64BitAddress address64, HardwareVersion hardwareVersion, 
+				String firmwareVersion, XBeeProtocol protocol) {
+			this.operatingMode = operatingMode;
+			this.address64 = address64;
+			this.hardwareVersion = hardwareVersion;
+			this.firmwareVersion = firmwareVersion;
+			this.protocol = protocol;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Identity))
+				return false;
+			Identity identity = (Identity)obj;
+			return operatingMode == identity.operatingMode 
+					&& address64.equals(identity.address64) 
+					&& hardwareVersion.equals(identity.hardwareVersion) 
+					&& firmwareVersion.equals(identity.firmwareVersion) 
+					&& protocol == identity.protocol;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return address64.hashCode() * 31 + firmwareVersion.hashCode();
+		}
+	}
+}
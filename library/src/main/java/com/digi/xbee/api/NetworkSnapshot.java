@@ -0,0 +1,626 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.digi.xbee.api.models.HardwareVersion;
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+import com.digi.xbee.api.models.XBeeProtocol;
+
+/**
+ * Helper class that stores the devices of an XBee network in an append-only 
+ * snapshot file mapped in memory.
+ * 
+ * <p>The snapshot starts with a 16 byte header (magic number and version). 
+ * Every change of a device of the network is appended as a new record, so 
+ * the last record of a device is the one that counts. Each record is written 
+ * as follows:</p>
+ * 
+ * <pre>
+ * {@code 
+ * +--------+--------+---------+-------------+
+ * | Commit |  Type  | Length  |   Payload   |
+ * | 1 byte | 1 byte | 2 bytes | Length bytes|
+ * +--------+--------+---------+-------------+
+ * }
+ * </pre>
+ * 
+ * <p>The payload of a device record contains the 64-bit address (8 bytes), 
+ * the 16-bit address (2 bytes), the protocol ID (1 byte), the hardware 
+ * version (2 bytes), the last seen time (8 bytes) and the firmware version 
+ * and node identifier, each of them preceded by its length (1 byte). The 
+ * payload of a removal record contains the key of the removed device (8 
+ * bytes).</p>
+ * 
+ * <p>The commit byte is written after the rest of the record, so a record 
+ * that was not completely written before a crash is ignored when the 
+ * snapshot is loaded. When the file is full, the current devices are copied 
+ * to a new file that replaces the old one.</p>
+ * 
+ * @see XBeeNetwork
+ */
+class NetworkSnapshot {
+	
+	// Constants.
+	private static final int MAGIC = 0x58424E53; // "XBNS"
+	private static final int VERSION = 1;
+	
+	private static final int FILE_HEADER_SIZE = 16;
+	private static final int RECORD_HEADER_SIZE = 4;
+	private static final int DEVICE_PAYLOAD_SIZE = 23;
+	private static final int REMOVE_PAYLOAD_SIZE = 8;
+	
+	private static final byte RECORD_COMMITTED = (byte)0xA5;
+	
+	private static final byte TYPE_DEVICE = 1;
+	private static final byte TYPE_REMOVE = 2;
+	private static final byte TYPE_CLEAR = 3;
+	
+	private static final int NULL_STRING = 0xFF;
+	private static final int NO_HARDWARE_VERSION = 0xFFFF;
+	
+	// Last seen times closer than this are not worth a new record.
+	private static final long LAST_SEEN_RESOLUTION = 60000;
+	
+	private static final String COMPACT_SUFFIX = ".tmp";
+	private static final String CHARSET = "UTF-8";
+	
+	/**
+	 * Default size in bytes of the snapshot file (value: {@value}).
+	 */
+	static final int DEFAULT_CAPACITY = 256 * 1024;
+	
+	// Variables.
+	private final File file;
+	
+	private final int capacity;
+	
+	private final Map<Long, Record> records = new LinkedHashMap<Long, Record>();
+	
+	private RandomAccessFile randomAccessFile;
+	private MappedByteBuffer buffer;
+	
+	private int position;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code NetworkSnapshot} object 
+	 * that uses the given file, creating it if it does not exist.
+	 * 
+	 * @param file The snapshot file.
+	 * @param capacity The size in bytes of the snapshot file. If the file 
+	 *                 already exists and it is bigger, its size is used.
+	 * 
+	 * @throws IOException if the file cannot be opened or mapped or 
+	 *                     if it is not a valid snapshot file.
+	 */
+	NetworkSnapshot(File file, int capacity) throws IOException {
+		this.file = file;
+		this.capacity = Math.max(capacity, (int)Math.min(file.length(), Integer.MAX_VALUE));
+		map();
+	}
+	
+	/**
+	 * Maps the snapshot file in memory, writing the file header if the file 
+	 * is new.
+	 * 
+	 * @throws IOException if the file cannot be opened or mapped or 
+	 *                     if it is not a valid snapshot file.
+	 */
+	private void map() throws IOException {
+		randomAccessFile = new RandomAccessFile(file, "rw");
+		buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		
+		int magic = buffer.getInt(0);
+		if (magic == 0) {
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+		} else if (magic != MAGIC || buffer.getInt(4) != VERSION) {
+			randomAccessFile.close();
+			throw new IOException("Invalid network snapshot file: " + file.getPath() + ".");
+		}
+		position = FILE_HEADER_SIZE;
+	}
+	
+	/**
+	 * Reads all the records of the snapshot and returns the devices it 
+	 * contains, in the same order they were first stored.
+	 * 
+	 * @return The list of stored devices.
+	 */
+	synchronized List<Record> load() {
+		records.clear();
+		int pos = FILE_HEADER_SIZE;
+		while (pos + RECORD_HEADER_SIZE <= capacity && buffer.get(pos) == RECORD_COMMITTED) {
+			int length = buffer.getShort(pos + 2) & 0xFFFF;
+			if (pos + RECORD_HEADER_SIZE + length > capacity)
+				break;
+			int payload = pos + RECORD_HEADER_SIZE;
+			switch (buffer.get(pos + 1)) {
+			case TYPE_DEVICE:
+				Record record = readRecord(payload);
+				records.put(record.getKey(), record);
+				break;
+			case TYPE_REMOVE:
+				records.remove(buffer.getLong(payload));
+				break;
+			case TYPE_CLEAR:
+				records.clear();
+				break;
+			default:
+				break;
+			}
+			pos += RECORD_HEADER_SIZE + length;
+		}
+		position = pos;
+		return new ArrayList<Record>(records.values());
+	}
+	
+	/**
+	 * Appends a record with the current data of the given device if it 
+	 * changed since it was last stored.
+	 * 
+	 * @param device The remote device that changed.
+	 * 
+	 * @throws IOException if the record does not fit in the snapshot even 
+	 *                     after compacting it or if there is any error 
+	 *                     compacting it.
+	 */
+	synchronized void deviceChanged(RemoteXBeeDevice device) throws IOException {
+		Record record = new Record(device);
+		Long key = record.getKey();
+		Record previous = records.get(key);
+		if (previous != null && previous.isSameAs(record))
+			return;
+		
+		// A device that was only known by its 16-bit address may have 
+		// obtained its 64-bit address.
+		if (record.addr64 != XBee64BitAddress.UNKNOWN_ADDRESS.toLong() 
+				&& record.addr16 != XBee16BitAddress.UNKNOWN_ADDRESS.toInt()) {
+			Long key16 = Long.valueOf(~(long)record.addr16);
+			if (records.containsKey(key16))
+				deviceRemoved(key16);
+		}
+		
+		byte[] payload = record.toPayload();
+		ensureSpace(payload.length);
+		writeRecord(TYPE_DEVICE, payload);
+		records.put(key, record);
+	}
+	
+	/**
+	 * Appends a record to remove the given device from the snapshot.
+	 * 
+	 * @param device The remote device removed from the network.
+	 * 
+	 * @throws IOException if the record does not fit in the snapshot even 
+	 *                     after compacting it or if there is any error 
+	 *                     compacting it.
+	 */
+	synchronized void deviceRemoved(RemoteXBeeDevice device) throws IOException {
+		Long key = new Record(device).getKey();
+		if (records.containsKey(key))
+			deviceRemoved(key);
+	}
+	
+	/**
+	 * Appends a record to remove all the devices from the snapshot.
+	 * 
+	 * @throws IOException if there is any error compacting the snapshot.
+	 */
+	synchronized void clear() throws IOException {
+		records.clear();
+		ensureSpace(0);
+		writeRecord(TYPE_CLEAR, new byte[0]);
+	}
+	
+	/**
+	 * Forces the changes of the snapshot to be written to the storage device.
+	 */
+	synchronized void flush() {
+		buffer.force();
+	}
+	
+	/**
+	 * Flushes and closes the snapshot file.
+	 * 
+	 * @throws IOException if there is any error closing the file.
+	 */
+	synchronized void close() throws IOException {
+		buffer.force();
+		randomAccessFile.close();
+	}
+	
+	/**
+	 * Appends a record to remove the device with the given key.
+	 * 
+	 * @param key The key of the device to remove.
+	 * 
+	 * @throws IOException if there is any error compacting the snapshot.
+	 */
+	private void deviceRemoved(Long key) throws IOException {
+		records.remove(key);
+		byte[] payload = new byte[REMOVE_PAYLOAD_SIZE];
+		long value = key.longValue();
+		for (int i = 0; i < payload.length; i++)
+			payload[i] = (byte)(value >>> (56 - 8 * i));
+		ensureSpace(payload.length);
+		writeRecord(TYPE_REMOVE, payload);
+	}
+	
+	/**
+	 * Compacts the snapshot if a record with the given payload length does 
+	 * not fit in it.
+	 * 
+	 * @param length The length of the payload of the record to append.
+	 * 
+	 * @throws IOException if the record does not fit in the snapshot even 
+	 *                     after compacting it or if there is any error 
+	 *                     compacting it.
+	 */
+	private void ensureSpace(int length) throws IOException {
+		if (position + RECORD_HEADER_SIZE + length <= capacity)
+			return;
+		compact();
+		if (position + RECORD_HEADER_SIZE + length > capacity)
+			throw new IOException("Network snapshot is full.");
+	}
+	
+	/**
+	 * Rewrites the snapshot keeping only the last record of every device.
+	 * 
+	 * <p>The records are written to a temporary file that replaces the 
+	 * snapshot once it has been completely written, so the snapshot is never 
+	 * left half compacted.</p>
+	 * 
+	 * @throws IOException if there is any error writing the new snapshot.
+	 */
+	private void compact() throws IOException {
+		File tmpFile = new File(file.getPath() + COMPACT_SUFFIX);
+		if (tmpFile.exists() && !tmpFile.delete())
+			throw new IOException("Could not delete " + tmpFile.getPath() + ".");
+		
+		// Write the current records in the temporary file.
+		MappedByteBuffer oldBuffer = buffer;
+		MappedByteBuffer tmpBuffer;
+		int size;
+		RandomAccessFile tmpRandomAccessFile = new RandomAccessFile(tmpFile, "rw");
+		try {
+			tmpBuffer = tmpRandomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			tmpBuffer.putInt(0, MAGIC);
+			tmpBuffer.putInt(4, VERSION);
+			buffer = tmpBuffer;
+			position = FILE_HEADER_SIZE;
+			for (Record record:records.values()) {
+				byte[] payload = record.toPayload();
+				if (position + RECORD_HEADER_SIZE + payload.length > capacity)
+					throw new IOException("Network snapshot is full.");
+				writeRecord(TYPE_DEVICE, payload);
+			}
+			size = position;
+			tmpBuffer.force();
+		} finally {
+			buffer = oldBuffer;
+			tmpRandomAccessFile.close();
+		}
+		
+		// Replace the snapshot with the temporary file.
+		randomAccessFile.close();
+		if (tmpFile.renameTo(file))
+			map();
+		else {
+			// Some platforms do not allow replacing a mapped file, copy the 
+			// new contents over the old snapshot instead.
+			map();
+			for (int i = 0; i < capacity; i++)
+				buffer.put(i, i < size ? tmpBuffer.get(i) : 0);
+			buffer.force();
+			tmpFile.delete();
+		}
+		position = size;
+	}
+	
+	/**
+	 * Writes a record with the given type and payload at the current 
+	 * position, leaving the commit byte for the end.
+	 * 
+	 * @param type The type of the record.
+	 * @param payload The payload of the record.
+	 */
+	private void writeRecord(byte type, byte[] payload) {
+		int pos = position;
+		buffer.put(pos, (byte)0);
+		buffer.put(pos + 1, type);
+		buffer.putShort(pos + 2, (short)payload.length);
+		for (int i = 0; i < payload.length; i++)
+			buffer.put(pos + RECORD_HEADER_SIZE + i, payload[i]);
+		// Clear the commit byte of the next record.
+		int next = pos + RECORD_HEADER_SIZE + payload.length;
+		if (next < capacity)
+			buffer.put(next, (byte)0);
+		buffer.put(pos, RECORD_COMMITTED);
+		position = next;
+	}
+	
+	/**
+	 * Reads the device record whose payload starts at the given position.
+	 * 
+	 * @param pos Position of the first byte of the payload.
+	 * 
+	 * @return The read record.
+	 */
+	private Record readRecord(int pos) {
+		Record record = new Record();
+		record.addr64 = buffer.getLong(pos);
+		record.addr16 = buffer.getShort(pos + 8) & 0xFFFF;
+		record.protocol = buffer.get(pos + 10) & 0xFF;
+		record.hardwareVersion = buffer.getShort(pos + 11) & 0xFFFF;
+		record.lastSeen = buffer.getLong(pos + 13);
+		pos += DEVICE_PAYLOAD_SIZE - 2;
+		record.firmwareVersion = readString(pos);
+		pos += 1 + (record.firmwareVersion == null ? 0 : buffer.get(pos) & 0xFF);
+		record.nodeID = readString(pos);
+		return record;
+	}
+	
+	/**
+	 * Reads the string, preceded by its length, stored at the given position.
+	 * 
+	 * @param pos Position of the length of the string.
+	 * 
+	 * @return The read string, {@code null} if it was stored as 
+	 *         {@code null}.
+	 */
+	private String readString(int pos) {
+		int length = buffer.get(pos) & 0xFF;
+		if (length == NULL_STRING)
+			return null;
+		byte[] value = new byte[length];
+		for (int i = 0; i < length; i++)
+			value[i] = buffer.get(pos + 1 + i);
+		try {
+			return new String(value, CHARSET);
+		} catch (UnsupportedEncodingException e) {
+			return new String(value);
+		}
+	}
+	
+	/**
+	 * This class represents the stored data of a remote device.
+	 */
+	static class Record {
+		
+		// Variables.
+		private long addr64;
+		private int addr16;
+		private int protocol;
+		private int hardwareVersion;
+		
+		private long lastSeen;
+		
+		private String firmwareVersion;
+		private String nodeID;
+		
+		/**
+		 * Class constructor. Instantiates a new empty {@code Record}.
+		 */
+		private Record() {
+		}
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Record} with the 
+		 * current data of the given device.
+		 * 
+		 * @param device The remote device.
+		 */
+		private Record(RemoteXBeeDevice device) {
+			XBee64BitAddress address64 = device.get64BitAddress();
+			XBee16BitAddress address16 = device.get16BitAddress();
+			HardwareVersion hwVersion = device.getHardwareVersion();
+			addr64 = (address64 == null ? XBee64BitAddress.UNKNOWN_ADDRESS : address64).toLong();
+			addr16 = (address16 == null ? XBee16BitAddress.UNKNOWN_ADDRESS : address16).toInt();
+			protocol = device.getXBeeProtocol().getID() & 0xFF;
+			hardwareVersion = hwVersion == null ? NO_HARDWARE_VERSION : hwVersion.getValue() & 0xFFFF;
+			lastSeen = device.getLastSeen();
+			firmwareVersion = device.getFirmwareVersion();
+			nodeID = device.getNodeID();
+		}
+		
+		/**
+		 * Returns the key that identifies the device of this record: its 
+		 * 64-bit address or, if it is unknown, the complement of its 16-bit 
+		 * address.
+		 * 
+		 * @return The key of the device.
+		 */
+		private Long getKey() {
+			if (addr64 != XBee64BitAddress.UNKNOWN_ADDRESS.toLong())
+				return Long.valueOf(addr64);
+			return Long.valueOf(~(long)addr16);
+		}
+		
+		/**
+		 * Returns whether this record contains the same data as the given one 
+		 * and the last seen times are close enough.
+		 * 
+		 * @param record The record to compare with.
+		 * 
+		 * @return {@code true} if there is no need to store the given record, 
+		 *         {@code false} otherwise.
+		 */
+		private boolean isSameAs(Record record) {
+			return addr64 == record.addr64 
+					&& addr16 == record.addr16 
+					&& protocol == record.protocol 
+					&& hardwareVersion == record.hardwareVersion 
+					&& Math.abs(lastSeen - record.lastSeen) < LAST_SEEN_RESOLUTION 
+					&& isEqual(firmwareVersion, record.firmwareVersion) 
+					&& isEqual(nodeID, record.nodeID);
+		}
+		
+		/**
+		 * Returns the payload of the record.
+		 * 
+		 * @return The payload of the record.
+		 */
+		private byte[] toPayload() {
+			byte[] fw = toBytes(firmwareVersion);
+			byte[] ni = toBytes(nodeID);
+			byte[] payload = new byte[DEVICE_PAYLOAD_SIZE + (fw == null ? 0 : fw.length) + (ni == null ? 0 : ni.length)];
+			for (int i = 0; i < 8; i++)
+				payload[i] = (byte)(addr64 >>> (56 - 8 * i));
+			payload[8] = (byte)(addr16 >>> 8);
+			payload[9] = (byte)addr16;
+			payload[10] = (byte)protocol;
+			payload[11] = (byte)(hardwareVersion >>> 8);
+			payload[12] = (byte)hardwareVersion;
+			for (int i = 0; i < 8; i++)
+				payload[13 + i] = (byte)(lastSeen >>> (56 - 8 * i));
+			int pos = writeBytes(payload, DEVICE_PAYLOAD_SIZE - 2, fw);
+			writeBytes(payload, pos, ni);
+			return payload;
+		}
+		
+		/**
+		 * Returns the 64-bit address of the device.
+		 * 
+		 * @return The 64-bit address.
+		 */
+		XBee64BitAddress get64BitAddress() {
+			return XBee64BitAddress.fromLong(addr64);
+		}
+		
+		/**
+		 * Returns the 16-bit address of the device.
+		 * 
+		 * @return The 16-bit address.
+		 */
+		XBee16BitAddress get16BitAddress() {
+			return XBee16BitAddress.fromInt(addr16);
+		}
+		
+		/**
+		 * Returns the protocol of the device.
+		 * 
+		 * @return The protocol.
+		 */
+		XBeeProtocol getProtocol() {
+			return XBeeProtocol.get(protocol);
+		}
+		
+		/**
+		 * Returns the hardware version of the device.
+		 * 
+		 * @return The hardware version, {@code null} if it is unknown.
+		 */
+		HardwareVersion getHardwareVersion() {
+			if (hardwareVersion == NO_HARDWARE_VERSION)
+				return null;
+			return HardwareVersion.get(hardwareVersion);
+		}
+		
+		/**
+		 * Returns the firmware version of the device.
+		 * 
+		 * @return The firmware version, {@code null} if it is unknown.
+		 */
+		String getFirmwareVersion() {
+			return firmwareVersion;
+		}
+		
+		/**
+		 * Returns the node identifier of the device.
+		 * 
+		 * @return The node identifier, {@code null} if it is unknown.
+		 */
+		String getNodeID() {
+			return nodeID;
+		}
+		
+		/**
+		 * Returns the last time the device was seen.
+		 * 
+		 * @return The last seen time in milliseconds.
+		 */
+		long getLastSeen() {
+			return lastSeen;
+		}
+		
+		/**
+		 * Returns the given string encoded in UTF-8, truncated to the maximum 
+		 * length that can be stored.
+		 * 
+		 * @param value The string to encode.
+		 * 
+		 * @return The encoded string, {@code null} if {@code value == null}.
+		 */
+		private static byte[] toBytes(String value) {
+			if (value == null)
+				return null;
+			byte[] bytes;
+			try {
+				bytes = value.getBytes(CHARSET);
+			} catch (UnsupportedEncodingException e) {
+				bytes = value.getBytes();
+			}
+			if (bytes.length >= NULL_STRING) {
+				byte[] truncated = new byte[NULL_STRING - 1];
+				System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+				bytes = truncated;
+			}
+			return bytes;
+		}
+		
+		/**
+		 * Writes the given bytes preceded by their length.
+		 * 
+		 * @param payload The payload to write the bytes in.
+		 * @param pos The position to write the length at.
+		 * @param value The bytes to write, {@code null} to write a 
+		 *              {@code null} string.
+		 * 
+		 * @return The position after the written bytes.
+		 */
+		private static int writeBytes(byte[] payload, int pos, byte[] value) {
+			if (value == null) {
+				payload[pos] = (byte)NULL_STRING;
+				return pos + 1;
+			}
+			payload[pos] = (byte)value.length;
+			System.arraycopy(value, 0, payload, pos + 1, value.length);
+			return pos + 1 + value.length;
+		}
+		
+		/**
+		 * Returns whether the given strings are equal.
+		 * 
+		 * @param a The first string.
+		 * @param b The second string.
+		 * 
+		 * @return {@code true} if both are {@code null} or equal, 
+		 *         {@code false} otherwise.
+		 */
+		private static boolean isEqual(String a, String b) {
+			return a == null ? b == null : a.equals(b);
+		}
+	}
+}
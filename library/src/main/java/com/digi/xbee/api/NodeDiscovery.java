@@ -13,12 +13,24 @@ package com.digi.xbee.api;
 
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.digi.xbee.api.exceptions.InterfaceNotOpenException;
+import com.digi.xbee.api.exceptions.TimeoutException;
 import com.digi.xbee.api.exceptions.XBeeException;
 import com.digi.xbee.api.listeners.IDiscoveryListener;
 import com.digi.xbee.api.listeners.IPacketReceiveListener;
@@ -55,12 +67,25 @@ class NodeDiscovery {
 	// Variables.
 	private static int globalFrameID = 1;
 	
+	// Threads shared by all the discovery processes, created on demand and 
+	// reused between consecutive discoveries.
+	private static final ExecutorService DISCOVERY_EXECUTOR = Executors.newCachedThreadPool(
+			new DiscoveryThreadFactory("NodeDiscovery"));
+	private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+			new DiscoveryThreadFactory("NodeDiscoveryTimeout"));
+	
 	private XBeeDevice xbeeDevice;
 	
 	private List<RemoteXBeeDevice> deviceList;
 	
-	private boolean discovering = false;
-	private boolean running = false;
+	private volatile boolean discovering = false;
+	private volatile boolean running = false;
+	
+	// Released when the current discovery finishes.
+	private volatile CountDownLatch discoveryLatch;
+	
+	// Identifiers still pending in an early-terminating discovery.
+	private volatile NodeIDSearch nodeIDSearch;
 	
 	private int frameID;
 	
@@ -131,11 +156,12 @@ class NodeDiscovery {
 	}
 	
 	/**
-	 * Discovers and reports all remote XBee devices that match the supplied 
+	 * Discovers and reports the remote XBee devices that match the supplied 
 	 * identifiers.
 	 * 
-	 * <p>This method blocks until the configured timeout in the device (NT) 
-	 * expires.</p>
+	 * <p>This method blocks until all the identifiers have responded or the 
+	 * configured timeout in the device (NT) expires. Only the first device 
+	 * found for each identifier is reported.</p>
 	 * 
 	 * @param ids List which contains the identifiers of the devices to be 
 	 *            discovered.
@@ -147,39 +173,65 @@ class NodeDiscovery {
 	 * @throws XBeeException if there is an error discovering the devices.
 	 * 
 	 * @see #discoverDevice(String)
+	 * @see #discoverDevices(List, IDiscoveryListener)
 	 */
 	public List<RemoteXBeeDevice> discoverDevices(List<String> ids) throws XBeeException {
+		return discoverDevices(ids, null);
+	}
+	
+	/**
+	 * Discovers the remote XBee devices that match the supplied identifiers, 
+	 * finishing as soon as a device has been found for every identifier.
+	 * 
+	 * <p>This method blocks until all the identifiers have responded or the 
+	 * configured timeout in the device (NT) expires. Only the first device 
+	 * found for each identifier is reported.</p>
+	 * 
+	 * <p>Each device is added to the network and reported to the given 
+	 * listener as soon as it is found, from the thread that receives the 
+	 * discovery responses.</p>
+	 * 
+	 * @param ids List which contains the identifiers of the devices to be 
+	 *            discovered.
+	 * @param listener Discovery listener to be notified about every found 
+	 *                 device and when the discovery finishes, {@code null} 
+	 *                 to not be notified.
+	 * 
+	 * @return A list of the discovered remote XBee devices with the given 
+	 *         identifiers.
+	 * 
+	 * @throws InterfaceNotOpenException if the device is not open.
+	 * @throws XBeeException if there is an error discovering the devices.
+	 * 
+	 * @see #discoverDevices(List)
+	 */
+	public List<RemoteXBeeDevice> discoverDevices(List<String> ids, IDiscoveryListener listener) throws XBeeException {
 		// Check if the connection is open.
 		if (!xbeeDevice.isOpen())
 			throw new InterfaceNotOpenException();
 		
-		logger.debug("{}ND for all {} devices.", xbeeDevice.toString(), ids.toString());
+		logger.debug("{}ND until all {} devices are found.", xbeeDevice.toString(), ids.toString());
+		
+		NodeIDSearch search = new NodeIDSearch(ids, listener);
 		
 		running = true;
 		discovering = true;
+		nodeIDSearch = search;
 		
-		performNodeDiscovery(null, null);
-		
-		List<RemoteXBeeDevice> foundDevices = new ArrayList<RemoteXBeeDevice>(0);
-		if (deviceList == null)
-			return foundDevices;
-		
-		XBeeNetwork network = xbeeDevice.getNetwork();
-		
-		for (RemoteXBeeDevice d: deviceList) {
-			String nID = d.getNodeID();
-			if (nID == null)
-				continue;
-			for (String id : ids) {
-				if (nID.equals(id)) {
-					RemoteXBeeDevice rDevice = network.addRemoteDevice(d);
-					if (rDevice != null && !foundDevices.contains(rDevice))
-						foundDevices.add(rDevice);
-				}
-			}
+		try {
+			performNodeDiscovery(null, null);
+		} catch (XBeeException e) {
+			if (listener != null)
+				listener.discoveryFinished(e.getMessage());
+			throw e;
+		} finally {
+			nodeIDSearch = null;
 		}
 		
-		return foundDevices;
+		if (listener != null)
+			listener.discoveryFinished(null);
+		
+		return search.getFoundDevices();
 	}
 	
 	/**
@@ -203,7 +255,7 @@ class NodeDiscovery {
 		running = true;
 		discovering = true;
 		
-		Thread discoveryThread = new Thread() {
+		DISCOVERY_EXECUTOR.execute(new Runnable() {
 			@Override
 			public void run() {
 				try {
@@ -213,8 +265,7 @@ class NodeDiscovery {
 					notifyDiscoveryFinished(listeners, e.getMessage());
 				}
 			}
-		};
-		discoveryThread.start();
+		});
 	}
 	
 	/**
@@ -224,7 +275,7 @@ class NodeDiscovery {
 	 * @see #startDiscoveryProcess(List)
 	 */
 	public void stopDiscoveryProcess() {
-		discovering = false;
+		finishDiscovery();
 	}
 	
 	/**
@@ -301,52 +352,77 @@ class NodeDiscovery {
 						}
 						// If the local device is 802.15.4 wait until the 'end' command is received.
 						if (xbeeDevice.getXBeeProtocol() != XBeeProtocol.RAW_802_15_4)
-							discovering = false;
+							finishDiscovery();
 					}
-				} else if (rdevice != null)
+				} else if (rdevice != null) {
 					notifyDeviceDiscovered(listeners, rdevice);
+					
+					// Stop when all the searched identifiers have responded.
+					// If the local device is 802.15.4 wait until the 'end' command is received.
+					NodeIDSearch search = nodeIDSearch;
+					if (search != null && search.deviceFound(rdevice)
+							&& xbeeDevice.getXBeeProtocol() != XBeeProtocol.RAW_802_15_4)
+						finishDiscovery();
+				}
 			}
 		};
 		
+		final CountDownLatch latch = new CountDownLatch(1);
+		discoveryLatch = latch;
+		// The discovery may have been stopped before starting it.
+		if (!discovering)
+			latch.countDown();
+		
 		logger.debug("{}Start listening.", xbeeDevice.toString());
 		xbeeDevice.addPacketListener(packetReceiveListener);
 		
+		ScheduledFuture<?> timeoutTask = null;
 		try {
-			long deadLine = System.currentTimeMillis();
-			
 			// In 802.15.4 devices, the discovery finishes when the 'end' command 
 			// is received, so it's not necessary to calculate the timeout.
 			// This also applies to S1B devices working in compatibility mode.
 			boolean is802Compatible = is802Compatible(); 
+			long timeout = 0;
 			if (!is802Compatible)
-				deadLine += calculateTimeout(listeners);
+				timeout = calculateTimeout(listeners);
 			
 			sendNodeDiscoverCommand(id);
 			
+			// Wait for the scan timeout or, in 802.15.4, until the 'end' 
+			// command is received.
 			if (!is802Compatible) {
-				// Wait for scan timeout.
-				while (discovering) {
-					if (System.currentTimeMillis() < deadLine)
-						try {
-							Thread.sleep(100);
-						} catch (InterruptedException e) { }
-					else
-						discovering = false;
-				}
-			} else {
-				// Wait until the 'end' command is received.
-				while (discovering) {
-					try {
-						Thread.sleep(100);
-					} catch (InterruptedException e) { }
-				}
+				timeoutTask = TIMEOUT_SCHEDULER.schedule(new Runnable() {
+					@Override
+					public void run() {
+						if (discoveryLatch == latch)
+							finishDiscovery();
+					}
+				}, timeout, TimeUnit.MILLISECONDS);
+			}
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				finishDiscovery();
+				Thread.currentThread().interrupt();
 			}
 		} finally {
+			if (timeoutTask != null)
+				timeoutTask.cancel(false);
 			xbeeDevice.removePacketListener(packetReceiveListener);
 			logger.debug("{}Stop listening.", xbeeDevice.toString());
 		}
 	}
 	
+	/**
+	 * Finishes the current discovery, releasing the thread waiting for it.
+	 */
+	private void finishDiscovery() {
+		discovering = false;
+		CountDownLatch latch = discoveryLatch;
+		if (latch != null)
+			latch.countDown();
+	}
+	
 	/**
 	 * Calculates the maximum response time, in milliseconds, for network
 	 * discovery responses.
@@ -358,9 +434,22 @@ class NodeDiscovery {
 	private long calculateTimeout(List<IDiscoveryListener> listeners) {
 		long timeout = -1;
 		
+		// Request all the needed parameters at once, those rejected by the 
+		// device are requested again one by one.
+		Map<String, byte[]> values;
+		try {
+			if (xbeeDevice.getXBeeProtocol() == XBeeProtocol.DIGI_MESH)
+				values = xbeeDevice.readParameters("N?", "NT", "SM");
+			else
+				values = xbeeDevice.readParameters("N?", "NT");
+		} catch (TimeoutException e) {
+			// The device did not answer, so none of them is requested again.
+			values = null;
+		}
+		
 		// Read the maximum discovery timeout (N?).
 		try {
-			timeout = ByteUtils.byteArrayToLong(xbeeDevice.getParameter("N?"));
+			timeout = ByteUtils.byteArrayToLong(getParameter(values, "N?"));
 		} catch (XBeeException e) {
 			logger.debug("{}Could not read the N? value.", xbeeDevice.toString());
 		}
@@ -369,7 +458,7 @@ class NodeDiscovery {
 		if (timeout == -1) {
 			// Read the device timeout (NT).
 			try {
-				timeout = ByteUtils.byteArrayToLong(xbeeDevice.getParameter("NT")) * 100;
+				timeout = ByteUtils.byteArrayToLong(getParameter(values, "NT")) * 100;
 			} catch (XBeeException e) {
 				timeout = DEFAULT_TIMEOUT;
 				String error = "Could not read the discovery timeout from the device (NT). "
@@ -390,7 +479,7 @@ class NodeDiscovery {
 		if (xbeeDevice.getXBeeProtocol() == XBeeProtocol.DIGI_MESH) {
 			try {
 				// If the module is 'Sleep support', wait another discovery cycle.
-				boolean isSleepSupport = ByteUtils.byteArrayToInt(xbeeDevice.getParameter("SM")) == 7;
+				boolean isSleepSupport = ByteUtils.byteArrayToInt(getParameter(values, "SM")) == 7;
 				if (isSleepSupport)
 					timeout += timeout + (timeout * 0.1);
 			} catch (XBeeException e) {
@@ -401,6 +490,29 @@ class NodeDiscovery {
 		return timeout;
 	}
 	
+	/**
+	 * Returns the value of the given parameter from the given map of values 
+	 * or, if it is not there, reads it from the local device.
+	 * 
+	 * @param values Map of values previously read, {@code null} if the 
+	 *               device did not answer when reading them.
+	 * @param parameter The name of the parameter to retrieve its value.
+	 * 
+	 * @return A byte array containing the value of the parameter.
+	 * 
+	 * @throws TimeoutException if the device did not answer when reading 
+	 *                          the values.
+	 * @throws XBeeException if the parameter could not be read.
+	 */
+	private byte[] getParameter(Map<String, byte[]> values, String parameter) throws XBeeException {
+		if (values == null)
+			throw new TimeoutException();
+		byte[] value = values.get(parameter);
+		if (value != null)
+			return value;
+		return xbeeDevice.getParameter(parameter);
+	}
+	
 	/**
 	 * Returns a byte array with the remote device data to be parsed.
 	 * 
@@ -425,7 +537,8 @@ class NodeDiscovery {
 				return null;
 			// Check if the 'end' command is received (empty response with OK status).
 			if (atResponse.getCommandValue() == null || atResponse.getCommandValue().length == 0) {
-				discovering = atResponse.getStatus() != ATCommandStatus.OK;
+				if (atResponse.getStatus() == ATCommandStatus.OK)
+					finishDiscovery();
 				return null;
 			}
 			
@@ -530,7 +643,9 @@ class NodeDiscovery {
 			break;
 		case RAW_802_15_4:
 			device = new RemoteRaw802Device(localDevice, addr64, addr16, id/*, role*/);
-			// TODO signalStrength
+			// The signal strength is reported as -dBm.
+			if (signalStrength > 0)
+				device.setRSSI(-signalStrength);
 			break;
 		default:
 			device = new RemoteXBeeDevice(localDevice, addr64, addr16, id/*, role*/);
@@ -647,4 +762,101 @@ class NodeDiscovery {
 			return true;
 		return false;
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Thread factory that creates the daemon threads shared by the discovery 
+	 * processes.
+	 */
+	private static class DiscoveryThreadFactory implements ThreadFactory {
+		
+		// Variables.
+		private final String name;
+		
+		private final AtomicInteger count = new AtomicInteger();
+		
+		/**
+		 * Class constructor. Instantiates a new {@code DiscoveryThreadFactory} 
+		 * that names the threads with the given prefix.
+		 * 
+		 * @param name The prefix of the thread names.
+		 */
+		DiscoveryThreadFactory(String name) {
+			this.name = name;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+		 */
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+	
+	/**
+	 * Keeps track of the node identifiers searched by an early-terminating 
+	 * discovery and of the devices found for them.
+	 */
+	private class NodeIDSearch {
+		
+		// Variables.
+		private final Set<String> pendingIDs;
+		
+		private final List<RemoteXBeeDevice> foundDevices;
+		
+		private final IDiscoveryListener listener;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code NodeIDSearch} for the 
+		 * given identifiers.
+		 * 
+		 * @param ids The identifiers of the devices to search.
+		 * @param listener Listener to notify about every found device, 
+		 *                 {@code null} to not notify.
+		 */
+		NodeIDSearch(List<String> ids, IDiscoveryListener listener) {
+			this.pendingIDs = new HashSet<String>(ids);
+			this.foundDevices = new ArrayList<RemoteXBeeDevice>(pendingIDs.size());
+			this.listener = listener;
+		}
+		
+		/**
+		 * Checks whether the given discovered device is one of the searched 
+		 * ones and, if so, adds it to the network and notifies the listener.
+		 * 
+		 * @param device The discovered remote device.
+		 * 
+		 * @return {@code true} if there are no more identifiers to search, 
+		 *         {@code false} otherwise.
+		 */
+		boolean deviceFound(RemoteXBeeDevice device) {
+			RemoteXBeeDevice addedDevice;
+			boolean finished;
+			synchronized (this) {
+				if (!pendingIDs.remove(device.getNodeID()))
+					return pendingIDs.isEmpty();
+				addedDevice = xbeeDevice.getNetwork().addRemoteDevice(device);
+				if (addedDevice != null)
+					foundDevices.add(addedDevice);
+				finished = pendingIDs.isEmpty();
+			}
+			
+			if (addedDevice != null && listener != null)
+				listener.deviceDiscovered(addedDevice);
+			
+			return finished;
+		}
+		
+		/**
+		 * Returns the devices found so far.
+		 * 
+		 * @return A list with the found remote devices.
+		 */
+		synchronized List<RemoteXBeeDevice> getFoundDevices() {
+			return new ArrayList<RemoteXBeeDevice>(foundDevices);
+		}
+	}
+}
@@ -0,0 +1,404 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+
+/**
+ * Helper class that stores the entries of the outbound queue in an 
+ * append-only journal file mapped in memory.
+ * 
+ * <p>The journal starts with a 16 byte header (magic number, version and 
+ * next entry identifier). Each record of the journal is written as follows:
+ * </p>
+ * 
+ * <pre>
+ * {@code 
+ * +--------+--------+--------+--------+--------+--------+------------+
+ * | Commit | Status | Length |   ID   | 64-bit | 16-bit |    Data    |
+ * | 1 byte | 1 byte | 4 bytes| 8 bytes| 8 bytes| 2 bytes|Length bytes|
+ * +--------+--------+--------+--------+--------+--------+------------+
+ * }
+ * </pre>
+ * 
+ * <p>The commit byte is written after the rest of the record, so a record 
+ * that was not completely written before a crash is ignored when the journal 
+ * is replayed. Once an entry is transmitted or moved to the dead letters, 
+ * its status byte is updated in place. When the journal is full, the 
+ * pending and dead records are copied to a new file that replaces the old 
+ * one.</p>
+ * 
+ * @see XBeeOutboundQueue
+ */
+class OutboundJournal {
+	
+	// Constants.
+	private static final int MAGIC = 0x58424F51; // "XBOQ"
+	private static final int VERSION = 1;
+	
+	private static final int FILE_HEADER_SIZE = 16;
+	private static final int NEXT_ID_OFFSET = 8;
+	private static final int RECORD_HEADER_SIZE = 24;
+	
+	private static final byte RECORD_COMMITTED = (byte)0xA5;
+	
+	private static final byte STATUS_PENDING = 0;
+	private static final byte STATUS_DONE = 1;
+	private static final byte STATUS_DEAD = 2;
+	
+	private static final String COMPACT_SUFFIX = ".tmp";
+	
+	// Variables.
+	private final File file;
+	
+	private final int capacity;
+	
+	private final List<Entry> deadEntries = new ArrayList<Entry>();
+	
+	private RandomAccessFile randomAccessFile;
+	private MappedByteBuffer buffer;
+	
+	private int position;
+	
+	private long nextID = 1;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code OutboundJournal} object 
+	 * that uses the given file, creating it if it does not exist.
+	 * 
+	 * @param file The journal file.
+	 * @param capacity The size in bytes of the journal file. If the file 
+	 *                 already exists and it is bigger, its size is used.
+	 * 
+	 * @throws IOException if the file cannot be opened or mapped or 
+	 *                     if it is not a valid journal file.
+	 */
+	OutboundJournal(File file, int capacity) throws IOException {
+		this.file = file;
+		this.capacity = Math.max(capacity, (int)Math.min(file.length(), Integer.MAX_VALUE));
+		map();
+	}
+	
+	/**
+	 * Maps the journal file in memory, writing the file header if the file 
+	 * is new.
+	 * 
+	 * @throws IOException if the file cannot be opened or mapped or 
+	 *                     if it is not a valid journal file.
+	 */
+	private void map() throws IOException {
+		randomAccessFile = new RandomAccessFile(file, "rw");
+		buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		
+		int magic = buffer.getInt(0);
+		if (magic == 0) {
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+		} else if (magic != MAGIC || buffer.getInt(4) != VERSION) {
+			randomAccessFile.close();
+			throw new IOException("Invalid outbound journal file: " + file.getPath() + ".");
+		}
+		position = FILE_HEADER_SIZE;
+	}
+	
+	/**
+	 * Reads all the records of the journal and returns the ones that are 
+	 * still pending to be transmitted, in the same order they were appended.
+	 * 
+	 * <p>The dead records are loaded as the dead entries of the journal.</p>
+	 * 
+	 * @return The list of pending entries.
+	 * 
+	 * @see #getDeadEntries()
+	 */
+	List<Entry> replay() {
+		List<Entry> pending = new ArrayList<Entry>();
+		deadEntries.clear();
+		nextID = Math.max(1, buffer.getLong(NEXT_ID_OFFSET));
+		int pos = FILE_HEADER_SIZE;
+		while (pos + RECORD_HEADER_SIZE <= capacity && buffer.get(pos) == RECORD_COMMITTED) {
+			int length = buffer.getInt(pos + 2);
+			if (length < 0 || pos + RECORD_HEADER_SIZE + length > capacity)
+				break;
+			long id = buffer.getLong(pos + 6);
+			nextID = Math.max(nextID, id + 1);
+			byte status = buffer.get(pos + 1);
+			if (status == STATUS_PENDING || status == STATUS_DEAD) {
+				byte[] addr64 = new byte[8];
+				byte[] addr16 = new byte[2];
+				byte[] data = new byte[length];
+				readBytes(pos + 14, addr64);
+				readBytes(pos + 22, addr16);
+				readBytes(pos + RECORD_HEADER_SIZE, data);
+				Entry entry = new Entry(pos, id, new XBee64BitAddress(addr64), new XBee16BitAddress(addr16), data);
+				if (status == STATUS_DEAD) {
+					entry.dead = true;
+					deadEntries.add(entry);
+				} else
+					pending.add(entry);
+			}
+			pos += RECORD_HEADER_SIZE + length;
+		}
+		position = pos;
+		return pending;
+	}
+	
+	/**
+	 * Appends a new pending record to the journal.
+	 * 
+	 * @param addr64 The 64-bit address of the destination.
+	 * @param addr16 The 16-bit address of the destination.
+	 * @param data The data to transmit.
+	 * @param pending The entries that are still pending, used to compact the 
+	 *                journal if it is full. The dead entries are also kept.
+	 * 
+	 * @return The appended entry.
+	 * 
+	 * @throws IOException if the record does not fit in the journal even 
+	 *                     after compacting it or if there is any error 
+	 *                     compacting it.
+	 */
+	Entry append(XBee64BitAddress addr64, XBee16BitAddress addr16, byte[] data, List<Entry> pending) throws IOException {
+		int recordSize = RECORD_HEADER_SIZE + data.length;
+		if (position + recordSize > capacity) {
+			compact(pending);
+			if (position + recordSize > capacity)
+				throw new IOException("Outbound journal is full.");
+		}
+		
+		Entry entry = new Entry(position, nextID++, addr64, addr16, data);
+		writeRecord(entry, entry.position);
+		buffer.putLong(NEXT_ID_OFFSET, nextID);
+		position += recordSize;
+		return entry;
+	}
+	
+	/**
+	 * Marks the record of the given entry as transmitted or discarded.
+	 * 
+	 * <p>If it was a dead entry, it is removed from the dead entries.</p>
+	 * 
+	 * @param entry The transmitted or discarded entry.
+	 */
+	void markDone(Entry entry) {
+		buffer.put(entry.position + 1, STATUS_DONE);
+		if (entry.dead) {
+			entry.dead = false;
+			deadEntries.remove(entry);
+		}
+	}
+	
+	/**
+	 * Marks the record of the given entry as dead, so it is not transmitted 
+	 * again but it is kept in the journal, and adds it to the dead entries.
+	 * 
+	 * @param entry The entry that could not be transmitted.
+	 * 
+	 * @see #getDeadEntries()
+	 */
+	void markDead(Entry entry) {
+		buffer.put(entry.position + 1, STATUS_DEAD);
+		if (!entry.dead) {
+			entry.dead = true;
+			deadEntries.add(entry);
+		}
+	}
+	
+	/**
+	 * Returns the dead entries of the journal, in the order they were marked 
+	 * as dead or replayed.
+	 * 
+	 * <p>The returned list must not be modified, use 
+	 * {@link #markDone(Entry)} to remove an entry from it.</p>
+	 * 
+	 * @return The list of dead entries.
+	 * 
+	 * @see #markDead(Entry)
+	 */
+	List<Entry> getDeadEntries() {
+		return deadEntries;
+	}
+	
+	/**
+	 * Forces the changes of the journal to be written to the storage device.
+	 */
+	void flush() {
+		buffer.force();
+	}
+	
+	/**
+	 * Flushes and closes the journal file.
+	 * 
+	 * @throws IOException if there is any error closing the file.
+	 */
+	void close() throws IOException {
+		buffer.force();
+		randomAccessFile.close();
+	}
+	
+	/**
+	 * Rewrites the journal keeping only the dead entries and the given 
+	 * pending entries.
+	 * 
+	 * <p>The kept records are written to a temporary file that replaces 
+	 * the journal once it has been completely written, so the journal is 
+	 * never left half compacted. The positions of the entries are only 
+	 * updated once the journal has been replaced, so if the compaction fails 
+	 * they still point to their records in the old journal.</p>
+	 * 
+	 * @param pending The entries that are still pending.
+	 * 
+	 * @throws IOException if there is any error writing the new journal.
+	 */
+	private void compact(List<Entry> pending) throws IOException {
+		File tmpFile = new File(file.getPath() + COMPACT_SUFFIX);
+		if (tmpFile.exists() && !tmpFile.delete())
+			throw new IOException("Could not delete " + tmpFile.getPath() + ".");
+		
+		// Write the kept records in the temporary file.
+		MappedByteBuffer oldBuffer = buffer;
+		MappedByteBuffer tmpBuffer;
+		List<Entry> kept = new ArrayList<Entry>(deadEntries.size() + pending.size());
+		kept.addAll(deadEntries);
+		kept.addAll(pending);
+		int size = FILE_HEADER_SIZE;
+		int[] positions = new int[kept.size()];
+		RandomAccessFile tmpRandomAccessFile = new RandomAccessFile(tmpFile, "rw");
+		try {
+			tmpBuffer = tmpRandomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			tmpBuffer.putInt(0, MAGIC);
+			tmpBuffer.putInt(4, VERSION);
+			tmpBuffer.putLong(NEXT_ID_OFFSET, nextID);
+			buffer = tmpBuffer;
+			for (int i = 0; i < positions.length; i++) {
+				Entry entry = kept.get(i);
+				positions[i] = size;
+				writeRecord(entry, size);
+				size += RECORD_HEADER_SIZE + entry.data.length;
+			}
+			tmpBuffer.force();
+		} finally {
+			buffer = oldBuffer;
+			tmpRandomAccessFile.close();
+		}
+		
+		// Replace the journal with the temporary file.
+		randomAccessFile.close();
+		if (tmpFile.renameTo(file))
+			map();
+		else {
+			// Some platforms do not allow replacing a mapped file, copy the 
+			// new contents over the old journal instead.
+			map();
+			for (int i = 0; i < capacity; i++)
+				buffer.put(i, i < size ? tmpBuffer.get(i) : 0);
+			buffer.force();
+			tmpFile.delete();
+		}
+		position = size;
+		for (int i = 0; i < positions.length; i++)
+			kept.get(i).position = positions[i];
+	}
+	
+	/**
+	 * Writes the record of the given entry at the given position, leaving the 
+	 * commit byte for the end.
+	 * 
+	 * @param entry The entry to write.
+	 * @param pos The position of the record in the journal.
+	 */
+	private void writeRecord(Entry entry, int pos) {
+		buffer.put(pos, (byte)0);
+		buffer.put(pos + 1, entry.dead ? STATUS_DEAD : STATUS_PENDING);
+		buffer.putInt(pos + 2, entry.data.length);
+		buffer.putLong(pos + 6, entry.id);
+		writeBytes(pos + 14, entry.addr64.getValue());
+		writeBytes(pos + 22, entry.addr16.getValue());
+		writeBytes(pos + RECORD_HEADER_SIZE, entry.data);
+		// Clear the commit byte of the next record.
+		int next = pos + RECORD_HEADER_SIZE + entry.data.length;
+		if (next < capacity)
+			buffer.put(next, (byte)0);
+		buffer.put(pos, RECORD_COMMITTED);
+	}
+	
+	/**
+	 * Reads bytes from the journal starting at the given position.
+	 * 
+	 * @param pos Position of the first byte to read.
+	 * @param dst Array to store the read bytes.
+	 */
+	private void readBytes(int pos, byte[] dst) {
+		for (int i = 0; i < dst.length; i++)
+			dst[i] = buffer.get(pos + i);
+	}
+	
+	/**
+	 * Writes the given bytes to the journal starting at the given position.
+	 * 
+	 * @param pos Position of the first byte to write.
+	 * @param src Bytes to write.
+	 */
+	private void writeBytes(int pos, byte[] src) {
+		for (int i = 0; i < src.length; i++)
+			buffer.put(pos + i, src[i]);
+	}
+	
+	/**
+	 * This class represents an entry of the outbound journal.
+	 */
+	static class Entry {
+		
+		// Variables.
+		private int position;
+		
+		final long id;
+		
+		final XBee64BitAddress addr64;
+		final XBee16BitAddress addr16;
+		
+		final byte[] data;
+		
+		int attempts = 0;
+		
+		long nextAttempt = 0;
+		
+		private boolean dead = false;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Entry} with the given 
+		 * parameters.
+		 * 
+		 * @param position Position of the record in the journal.
+		 * @param id Identifier of the entry.
+		 * @param addr64 The 64-bit address of the destination.
+		 * @param addr16 The 16-bit address of the destination.
+		 * @param data The data to transmit.
+		 */
+		Entry(int position, long id, XBee64BitAddress addr64, XBee16BitAddress addr16, byte[] data) {
+			this.position = position;
+			this.id = id;
+			this.addr64 = addr64;
+			this.addr16 = addr16;
+			this.data = data;
+		}
+	}
+}
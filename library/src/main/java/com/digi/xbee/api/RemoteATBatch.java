@@ -0,0 +1,362 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class represents the AT operations of a {@link RemoteATScheduler} 
+ * submission, one for each remote device.
+ * 
+ * <p>It allows waiting for the operations to finish, cancelling the ones 
+ * that have not been sent yet and consulting the result of each device 
+ * along with the statistics of the whole batch. The results can be 
+ * consulted while the operations are still running.</p>
+ * 
+ * @see RemoteATScheduler
+ */
+public class RemoteATBatch {
+	
+	// Constants.
+	// Marks the devices that answered without a value.
+	private static final byte[] NO_VALUE = new byte[0];
+	
+	// Variables.
+	private final RemoteATScheduler scheduler;
+	
+	private final String parameter;
+	
+	private final List<RemoteXBeeDevice> devices;
+	
+	private final CountDownLatch pending;
+	
+	private final Set<RemoteXBeeDevice> finished = Collections.newSetFromMap(new ConcurrentHashMap<RemoteXBeeDevice, Boolean>());
+	private final ConcurrentHashMap<RemoteXBeeDevice, byte[]> values = new ConcurrentHashMap<RemoteXBeeDevice, byte[]>();
+	private final ConcurrentHashMap<RemoteXBeeDevice, String> errors = new ConcurrentHashMap<RemoteXBeeDevice, String>();
+	
+	private final AtomicInteger cancelledCount = new AtomicInteger();
+	private final AtomicInteger retryCount = new AtomicInteger();
+	private final AtomicLong totalResponseTime = new AtomicLong();
+	
+	private volatile boolean cancelled = false;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code RemoteATBatch} with the 
+	 * given parameters.
+	 * 
+	 * @param scheduler The scheduler executing the operations.
+	 * @param parameter The AT command of the operations.
+	 * @param devices The remote devices of the operations, without 
+	 *                duplicates.
+	 */
+	RemoteATBatch(RemoteATScheduler scheduler, String parameter, List<RemoteXBeeDevice> devices) {
+		this.scheduler = scheduler;
+		this.parameter = parameter;
+		this.devices = Collections.unmodifiableList(devices);
+		this.pending = new CountDownLatch(devices.size());
+	}
+	
+	/**
+	 * Returns the AT command of the operations.
+	 * 
+	 * @return The AT command of the operations.
+	 */
+	public String getParameter() {
+		return parameter;
+	}
+	
+	/**
+	 * Returns the remote devices of the operations.
+	 * 
+	 * @return Unmodifiable list with the remote devices.
+	 */
+	public List<RemoteXBeeDevice> getDevices() {
+		return devices;
+	}
+	
+	/**
+	 * Blocks until all the operations have finished, failed or been 
+	 * cancelled.
+	 * 
+	 * @throws InterruptedException if the current thread is interrupted 
+	 *                              while waiting.
+	 * 
+	 * @see #await(long, TimeUnit)
+	 * @see #isDone()
+	 */
+	public void await() throws InterruptedException {
+		pending.await();
+	}
+	
+	/**
+	 * Blocks until all the operations have finished, failed or been 
+	 * cancelled, or the given time elapses.
+	 * 
+	 * @param timeout The maximum time to wait.
+	 * @param unit The unit of the timeout.
+	 * 
+	 * @return {@code true} if all the operations have finished, 
+	 *         {@code false} if the time elapsed before.
+	 * 
+	 * @throws InterruptedException if the current thread is interrupted 
+	 *                              while waiting.
+	 * 
+	 * @see #await()
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		return pending.await(timeout, unit);
+	}
+	
+	/**
+	 * Returns whether all the operations have finished, failed or been 
+	 * cancelled.
+	 * 
+	 * @return {@code true} if all the operations have finished, 
+	 *         {@code false} otherwise.
+	 */
+	public boolean isDone() {
+		return pending.getCount() == 0;
+	}
+	
+	/**
+	 * Cancels the operations that have not been sent yet, including the ones 
+	 * waiting for a retry. The operations being sent finish normally.
+	 * 
+	 * <p>The cancelled operations are removed from the scheduler right away, 
+	 * so the batch is done as soon as the operations being sent finish.</p>
+	 * 
+	 * @see #isCancelled()
+	 */
+	public void cancel() {
+		cancelled = true;
+		scheduler.cancel(this);
+	}
+	
+	/**
+	 * Returns whether the batch has been cancelled.
+	 * 
+	 * @return {@code true} if the batch has been cancelled, {@code false} 
+	 *         otherwise.
+	 * 
+	 * @see #cancel()
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	/**
+	 * Returns the value answered by the given remote device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @return The value answered by the device, {@code null} if it did not 
+	 *         succeed yet or answered without a value.
+	 * 
+	 * @see #getValues()
+	 * @see #isSucceeded(RemoteXBeeDevice)
+	 */
+	public byte[] getValue(RemoteXBeeDevice remoteDevice) {
+		byte[] value = values.get(remoteDevice);
+		if (value == null || value == NO_VALUE)
+			return null;
+		return value.clone();
+	}
+	
+	/**
+	 * Returns the values answered by the remote devices that succeeded.
+	 * 
+	 * @return Map with the value of each device that answered with a value, 
+	 *         in the order of the devices.
+	 * 
+	 * @see #getValue(RemoteXBeeDevice)
+	 */
+	public Map<RemoteXBeeDevice, byte[]> getValues() {
+		Map<RemoteXBeeDevice, byte[]> result = new LinkedHashMap<RemoteXBeeDevice, byte[]>();
+		for (RemoteXBeeDevice remoteDevice : devices) {
+			byte[] value = getValue(remoteDevice);
+			if (value != null)
+				result.put(remoteDevice, value);
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns whether the operation of the given remote device succeeded.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @return {@code true} if the operation succeeded, {@code false} 
+	 *         otherwise.
+	 */
+	public boolean isSucceeded(RemoteXBeeDevice remoteDevice) {
+		return values.containsKey(remoteDevice);
+	}
+	
+	/**
+	 * Returns the error of the operation of the given remote device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @return The error message, {@code null} if the operation did not fail.
+	 */
+	public String getError(RemoteXBeeDevice remoteDevice) {
+		return errors.get(remoteDevice);
+	}
+	
+	/**
+	 * Returns the remote devices whose operation failed.
+	 * 
+	 * @return List with the failed devices, in the order of the devices.
+	 * 
+	 * @see #getError(RemoteXBeeDevice)
+	 */
+	public List<RemoteXBeeDevice> getFailedDevices() {
+		ArrayList<RemoteXBeeDevice> failed = new ArrayList<RemoteXBeeDevice>();
+		for (RemoteXBeeDevice remoteDevice : devices) {
+			if (errors.containsKey(remoteDevice))
+				failed.add(remoteDevice);
+		}
+		return failed;
+	}
+	
+	/**
+	 * Returns the number of operations that succeeded.
+	 * 
+	 * @return The number of succeeded operations.
+	 */
+	public int getSucceededCount() {
+		return values.size();
+	}
+	
+	/**
+	 * Returns the number of operations that failed, after retrying them.
+	 * 
+	 * @return The number of failed operations.
+	 */
+	public int getFailedCount() {
+		return errors.size();
+	}
+	
+	/**
+	 * Returns the number of operations that were cancelled before being 
+	 * sent.
+	 * 
+	 * @return The number of cancelled operations.
+	 */
+	public int getCancelledCount() {
+		return cancelledCount.get();
+	}
+	
+	/**
+	 * Returns the number of retries of all the operations.
+	 * 
+	 * @return The number of retries.
+	 */
+	public int getRetryCount() {
+		return retryCount.get();
+	}
+	
+	/**
+	 * Returns the number of failed operations grouped by their error.
+	 * 
+	 * @return Map with the number of devices that failed with each error.
+	 */
+	public Map<String, Integer> getFailureStatistics() {
+		HashMap<String, Integer> statistics = new HashMap<String, Integer>();
+		for (String error : errors.values()) {
+			Integer count = statistics.get(error);
+			statistics.put(error, count == null ? 1 : count + 1);
+		}
+		return statistics;
+	}
+	
+	/**
+	 * Returns the average time the succeeded operations took, including 
+	 * their retries.
+	 * 
+	 * @return The average response time in milliseconds, 0 if no operation 
+	 *         succeeded yet.
+	 */
+	public long getAverageResponseTime() {
+		int succeeded = values.size();
+		return succeeded == 0 ? 0 : totalResponseTime.get() / succeeded;
+	}
+	
+	/**
+	 * Records that the operation of the given remote device succeeded.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param value The value answered by the device, {@code null} if none.
+	 * @param responseTime The time the operation took in milliseconds.
+	 */
+	void succeeded(RemoteXBeeDevice remoteDevice, byte[] value, long responseTime) {
+		if (!finished.add(remoteDevice))
+			return;
+		totalResponseTime.addAndGet(responseTime);
+		values.put(remoteDevice, value != null ? value : NO_VALUE);
+		pending.countDown();
+	}
+	
+	/**
+	 * Records that the operation of the given remote device failed.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param error The error message.
+	 */
+	void failed(RemoteXBeeDevice remoteDevice, String error) {
+		if (!finished.add(remoteDevice))
+			return;
+		errors.put(remoteDevice, error);
+		pending.countDown();
+	}
+	
+	/**
+	 * Records that the operation of the given remote device was cancelled.
+	 * 
+	 * @param remoteDevice The remote device.
+	 */
+	void cancelled(RemoteXBeeDevice remoteDevice) {
+		if (!finished.add(remoteDevice))
+			return;
+		cancelledCount.incrementAndGet();
+		pending.countDown();
+	}
+	
+	/**
+	 * Records that an operation is going to be retried.
+	 */
+	void retried() {
+		retryCount.incrementAndGet();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [parameter=" + parameter + ", devices=" + devices.size() 
+				+ ", succeeded=" + getSucceededCount() + ", failed=" + getFailedCount() 
+				+ ", cancelled=" + getCancelledCount() + ", retries=" + getRetryCount() + "]";
+	}
+}
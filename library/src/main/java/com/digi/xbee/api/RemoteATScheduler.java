@@ -0,0 +1,802 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.digi.xbee.api.exceptions.TimeoutException;
+import com.digi.xbee.api.models.ATCommand;
+import com.digi.xbee.api.models.ATCommandResponse;
+import com.digi.xbee.api.models.ATCommandStatus;
+
+/**
+ * This class schedules AT operations, like reading or setting a parameter, 
+ * over many remote devices at the same time.
+ * 
+ * <p>Instead of waiting for the answer of each remote device in turn, 
+ * several devices are processed concurrently, so an unreachable device only 
+ * delays its own operations. The operations of the same remote device are 
+ * always executed one after another in the order they were submitted, even 
+ * when they belong to different batches or have to be retried.</p>
+ * 
+ * <p>Each operation waits for the answer of the remote device a base 
+ * timeout plus a timeout per hop, so distant devices of mesh networks are 
+ * not considered unreachable too soon (see {@link #setHops(RemoteXBeeDevice, int)}). 
+ * Operations failing with a timeout or a transmission failure are retried 
+ * with an increasing delay.</p>
+ * 
+ * <p>Every submission returns a {@link RemoteATBatch} to wait for the 
+ * operations, cancel them and consult their results and statistics.</p>
+ * 
+ * @see RemoteATBatch
+ */
+public class RemoteATScheduler {
+	
+	// Constants.
+	/**
+	 * Maximum number of remote devices processed at the same time (value: 
+	 * {@value}).
+	 * 
+	 * <p>Each device in process reserves a frame ID of the local device, so 
+	 * half of them are left for the rest of the communications of the local 
+	 * device.</p>
+	 */
+	public static final int MAX_CONCURRENCY = 0xFF / 2;
+	
+	/**
+	 * Default number of remote devices processed at the same time (value: 
+	 * {@value}).
+	 */
+	public static final int DEFAULT_CONCURRENCY = 8;
+	
+	/**
+	 * Default number of retries of each operation (value: {@value}).
+	 */
+	public static final int DEFAULT_RETRIES = 2;
+	
+	/**
+	 * Default base timeout of each operation in milliseconds (value: 
+	 * {@value}).
+	 */
+	public static final int DEFAULT_BASE_TIMEOUT = 1000;
+	
+	/**
+	 * Default timeout added for each hop to the remote device in 
+	 * milliseconds (value: {@value}).
+	 */
+	public static final int DEFAULT_HOP_TIMEOUT = 500;
+	
+	/**
+	 * Default number of hops to the remote devices (value: {@value}).
+	 */
+	public static final int DEFAULT_HOPS = 2;
+	
+	private static final long RETRY_DELAY = 500;
+	private static final long MAX_RETRY_DELAY = 10000;
+	
+	private static int schedulerCounter = 0;
+	
+	// Variables.
+	private final XBeeDevice localDevice;
+	
+	private final ScheduledThreadPoolExecutor executor;
+	
+	private final ConcurrentHashMap<RemoteXBeeDevice, Integer> hops = new ConcurrentHashMap<RemoteXBeeDevice, Integer>();
+	
+	// Pending operations of each remote device, in the order they were submitted.
+	private final HashMap<RemoteXBeeDevice, LinkedList<Operation>> queues = new HashMap<RemoteXBeeDevice, LinkedList<Operation>>();
+	
+	private volatile int retries = DEFAULT_RETRIES;
+	private volatile int baseTimeout = DEFAULT_BASE_TIMEOUT;
+	private volatile int hopTimeout = DEFAULT_HOP_TIMEOUT;
+	private volatile int defaultHops = DEFAULT_HOPS;
+	
+	private Logger logger;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code RemoteATScheduler} that 
+	 * sends the operations through the given local device.
+	 * 
+	 * @param localDevice The local XBee device the remote devices are 
+	 *                    reached through.
+	 * 
+	 * @throws IllegalArgumentException if {@code localDevice.isRemote() == true}.
+	 * @throws NullPointerException if {@code localDevice == null}.
+	 * 
+	 * @see XBeeDevice
+	 */
+	public RemoteATScheduler(XBeeDevice localDevice) {
+		if (localDevice == null)
+			throw new NullPointerException("Local XBee device cannot be null.");
+		if (localDevice.isRemote())
+			throw new IllegalArgumentException("The given local XBee device is remote.");
+		
+		this.localDevice = localDevice;
+		
+		final int id = nextSchedulerID();
+		this.executor = new ScheduledThreadPoolExecutor(DEFAULT_CONCURRENCY, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			
+			/*
+			 * (non-Javadoc)
+			 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+			 */
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "RemoteATScheduler " + id + " worker " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.logger = LoggerFactory.getLogger(RemoteATScheduler.class);
+	}
+	
+	/**
+	 * Returns the ID of a new scheduler.
+	 * 
+	 * @return The ID of the new scheduler.
+	 */
+	private static synchronized int nextSchedulerID() {
+		return ++schedulerCounter;
+	}
+	
+	/**
+	 * Reads the given parameter of the given remote devices.
+	 * 
+	 * <p>This method returns immediately, use the returned batch to wait for 
+	 * the values.</p>
+	 * 
+	 * @param devices The remote devices to read the parameter from.
+	 * @param parameter The name of the parameter to read.
+	 * 
+	 * @return The batch with the operations of each device.
+	 * 
+	 * @throws IllegalArgumentException if {@code parameter.length() != 2}.
+	 * @throws IllegalStateException if the scheduler has been shut down.
+	 * @throws NullPointerException if {@code devices == null} or 
+	 *                              if any of the devices is {@code null} or 
+	 *                              if {@code parameter == null}.
+	 * 
+	 * @see #setParameter(Collection, String, byte[])
+	 * @see #executeParameter(Collection, String)
+	 * @see AbstractXBeeDevice#getParameter(String)
+	 */
+	public RemoteATBatch getParameter(Collection<RemoteXBeeDevice> devices, String parameter) {
+		checkParameter(parameter);
+		return submit(devices, new ATCommand(parameter), false);
+	}
+	
+	/**
+	 * Sets the given value of the given parameter in the given remote 
+	 * devices.
+	 * 
+	 * <p>The changes are applied depending on the 'apply configuration 
+	 * changes' option of each remote device. This method returns 
+	 * immediately, use the returned batch to wait for the operations.</p>
+	 * 
+	 * @param devices The remote devices to set the parameter.
+	 * @param parameter The name of the parameter to set.
+	 * @param value The value of the parameter.
+	 * 
+	 * @return The batch with the operations of each device.
+	 * 
+	 * @throws IllegalArgumentException if {@code parameter.length() != 2}.
+	 * @throws IllegalStateException if the scheduler has been shut down.
+	 * @throws NullPointerException if {@code devices == null} or 
+	 *                              if any of the devices is {@code null} or 
+	 *                              if {@code parameter == null} or 
+	 *                              if {@code value == null}.
+	 * 
+	 * @see #getParameter(Collection, String)
+	 * @see AbstractXBeeDevice#setParameter(String, byte[])
+	 */
+	public RemoteATBatch setParameter(Collection<RemoteXBeeDevice> devices, String parameter, byte[] value) {
+		checkParameter(parameter);
+		if (value == null)
+			throw new NullPointerException("Value of the parameter cannot be null.");
+		
+		return submit(devices, new ATCommand(parameter, value.clone()), true);
+	}
+	
+	/**
+	 * Executes the given command in the given remote devices.
+	 * 
+	 * <p>This method returns immediately, use the returned batch to wait for 
+	 * the operations.</p>
+	 * 
+	 * @param devices The remote devices to execute the command.
+	 * @param parameter The AT command to be executed.
+	 * 
+	 * @return The batch with the operations of each device.
+	 * 
+	 * @throws IllegalArgumentException if {@code parameter.length() != 2}.
+	 * @throws IllegalStateException if the scheduler has been shut down.
+	 * @throws NullPointerException if {@code devices == null} or 
+	 *                              if any of the devices is {@code null} or 
+	 *                              if {@code parameter == null}.
+	 * 
+	 * @see #getParameter(Collection, String)
+	 * @see AbstractXBeeDevice#executeParameter(String)
+	 */
+	public RemoteATBatch executeParameter(Collection<RemoteXBeeDevice> devices, String parameter) {
+		checkParameter(parameter);
+		return submit(devices, new ATCommand(parameter), true);
+	}
+	
+	/**
+	 * Checks that the given parameter name is valid.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * 
+	 * @throws IllegalArgumentException if {@code parameter.length() != 2}.
+	 * @throws NullPointerException if {@code parameter == null}.
+	 */
+	private void checkParameter(String parameter) {
+		if (parameter == null)
+			throw new NullPointerException("Parameter cannot be null.");
+		if (parameter.length() != 2)
+			throw new IllegalArgumentException("Parameter must contain exactly 2 characters.");
+	}
+	
+	/**
+	 * Queues an operation with the given AT command for each of the given 
+	 * remote devices.
+	 * 
+	 * @param devices The remote devices.
+	 * @param command The AT command to send to each device.
+	 * @param modifies {@code true} if the command modifies the configuration 
+	 *                 of the device, {@code false} otherwise.
+	 * 
+	 * @return The batch with the operations.
+	 * 
+	 * @throws IllegalStateException if the scheduler has been shut down.
+	 * @throws NullPointerException if {@code devices == null} or 
+	 *                              if any of the devices is {@code null}.
+	 */
+	private RemoteATBatch submit(Collection<RemoteXBeeDevice> devices, ATCommand command, boolean modifies) {
+		if (devices == null)
+			throw new NullPointerException("List of remote devices cannot be null.");
+		// Each device is processed once even if it is repeated.
+		ArrayList<RemoteXBeeDevice> list = new ArrayList<RemoteXBeeDevice>(new LinkedHashSet<RemoteXBeeDevice>(devices));
+		for (RemoteXBeeDevice remoteDevice : list) {
+			if (remoteDevice == null)
+				throw new NullPointerException("Remote device cannot be null.");
+		}
+		if (executor.isShutdown())
+			throw new IllegalStateException("The scheduler has been shut down.");
+		
+		logger.debug("{}Scheduling AT command '{}' in {} remote devices.", 
+				localDevice.toString(), command.getCommand(), list.size());
+		
+		RemoteATBatch batch = new RemoteATBatch(this, command.getCommand(), list);
+		for (RemoteXBeeDevice remoteDevice : list)
+			enqueue(new Operation(batch, remoteDevice, command, modifies));
+		return batch;
+	}
+	
+	/**
+	 * Queues the given operation after the pending operations of its remote 
+	 * device, starting to process the device if it was idle.
+	 * 
+	 * @param operation The operation to queue.
+	 */
+	private void enqueue(Operation operation) {
+		ArrayList<Operation> rejected = new ArrayList<Operation>();
+		synchronized (queues) {
+			LinkedList<Operation> queue = queues.get(operation.remoteDevice);
+			if (queue != null) {
+				queue.add(operation);
+				return;
+			}
+			queue = new LinkedList<Operation>();
+			queue.add(operation);
+			queues.put(operation.remoteDevice, queue);
+			if (!startNext(queue, rejected))
+				queues.remove(operation.remoteDevice);
+		}
+		cancelAll(rejected);
+	}
+	
+	/**
+	 * Removes the given finished operation from the queue of its remote 
+	 * device and starts the next one, if any.
+	 * 
+	 * @param operation The finished operation.
+	 */
+	private void dequeue(Operation operation) {
+		ArrayList<Operation> rejected = new ArrayList<Operation>();
+		synchronized (queues) {
+			LinkedList<Operation> queue = queues.get(operation.remoteDevice);
+			// The operations of the device were cancelled by a shutdown.
+			if (queue == null)
+				return;
+			queue.removeFirst();
+			if (!startNext(queue, rejected))
+				queues.remove(operation.remoteDevice);
+		}
+		cancelAll(rejected);
+	}
+	
+	/**
+	 * Starts the first operation of the given queue, if any.
+	 * 
+	 * <p>This method must be called while holding the lock of the queues, 
+	 * so the future of the operation is set before anyone can cancel it.</p>
+	 * 
+	 * @param queue The queue of pending operations of a remote device.
+	 * @param rejected List to add the operations of the queue to if the 
+	 *                 scheduler was shut down.
+	 * 
+	 * @return {@code true} if the operation was started, {@code false} if 
+	 *         the queue is empty or the scheduler was shut down, so the 
+	 *         queue must be removed.
+	 */
+	private boolean startNext(LinkedList<Operation> queue, List<Operation> rejected) {
+		Operation next = queue.peek();
+		if (next == null)
+			return false;
+		// Let the other devices use the thread before continuing with this one.
+		try {
+			next.future = executor.submit(next);
+			return true;
+		} catch (RuntimeException e) {
+			// The scheduler was shut down, so the rest of operations are cancelled.
+			rejected.addAll(queue);
+			return false;
+		}
+	}
+	
+	/**
+	 * Cancels the given operation and the rest of pending operations of its 
+	 * remote device.
+	 * 
+	 * @param operation The first pending operation of the device.
+	 */
+	private void cancelPending(Operation operation) {
+		LinkedList<Operation> queue;
+		synchronized (queues) {
+			queue = queues.remove(operation.remoteDevice);
+		}
+		if (queue != null)
+			cancelAll(queue);
+	}
+	
+	/**
+	 * Cancels the operations of the given batch that have not been sent 
+	 * yet, including the ones waiting for a retry.
+	 * 
+	 * <p>The cancelled operations are removed from the queues of their 
+	 * remote devices, so the following operations of each device start 
+	 * without waiting for them.</p>
+	 * 
+	 * @param batch The batch to cancel.
+	 * 
+	 * @see RemoteATBatch#cancel()
+	 */
+	void cancel(RemoteATBatch batch) {
+		ArrayList<Operation> cancelled = new ArrayList<Operation>();
+		synchronized (queues) {
+			Iterator<LinkedList<Operation>> queueIterator = queues.values().iterator();
+			while (queueIterator.hasNext()) {
+				LinkedList<Operation> queue = queueIterator.next();
+				Iterator<Operation> operations = queue.listIterator(1);
+				while (operations.hasNext()) {
+					Operation operation = operations.next();
+					if (operation.batch == batch) {
+						operations.remove();
+						cancelled.add(operation);
+					}
+				}
+				
+				// The first operation is running unless its future can be cancelled.
+				Operation first = queue.getFirst();
+				if (first.batch != batch || first.future == null || !first.future.cancel(false))
+					continue;
+				cancelled.add(first);
+				queue.removeFirst();
+				if (!startNext(queue, cancelled))
+					queueIterator.remove();
+			}
+		}
+		// Remove the cancelled retries from the executor instead of waiting for their delay.
+		executor.purge();
+		cancelAll(cancelled);
+	}
+	
+	/**
+	 * Records the given operations as cancelled in their batches.
+	 * 
+	 * @param operations The cancelled operations.
+	 */
+	private void cancelAll(Collection<Operation> operations) {
+		for (Operation operation : operations)
+			operation.batch.cancelled(operation.remoteDevice);
+	}
+	
+	/**
+	 * Returns the timeout of the operations of the given remote device 
+	 * depending on the number of hops to reach it.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @return The timeout in milliseconds.
+	 * 
+	 * @see #setTimeouts(int, int)
+	 * @see #setHops(RemoteXBeeDevice, int)
+	 */
+	public int getTimeout(RemoteXBeeDevice remoteDevice) {
+		return baseTimeout + hopTimeout * getHops(remoteDevice);
+	}
+	
+	/**
+	 * Configures the timeouts of the operations.
+	 * 
+	 * <p>Each operation waits for the answer of a remote device the base 
+	 * timeout plus the hop timeout multiplied by the number of hops to the 
+	 * device.</p>
+	 * 
+	 * @param baseTimeout The base timeout in milliseconds.
+	 * @param hopTimeout The timeout added per hop in milliseconds.
+	 * 
+	 * @throws IllegalArgumentException if {@code baseTimeout < 0} or 
+	 *                                  if {@code hopTimeout < 0}.
+	 * 
+	 * @see #getBaseTimeout()
+	 * @see #getHopTimeout()
+	 * @see #getTimeout(RemoteXBeeDevice)
+	 */
+	public void setTimeouts(int baseTimeout, int hopTimeout) {
+		if (baseTimeout < 0)
+			throw new IllegalArgumentException("Base timeout cannot be less than 0.");
+		if (hopTimeout < 0)
+			throw new IllegalArgumentException("Hop timeout cannot be less than 0.");
+		
+		this.baseTimeout = baseTimeout;
+		this.hopTimeout = hopTimeout;
+	}
+	
+	/**
+	 * Returns the base timeout of the operations.
+	 * 
+	 * @return The base timeout in milliseconds.
+	 * 
+	 * @see #setTimeouts(int, int)
+	 */
+	public int getBaseTimeout() {
+		return baseTimeout;
+	}
+	
+	/**
+	 * Returns the timeout added to the operations per hop to the remote 
+	 * device.
+	 * 
+	 * @return The hop timeout in milliseconds.
+	 * 
+	 * @see #setTimeouts(int, int)
+	 */
+	public int getHopTimeout() {
+		return hopTimeout;
+	}
+	
+	/**
+	 * Sets the number of hops to reach the given remote device, for example 
+	 * from its route or from the hops of the network.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param hops The number of hops to reach the device.
+	 * 
+	 * @throws IllegalArgumentException if {@code hops < 1}.
+	 * @throws NullPointerException if {@code remoteDevice == null}.
+	 * 
+	 * @see #getHops(RemoteXBeeDevice)
+	 * @see #setDefaultHops(int)
+	 */
+	public void setHops(RemoteXBeeDevice remoteDevice, int hops) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		if (hops < 1)
+			throw new IllegalArgumentException("Hops cannot be less than 1.");
+		
+		this.hops.put(remoteDevice, hops);
+	}
+	
+	/**
+	 * Returns the number of hops to reach the given remote device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @return The number of hops of the device, or the default number of 
+	 *         hops if it has not been set.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null}.
+	 * 
+	 * @see #setHops(RemoteXBeeDevice, int)
+	 * @see #getDefaultHops()
+	 */
+	public int getHops(RemoteXBeeDevice remoteDevice) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		
+		Integer deviceHops = hops.get(remoteDevice);
+		return deviceHops != null ? deviceHops : defaultHops;
+	}
+	
+	/**
+	 * Sets the number of hops of the remote devices whose hops have not been 
+	 * set.
+	 * 
+	 * @param hops The default number of hops.
+	 * 
+	 * @throws IllegalArgumentException if {@code hops < 1}.
+	 * 
+	 * @see #getDefaultHops()
+	 * @see #setHops(RemoteXBeeDevice, int)
+	 */
+	public void setDefaultHops(int hops) {
+		if (hops < 1)
+			throw new IllegalArgumentException("Hops cannot be less than 1.");
+		
+		this.defaultHops = hops;
+	}
+	
+	/**
+	 * Returns the number of hops of the remote devices whose hops have not 
+	 * been set.
+	 * 
+	 * @return The default number of hops.
+	 * 
+	 * @see #setDefaultHops(int)
+	 */
+	public int getDefaultHops() {
+		return defaultHops;
+	}
+	
+	/**
+	 * Sets the maximum number of remote devices processed at the same time.
+	 * 
+	 * @param concurrency The number of devices processed at the same time.
+	 * 
+	 * @throws IllegalArgumentException if {@code concurrency < 1} or 
+	 *                                  if {@code concurrency > MAX_CONCURRENCY}.
+	 * 
+	 * @see #getConcurrency()
+	 * @see #MAX_CONCURRENCY
+	 */
+	public void setConcurrency(int concurrency) {
+		if (concurrency < 1 || concurrency > MAX_CONCURRENCY)
+			throw new IllegalArgumentException("Concurrency must be between 1 and " + MAX_CONCURRENCY + ".");
+		
+		executor.setCorePoolSize(concurrency);
+	}
+	
+	/**
+	 * Returns the maximum number of remote devices processed at the same 
+	 * time.
+	 * 
+	 * @return The number of devices processed at the same time.
+	 * 
+	 * @see #setConcurrency(int)
+	 */
+	public int getConcurrency() {
+		return executor.getCorePoolSize();
+	}
+	
+	/**
+	 * Sets the number of times an operation is retried when it fails with a 
+	 * timeout or a transmission failure.
+	 * 
+	 * @param retries The number of retries.
+	 * 
+	 * @throws IllegalArgumentException if {@code retries < 0}.
+	 * 
+	 * @see #getRetries()
+	 */
+	public void setRetries(int retries) {
+		if (retries < 0)
+			throw new IllegalArgumentException("Retries cannot be less than 0.");
+		
+		this.retries = retries;
+	}
+	
+	/**
+	 * Returns the number of times an operation is retried when it fails with 
+	 * a timeout or a transmission failure.
+	 * 
+	 * @return The number of retries.
+	 * 
+	 * @see #setRetries(int)
+	 */
+	public int getRetries() {
+		return retries;
+	}
+	
+	/**
+	 * Stops the scheduler, cancelling all the pending operations. The 
+	 * operations already sent finish normally.
+	 * 
+	 * @see #isShutdown()
+	 */
+	public void shutdown() {
+		// Do not interrupt the operations being sent, just drop the queued ones.
+		executor.shutdown();
+		executor.getQueue().clear();
+		
+		// The operations being sent finish normally and cancel the rest of 
+		// operations of their devices when they try to continue.
+		ArrayList<Operation> waiting = new ArrayList<Operation>();
+		synchronized (queues) {
+			for (LinkedList<Operation> queue : queues.values())
+				waiting.add(queue.getFirst());
+		}
+		for (Operation operation : waiting) {
+			if (!operation.running)
+				cancelPending(operation);
+		}
+	}
+	
+	/**
+	 * Returns whether the scheduler has been shut down.
+	 * 
+	 * @return {@code true} if the scheduler has been shut down, 
+	 *         {@code false} otherwise.
+	 * 
+	 * @see #shutdown()
+	 */
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		int devices;
+		synchronized (queues) {
+			devices = queues.size();
+		}
+		return getClass().getSimpleName() + " [" + localDevice.toString() + "concurrency=" + getConcurrency() 
+				+ ", retries=" + retries + ", pending devices=" + devices + "]";
+	}
+	
+	/**
+	 * Operation of a batch over one of its remote devices.
+	 */
+	private class Operation implements Runnable {
+		
+		// Variables.
+		private final RemoteATBatch batch;
+		private final RemoteXBeeDevice remoteDevice;
+		private final ATCommand command;
+		private final boolean modifies;
+		private int attempt = 0;
+		private volatile boolean running = false;
+		// Guarded by the lock of the queues.
+		private Future<?> future;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Operation} with the 
+		 * given parameters.
+		 * 
+		 * @param batch The batch the operation belongs to.
+		 * @param remoteDevice The remote device to send the command to.
+		 * @param command The AT command to send.
+		 * @param modifies {@code true} if the command modifies the 
+		 *                 configuration of the device, {@code false} 
+		 *                 otherwise.
+		 */
+		private Operation(RemoteATBatch batch, RemoteXBeeDevice remoteDevice, ATCommand command, boolean modifies) {
+			this.batch = batch;
+			this.remoteDevice = remoteDevice;
+			this.command = command;
+			this.modifies = modifies;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			if (batch.isCancelled()) {
+				batch.cancelled(remoteDevice);
+				dequeue(this);
+				return;
+			}
+			
+			running = true;
+			boolean finished = true;
+			try {
+				long start = System.currentTimeMillis();
+				ATCommandResponse response;
+				String error;
+				try {
+					response = remoteDevice.sendATCommands(Collections.singletonList(command), 
+							remoteDevice.isApplyConfigurationChangesEnabled(), getTimeout(remoteDevice)).get(0);
+					error = response == null ? new TimeoutException().getMessage() : null;
+				} catch (Exception e) {
+					// The local device is closed or not in API mode, so retrying is useless.
+					batch.failed(remoteDevice, e.getMessage() != null ? e.getMessage() : e.toString());
+					return;
+				} finally {
+					if (modifies)
+						invalidateCache();
+				}
+				
+				if (response != null && response.getResponseStatus() == ATCommandStatus.OK) {
+					batch.succeeded(remoteDevice, response.getResponse(), System.currentTimeMillis() - start);
+					return;
+				}
+				if (response != null)
+					error = response.getResponseStatus().getDescription();
+				
+				boolean transientError = response == null 
+						|| response.getResponseStatus() == ATCommandStatus.TX_FAILURE;
+				if (transientError && attempt < retries && !batch.isCancelled()) {
+					long delay = Math.min(RETRY_DELAY << attempt, MAX_RETRY_DELAY);
+					attempt++;
+					batch.retried();
+					logger.debug("{}AT command '{}' failed in {}, retrying in {} ms: {}", 
+							localDevice.toString(), command.getCommand(), remoteDevice, delay, error);
+					try {
+						synchronized (queues) {
+							future = executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+						}
+						finished = false;
+						return;
+					} catch (RuntimeException e) {
+						// The scheduler was shut down before retrying.
+						batch.cancelled(remoteDevice);
+						return;
+					}
+				}
+				batch.failed(remoteDevice, error);
+			} finally {
+				running = false;
+				if (finished)
+					dequeue(this);
+			}
+		}
+		
+		/**
+		 * Invalidates the cached values of the remote device after the 
+		 * command modified its configuration.
+		 */
+		private void invalidateCache() {
+			ATParameterCache cache = remoteDevice.getParameterCache();
+			if (cache == null)
+				return;
+			if (command.getParameter() != null)
+				cache.invalidate(command.getCommand());
+			else
+				cache.invalidateAll();
+		}
+	}
+}
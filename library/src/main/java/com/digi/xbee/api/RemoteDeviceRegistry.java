@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class implements a map of remote XBee devices keyed by their 64-bit 
+ * address as a primitive {@code long}.
+ * 
+ * <p>It is an open addressing hash table with linear probing. Lookups do not 
+ * lock nor create any object, so the source device of a received frame can 
+ * be resolved directly from the 8 address bytes of the frame. Modifications 
+ * are serialized and done in place, increasing a version number before and 
+ * after each of them. A lookup that overlaps a modification sees a 
+ * different version and is repeated, so it never misses a device that was 
+ * not being modified.</p>
+ * 
+ * @see XBeeNetwork#getDevice(long)
+ * @see XBeeNetwork#getDevice(byte[], int)
+ */
+class RemoteDeviceRegistry {
+	
+	// Constants.
+	private static final int INITIAL_CAPACITY = 64;
+	
+	private static final int MAX_OPTIMISTIC_READS = 4;
+	
+	// Variables.
+	private volatile Table table = new Table(INITIAL_CAPACITY);
+	
+	private volatile int size = 0;
+	
+	// Odd while a modification is in progress.
+	private final AtomicInteger version = new AtomicInteger();
+	
+	/**
+	 * Returns the device with the given 64-bit address.
+	 * 
+	 * @param address The 64-bit address as a {@code long}.
+	 * 
+	 * @return The remote device, {@code null} if there is no device with 
+	 *         that address.
+	 */
+	RemoteXBeeDevice get(long address) {
+		for (int i = 0; i < MAX_OPTIMISTIC_READS; i++) {
+			int stamp = version.get();
+			if ((stamp & 1) != 0)
+				continue;
+			RemoteXBeeDevice device = find(table, address);
+			if (version.get() == stamp)
+				return device;
+		}
+		// The table is being modified continuously, wait for it.
+		synchronized (this) {
+			return find(table, address);
+		}
+	}
+	
+	/**
+	 * Associates the given device with the given 64-bit address, replacing 
+	 * the previous device if any.
+	 * 
+	 * @param address The 64-bit address as a {@code long}.
+	 * @param device The remote device.
+	 * 
+	 * @throws NullPointerException if {@code device == null}.
+	 */
+	synchronized void put(long address, RemoteXBeeDevice device) {
+		if (device == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		
+		version.incrementAndGet();
+		try {
+			Table t = table;
+			int index = t.indexOf(address);
+			if (index >= 0) {
+				t.values.set(index, device);
+				return;
+			}
+			// Keep the load factor under 50%.
+			if ((size + 1) * 2 > t.capacity) {
+				t = t.resize(t.capacity * 2);
+				table = t;
+			}
+			t.insert(address, device);
+			size++;
+		} finally {
+			version.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Removes the device with the given 64-bit address.
+	 * 
+	 * @param address The 64-bit address as a {@code long}.
+	 */
+	synchronized void remove(long address) {
+		version.incrementAndGet();
+		try {
+			if (table.delete(address))
+				size--;
+		} finally {
+			version.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Removes all the devices.
+	 */
+	synchronized void clear() {
+		version.incrementAndGet();
+		table = new Table(INITIAL_CAPACITY);
+		size = 0;
+		version.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the number of devices.
+	 * 
+	 * @return The number of devices.
+	 */
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns the 64-bit address contained in the given buffer as a 
+	 * {@code long}.
+	 * 
+	 * @param buffer The buffer containing the 8 bytes of the address.
+	 * @param offset The position of the most significant byte.
+	 * 
+	 * @return The 64-bit address as a {@code long}.
+	 */
+	static long toLong(byte[] buffer, int offset) {
+		long value = 0;
+		for (int i = offset; i < offset + 8; i++)
+			value = value << 8 | buffer[i] & 0xFF;
+		return value;
+	}
+	
+	/**
+	 * Returns the device with the given key in the given table.
+	 * 
+	 * @param t The table.
+	 * @param key The key.
+	 * 
+	 * @return The device, {@code null} if the key is not in the table.
+	 */
+	private static RemoteXBeeDevice find(Table t, long key) {
+		int mask = t.capacity - 1;
+		int index = hash(key) & mask;
+		// Bound the probes, a concurrent modification may fill the table.
+		for (int probes = 0; probes < t.capacity; probes++) {
+			RemoteXBeeDevice device = t.values.get(index);
+			if (device == null)
+				return null;
+			if (t.keys.get(index) == key)
+				return device;
+			index = (index + 1) & mask;
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the position in the table of the given key.
+	 * 
+	 * @param key The key.
+	 * 
+	 * @return The hash of the key.
+	 */
+	private static int hash(long key) {
+		// Mix the bits, as the addresses of a network share their high bytes.
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int)key;
+	}
+	
+	/**
+	 * Slots of the registry. Only modified while holding the lock of the 
+	 * registry.
+	 */
+	private static class Table {
+		
+		// Variables.
+		private final int capacity;
+		
+		private final AtomicLongArray keys;
+		
+		private final AtomicReferenceArray<RemoteXBeeDevice> values;
+		
+		/**
+		 * Class constructor. Instantiates a new empty {@code Table} with the 
+		 * given capacity.
+		 * 
+		 * @param capacity The number of slots. It must be a power of 2.
+		 */
+		Table(int capacity) {
+			this.capacity = capacity;
+			keys = new AtomicLongArray(capacity);
+			values = new AtomicReferenceArray<RemoteXBeeDevice>(capacity);
+		}
+		
+		/**
+		 * Returns a new table with the given capacity and the entries of this 
+		 * one.
+		 * 
+		 * @param newCapacity The number of slots of the new table.
+		 * 
+		 * @return The new table.
+		 */
+		Table resize(int newCapacity) {
+			Table resized = new Table(newCapacity);
+			for (int i = 0; i < capacity; i++) {
+				RemoteXBeeDevice value = values.get(i);
+				if (value != null)
+					resized.insert(keys.get(i), value);
+			}
+			return resized;
+		}
+		
+		/**
+		 * Returns the slot of the given key.
+		 * 
+		 * @param key The key.
+		 * 
+		 * @return The slot of the key, -1 if it is not in the table.
+		 */
+		int indexOf(long key) {
+			int mask = capacity - 1;
+			int index = hash(key) & mask;
+			while (values.get(index) != null) {
+				if (keys.get(index) == key)
+					return index;
+				index = (index + 1) & mask;
+			}
+			return -1;
+		}
+		
+		/**
+		 * Inserts the given entry in the first free slot of its probe 
+		 * sequence. The key must not be in the table.
+		 * 
+		 * @param key The key.
+		 * @param value The value.
+		 */
+		void insert(long key, RemoteXBeeDevice value) {
+			int mask = capacity - 1;
+			int index = hash(key) & mask;
+			while (values.get(index) != null)
+				index = (index + 1) & mask;
+			// Write the key first, so a slot with a value has its key.
+			keys.set(index, key);
+			values.set(index, value);
+		}
+		
+		/**
+		 * Deletes the entry with the given key, moving back the following 
+		 * entries of the probe sequence to fill the gap.
+		 * 
+		 * @param key The key.
+		 * 
+		 * @return {@code true} if the key was in the table, {@code false} 
+		 *         otherwise.
+		 */
+		boolean delete(long key) {
+			int gap = indexOf(key);
+			if (gap < 0)
+				return false;
+			
+			int mask = capacity - 1;
+			int index = gap;
+			while (true) {
+				index = (index + 1) & mask;
+				RemoteXBeeDevice value = values.get(index);
+				if (value == null)
+					break;
+				int home = hash(keys.get(index)) & mask;
+				// Keep the entry if its home slot is between the gap and it.
+				boolean reachable = gap <= index ? gap < home && home <= index : gap < home || home <= index;
+				if (reachable)
+					continue;
+				keys.set(gap, keys.get(index));
+				values.set(gap, value);
+				gap = index;
+			}
+			values.set(gap, null);
+			return true;
+		}
+	}
+}
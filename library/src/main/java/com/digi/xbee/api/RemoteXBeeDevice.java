@@ -12,6 +12,7 @@
 package com.digi.xbee.api;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.digi.xbee.api.exceptions.InterfaceNotOpenException;
 import com.digi.xbee.api.exceptions.TimeoutException;
@@ -32,6 +33,27 @@ import com.digi.xbee.api.models.XBeeProtocol;
  */
 public class RemoteXBeeDevice extends AbstractXBeeDevice {
 
+	// Constants.
+	/**
+	 * RSSI value of the devices whose signal strength is not known 
+	 * (value: {@value}).
+	 */
+	public static final int UNKNOWN_RSSI = 0;
+	
+	// Variables.
+	private volatile long lastSeen = 0;
+	
+	private volatile int rssi = UNKNOWN_RSSI;
+	
+	private volatile boolean pinned = false;
+	// Whether the device has been seen since the last eviction check.
+	private volatile boolean referenced = false;
+	
+	private final AtomicLong receivedFrames = new AtomicLong();
+	private final AtomicLong transmissions = new AtomicLong();
+	private final AtomicLong failedTransmissions = new AtomicLong();
+	private final AtomicLong transmitRetries = new AtomicLong();
+	
 	/**
 	 * Class constructor. Instantiates a new {@code RemoteXBeeDevice} object 
 	 * with the given local {@code XBeeDevice} which contains the connection 
@@ -100,6 +122,8 @@ public class RemoteXBeeDevice extends AbstractXBeeDevice {
 		
 		logger.info(toString() + "Resetting the remote module ({})...", get64BitAddress());
 		
+		invalidateParameterCache();
+		
 		ATCommandResponse response = null;
 		try {
 			response = sendATCommand(new ATCommand("FR"));
@@ -117,6 +141,220 @@ public class RemoteXBeeDevice extends AbstractXBeeDevice {
 		checkATCommandResponseIsValid(response);
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see com.digi.xbee.api.AbstractXBeeDevice#updateDeviceDataFrom(com.digi.xbee.api.AbstractXBeeDevice)
+	 */
+	@Override
+	public void updateDeviceDataFrom(AbstractXBeeDevice device) {
+		super.updateDeviceDataFrom(device);
+		
+		// Only update the RSSI if the provided one is known.
+		if (device instanceof RemoteXBeeDevice 
+				&& ((RemoteXBeeDevice)device).getRSSI() != UNKNOWN_RSSI)
+			rssi = ((RemoteXBeeDevice)device).getRSSI();
+	}
+	
+	/**
+	 * Returns the last time this remote device was added to or updated in 
+	 * the network of the local XBee device, a frame was received from it or 
+	 * it acknowledged a transmission.
+	 * 
+	 * @return The last seen time in milliseconds, {@code 0} if it has never 
+	 *         been seen.
+	 * 
+	 * @see XBeeNetwork#addRemoteDevice(RemoteXBeeDevice)
+	 * @see XBeeNetwork#getStaleDevices(long)
+	 */
+	public long getLastSeen() {
+		return lastSeen;
+	}
+	
+	/**
+	 * Sets the last time this remote device was seen.
+	 * 
+	 * @param lastSeen The last seen time in milliseconds.
+	 */
+	void setLastSeen(long lastSeen) {
+		this.lastSeen = lastSeen;
+		referenced = true;
+	}
+	
+	/**
+	 * Returns whether this remote device is pinned in the network of the 
+	 * local XBee device, so it is never evicted when the network is full nor 
+	 * removed when it becomes stale.
+	 * 
+	 * @return {@code true} if the device is pinned, {@code false} otherwise.
+	 * 
+	 * @see XBeeNetwork#pinDevice(RemoteXBeeDevice)
+	 * @see XBeeNetwork#setMaximumDevices(int)
+	 * @see XBeeNetwork#setDeviceTimeToLive(long)
+	 */
+	public boolean isPinned() {
+		return pinned;
+	}
+	
+	/**
+	 * Sets whether this remote device is pinned in the network.
+	 * 
+	 * @param pinned {@code true} to pin the device, {@code false} otherwise.
+	 */
+	void setPinned(boolean pinned) {
+		this.pinned = pinned;
+	}
+	
+	/**
+	 * Returns whether this remote device has been seen since the last call 
+	 * to this method, and clears that mark.
+	 * 
+	 * @return {@code true} if the device has been seen, {@code false} 
+	 *         otherwise.
+	 */
+	boolean clearReferenced() {
+		if (!referenced)
+			return false;
+		referenced = false;
+		return true;
+	}
+	
+	/**
+	 * Returns the signal strength of the last discovery response received 
+	 * from this remote device.
+	 * 
+	 * <p>Only 802.15.4 devices report the signal strength in their discovery 
+	 * responses.</p>
+	 * 
+	 * @return The RSSI in dBm, {@link #UNKNOWN_RSSI} if it is not known.
+	 */
+	public int getRSSI() {
+		return rssi;
+	}
+	
+	/**
+	 * Sets the signal strength of this remote device.
+	 * 
+	 * @param rssi The RSSI in dBm.
+	 */
+	void setRSSI(int rssi) {
+		this.rssi = rssi;
+	}
+	
+	/**
+	 * Returns the number of frames received from this remote device.
+	 * 
+	 * @return The number of received frames.
+	 */
+	public long getReceivedFrames() {
+		return receivedFrames.get();
+	}
+	
+	/**
+	 * Returns the number of unicast transmissions to this remote device 
+	 * whose transmit status has been received.
+	 * 
+	 * <p>Only the transmit status frames of ZigBee devices identify the 
+	 * destination device.</p>
+	 * 
+	 * @return The number of transmissions.
+	 * 
+	 * @see #getFailedTransmissions()
+	 * @see #getTransmitRetries()
+	 */
+	public long getTransmissions() {
+		return transmissions.get();
+	}
+	
+	/**
+	 * Returns the number of transmissions to this remote device that were 
+	 * not delivered.
+	 * 
+	 * @return The number of failed transmissions.
+	 * 
+	 * @see #getTransmissions()
+	 */
+	public long getFailedTransmissions() {
+		return failedTransmissions.get();
+	}
+	
+	/**
+	 * Returns the total number of retries needed to transmit to this remote 
+	 * device.
+	 * 
+	 * @return The number of transmit retries.
+	 * 
+	 * @see #getAverageTransmitRetries()
+	 * @see #getTransmissions()
+	 */
+	public long getTransmitRetries() {
+		return transmitRetries.get();
+	}
+	
+	/**
+	 * Returns the average number of retries needed to transmit to this 
+	 * remote device.
+	 * 
+	 * @return The average number of transmit retries, {@code 0} if there 
+	 *         have not been transmissions.
+	 * 
+	 * @see #getTransmitRetries()
+	 */
+	public double getAverageTransmitRetries() {
+		long count = transmissions.get();
+		if (count == 0)
+			return 0;
+		return (double)transmitRetries.get() / count;
+	}
+	
+	/**
+	 * Returns the ratio of transmissions to this remote device that were not 
+	 * delivered.
+	 * 
+	 * @return The failed transmissions ratio, between {@code 0} and 
+	 *         {@code 1}.
+	 * 
+	 * @see #getFailedTransmissions()
+	 */
+	public double getFailedTransmissionsRatio() {
+		long count = transmissions.get();
+		if (count == 0)
+			return 0;
+		return (double)failedTransmissions.get() / count;
+	}
+	
+	/**
+	 * Records that a frame has been received from this remote device.
+	 * 
+	 * <p><b>This is for internal use only.</b></p>
+	 * 
+	 * @param time The time the frame was received in milliseconds.
+	 */
+	public void frameReceived(long time) {
+		lastSeen = time;
+		referenced = true;
+		receivedFrames.incrementAndGet();
+	}
+	
+	/**
+	 * Records the transmit status of a transmission to this remote device.
+	 * 
+	 * <p><b>This is for internal use only.</b></p>
+	 * 
+	 * @param retries The number of transmit retries.
+	 * @param delivered {@code true} if the transmission was delivered, 
+	 *                  {@code false} otherwise.
+	 * @param time The time the transmit status was received in milliseconds.
+	 */
+	public void transmitStatusReceived(int retries, boolean delivered, long time) {
+		transmissions.incrementAndGet();
+		transmitRetries.addAndGet(retries);
+		if (delivered) {
+			lastSeen = time;
+			referenced = true;
+		} else
+			failedTransmissions.incrementAndGet();
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see com.digi.xbee.api.AbstractXBeeDevice#toString()
@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a hashed timer wheel used to expire a large number 
+ * of pending operations with a single thread.
+ * 
+ * <p>Scheduling and cancelling a timeout are constant time operations that 
+ * do not lock. Timeouts are placed in the slot of the wheel corresponding 
+ * to their deadline and the worker thread only checks the timeouts of one 
+ * slot every tick, so the precision of the timeouts is the tick duration.
+ * </p>
+ * 
+ * <p>The worker thread is a daemon thread started with the first scheduled 
+ * timeout. It parks while there are no pending timeouts and it is woken up 
+ * by the next scheduled one.</p>
+ */
+class TimerWheel {
+	
+	// Constants.
+	private static final int DEFAULT_TICK = 10;
+	private static final int DEFAULT_WHEEL_SIZE = 512;
+	
+	// Variables.
+	private final long tickDuration;
+	
+	private final List<List<Timeout>> wheel;
+	
+	private final int mask;
+	
+	private final ConcurrentLinkedQueue<Timeout> newTimeouts = new ConcurrentLinkedQueue<Timeout>();
+	
+	private long startTime;
+	private long tick = 0;
+	
+	// Number of timeouts placed in the slots of the wheel.
+	private int wheelTimeouts = 0;
+	
+	private volatile Thread worker;
+	
+	private volatile boolean parked = false;
+	
+	private Logger logger;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code TimerWheel} with the 
+	 * default tick duration and number of slots.
+	 * 
+	 * @see #TimerWheel(long, int)
+	 */
+	TimerWheel() {
+		this(DEFAULT_TICK, DEFAULT_WHEEL_SIZE);
+	}
+	
+	/**
+	 * Class constructor. Instantiates a new {@code TimerWheel} with the given 
+	 * parameters.
+	 * 
+	 * @param tickDuration Duration of each tick in milliseconds.
+	 * @param wheelSize Number of slots of the wheel. It must be a power of 2.
+	 * 
+	 * @throws IllegalArgumentException if {@code tickDuration < 1} or 
+	 *                                  if {@code wheelSize} is not a power 
+	 *                                  of 2.
+	 */
+	TimerWheel(long tickDuration, int wheelSize) {
+		if (tickDuration < 1)
+			throw new IllegalArgumentException("Tick duration must be greater than 0.");
+		if (wheelSize < 1 || Integer.bitCount(wheelSize) != 1)
+			throw new IllegalArgumentException("Wheel size must be a power of 2.");
+		
+		this.tickDuration = tickDuration;
+		this.wheel = new ArrayList<List<Timeout>>(wheelSize);
+		for (int i = 0; i < wheelSize; i++)
+			wheel.add(new ArrayList<Timeout>());
+		this.mask = wheelSize - 1;
+		this.logger = LoggerFactory.getLogger(TimerWheel.class);
+	}
+	
+	/**
+	 * Schedules the given task to be executed by the worker thread once the 
+	 * given delay expires.
+	 * 
+	 * <p>The task must be short, as it delays the rest of timeouts.</p>
+	 * 
+	 * @param task The task to execute.
+	 * @param delay The delay in milliseconds.
+	 * 
+	 * @return The scheduled timeout, that can be used to cancel it.
+	 * 
+	 * @throws NullPointerException if {@code task == null}.
+	 */
+	Timeout schedule(Runnable task, long delay) {
+		if (task == null)
+			throw new NullPointerException("Task cannot be null.");
+		
+		Thread thread = worker;
+		if (thread == null)
+			thread = startWorker();
+		Timeout timeout = new Timeout(task, System.currentTimeMillis() + Math.max(0, delay));
+		newTimeouts.add(timeout);
+		if (parked)
+			LockSupport.unpark(thread);
+		return timeout;
+	}
+	
+	/**
+	 * Starts the worker thread if it is not running yet.
+	 * 
+	 * @return The worker thread.
+	 */
+	private synchronized Thread startWorker() {
+		if (worker != null)
+			return worker;
+		
+		startTime = System.currentTimeMillis();
+		Thread thread = new Thread(new Runnable() {
+			/*
+			 * (non-Javadoc)
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() {
+				runWorker();
+			}
+		}, "TimerWheel");
+		thread.setDaemon(true);
+		thread.start();
+		worker = thread;
+		return thread;
+	}
+	
+	/**
+	 * Advances the wheel every tick, expiring the timeouts of the current 
+	 * slot, and parks while there are no pending timeouts.
+	 */
+	private void runWorker() {
+		while (true) {
+			if (wheelTimeouts == 0 && newTimeouts.isEmpty()) {
+				parked = true;
+				// Check again in case a timeout was scheduled without unparking.
+				if (newTimeouts.isEmpty())
+					LockSupport.park(this);
+				parked = false;
+				// The wheel is empty, so the ticks elapsed while parked are skipped.
+				tick = Math.max(tick, (System.currentTimeMillis() - startTime) / tickDuration);
+				continue;
+			}
+			
+			long deadline = startTime + (tick + 1) * tickDuration;
+			long sleepTime = deadline - System.currentTimeMillis();
+			if (sleepTime > 0) {
+				try {
+					Thread.sleep(sleepTime);
+				} catch (InterruptedException e) { }
+				continue;
+			}
+			
+			transferNewTimeouts();
+			expireTimeouts(wheel.get((int)(tick & mask)));
+			tick++;
+		}
+	}
+	
+	/**
+	 * Places the newly scheduled timeouts in the slots of the wheel.
+	 */
+	private void transferNewTimeouts() {
+		Timeout timeout;
+		while ((timeout = newTimeouts.poll()) != null) {
+			if (timeout.isCancelled())
+				continue;
+			long expirationTick = Math.max(tick, (timeout.deadline - startTime + tickDuration - 1) / tickDuration);
+			timeout.remainingRounds = (expirationTick - tick) / wheel.size();
+			wheel.get((int)(expirationTick & mask)).add(timeout);
+			wheelTimeouts++;
+		}
+	}
+	
+	/**
+	 * Executes the expired timeouts of the given slot and discards the 
+	 * cancelled ones.
+	 * 
+	 * @param slot The slot of the wheel to process.
+	 */
+	private void expireTimeouts(List<Timeout> slot) {
+		Iterator<Timeout> iterator = slot.iterator();
+		while (iterator.hasNext()) {
+			Timeout timeout = iterator.next();
+			if (timeout.isCancelled()) {
+				iterator.remove();
+				wheelTimeouts--;
+			} else if (timeout.remainingRounds <= 0) {
+				iterator.remove();
+				wheelTimeouts--;
+				try {
+					timeout.task.run();
+				} catch (Exception e) {
+					logger.error(e.getMessage(), e);
+				}
+			} else
+				timeout.remainingRounds--;
+		}
+	}
+	
+	/**
+	 * This class represents a timeout scheduled in the timer wheel.
+	 */
+	static class Timeout {
+		
+		// Variables.
+		private final Runnable task;
+		
+		private final long deadline;
+		
+		private long remainingRounds;
+		
+		private volatile boolean cancelled = false;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Timeout} with the given 
+		 * parameters.
+		 * 
+		 * @param task The task to execute when the timeout expires.
+		 * @param deadline The time in milliseconds at which it expires.
+		 */
+		Timeout(Runnable task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+		
+		/**
+		 * Cancels this timeout so its task is not executed.
+		 */
+		void cancel() {
+			cancelled = true;
+		}
+		
+		/**
+		 * Returns whether this timeout has been cancelled.
+		 * 
+		 * @return {@code true} if the timeout was cancelled, {@code false} 
+		 *         otherwise.
+		 */
+		boolean isCancelled() {
+			return cancelled;
+		}
+	}
+}
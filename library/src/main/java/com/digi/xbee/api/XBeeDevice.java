@@ -11,9 +11,17 @@
  */
 package com.digi.xbee.api;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import com.digi.xbee.api.connection.DataReader;
+import com.digi.xbee.api.connection.DuplicateFrameFilter;
+import com.digi.xbee.api.connection.FrameRingBuffer;
 import com.digi.xbee.api.connection.IConnectionInterface;
 import com.digi.xbee.api.connection.serial.SerialPortParameters;
 import com.digi.xbee.api.exceptions.ATCommandException;
@@ -23,14 +31,20 @@ import com.digi.xbee.api.exceptions.InvalidOperatingModeException;
 import com.digi.xbee.api.exceptions.OperationNotSupportedException;
 import com.digi.xbee.api.exceptions.TimeoutException;
 import com.digi.xbee.api.exceptions.XBeeException;
+import com.digi.xbee.api.io.IODigitalChangeDetector;
+import com.digi.xbee.api.io.IOSampleAggregator;
+import com.digi.xbee.api.io.IOSampleHistory;
+import com.digi.xbee.api.listeners.IFrameRingListener;
 import com.digi.xbee.api.listeners.IIOSampleReceiveListener;
 import com.digi.xbee.api.listeners.IModemStatusReceiveListener;
 import com.digi.xbee.api.listeners.IPacketReceiveListener;
+import com.digi.xbee.api.listeners.IRawFrameReceiveListener;
 import com.digi.xbee.api.listeners.IDataReceiveListener;
 import com.digi.xbee.api.models.APIOutputMode;
 import com.digi.xbee.api.models.ATCommand;
 import com.digi.xbee.api.models.ATCommandResponse;
 import com.digi.xbee.api.models.ExplicitXBeeMessage;
+import com.digi.xbee.api.models.FrameWaitStrategy;
 import com.digi.xbee.api.models.ModemStatusEvent;
 import com.digi.xbee.api.models.OperatingMode;
 import com.digi.xbee.api.models.XBee16BitAddress;
@@ -75,6 +89,25 @@ public class XBeeDevice extends AbstractXBeeDevice {
 	
 	private boolean modemStatusReceived = false;
 	
+	private boolean rawFrameMode = false;
+	private APIFrameType[] rawFrameTypes = null;
+	
+	private XBeeOutboundQueue outboundQueue;
+	
+	private DuplicateFrameFilter duplicateFrameFilter;
+	
+	private volatile XBeeRPC rpc;
+	
+	private NetworkSnapshot networkSnapshot;
+	
+	private final CopyOnWriteArrayList<IIOSampleReceiveListener> ioSampleProcessors = new CopyOnWriteArrayList<IIOSampleReceiveListener>();
+	
+	private IOSampleHistory ioSampleHistory;
+	
+	private IOSampleAggregator ioSampleAggregator;
+	
+	private IODigitalChangeDetector ioDigitalChangeDetector;
+	
 	/**
 	 * Class constructor. Instantiates a new {@code XBeeDevice} object 
 	 * physically connected to the given port name and configured at the 
@@ -183,8 +216,150 @@ public class XBeeDevice extends AbstractXBeeDevice {
 	 * 
 	 * @see #close()
 	 * @see #isOpen()
+	 * @see #openAsync(DeviceIdentityCache)
 	 */
 	public void open() throws XBeeException {
+		openConnection();
+		initializeDevice();
+	}
+	
+	/**
+	 * Opens the connection interface associated with this XBee device in the 
+	 * background.
+	 * 
+	 * <p>This method returns immediately and the information reading 
+	 * process of {@link #open()} is performed in another thread. The returned 
+	 * future completes when the device is ready or fails with the exception 
+	 * that {@code open()} would have thrown.</p>
+	 * 
+	 * @return The future to wait until the device is open.
+	 * 
+	 * @throws InterfaceAlreadyOpenException if this device connection is 
+	 *                                       already open.
+	 * 
+	 * @see #open()
+	 * @see #openAsync(DeviceIdentityCache)
+	 */
+	public Future<Void> openAsync() throws XBeeException {
+		return openAsync(null);
+	}
+	
+	/**
+	 * Opens the connection interface associated with this XBee device in the 
+	 * background, starting from the last known identity of the device 
+	 * connected to the same port.
+	 * 
+	 * <p>If the given cache knows the identity of the device (operating 
+	 * mode, 64-bit address, hardware version, firmware version and 
+	 * protocol), the connection is opened and the identity restored before 
+	 * returning, so the device can be used right away. The identity is then 
+	 * verified in the background with a single batch of AT commands, which 
+	 * also reads the rest of the information. If the verification fails, 
+	 * for example because the operating mode of the device changed, the 
+	 * device is initialized again as in {@link #open()}.</p>
+	 * 
+	 * <p>Otherwise, the whole opening process is performed in the 
+	 * background. In both cases the cache is updated with the identity read 
+	 * from the device.</p>
+	 * 
+	 * @param identityCache The cache with the last known identities, 
+	 *                      {@code null} not to use any.
+	 * 
+	 * @return The future to wait until the device is open and its identity 
+	 *         has been verified.
+	 * 
+	 * @throws InterfaceAlreadyOpenException if this device connection is 
+	 *                                       already open.
+	 * @throws XBeeException if there is any problem opening the connection 
+	 *                       interface.
+	 * 
+	 * @see #open()
+	 * @see #openAsync()
+	 * @see DeviceIdentityCache
+	 */
+	public Future<Void> openAsync(final DeviceIdentityCache identityCache) throws XBeeException {
+		// First, verify that the connection is not already open.
+		if (connectionInterface.isOpen())
+			throw new InterfaceAlreadyOpenException();
+		
+		final String port = DeviceIdentityCache.getKey(connectionInterface);
+		final DeviceIdentityCache.Identity identity = identityCache != null ? identityCache.get(port) : null;
+		if (identity != null) {
+			logger.debug(toString() + "Using the last known identity of the device.");
+			// Start with the known identity so the device is usable right away.
+			if (operatingMode == OperatingMode.UNKNOWN)
+				operatingMode = identity.operatingMode;
+			xbee64BitAddress = identity.address64;
+			restoreDeviceInfo(identity.protocol, identity.hardwareVersion, identity.firmwareVersion);
+			
+			openConnection();
+			
+			// Let the outbound queue transmit the pending entries.
+			if (outboundQueue != null)
+				outboundQueue.wakeUp();
+		}
+		
+		FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+			/*
+			 * (non-Javadoc)
+			 * @see java.util.concurrent.Callable#call()
+			 */
+			@Override
+			public Void call() throws XBeeException {
+				if (identity == null)
+					open();
+				else
+					verifyIdentity();
+				
+				if (identityCache != null)
+					identityCache.put(port, XBeeDevice.this);
+				return null;
+			}
+		});
+		Thread thread = new Thread(task, "XBeeDevice open " + port);
+		thread.setDaemon(true);
+		thread.start();
+		return task;
+	}
+	
+	/**
+	 * Verifies the identity restored from the cache reading the device 
+	 * information again, and initializes the device from scratch if it 
+	 * could not be verified.
+	 * 
+	 * @throws XBeeException if there is any problem initializing the device.
+	 * 
+	 * @see #openAsync(DeviceIdentityCache)
+	 */
+	private void verifyIdentity() throws XBeeException {
+		try {
+			readDeviceInfo(true);
+			restoreNetworkSnapshot();
+			return;
+		} catch (InterfaceNotOpenException e) {
+			throw e;
+		} catch (XBeeException e) {
+			logger.warn(toString() + "Could not verify the last known identity of the device: {}", e.getMessage());
+		}
+		
+		// Forget the restored identity and determine everything again.
+		operatingMode = OperatingMode.UNKNOWN;
+		xbee64BitAddress = XBee64BitAddress.UNKNOWN_ADDRESS;
+		restoreDeviceInfo(XBeeProtocol.UNKNOWN, null, null);
+		initializeDevice();
+	}
+	
+	/**
+	 * Opens the connection interface and starts the data reader.
+	 * 
+	 * @throws InterfaceAlreadyOpenException if this device connection is 
+	 *                                       already open.
+	 * @throws XBeeException if there is any problem opening this device 
+	 *                       connection.
+	 * 
+	 * @see #initializeDevice()
+	 */
+	private void openConnection() throws XBeeException {
 		logger.info(toString() + "Opening the connection interface...");
 		
 		// First, verify that the connection is not already open.
@@ -198,6 +373,11 @@ public class XBeeDevice extends AbstractXBeeDevice {
 		
 		// Initialize the data reader.
 		dataReader = new DataReader(connectionInterface, operatingMode, this);
+		dataReader.setRawFrameTypeFilter(rawFrameTypes);
+		dataReader.setRawFrameMode(rawFrameMode);
+		dataReader.setDuplicateFrameFilter(duplicateFrameFilter);
+		dataReader.setRPC(rpc);
+		dataReader.setIOSampleProcessors(ioSampleProcessors);
 		dataReader.start();
 		
 		// Wait 10 milliseconds until the dataReader thread is started.
@@ -207,7 +387,20 @@ public class XBeeDevice extends AbstractXBeeDevice {
 		try {
 			Thread.sleep(10);
 		} catch (InterruptedException e) {}
-		
+	}
+	
+	/**
+	 * Determines the operating mode of the device if it is unknown and reads 
+	 * its information.
+	 * 
+	 * @throws InvalidOperatingModeException if the operating mode cannot be 
+	 *                                       determined or is not supported.
+	 * @throws XBeeException if there is any problem reading the device 
+	 *                       information.
+	 * 
+	 * @see #openConnection()
+	 */
+	private void initializeDevice() throws XBeeException {
 		// Determine the operating mode of the XBee device if it is unknown.
 		if (operatingMode == OperatingMode.UNKNOWN)
 			operatingMode = determineOperatingMode();
@@ -227,6 +420,25 @@ public class XBeeDevice extends AbstractXBeeDevice {
 		} catch (ATCommandException e) {
 			throw new XBeeException("Error reading device information.", e);
 		}
+		
+		restoreNetworkSnapshot();
+		
+		// Let the outbound queue transmit the pending entries.
+		if (outboundQueue != null)
+			outboundQueue.wakeUp();
+	}
+	
+	/**
+	 * Restores the network from the network snapshot, if enabled.
+	 * 
+	 * <p>This must be done once the protocol of the device is known, so the 
+	 * restored remote devices are created with the class of its protocol.</p>
+	 * 
+	 * @see #enableNetworkSnapshot(File)
+	 */
+	private synchronized void restoreNetworkSnapshot() {
+		if (networkSnapshot != null)
+			getNetwork().setSnapshot(networkSnapshot);
 	}
 	
 	/**
@@ -242,6 +454,11 @@ public class XBeeDevice extends AbstractXBeeDevice {
 		// Close interface.
 		connectionInterface.close();
 		logger.info(toString() + "Connection interface closed.");
+		
+		synchronized (this) {
+			if (networkSnapshot != null)
+				networkSnapshot.flush();
+		}
 	}
 	
 	/**
@@ -512,6 +729,267 @@ public class XBeeDevice extends AbstractXBeeDevice {
 		super.removeModemStatusListener(listener);
 	}
 	
+	/**
+	 * Adds the provided listener to the list of listeners to be notified
+	 * when new API frames are received while the raw frame mode is enabled.
+	 * 
+	 * <p>If the listener has been already included this method does nothing.
+	 * </p>
+	 * 
+	 * @param listener Listener to be notified when new raw frames are 
+	 *                 received.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}
+	 * 
+	 * @see #removeRawFrameListener(IRawFrameReceiveListener)
+	 * @see #setRawFrameMode(boolean)
+	 * @see com.digi.xbee.api.listeners.IRawFrameReceiveListener
+	 */
+	public void addRawFrameListener(IRawFrameReceiveListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		if (dataReader == null)
+			return;
+		dataReader.addRawFrameReceiveListener(listener);
+	}
+	
+	/**
+	 * Removes the provided listener from the list of raw frame listeners.
+	 * 
+	 * <p>If the listener was not in the list this method does nothing.</p>
+	 * 
+	 * @param listener Listener to be removed from the list of listeners.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}
+	 * 
+	 * @see #addRawFrameListener(IRawFrameReceiveListener)
+	 * @see com.digi.xbee.api.listeners.IRawFrameReceiveListener
+	 */
+	public void removeRawFrameListener(IRawFrameReceiveListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		if (dataReader == null)
+			return;
+		dataReader.removeRawFrameReceiveListener(listener);
+	}
+	
+	/**
+	 * Enables or disables the raw frame mode of this XBee device.
+	 * 
+	 * <p>In raw frame mode, received API frames are only validated (length and 
+	 * checksum) and delivered to the raw frame listeners without being decoded. 
+	 * They are not added to the network, stored in the received packets queue 
+	 * nor notified to the rest of listeners.</p>
+	 * 
+	 * <p>The setting is kept when the connection is closed and opened again.
+	 * </p>
+	 * 
+	 * @param enabled {@code true} to enable the raw frame mode, {@code false} 
+	 *                to disable it.
+	 * 
+	 * @see #isRawFrameMode()
+	 * @see #setRawFrameTypeFilter(APIFrameType...)
+	 * @see #addRawFrameListener(IRawFrameReceiveListener)
+	 */
+	public void setRawFrameMode(boolean enabled) {
+		rawFrameMode = enabled;
+		if (dataReader != null)
+			dataReader.setRawFrameMode(enabled);
+	}
+	
+	/**
+	 * Returns whether the raw frame mode of this XBee device is enabled or not.
+	 * 
+	 * @return {@code true} if the raw frame mode is enabled, {@code false} 
+	 *         otherwise.
+	 * 
+	 * @see #setRawFrameMode(boolean)
+	 */
+	public boolean isRawFrameMode() {
+		return rawFrameMode;
+	}
+	
+	/**
+	 * Sets the API frame types delivered as raw frames when the raw frame mode 
+	 * is enabled. Frames of any other type are decoded and dispatched as 
+	 * usual.
+	 * 
+	 * <p>Keep the AT command response and transmit status frame types out of 
+	 * the filter to be able to configure the device and send data while the 
+	 * raw frame mode is enabled. If no frame type is provided (or 
+	 * {@code null}), all received frames are delivered as raw frames.</p>
+	 * 
+	 * @param frameTypes The API frame types to deliver as raw frames, 
+	 *                   {@code null} or none to deliver all of them.
+	 * 
+	 * @see #setRawFrameMode(boolean)
+	 * @see com.digi.xbee.api.packet.APIFrameType
+	 */
+	public void setRawFrameTypeFilter(APIFrameType... frameTypes) {
+		rawFrameTypes = frameTypes == null ? null : frameTypes.clone();
+		if (dataReader != null)
+			dataReader.setRawFrameTypeFilter(rawFrameTypes);
+	}
+	
+	/**
+	 * Enables the detection of duplicated received data frames using the 
+	 * given time window.
+	 * 
+	 * <p>Data frames received from the same device with the same payload 
+	 * within the time window are discarded before being added to the 
+	 * received packets queue or notified to any listener, so retransmissions 
+	 * that reach this device more than once are only delivered once.</p>
+	 * 
+	 * <p>The setting is kept when the connection is closed and opened again.
+	 * </p>
+	 * 
+	 * @param window Time window in milliseconds during which a repeated 
+	 *               frame is considered a duplicate.
+	 * 
+	 * @throws IllegalArgumentException if {@code window < 1}.
+	 * 
+	 * @see #enableDuplicateFrameFilter(long, int)
+	 * @see #disableDuplicateFrameFilter()
+	 * @see #getSuppressedDuplicateFrames()
+	 * @see DuplicateFrameFilter
+	 */
+	public void enableDuplicateFrameFilter(long window) {
+		enableDuplicateFrameFilter(window, DuplicateFrameFilter.DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Enables the detection of duplicated received data frames using the 
+	 * given time window and capacity.
+	 * 
+	 * <p>The setting is kept when the connection is closed and opened again.
+	 * </p>
+	 * 
+	 * @param window Time window in milliseconds during which a repeated 
+	 *               frame is considered a duplicate.
+	 * @param capacity Maximum number of distinct frames remembered per time 
+	 *                 window.
+	 * 
+	 * @throws IllegalArgumentException if {@code window < 1} or 
+	 *                                  if {@code capacity < 1}.
+	 * 
+	 * @see #enableDuplicateFrameFilter(long)
+	 * @see #disableDuplicateFrameFilter()
+	 * @see #getSuppressedDuplicateFrames()
+	 * @see DuplicateFrameFilter
+	 */
+	public void enableDuplicateFrameFilter(long window, int capacity) {
+		duplicateFrameFilter = new DuplicateFrameFilter(window, capacity);
+		if (dataReader != null)
+			dataReader.setDuplicateFrameFilter(duplicateFrameFilter);
+	}
+	
+	/**
+	 * Disables the detection of duplicated received data frames.
+	 * 
+	 * @see #enableDuplicateFrameFilter(long)
+	 * @see #enableDuplicateFrameFilter(long, int)
+	 */
+	public void disableDuplicateFrameFilter() {
+		duplicateFrameFilter = null;
+		if (dataReader != null)
+			dataReader.setDuplicateFrameFilter(null);
+	}
+	
+	/**
+	 * Returns the number of received data frames discarded as duplicates 
+	 * since the duplicates detection was enabled.
+	 * 
+	 * @return The number of discarded duplicated frames, {@code 0} if the 
+	 *         duplicates detection is disabled.
+	 * 
+	 * @see #enableDuplicateFrameFilter(long)
+	 * @see #enableDuplicateFrameFilter(long, int)
+	 */
+	public long getSuppressedDuplicateFrames() {
+		DuplicateFrameFilter filter = duplicateFrameFilter;
+		return filter == null ? 0 : filter.getSuppressedCount();
+	}
+	
+	/**
+	 * Adds the provided listener as a consumer of the frame ring buffer, so 
+	 * it is notified in order about every API frame received by this device.
+	 * 
+	 * <p>Each consumer runs in its own thread and waits for new frames with 
+	 * the given strategy. Frames are kept in preallocated entries that are 
+	 * reused, so consumers must copy any data they need to keep.</p>
+	 * 
+	 * <p>Consumers must keep up with the received frames. If the slowest 
+	 * consumer falls a whole ring behind, the thread that reads the frames 
+	 * waits for it up to {@link FrameRingBuffer#DEFAULT_MAX_PUBLISH_WAIT} 
+	 * milliseconds. After that, the frames are not published in the ring 
+	 * until the consumer catches up, so a slow consumer does not block the 
+	 * rest of operations of the device. These frames are still delivered to 
+	 * the regular listeners and they are counted in 
+	 * {@link #getDroppedRingFrames()}.</p>
+	 * 
+	 * <p>If the listener has been already included this method does nothing.
+	 * </p>
+	 * 
+	 * @param listener Listener to be notified about every received frame.
+	 * @param waitStrategy Strategy the consumer uses to wait for new frames.
+	 * 
+	 * @throws NullPointerException if {@code listener == null} or
+	 *                              if {@code waitStrategy == null}.
+	 * 
+	 * @see #removeFrameRingListener(IFrameRingListener)
+	 * @see #getDroppedRingFrames()
+	 * @see com.digi.xbee.api.listeners.IFrameRingListener
+	 * @see com.digi.xbee.api.models.FrameWaitStrategy
+	 */
+	public void addFrameRingListener(IFrameRingListener listener, FrameWaitStrategy waitStrategy) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		if (waitStrategy == null)
+			throw new NullPointerException("Wait strategy cannot be null.");
+		
+		if (dataReader == null)
+			return;
+		dataReader.addFrameRingListener(listener, waitStrategy);
+	}
+	
+	/**
+	 * Removes the provided listener from the consumers of the frame ring 
+	 * buffer.
+	 * 
+	 * <p>If the listener was not a consumer this method does nothing.</p>
+	 * 
+	 * @param listener Listener to be removed.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}
+	 * 
+	 * @see #addFrameRingListener(IFrameRingListener, FrameWaitStrategy)
+	 * @see com.digi.xbee.api.listeners.IFrameRingListener
+	 */
+	public void removeFrameRingListener(IFrameRingListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		if (dataReader == null)
+			return;
+		dataReader.removeFrameRingListener(listener);
+	}
+	
+	/**
+	 * Returns the number of received frames that were not published in the 
+	 * frame ring buffer because its slowest consumer was a whole ring behind.
+	 * 
+	 * @return The number of dropped frames, {@code 0} if no frame ring 
+	 *         listener has been added.
+	 * 
+	 * @see #addFrameRingListener(IFrameRingListener, FrameWaitStrategy)
+	 */
+	public long getDroppedRingFrames() {
+		FrameRingBuffer ringBuffer = dataReader == null ? null : dataReader.getFrameRingBuffer();
+		return ringBuffer == null ? 0 : ringBuffer.getDroppedFrames();
+	}
+	
 	/**
 	 * Sends asynchronously the provided data to the XBee device of the network 
 	 * corresponding to the given 64-bit address.
@@ -832,6 +1310,501 @@ public class XBeeDevice extends AbstractXBeeDevice {
 		}
 	}
 	
+	/**
+	 * Enables the durable outbound queue of this XBee device using the given 
+	 * journal file with the default capacity.
+	 * 
+	 * @param journalFile The journal file to store the queued data in.
+	 * 
+	 * @return The outbound queue.
+	 * 
+	 * @throws NullPointerException if {@code journalFile == null}.
+	 * @throws XBeeException if the journal file cannot be opened.
+	 * 
+	 * @see #enableOutboundQueue(File, int)
+	 * @see #sendDataQueued(RemoteXBeeDevice, byte[])
+	 * @see XBeeOutboundQueue
+	 */
+	public XBeeOutboundQueue enableOutboundQueue(File journalFile) throws XBeeException {
+		return enableOutboundQueue(journalFile, XBeeOutboundQueue.DEFAULT_JOURNAL_CAPACITY);
+	}
+	
+	/**
+	 * Enables the durable outbound queue of this XBee device using the given 
+	 * journal file.
+	 * 
+	 * <p>The entries that were pending in the journal file are transmitted 
+	 * again as soon as the connection of the device is open.</p>
+	 * 
+	 * <p>If the outbound queue is already enabled, this method returns it.
+	 * </p>
+	 * 
+	 * @param journalFile The journal file to store the queued data in.
+	 * @param journalCapacity The size in bytes of the journal file.
+	 * 
+	 * @return The outbound queue.
+	 * 
+	 * @throws IllegalArgumentException if {@code journalCapacity < 1}.
+	 * @throws NullPointerException if {@code journalFile == null}.
+	 * @throws XBeeException if the journal file cannot be opened.
+	 * 
+	 * @see #disableOutboundQueue()
+	 * @see #getOutboundQueue()
+	 * @see #sendDataQueued(RemoteXBeeDevice, byte[])
+	 * @see XBeeOutboundQueue
+	 */
+	public synchronized XBeeOutboundQueue enableOutboundQueue(File journalFile, int journalCapacity) throws XBeeException {
+		if (outboundQueue != null)
+			return outboundQueue;
+		
+		try {
+			outboundQueue = new XBeeOutboundQueue(this, journalFile, journalCapacity);
+		} catch (IOException e) {
+			throw new XBeeException("Error opening the outbound journal.", e);
+		}
+		outboundQueue.start();
+		return outboundQueue;
+	}
+	
+	/**
+	 * Disables the durable outbound queue of this XBee device.
+	 * 
+	 * <p>Queued entries not transmitted yet remain in the journal file and 
+	 * are transmitted when the queue is enabled again.</p>
+	 * 
+	 * @see #enableOutboundQueue(File)
+	 * @see #enableOutboundQueue(File, int)
+	 */
+	public synchronized void disableOutboundQueue() {
+		if (outboundQueue == null)
+			return;
+		outboundQueue.stop();
+		outboundQueue = null;
+	}
+	
+	/**
+	 * Returns the durable outbound queue of this XBee device.
+	 * 
+	 * @return The outbound queue, {@code null} if it is not enabled.
+	 * 
+	 * @see #enableOutboundQueue(File)
+	 * @see #enableOutboundQueue(File, int)
+	 */
+	public XBeeOutboundQueue getOutboundQueue() {
+		return outboundQueue;
+	}
+	
+	/**
+	 * Queues the provided data to be sent to the given XBee device through 
+	 * the durable outbound queue.
+	 * 
+	 * <p>This method does not wait for the transmission, not even for the 
+	 * connection to be open. The data is stored in the journal of the queue 
+	 * and sent in the background until a successful transmit status is 
+	 * received.</p>
+	 * 
+	 * @param remoteXBeeDevice The XBee device of the network that will receive 
+	 *                         the data.
+	 * @param data Byte array containing the data to be sent.
+	 * 
+	 * @return The identifier of the queued entry.
+	 * 
+	 * @throws NullPointerException if {@code remoteXBeeDevice == null} or 
+	 *                              if {@code data == null}.
+	 * @throws XBeeException if the outbound queue is not enabled or 
+	 *                       if the data cannot be stored in the journal.
+	 * 
+	 * @see #enableOutboundQueue(File)
+	 * @see #sendData(RemoteXBeeDevice, byte[])
+	 * @see XBeeOutboundQueue
+	 */
+	public long sendDataQueued(RemoteXBeeDevice remoteXBeeDevice, byte[] data) throws XBeeException {
+		if (remoteXBeeDevice == null)
+			throw new NullPointerException("Remote XBee device cannot be null");
+		
+		XBeeOutboundQueue queue = outboundQueue;
+		if (queue == null)
+			throw new XBeeException("The outbound queue is not enabled.");
+		
+		XBee64BitAddress address64Bit = remoteXBeeDevice.get64BitAddress();
+		XBee16BitAddress address16Bit = remoteXBeeDevice.get16BitAddress();
+		return queue.add(address64Bit != null ? address64Bit : XBee64BitAddress.UNKNOWN_ADDRESS, 
+				address16Bit != null ? address16Bit : XBee16BitAddress.UNKNOWN_ADDRESS, data);
+	}
+	
+	/**
+	 * Enables the network snapshot of this XBee device using the given file 
+	 * with the default capacity.
+	 * 
+	 * @param snapshotFile The file to store the devices of the network in.
+	 * 
+	 * @throws NullPointerException if {@code snapshotFile == null}.
+	 * @throws XBeeException if the snapshot file cannot be opened.
+	 * 
+	 * @see #enableNetworkSnapshot(File, int)
+	 * @see #disableNetworkSnapshot()
+	 */
+	public void enableNetworkSnapshot(File snapshotFile) throws XBeeException {
+		enableNetworkSnapshot(snapshotFile, NetworkSnapshot.DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Enables the network snapshot of this XBee device using the given file.
+	 * 
+	 * <p>The devices stored in the snapshot file are added to the network 
+	 * as soon as the device is open and its protocol is known, so the 
+	 * network can be used without discovering it again. Devices stored with 
+	 * another protocol are ignored. From then on, every device added to, 
+	 * updated in or removed from the network is appended to the snapshot 
+	 * file.</p>
+	 * 
+	 * <p>If the network snapshot is already enabled, this method does 
+	 * nothing.</p>
+	 * 
+	 * @param snapshotFile The file to store the devices of the network in.
+	 * @param capacity The size in bytes of the snapshot file.
+	 * 
+	 * @throws IllegalArgumentException if {@code capacity < 1}.
+	 * @throws NullPointerException if {@code snapshotFile == null}.
+	 * @throws XBeeException if the snapshot file cannot be opened.
+	 * 
+	 * @see #disableNetworkSnapshot()
+	 * @see #enableNetworkSnapshot(File)
+	 * @see XBeeNetwork
+	 */
+	public synchronized void enableNetworkSnapshot(File snapshotFile, int capacity) throws XBeeException {
+		if (snapshotFile == null)
+			throw new NullPointerException("Snapshot file cannot be null.");
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be greater than 0.");
+		
+		if (networkSnapshot != null)
+			return;
+		
+		try {
+			networkSnapshot = new NetworkSnapshot(snapshotFile, capacity);
+		} catch (IOException e) {
+			throw new XBeeException("Error opening the network snapshot.", e);
+		}
+		if (isOpen())
+			getNetwork().setSnapshot(networkSnapshot);
+	}
+	
+	/**
+	 * Disables the network snapshot of this XBee device.
+	 * 
+	 * <p>The snapshot file keeps the devices stored so far, so they are 
+	 * restored when the snapshot is enabled again.</p>
+	 * 
+	 * @see #enableNetworkSnapshot(File)
+	 * @see #enableNetworkSnapshot(File, int)
+	 */
+	public synchronized void disableNetworkSnapshot() {
+		if (networkSnapshot == null)
+			return;
+		
+		if (network != null)
+			network.setSnapshot(null);
+		try {
+			networkSnapshot.close();
+		} catch (IOException e) {
+			logger.error(toString() + "Error closing the network snapshot.", e);
+		}
+		networkSnapshot = null;
+	}
+	
+	/**
+	 * Enables the IO sample history of this XBee device.
+	 * 
+	 * <p>From then on, the values of every IO sample received from the 
+	 * remote devices are stored in the history as soon as the sample is 
+	 * received. If the history is already enabled, this method returns it 
+	 * without changing its capacity or retention.</p>
+	 * 
+	 * @param capacity Maximum number of values stored for each IO line of 
+	 *                 each remote device.
+	 * @param retention Time to keep the values in milliseconds, 0 to keep 
+	 *                  them until the buffer is full.
+	 * 
+	 * @return The IO sample history.
+	 * 
+	 * @throws IllegalArgumentException if {@code capacity < 1} or 
+	 *                                  if {@code retention < 0}.
+	 * 
+	 * @see #disableIOSampleHistory()
+	 * @see #getIOSampleHistory()
+	 * @see IOSampleHistory
+	 */
+	public synchronized IOSampleHistory enableIOSampleHistory(int capacity, long retention) {
+		if (ioSampleHistory != null)
+			return ioSampleHistory;
+		
+		ioSampleHistory = new IOSampleHistory(capacity, retention);
+		ioSampleProcessors.add(ioSampleHistory);
+		return ioSampleHistory;
+	}
+	
+	/**
+	 * Returns the IO sample history of this XBee device.
+	 * 
+	 * @return The IO sample history, {@code null} if it is not enabled.
+	 * 
+	 * @see #disableIOSampleHistory()
+	 * @see #enableIOSampleHistory(int, long)
+	 */
+	public synchronized IOSampleHistory getIOSampleHistory() {
+		return ioSampleHistory;
+	}
+	
+	/**
+	 * Disables the IO sample history of this XBee device, discarding the 
+	 * stored values.
+	 * 
+	 * @see #enableIOSampleHistory(int, long)
+	 * @see #getIOSampleHistory()
+	 */
+	public synchronized void disableIOSampleHistory() {
+		if (ioSampleHistory == null)
+			return;
+		
+		ioSampleProcessors.remove(ioSampleHistory);
+		ioSampleHistory.clear();
+		ioSampleHistory = null;
+	}
+	
+	/**
+	 * Enables the aggregation of the analog IO samples received by this XBee 
+	 * device.
+	 * 
+	 * <p>From then on, the analog values of every IO sample received from 
+	 * the remote devices are added to the windows of the aggregator as soon 
+	 * as the sample is received. If the aggregation is already enabled, this 
+	 * method returns the existing aggregator without changing its 
+	 * windows.</p>
+	 * 
+	 * @param windowSize Size of the windows in milliseconds.
+	 * @param slide Time between the start of two consecutive windows in 
+	 *              milliseconds, equal to {@code windowSize} for tumbling 
+	 *              windows.
+	 * 
+	 * @return The IO sample aggregator.
+	 * 
+	 * @throws IllegalArgumentException if {@code slide < 1} or 
+	 *                                  if {@code windowSize < slide} or 
+	 *                                  if {@code windowSize} is not a 
+	 *                                  multiple of {@code slide}.
+	 * 
+	 * @see #disableIOSampleAggregation()
+	 * @see #getIOSampleAggregator()
+	 * @see IOSampleAggregator
+	 */
+	public synchronized IOSampleAggregator enableIOSampleAggregation(long windowSize, long slide) {
+		if (ioSampleAggregator != null)
+			return ioSampleAggregator;
+		
+		ioSampleAggregator = new IOSampleAggregator(windowSize, slide);
+		ioSampleProcessors.add(ioSampleAggregator);
+		return ioSampleAggregator;
+	}
+	
+	/**
+	 * Returns the IO sample aggregator of this XBee device.
+	 * 
+	 * @return The IO sample aggregator, {@code null} if the aggregation is 
+	 *         not enabled.
+	 * 
+	 * @see #disableIOSampleAggregation()
+	 * @see #enableIOSampleAggregation(long, long)
+	 */
+	public synchronized IOSampleAggregator getIOSampleAggregator() {
+		return ioSampleAggregator;
+	}
+	
+	/**
+	 * Disables the aggregation of the analog IO samples of this XBee device, 
+	 * discarding the open windows.
+	 * 
+	 * @see #enableIOSampleAggregation(long, long)
+	 * @see #getIOSampleAggregator()
+	 */
+	public synchronized void disableIOSampleAggregation() {
+		if (ioSampleAggregator == null)
+			return;
+		
+		ioSampleProcessors.remove(ioSampleAggregator);
+		ioSampleAggregator.clear();
+		ioSampleAggregator = null;
+	}
+	
+	/**
+	 * Enables the detection of the changes of the digital IO lines of the 
+	 * remote devices.
+	 * 
+	 * <p>From then on, the digital values of every IO sample received from 
+	 * the remote devices are compared with the previous ones as soon as the 
+	 * sample is received, and only the changes are notified to the listeners 
+	 * of the detector. If the detection is already enabled, this method 
+	 * returns the existing detector.</p>
+	 * 
+	 * @return The digital change detector.
+	 * 
+	 * @see #disableIODigitalChangeDetection()
+	 * @see #getIODigitalChangeDetector()
+	 * @see IODigitalChangeDetector
+	 */
+	public synchronized IODigitalChangeDetector enableIODigitalChangeDetection() {
+		if (ioDigitalChangeDetector != null)
+			return ioDigitalChangeDetector;
+		
+		ioDigitalChangeDetector = new IODigitalChangeDetector();
+		ioSampleProcessors.add(ioDigitalChangeDetector);
+		return ioDigitalChangeDetector;
+	}
+	
+	/**
+	 * Returns the digital change detector of this XBee device.
+	 * 
+	 * @return The digital change detector, {@code null} if the detection is 
+	 *         not enabled.
+	 * 
+	 * @see #disableIODigitalChangeDetection()
+	 * @see #enableIODigitalChangeDetection()
+	 */
+	public synchronized IODigitalChangeDetector getIODigitalChangeDetector() {
+		return ioDigitalChangeDetector;
+	}
+	
+	/**
+	 * Disables the detection of the changes of the digital IO lines, 
+	 * discarding the last values of the remote devices.
+	 * 
+	 * @see #enableIODigitalChangeDetection()
+	 * @see #getIODigitalChangeDetector()
+	 */
+	public synchronized void disableIODigitalChangeDetection() {
+		if (ioDigitalChangeDetector == null)
+			return;
+		
+		ioSampleProcessors.remove(ioDigitalChangeDetector);
+		ioDigitalChangeDetector.clear();
+		ioDigitalChangeDetector = null;
+	}
+	
+	/**
+	 * Sends the provided request to the given XBee device and waits for its 
+	 * response.
+	 * 
+	 * <p>The request is tagged with a correlation ID and the response is 
+	 * matched as soon as it is received, so it is never returned by 
+	 * {@link #readData()} or {@link #readDataFrom(RemoteXBeeDevice)} nor 
+	 * notified to the data listeners. The remote device must answer using 
+	 * {@link #sendRPCResponse(RemoteXBeeDevice, int, byte[])} or 
+	 * {@link XBeeRPC#createResponse(int, byte[])}.</p>
+	 * 
+	 * @param remoteXBeeDevice The XBee device of the network that will 
+	 *                         receive the request.
+	 * @param data Byte array containing the request data.
+	 * @param timeout Maximum time in milliseconds to wait for the response.
+	 * 
+	 * @return The response data.
+	 * 
+	 * @throws IllegalArgumentException if {@code timeout < 1}.
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws NullPointerException if {@code remoteXBeeDevice == null} or 
+	 *                              if {@code data == null}.
+	 * @throws TimeoutException if the response is not received in time.
+	 * @throws XBeeException if there is any other XBee related exception.
+	 * 
+	 * @see #sendRPCAsync(RemoteXBeeDevice, byte[], int)
+	 * @see XBeeRPC
+	 */
+	public byte[] sendRPC(RemoteXBeeDevice remoteXBeeDevice, byte[] data, int timeout) throws TimeoutException, XBeeException {
+		XBeeRPCFuture future = sendRPCAsync(remoteXBeeDevice, data, timeout);
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new XBeeException("Interrupted while waiting for the RPC response.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof XBeeException)
+				throw (XBeeException)e.getCause();
+			throw new XBeeException(e.getMessage(), e.getCause());
+		}
+	}
+	
+	/**
+	 * Sends the provided request to the given XBee device and returns 
+	 * immediately a future that is completed with its response.
+	 * 
+	 * <p>Any number of requests can be pending at the same time, even for 
+	 * the same remote device. If the response is not received in time, the 
+	 * future fails with a {@code TimeoutException} cause.</p>
+	 * 
+	 * @param remoteXBeeDevice The XBee device of the network that will 
+	 *                         receive the request.
+	 * @param data Byte array containing the request data.
+	 * @param timeout Maximum time in milliseconds to wait for the response.
+	 * 
+	 * @return The future of the request.
+	 * 
+	 * @throws IllegalArgumentException if {@code timeout < 1}.
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws NullPointerException if {@code remoteXBeeDevice == null} or 
+	 *                              if {@code data == null}.
+	 * @throws XBeeException if the request cannot be sent.
+	 * 
+	 * @see #sendRPC(RemoteXBeeDevice, byte[], int)
+	 * @see XBeeRPC
+	 * @see XBeeRPCFuture
+	 */
+	public XBeeRPCFuture sendRPCAsync(RemoteXBeeDevice remoteXBeeDevice, byte[] data, int timeout) throws XBeeException {
+		return getRPC().call(remoteXBeeDevice, data, timeout);
+	}
+	
+	/**
+	 * Sends the response to the RPC request with the given correlation ID to 
+	 * the XBee device that sent it.
+	 * 
+	 * <p>Use {@link XBeeRPC#isRequest(byte[])} and 
+	 * {@link XBeeRPC#getCorrelationID(byte[])} to identify the received RPC 
+	 * requests.</p>
+	 * 
+	 * @param remoteXBeeDevice The XBee device that sent the request.
+	 * @param correlationID The correlation ID of the request.
+	 * @param data Byte array containing the response data.
+	 * 
+	 * @throws InterfaceNotOpenException if this device connection is not open.
+	 * @throws NullPointerException if {@code remoteXBeeDevice == null} or 
+	 *                              if {@code data == null}.
+	 * @throws XBeeException if there is any XBee related exception.
+	 * 
+	 * @see XBeeRPC
+	 */
+	public void sendRPCResponse(RemoteXBeeDevice remoteXBeeDevice, int correlationID, byte[] data) throws XBeeException {
+		sendDataAsync(remoteXBeeDevice, XBeeRPC.createResponse(correlationID, data));
+	}
+	
+	/**
+	 * Returns the RPC layer of this XBee device, creating it the first time.
+	 * 
+	 * @return The RPC layer.
+	 * 
+	 * @see XBeeRPC
+	 */
+	public XBeeRPC getRPC() {
+		if (rpc == null) {
+			synchronized (this) {
+				if (rpc == null) {
+					rpc = new XBeeRPC(this);
+					if (dataReader != null)
+						dataReader.setRPC(rpc);
+				}
+			}
+		}
+		return rpc;
+	}
+	
 	/**
 	 * Sends the provided data to all the XBee nodes of the network (broadcast).
 	 * 
@@ -1453,6 +2426,8 @@ public class XBeeDevice extends AbstractXBeeDevice {
 		
 		logger.info(toString() + "Resetting the local module...");
 		
+		invalidateParameterCache();
+		
 		ATCommandResponse response = null;
 		try {
 			response = sendATCommand(new ATCommand("FR"));
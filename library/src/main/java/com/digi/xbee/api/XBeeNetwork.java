@@ -11,22 +11,46 @@
  */
 package com.digi.xbee.api;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.digi.xbee.api.exceptions.ATCommandException;
 import com.digi.xbee.api.exceptions.InterfaceNotOpenException;
 import com.digi.xbee.api.exceptions.OperationNotSupportedException;
 import com.digi.xbee.api.exceptions.TimeoutException;
 import com.digi.xbee.api.exceptions.XBeeException;
+import com.digi.xbee.api.listeners.IConfigurationListener;
 import com.digi.xbee.api.listeners.IDiscoveryListener;
+import com.digi.xbee.api.listeners.IInventoryListener;
+import com.digi.xbee.api.listeners.INetworkChangeListener;
+import com.digi.xbee.api.models.ATCommandStatus;
+import com.digi.xbee.api.models.ConfigurationProfile;
 import com.digi.xbee.api.models.DiscoveryOptions;
+import com.digi.xbee.api.models.NetworkChange;
+import com.digi.xbee.api.models.NetworkChangeType;
 import com.digi.xbee.api.models.XBee16BitAddress;
 import com.digi.xbee.api.models.XBee64BitAddress;
 import com.digi.xbee.api.models.XBeeProtocol;
@@ -40,17 +64,113 @@ import com.digi.xbee.api.utils.ByteUtils;
  */
 public class XBeeNetwork {
 	
+	// Constants.
+	private static final long MIN_SWEEP_INTERVAL = 1000;
+	
+	// Number of changes kept to be requested incrementally (power of 2).
+	private static final int CHANGE_LOG_SIZE = 4096;
+	
+	/**
+	 * Maximum number of devices whose information can be read at the same 
+	 * time during an inventory: {@value}.
+	 * 
+	 * <p>All of them share the frame IDs of the local device. The reads wait 
+	 * for free frame IDs when all of them are in flight, so this only limits 
+	 * how many of them compete for the frame IDs.</p>
+	 * 
+	 * @see #setInventoryConcurrency(int)
+	 */
+	public static final int MAX_INVENTORY_CONCURRENCY = 0xFF / AbstractXBeeDevice.AT_COMMAND_PIPELINE_SIZE - 1;
+	
+	private static final int DEFAULT_INVENTORY_CONCURRENCY = 8;
+	private static final int DEFAULT_INVENTORY_RETRIES = 2;
+	
+	// Delay before the first retry of an inventory read, doubled on each retry.
+	private static final long INVENTORY_RETRY_DELAY = 1000;
+	private static final long MAX_INVENTORY_RETRY_DELAY = 30000;
+	
+	// Orders the devices from the oldest to the most recently seen.
+	private static final Comparator<RemoteXBeeDevice> LAST_SEEN_ORDER = new Comparator<RemoteXBeeDevice>() {
+		@Override
+		public int compare(RemoteXBeeDevice d1, RemoteXBeeDevice d2) {
+			long t1 = d1.getLastSeen();
+			long t2 = d2.getLastSeen();
+			return t1 < t2 ? -1 : (t1 == t2 ? 0 : 1);
+		}
+	};
+	
+	// Orders the devices from the worst to the best link: first by failed 
+	// transmissions ratio, then by average retries and then by RSSI.
+	private static final Comparator<RemoteXBeeDevice> WORST_LINK_ORDER = new Comparator<RemoteXBeeDevice>() {
+		@Override
+		public int compare(RemoteXBeeDevice d1, RemoteXBeeDevice d2) {
+			int result = Double.compare(d2.getFailedTransmissionsRatio(), d1.getFailedTransmissionsRatio());
+			if (result != 0)
+				return result;
+			result = Double.compare(d2.getAverageTransmitRetries(), d1.getAverageTransmitRetries());
+			if (result != 0)
+				return result;
+			// The unknown RSSI (0 dBm) is considered the best one.
+			return d1.getRSSI() < d2.getRSSI() ? -1 : (d1.getRSSI() == d2.getRSSI() ? 0 : 1);
+		}
+	};
+	
 	// Variables.
 
 	private XBeeDevice localDevice;
 	
 	private Map<XBee64BitAddress, RemoteXBeeDevice> remotesBy64BitAddr;
+	// Copy of the 64-bit map keyed by the address as a long for the receive path.
+	private RemoteDeviceRegistry remotesBy64BitKey;
 	private Map<XBee16BitAddress, RemoteXBeeDevice> remotesBy16BitAddr;
+	// Index of the devices of the 64-bit map by their 16-bit address.
+	private ConcurrentMap<XBee16BitAddress, RemoteXBeeDevice> remotes64By16BitAddr;
+	// Index of all the devices of the network by their node identifier.
+	private ConcurrentSkipListMap<String, CopyOnWriteArraySet<RemoteXBeeDevice>> remotesByNodeID;
 	
 	private List<IDiscoveryListener> discoveryListeners = new ArrayList<IDiscoveryListener>();
 	
 	private NodeDiscovery nodeDiscovery;
 	
+	private volatile NetworkSnapshot snapshot;
+	
+	private long deviceTimeToLive = 0;
+	
+	// Background thread of the network, started with the first task.
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactory() {
+				/*
+				 * (non-Javadoc)
+				 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+				 */
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "XBeeNetwork");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+	private ScheduledFuture<?> sweepTask;
+	
+	private List<INetworkChangeListener> changeListeners = new ArrayList<INetworkChangeListener>();
+	
+	private final NetworkChange[] changeLog = new NetworkChange[CHANGE_LOG_SIZE];
+	private long version = 0;
+	
+	private volatile int maximumDevices = 0;
+	
+	// CLOCK eviction: the hand goes over the 64-bit map and then over the 
+	// 16-bit map, giving a second chance to the recently seen devices.
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private Iterator<RemoteXBeeDevice> clockHand;
+	private boolean clockOn16BitMap = false;
+	
+	private final AtomicLong evictedDevices = new AtomicLong();
+	
+	private ScheduledThreadPoolExecutor inventoryExecutor;
+	private int inventoryConcurrency = DEFAULT_INVENTORY_CONCURRENCY;
+	private volatile int inventoryRetries = DEFAULT_INVENTORY_RETRIES;
+	
 	protected Logger logger;
 	
 	/**
@@ -68,7 +188,10 @@ public class XBeeNetwork {
 		
 		localDevice = device;
 		remotesBy64BitAddr = new ConcurrentHashMap<XBee64BitAddress, RemoteXBeeDevice>();
+		remotesBy64BitKey = new RemoteDeviceRegistry();
 		remotesBy16BitAddr = new ConcurrentHashMap<XBee16BitAddress, RemoteXBeeDevice>();
+		remotes64By16BitAddr = new ConcurrentHashMap<XBee16BitAddress, RemoteXBeeDevice>();
+		remotesByNodeID = new ConcurrentSkipListMap<String, CopyOnWriteArraySet<RemoteXBeeDevice>>();
 		nodeDiscovery = new NodeDiscovery(localDevice);
 		
 		logger = LoggerFactory.getLogger(this.getClass());
@@ -111,12 +234,13 @@ public class XBeeNetwork {
 	}
 	
 	/**
-	 * Discovers and reports all remote XBee devices that match the supplied 
+	 * Discovers and reports the remote XBee devices that match the supplied 
 	 * identifiers.
 	 * 
-	 * <p>This method blocks until the configured timeout expires. To configure 
-	 * the discovery timeout, use the method {@link #setDiscoveryTimeout(long)}.
-	 * </p>
+	 * <p>This method blocks until all the identifiers have responded or the 
+	 * configured timeout expires. Only the first device found for each 
+	 * identifier is reported. To configure the discovery timeout, use the 
+	 * method {@link #setDiscoveryTimeout(long)}.</p>
 	 * 
 	 * <p>To configure the discovery options, use the 
 	 * {@link #setDiscoveryOptions(Set)} method.</p> 
@@ -133,6 +257,7 @@ public class XBeeNetwork {
 	 * @throws XBeeException if there is an error discovering the devices.
 	 * 
 	 * @see #discoverDevice(String)
+	 * @see #discoverDevices(List, IDiscoveryListener)
 	 * @see RemoteXBeeDevice
 	 */
 	public List<RemoteXBeeDevice> discoverDevices(List<String> ids) throws XBeeException {
@@ -141,11 +266,54 @@ public class XBeeNetwork {
 		if (ids.size() == 0)
 			throw new IllegalArgumentException("List of device identifiers cannot be empty.");
 		
-		logger.debug("{}Discovering all '{}' devices.", localDevice.toString(), ids.toString());
+		logger.debug("{}Discovering '{}' devices.", localDevice.toString(), ids.toString());
 		
 		return nodeDiscovery.discoverDevices(ids);
 	}
 	
+	/**
+	 * Discovers the remote XBee devices that match the supplied identifiers, 
+	 * finishing as soon as a device has been found for every identifier 
+	 * instead of waiting for the whole discovery timeout.
+	 * 
+	 * <p>This method blocks until all the identifiers have responded or the 
+	 * configured timeout expires. Only the first device found for each 
+	 * identifier is reported. To configure the discovery timeout, use the 
+	 * method {@link #setDiscoveryTimeout(long)}.</p>
+	 * 
+	 * <p>Each device is reported to the given listener as soon as it is 
+	 * found, so callers can start working with it while the rest of 
+	 * identifiers are still being searched.</p>
+	 * 
+	 * @param ids List which contains the identifiers of the devices to be 
+	 *            discovered.
+	 * @param listener Discovery listener to be notified about every found 
+	 *                 device and when the discovery finishes, {@code null} 
+	 *                 to not be notified.
+	 * 
+	 * @return A list of the discovered remote XBee devices with the given 
+	 *         identifiers.
+	 * 
+	 * @throws IllegalArgumentException if {@code ids.size() == 0}.
+	 * @throws InterfaceNotOpenException if the device is not open.
+	 * @throws NullPointerException if {@code ids == null}.
+	 * @throws XBeeException if there is an error discovering the devices.
+	 * 
+	 * @see #discoverDevices(List)
+	 * @see com.digi.xbee.api.listeners.IDiscoveryListener
+	 * @see RemoteXBeeDevice
+	 */
+	public List<RemoteXBeeDevice> discoverDevices(List<String> ids, IDiscoveryListener listener) throws XBeeException {
+		if (ids == null)
+			throw new NullPointerException("List of device identifiers cannot be null.");
+		if (ids.size() == 0)
+			throw new IllegalArgumentException("List of device identifiers cannot be empty.");
+		
+		logger.debug("{}Discovering the first '{}' devices.", localDevice.toString(), ids.toString());
+		
+		return nodeDiscovery.discoverDevices(ids, listener);
+	}
+	
 	/**
 	 * Adds the given discovery listener to the list of listeners to be notified 
 	 * when the discovery process is running.
@@ -339,17 +507,7 @@ public class XBeeNetwork {
 			throw new IllegalArgumentException("Device identifier cannot be an empty string.");
 		
 		List<RemoteXBeeDevice> devices = new ArrayList<RemoteXBeeDevice>();
-		
-		// Look in the 64-bit map.
-		for (RemoteXBeeDevice remote : remotesBy64BitAddr.values()) {
-			if (id.equals(remote.getNodeID()))
-				devices.add(remote);
-		}
-		// Look in the 16-bit map.
-		for (RemoteXBeeDevice remote : remotesBy16BitAddr.values()) {
-			if (id.equals(remote.getNodeID()))
-				devices.add(remote);
-		}
+		addIndexedDevices(id, remotesByNodeID.get(id), devices);
 		// Return the list.
 		return devices;
 	}
@@ -379,18 +537,97 @@ public class XBeeNetwork {
 		if (id.length() == 0)
 			throw new IllegalArgumentException("Device identifier cannot be an empty string.");
 		
-		// Look in the 64-bit map.
-		for (RemoteXBeeDevice remote : remotesBy64BitAddr.values()) {
-			if (id.equals(remote.getNodeID()))
+		List<RemoteXBeeDevice> devices = getDevices(id);
+		// The devices of the 64-bit map are preferred over the 16-bit ones.
+		for (RemoteXBeeDevice remote : devices) {
+			XBee64BitAddress addr64 = remote.get64BitAddress();
+			if (addr64 != null && !addr64.equals(XBee64BitAddress.UNKNOWN_ADDRESS))
 				return remote;
 		}
-		// Look in the 16-bit map.
-		for (RemoteXBeeDevice remote : remotesBy16BitAddr.values()) {
-			if (id.equals(remote.getNodeID()))
-				return remote;
+		// The given ID is not in the network if the list is empty.
+		return devices.isEmpty() ? null : devices.get(0);
+	}
+	
+	/**
+	 * Returns all remote devices whose node identifier starts with the 
+	 * supplied prefix.
+	 * 
+	 * <p>Note that this method <b>does not perform a discovery</b>, only 
+	 * returns the devices that have been previously discovered.</p>
+	 * 
+	 * <p>The devices are looked up in an index sorted by node identifier, so 
+	 * only the devices matching the prefix are visited.</p>
+	 * 
+	 * @param prefix The prefix of the identifier of the devices to be 
+	 *               retrieved.
+	 * 
+	 * @return A list of the remote XBee devices contained in the network 
+	 *         whose identifier starts with the given prefix, sorted by 
+	 *         identifier.
+	 * 
+	 * @throws NullPointerException if {@code prefix == null}.
+	 * 
+	 * @see #getDevices(String)
+	 * @see #getDevicesByPattern(String)
+	 * @see RemoteXBeeDevice
+	 */
+	public List<RemoteXBeeDevice> getDevicesByPrefix(String prefix) {
+		if (prefix == null)
+			throw new NullPointerException("Prefix cannot be null.");
+		
+		return getDevicesByPattern(prefix + "*");
+	}
+	
+	/**
+	 * Returns all remote devices whose node identifier matches the supplied 
+	 * pattern.
+	 * 
+	 * <p>Note that this method <b>does not perform a discovery</b>, only 
+	 * returns the devices that have been previously discovered.</p>
+	 * 
+	 * <p>In the pattern, {@code '*'} matches any sequence of characters and 
+	 * {@code '?'} matches any single character, for example 
+	 * {@code "SENSOR-*"}. The devices are looked up in an index sorted by 
+	 * node identifier, so only the identifiers starting with the literal part 
+	 * of the pattern before the first wildcard are visited.</p>
+	 * 
+	 * @param pattern The pattern of the identifier of the devices to be 
+	 *                retrieved.
+	 * 
+	 * @return A list of the remote XBee devices contained in the network 
+	 *         whose identifier matches the given pattern, sorted by 
+	 *         identifier.
+	 * 
+	 * @throws IllegalArgumentException if {@code pattern.length() == 0}.
+	 * @throws NullPointerException if {@code pattern == null}.
+	 * 
+	 * @see #getDevices(String)
+	 * @see #getDevicesByPrefix(String)
+	 * @see RemoteXBeeDevice
+	 */
+	public List<RemoteXBeeDevice> getDevicesByPattern(String pattern) {
+		if (pattern == null)
+			throw new NullPointerException("Pattern cannot be null.");
+		if (pattern.length() == 0)
+			throw new IllegalArgumentException("Pattern cannot be an empty string.");
+		
+		// Get the literal part of the pattern.
+		int wildcard = 0;
+		while (wildcard < pattern.length() 
+				&& pattern.charAt(wildcard) != '*' && pattern.charAt(wildcard) != '?')
+			wildcard++;
+		String prefix = pattern.substring(0, wildcard);
+		boolean literal = wildcard == pattern.length();
+		
+		List<RemoteXBeeDevice> devices = new ArrayList<RemoteXBeeDevice>();
+		for (Map.Entry<String, CopyOnWriteArraySet<RemoteXBeeDevice>> entry : remotesByNodeID.tailMap(prefix).entrySet()) {
+			String id = entry.getKey();
+			if (!id.startsWith(prefix))
+				break;
+			if (literal ? id.equals(pattern) : matches(id, pattern))
+				addIndexedDevices(id, entry.getValue(), devices);
 		}
-		// The given ID is not in the network.
-		return null;
+		return devices;
 	}
 	
 	/**
@@ -419,6 +656,64 @@ public class XBeeNetwork {
 		return remotesBy64BitAddr.get(address);
 	}
 	
+	/**
+	 * Returns the remote device already contained in the network whose 64-bit 
+	 * address, as a {@code long}, matches the given one.
+	 * 
+	 * <p>Note that this method <b>does not perform a discovery</b>, only 
+	 * returns the device that has been previously discovered.</p>
+	 * 
+	 * <p>Unlike {@link #getDevice(XBee64BitAddress)}, this method does not 
+	 * lock nor create any object, so it is suitable for resolving the source 
+	 * of every received frame.</p>
+	 * 
+	 * @param address The 64-bit address of the device to be retrieved, with 
+	 *                the most significant byte of the address as the most 
+	 *                significant byte of the {@code long}.
+	 * 
+	 * @return The remote device in the network or {@code null} if it is not 
+	 *         found.
+	 * 
+	 * @see #getDevice(byte[], int)
+	 * @see #getDevice(XBee64BitAddress)
+	 */
+	public RemoteXBeeDevice getDevice(long address) {
+		return remotesBy64BitKey.get(address);
+	}
+	
+	/**
+	 * Returns the remote device already contained in the network whose 64-bit 
+	 * address is contained in the given buffer.
+	 * 
+	 * <p>Note that this method <b>does not perform a discovery</b>, only 
+	 * returns the device that has been previously discovered.</p>
+	 * 
+	 * <p>This method does not lock nor create any object, so the source 
+	 * device of a raw frame can be resolved directly from its address bytes.
+	 * </p>
+	 * 
+	 * @param buffer The buffer containing the 8 bytes of the 64-bit address, 
+	 *               most significant byte first.
+	 * @param offset The position of the first byte of the address.
+	 * 
+	 * @return The remote device in the network or {@code null} if it is not 
+	 *         found.
+	 * 
+	 * @throws IllegalArgumentException if {@code offset < 0} or 
+	 *                                  if {@code offset + 8 > buffer.length}.
+	 * @throws NullPointerException if {@code buffer == null}.
+	 * 
+	 * @see #getDevice(long)
+	 */
+	public RemoteXBeeDevice getDevice(byte[] buffer, int offset) {
+		if (buffer == null)
+			throw new NullPointerException("Buffer cannot be null.");
+		if (offset < 0 || offset + 8 > buffer.length)
+			throw new IllegalArgumentException("Buffer must contain 8 bytes from the offset.");
+		
+		return remotesBy64BitKey.get(RemoteDeviceRegistry.toLong(buffer, offset));
+	}
+	
 	/**
 	 * Returns the remote device already contained in the network whose 16-bit 
 	 * address matches the given one.
@@ -452,17 +747,8 @@ public class XBeeNetwork {
 		//    2.- Then in the 16-bit map.
 		// This should be maintained in the 'addRemoteDevice' method.
 		
-		RemoteXBeeDevice devInNetwork = null;
-		
 		// Look in the 64-bit map.
-		Collection<RemoteXBeeDevice> devices = remotesBy64BitAddr.values();
-		for (RemoteXBeeDevice d: devices) {
-			XBee16BitAddress a = get16BitAddress(d);
-			if (a != null && a.equals(address)) {
-				devInNetwork = d;
-				break;
-			}
-		}
+		RemoteXBeeDevice devInNetwork = get64BitDevice(address);
 		
 		// Look in the 16-bit map.
 		if (devInNetwork == null)
@@ -526,17 +812,24 @@ public class XBeeNetwork {
 						// The device exists in the 16-bit map, so remove it and add it to the 64-bit map.
 						logger.debug("{}Existing device '{}' in network.", localDevice.toString(), devInNetwork.toString());
 						devInNetwork = remotesBy16BitAddr.remove(addr16);
+						String oldNodeID = devInNetwork.getNodeID();
 						devInNetwork.updateDeviceDataFrom(remoteDevice);
-						remotesBy64BitAddr.put(addr64, devInNetwork);
+						put64BitDevice(addr64, devInNetwork);
+						indexDevice(devInNetwork, null, oldNodeID);
+						networkChanged(NetworkChangeType.READDRESSED, devInNetwork);
 						return devInNetwork;
 					} else {
 						// The device does not exist in the 16-bit map, so add it to the 64-bit map.
-						remotesBy64BitAddr.put(addr64, remoteDevice);
+						put64BitDevice(addr64, remoteDevice);
+						indexDevice(remoteDevice, null, null);
+						deviceAdded(remoteDevice);
 						return remoteDevice;
 					}
 				} else {
 					// The device has not 16-bit address, so add it to the 64-bit map.
-					remotesBy64BitAddr.put(addr64, remoteDevice);
+					put64BitDevice(addr64, remoteDevice);
+					indexDevice(remoteDevice, null, null);
+					deviceAdded(remoteDevice);
 					return remoteDevice;
 				}
 			}
@@ -545,14 +838,7 @@ public class XBeeNetwork {
 		// If the device has not 64-bit address, check if it has 16-bit address.
 		if (addr16 != null && !addr16.equals(XBee16BitAddress.UNKNOWN_ADDRESS)) {
 			// The device has 16-bit address, so look in the 64-bit map.
-			Collection<RemoteXBeeDevice> devices = remotesBy64BitAddr.values();
-			for (RemoteXBeeDevice d : devices) {
-				XBee16BitAddress a = get16BitAddress(d);
-				if (a != null && a.equals(addr16)) {
-					devInNetwork = d;
-					break;
-				}
-			}
+			devInNetwork = get64BitDevice(addr16);
 			// Check if the device exists in the 64-bit map.
 			if (devInNetwork != null) {
 				// The device exists in the 64-bit map, so update the reference and return it.
@@ -570,6 +856,8 @@ public class XBeeNetwork {
 				} else {
 					// The device does not exist in the 16-bit map, so add it.
 					remotesBy16BitAddr.put(addr16, remoteDevice);
+					indexDevice(remoteDevice, null, null);
+					deviceAdded(remoteDevice);
 					return remoteDevice;
 				}
 			}
@@ -664,7 +952,11 @@ public class XBeeNetwork {
 			
 			// Remove the device.
 			if (devInNetwork != null) {
-				remotesBy64BitAddr.remove(addr64);
+				remove64BitDevice(addr64);
+				remove16BitAddressIndex(devInNetwork);
+				removeNodeIDIndex(devInNetwork, devInNetwork.getNodeID());
+				removeFromSnapshot(devInNetwork);
+				networkChanged(NetworkChangeType.REMOVED, devInNetwork);
 				return;
 			}
 		}
@@ -679,13 +971,14 @@ public class XBeeNetwork {
 			// This should be maintained in the 'getDeviceBy16BitAddress' method.
 			
 			// Look for the 16-bit address in the 64-bit map.
-			Collection<RemoteXBeeDevice> devices = remotesBy64BitAddr.values();
-			for (RemoteXBeeDevice d: devices) {
-				XBee16BitAddress a = get16BitAddress(d);
-				if (a != null && a.equals(addr16)) {
-					remotesBy64BitAddr.remove(d.get64BitAddress());
-					return;
-				}
+			devInNetwork = get64BitDevice(addr16);
+			if (devInNetwork != null) {
+				remove64BitDevice(devInNetwork.get64BitAddress());
+				remotes64By16BitAddr.remove(addr16, devInNetwork);
+				removeNodeIDIndex(devInNetwork, devInNetwork.getNodeID());
+				removeFromSnapshot(devInNetwork);
+				networkChanged(NetworkChangeType.REMOVED, devInNetwork);
+				return;
 			}
 			
 			// If not found, look for the 16-bit address in the 16-bit map. 
@@ -694,6 +987,9 @@ public class XBeeNetwork {
 			// Remove the device.
 			if (devInNetwork != null) {
 				remotesBy16BitAddr.remove(addr16);
+				removeNodeIDIndex(devInNetwork, devInNetwork.getNodeID());
+				removeFromSnapshot(devInNetwork);
+				networkChanged(NetworkChangeType.REMOVED, devInNetwork);
 				return;
 			}
 		}
@@ -719,8 +1015,26 @@ public class XBeeNetwork {
 	 */
 	public void clearDeviceList() {
 		logger.debug("{}Clearing the network.", localDevice.toString());
-		remotesBy64BitAddr.clear();
+		List<RemoteXBeeDevice> removed = getDevices();
+		synchronized (remotesBy64BitKey) {
+			remotesBy64BitAddr.clear();
+			remotesBy64BitKey.clear();
+		}
 		remotesBy16BitAddr.clear();
+		remotes64By16BitAddr.clear();
+		remotesByNodeID.clear();
+		
+		NetworkSnapshot s = snapshot;
+		if (s != null) {
+			try {
+				s.clear();
+			} catch (IOException e) {
+				logger.error("{}Error clearing the network snapshot.", localDevice.toString(), e);
+			}
+		}
+		
+		for (RemoteXBeeDevice device:removed)
+			networkChanged(NetworkChangeType.REMOVED, device);
 	}
 	
 	/**
@@ -733,42 +1047,1274 @@ public class XBeeNetwork {
 	}
 	
 	/**
-	 * Retrieves the 16-bit address of the given remote device.
+	 * Returns the remote devices of the network that have not been seen in 
+	 * the given time.
 	 * 
-	 * @param device The remote device to get the 16-bit address.
+	 * <p>A device is seen when it is added to or updated in the network, 
+	 * when a frame is received from it or when it acknowledges a 
+	 * transmission.</p>
 	 * 
-	 * @return The 16-bit address of the device, {@code null} if it does not
-	 *         contain a valid one.
+	 * <p>The pinned devices are also returned, although they are never 
+	 * removed from the network when they become stale.</p>
+	 * 
+	 * @param maxAge Maximum time, in milliseconds, since a device was last 
+	 *               seen to not be considered stale.
+	 * 
+	 * @return A list with the stale devices, from the oldest to the most 
+	 *         recently seen.
+	 * 
+	 * @throws IllegalArgumentException if {@code maxAge < 0}.
+	 * 
+	 * @see #removeStaleDevices(long)
+	 * @see RemoteXBeeDevice#getLastSeen()
 	 */
-	private XBee16BitAddress get16BitAddress(RemoteXBeeDevice device) {
-		if (device == null)
-			return null;
+	public List<RemoteXBeeDevice> getStaleDevices(long maxAge) {
+		if (maxAge < 0)
+			throw new IllegalArgumentException("Maximum age cannot be less than 0.");
 		
-		XBee16BitAddress address = null;
+		long limit = System.currentTimeMillis() - maxAge;
+		List<RemoteXBeeDevice> stale = new ArrayList<RemoteXBeeDevice>();
+		for (RemoteXBeeDevice device:getDevices()) {
+			if (device.getLastSeen() < limit)
+				stale.add(device);
+		}
+		Collections.sort(stale, LAST_SEEN_ORDER);
+		return stale;
+	}
+	
+	/**
+	 * Removes from the network the remote devices that have not been seen in 
+	 * the given time.
+	 * 
+	 * <p>The pinned devices are kept in the network even if they are stale.
+	 * </p>
+	 * 
+	 * @param maxAge Maximum time, in milliseconds, since a device was last 
+	 *               seen to keep it in the network.
+	 * 
+	 * @return A list with the removed devices.
+	 * 
+	 * @throws IllegalArgumentException if {@code maxAge < 0}.
+	 * 
+	 * @see #getStaleDevices(long)
+	 * @see #setDeviceTimeToLive(long)
+	 * @see #pinDevice(RemoteXBeeDevice)
+	 */
+	public List<RemoteXBeeDevice> removeStaleDevices(long maxAge) {
+		List<RemoteXBeeDevice> stale = getStaleDevices(maxAge);
+		for (Iterator<RemoteXBeeDevice> it = stale.iterator(); it.hasNext();) {
+			RemoteXBeeDevice device = it.next();
+			if (device.isPinned())
+				it.remove();
+			else
+				removeRemoteDevice(device);
+		}
+		if (!stale.isEmpty())
+			logger.debug("{}Removed {} stale devices from the network.", localDevice.toString(), stale.size());
+		return stale;
+	}
+	
+	/**
+	 * Returns the remote devices of the network with the worst link quality.
+	 * 
+	 * <p>The devices are ordered by their ratio of failed transmissions, 
+	 * then by their average number of transmit retries and then by their 
+	 * signal strength.</p>
+	 * 
+	 * @param count Maximum number of devices to return.
+	 * 
+	 * @return A list with the devices with the worst link, from the worst to 
+	 *         the best.
+	 * 
+	 * @throws IllegalArgumentException if {@code count < 0}.
+	 * 
+	 * @see RemoteXBeeDevice#getFailedTransmissionsRatio()
+	 * @see RemoteXBeeDevice#getAverageTransmitRetries()
+	 * @see RemoteXBeeDevice#getRSSI()
+	 */
+	public List<RemoteXBeeDevice> getWorstLinkDevices(int count) {
+		if (count < 0)
+			throw new IllegalArgumentException("Count cannot be less than 0.");
 		
-		switch (device.getXBeeProtocol()) {
-		case RAW_802_15_4:
-			address = ((RemoteRaw802Device)device).get16BitAddress();
-			break;
-		case ZIGBEE:
-			address = ((RemoteZigBeeDevice)device).get16BitAddress();
-			break;
-		default:
-			// TODO should we allow this operation for general remote devices?
-			address = device.get16BitAddress();
-			break;
+		List<RemoteXBeeDevice> devices = getDevices();
+		Collections.sort(devices, WORST_LINK_ORDER);
+		if (devices.size() > count)
+			return new ArrayList<RemoteXBeeDevice>(devices.subList(0, count));
+		return devices;
+	}
+	
+	/**
+	 * Configures the time after which the devices that have not been seen 
+	 * are removed from the network.
+	 * 
+	 * <p>The stale devices are removed periodically by a background thread. 
+	 * A time to live of {@code 0} disables the removal, which is the default 
+	 * behavior. The pinned devices are never removed.</p>
+	 * 
+	 * @param timeToLive Time, in milliseconds, to keep a device that has not 
+	 *                   been seen in the network, {@code 0} to keep the 
+	 *                   devices forever.
+	 * 
+	 * @throws IllegalArgumentException if {@code timeToLive < 0}.
+	 * 
+	 * @see #getDeviceTimeToLive()
+	 * @see #removeStaleDevices(long)
+	 */
+	public synchronized void setDeviceTimeToLive(final long timeToLive) {
+		if (timeToLive < 0)
+			throw new IllegalArgumentException("Time to live cannot be less than 0.");
+		
+		deviceTimeToLive = timeToLive;
+		
+		if (sweepTask != null) {
+			sweepTask.cancel(false);
+			sweepTask = null;
 		}
+		if (timeToLive == 0)
+			return;
 		
-		return address;
+		long interval = Math.max(timeToLive / 4, MIN_SWEEP_INTERVAL);
+		sweepTask = executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					removeStaleDevices(timeToLive);
+				} catch (Exception e) {
+					logger.error("{}Error removing the stale devices.", localDevice.toString(), e);
+				}
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
 	}
 	
-	/*
-	 * (non-Javadoc)
-	 * @see java.lang.Object#toString()
+	/**
+	 * Returns the time after which the devices that have not been seen are 
+	 * removed from the network.
+	 * 
+	 * @return The time to live of the devices in milliseconds, {@code 0} if 
+	 *         they are never removed.
+	 * 
+	 * @see #setDeviceTimeToLive(long)
 	 */
-	@Override
-	public String toString(){
-		return getClass().getName() + " [" + localDevice.toString() + "] @" + 
-				Integer.toHexString(hashCode());
+	public synchronized long getDeviceTimeToLive() {
+		return deviceTimeToLive;
+	}
+	
+	/**
+	 * Configures the maximum number of devices of the network.
+	 * 
+	 * <p>When a new device is added to a full network, a device that has not 
+	 * been seen recently is evicted from it. Devices are seen when they are 
+	 * added or updated, when a frame is received from them or when they 
+	 * acknowledge a transmission. Pinned devices are never evicted, so the 
+	 * network may exceed the maximum if most of its devices are pinned.</p>
+	 * 
+	 * <p>A maximum of {@code 0} disables the eviction, which is the default 
+	 * behavior.</p>
+	 * 
+	 * @param maximumDevices Maximum number of devices of the network, 
+	 *                       {@code 0} for no limit.
+	 * 
+	 * @throws IllegalArgumentException if {@code maximumDevices < 0}.
+	 * 
+	 * @see #getMaximumDevices()
+	 * @see #getEvictedDevices()
+	 * @see #pinDevice(RemoteXBeeDevice)
+	 */
+	public void setMaximumDevices(int maximumDevices) {
+		if (maximumDevices < 0)
+			throw new IllegalArgumentException("Maximum number of devices cannot be less than 0.");
+		
+		this.maximumDevices = maximumDevices;
+		evictDevices();
+	}
+	
+	/**
+	 * Returns the maximum number of devices of the network.
+	 * 
+	 * @return The maximum number of devices, {@code 0} if there is no limit.
+	 * 
+	 * @see #setMaximumDevices(int)
+	 */
+	public int getMaximumDevices() {
+		return maximumDevices;
+	}
+	
+	/**
+	 * Returns the number of devices evicted from the network because it was 
+	 * full.
+	 * 
+	 * @return The number of evicted devices.
+	 * 
+	 * @see #setMaximumDevices(int)
+	 */
+	public long getEvictedDevices() {
+		return evictedDevices.get();
+	}
+	
+	/**
+	 * Adds the given remote device to the network, if it is not already 
+	 * there, and pins it so it is never evicted when the network is full 
+	 * nor removed when it becomes stale.
+	 * 
+	 * @param remoteDevice The remote device to pin.
+	 * 
+	 * @return The pinned remote device of the network, {@code null} if it 
+	 *         could not be added.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null}.
+	 * 
+	 * @see #unpinDevice(RemoteXBeeDevice)
+	 * @see #addRemoteDevice(RemoteXBeeDevice)
+	 * @see #setMaximumDevices(int)
+	 * @see RemoteXBeeDevice#isPinned()
+	 */
+	public RemoteXBeeDevice pinDevice(RemoteXBeeDevice remoteDevice) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		
+		// Pin it before adding it so it cannot be evicted.
+		remoteDevice.setPinned(true);
+		RemoteXBeeDevice devInNetwork = addRemoteDevice(remoteDevice);
+		if (devInNetwork != null)
+			devInNetwork.setPinned(true);
+		return devInNetwork;
+	}
+	
+	/**
+	 * Unpins the given remote device, so it can be evicted when the network 
+	 * is full or removed when it becomes stale.
+	 * 
+	 * @param remoteDevice The remote device to unpin.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null}.
+	 * 
+	 * @see #pinDevice(RemoteXBeeDevice)
+	 */
+	public void unpinDevice(RemoteXBeeDevice remoteDevice) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		
+		remoteDevice.setPinned(false);
+		
+		XBee64BitAddress addr64 = remoteDevice.get64BitAddress();
+		RemoteXBeeDevice devInNetwork = null;
+		if (addr64 != null && !addr64.equals(XBee64BitAddress.UNKNOWN_ADDRESS))
+			devInNetwork = remotesBy64BitAddr.get(addr64);
+		else {
+			XBee16BitAddress addr16 = get16BitAddress(remoteDevice);
+			if (addr16 != null && !addr16.equals(XBee16BitAddress.UNKNOWN_ADDRESS)) {
+				devInNetwork = get64BitDevice(addr16);
+				if (devInNetwork == null)
+					devInNetwork = remotesBy16BitAddr.get(addr16);
+			}
+		}
+		if (devInNetwork != null)
+			devInNetwork.setPinned(false);
+	}
+	
+	/**
+	 * Notifies that the given device has been added to the network and 
+	 * evicts other devices if the network is full.
+	 * 
+	 * @param device The added remote device.
+	 */
+	private void deviceAdded(RemoteXBeeDevice device) {
+		networkChanged(NetworkChangeType.ADDED, device);
+		if (maximumDevices > 0)
+			evictDevices();
+	}
+	
+	/**
+	 * Evicts devices from the network until it does not exceed the maximum 
+	 * number of devices.
+	 * 
+	 * <p>If another thread is already evicting devices, this method does 
+	 * nothing.</p>
+	 */
+	private void evictDevices() {
+		if (!evictionLock.tryLock())
+			return;
+		try {
+			int count = getNumberOfDevices();
+			// Every device gets at most a second chance.
+			int checks = 2 * count;
+			while (maximumDevices > 0 && count > maximumDevices && checks-- > 0) {
+				RemoteXBeeDevice device = advanceClockHand();
+				if (device == null)
+					break;
+				if (device.isPinned() || device.clearReferenced())
+					continue;
+				
+				logger.debug("{}Evicting device '{}' from the network.", localDevice.toString(), device.toString());
+				removeRemoteDevice(device);
+				evictedDevices.incrementAndGet();
+				count = getNumberOfDevices();
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * Moves the eviction clock hand to the next device of the network.
+	 * 
+	 * @return The next remote device, {@code null} if the network is empty.
+	 */
+	private RemoteXBeeDevice advanceClockHand() {
+		for (int i = 0; i < 3; i++) {
+			if (clockHand != null && clockHand.hasNext())
+				return clockHand.next();
+			clockOn16BitMap = clockHand != null && !clockOn16BitMap;
+			clockHand = clockOn16BitMap ? remotesBy16BitAddr.values().iterator() 
+					: remotesBy64BitAddr.values().iterator();
+		}
+		return null;
+	}
+	
+	/**
+	 * Adds the given listener to the list of listeners to be notified when a 
+	 * device is added to, updated in, readdressed in or removed from the 
+	 * network.
+	 * 
+	 * <p>The changes are notified asynchronously and in order from a 
+	 * background thread of the network.</p>
+	 * 
+	 * <p>If the listener has already been included, this method does nothing.
+	 * </p>
+	 * 
+	 * @param listener Listener to be notified when the network changes.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}.
+	 * 
+	 * @see com.digi.xbee.api.listeners.INetworkChangeListener
+	 * @see #removeNetworkChangeListener(INetworkChangeListener)
+	 * @see #getChangesSince(long)
+	 */
+	public void addNetworkChangeListener(INetworkChangeListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		synchronized (changeListeners) {
+			if (!changeListeners.contains(listener))
+				changeListeners.add(listener);
+		}
+	}
+	
+	/**
+	 * Removes the given listener from the list of network change listeners.
+	 * 
+	 * <p>If the listener is not included in the list, this method does nothing.
+	 * </p>
+	 * 
+	 * @param listener Network change listener to remove.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}.
+	 * 
+	 * @see com.digi.xbee.api.listeners.INetworkChangeListener
+	 * @see #addNetworkChangeListener(INetworkChangeListener)
+	 */
+	public void removeNetworkChangeListener(INetworkChangeListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		synchronized (changeListeners) {
+			if (changeListeners.contains(listener))
+				changeListeners.remove(listener);
+		}
+	}
+	
+	/**
+	 * Returns the current version of the network, which increases by one 
+	 * every time a device is added to, updated in, readdressed in or removed 
+	 * from the network.
+	 * 
+	 * @return The version of the network.
+	 * 
+	 * @see #getChangesSince(long)
+	 */
+	public long getVersion() {
+		synchronized (changeLog) {
+			return version;
+		}
+	}
+	
+	/**
+	 * Returns the changes of the network after the given version.
+	 * 
+	 * <p>Only the last changes are kept. If the given version is too old, 
+	 * this method returns {@code null} and the devices must be read again 
+	 * with {@link #getDevices()}.</p>
+	 * 
+	 * @param version The version of the network already known, {@code 0} 
+	 *                to request all the changes.
+	 * 
+	 * @return A list with the changes after the given version, in order, or 
+	 *         {@code null} if they are no longer available.
+	 * 
+	 * @throws IllegalArgumentException if {@code version < 0} or 
+	 *                                  if {@code version > getVersion()}.
+	 * 
+	 * @see #getVersion()
+	 * @see com.digi.xbee.api.models.NetworkChange
+	 */
+	public List<NetworkChange> getChangesSince(long version) {
+		if (version < 0)
+			throw new IllegalArgumentException("Version cannot be less than 0.");
+		
+		synchronized (changeLog) {
+			if (version > this.version)
+				throw new IllegalArgumentException("Version cannot be greater than the current version.");
+			if (this.version - version > CHANGE_LOG_SIZE)
+				return null;
+			
+			List<NetworkChange> changes = new ArrayList<NetworkChange>((int)(this.version - version));
+			for (long v = version + 1; v <= this.version; v++)
+				changes.add(changeLog[(int)(v & (CHANGE_LOG_SIZE - 1))]);
+			return changes;
+		}
+	}
+	
+	/**
+	 * Records the given change of the network and notifies it to the 
+	 * network change listeners.
+	 * 
+	 * @param type The type of change.
+	 * @param device The remote device that changed.
+	 */
+	private void networkChanged(NetworkChangeType type, RemoteXBeeDevice device) {
+		synchronized (changeLog) {
+			final NetworkChange change = new NetworkChange(++version, type, device);
+			changeLog[(int)(version & (CHANGE_LOG_SIZE - 1))] = change;
+			
+			final INetworkChangeListener[] listeners;
+			synchronized (changeListeners) {
+				if (changeListeners.isEmpty())
+					return;
+				listeners = changeListeners.toArray(new INetworkChangeListener[changeListeners.size()]);
+			}
+			// Submit the notification while holding the lock to keep the order.
+			executor.execute(new Runnable() {
+				/*
+				 * (non-Javadoc)
+				 * @see java.lang.Runnable#run()
+				 */
+				@Override
+				public void run() {
+					for (INetworkChangeListener listener:listeners) {
+						try {
+							listener.networkChanged(change);
+						} catch (Exception e) {
+							logger.error(e.getMessage(), e);
+						}
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Adds the given device to the 64-bit map.
+	 * 
+	 * <p>Both 64-bit indexes are updated atomically, so concurrent additions 
+	 * and removals of the same address cannot leave them different.</p>
+	 * 
+	 * @param address The 64-bit address of the device.
+	 * @param device The remote device.
+	 */
+	private void put64BitDevice(XBee64BitAddress address, RemoteXBeeDevice device) {
+		synchronized (remotesBy64BitKey) {
+			remotesBy64BitAddr.put(address, device);
+			remotesBy64BitKey.put(address.toLong(), device);
+		}
+	}
+	
+	/**
+	 * Removes the device with the given address from the 64-bit map.
+	 * 
+	 * <p>Both 64-bit indexes are updated atomically, so concurrent additions 
+	 * and removals of the same address cannot leave them different.</p>
+	 * 
+	 * @param address The 64-bit address of the device.
+	 */
+	private void remove64BitDevice(XBee64BitAddress address) {
+		synchronized (remotesBy64BitKey) {
+			remotesBy64BitAddr.remove(address);
+			remotesBy64BitKey.remove(address.toLong());
+		}
+	}
+	
+	/**
+	 * Updates the indexes and the snapshot of the network after the data of 
+	 * the given device has changed.
+	 * 
+	 * <p><b>This is for internal use only.</b></p>
+	 * 
+	 * <p>If the device is not in the network, this method does nothing. If 
+	 * its 16-bit address or node identifier changed, the network change 
+	 * listeners are notified.</p>
+	 * 
+	 * @param device The remote device whose data changed.
+	 * @param oldAddress The previous 16-bit address of the device, 
+	 *                   {@code null} if it was not indexed.
+	 * @param oldNodeID The previous node identifier of the device, 
+	 *                  {@code null} if it was not indexed.
+	 */
+	void updateDeviceIndexes(RemoteXBeeDevice device, XBee16BitAddress oldAddress, String oldNodeID) {
+		if (!indexDevice(device, oldAddress, oldNodeID))
+			return;
+		
+		XBee16BitAddress addr16 = device.get16BitAddress();
+		String nodeID = device.getNodeID();
+		if ((addr16 == null ? oldAddress != null : !addr16.equals(oldAddress))
+				|| (nodeID == null ? oldNodeID != null : !nodeID.equals(oldNodeID)))
+			networkChanged(NetworkChangeType.UPDATED, device);
+	}
+	
+	/**
+	 * Updates the indexes and the snapshot of the network after the given 
+	 * device has been added or its data has changed, without notifying the 
+	 * change.
+	 * 
+	 * @param device The remote device whose data changed.
+	 * @param oldAddress The previous 16-bit address of the device, 
+	 *                   {@code null} if it was not indexed.
+	 * @param oldNodeID The previous node identifier of the device, 
+	 *                  {@code null} if it was not indexed.
+	 * 
+	 * @return {@code true} if the device is in the network, {@code false} 
+	 *         otherwise.
+	 */
+	private boolean indexDevice(RemoteXBeeDevice device, XBee16BitAddress oldAddress, String oldNodeID) {
+		update16BitAddressIndex(device, oldAddress);
+		updateNodeIDIndex(device, oldNodeID);
+		
+		if (!contains(device))
+			return false;
+		device.setLastSeen(System.currentTimeMillis());
+		saveInSnapshot(device);
+		return true;
+	}
+	
+	/**
+	 * Sets the snapshot where the devices of this network are stored.
+	 * 
+	 * <p><b>This is for internal use only.</b></p>
+	 * 
+	 * <p>The devices stored in the snapshot are added to the network, and the 
+	 * devices of the network are stored in the snapshot. From then on, every 
+	 * change of the network is appended to the snapshot.</p>
+	 * 
+	 * @param snapshot The network snapshot, {@code null} to stop storing the 
+	 *                 changes of the network.
+	 */
+	synchronized void setSnapshot(NetworkSnapshot snapshot) {
+		if (snapshot == this.snapshot)
+			return;
+		this.snapshot = null;
+		if (snapshot == null)
+			return;
+		
+		List<NetworkSnapshot.Record> records = snapshot.load();
+		int restored = 0;
+		for (NetworkSnapshot.Record record:records) {
+			// Devices of another protocol cannot be in the network of the 
+			// local device, the module must have been changed.
+			if (record.getProtocol() != localDevice.getXBeeProtocol()) {
+				logger.debug("{}Ignoring device '{}' of the network snapshot, its protocol is {}.", 
+						localDevice.toString(), record.get64BitAddress(), record.getProtocol());
+				continue;
+			}
+			RemoteXBeeDevice device = createRemoteDevice(record);
+			if (addRemoteDevice(device) == device)
+				device.setLastSeen(record.getLastSeen());
+			restored++;
+		}
+		logger.debug("{}Restored {} devices from the network snapshot.", localDevice.toString(), restored);
+		
+		this.snapshot = snapshot;
+		for (RemoteXBeeDevice device:getDevices())
+			saveInSnapshot(device);
+	}
+	
+	/**
+	 * Creates a new remote device of the class of the stored protocol with 
+	 * the data of the given snapshot record.
+	 * 
+	 * @param record The snapshot record. Its protocol must be the protocol of 
+	 *               the local device.
+	 * 
+	 * @return The created remote device.
+	 */
+	private RemoteXBeeDevice createRemoteDevice(NetworkSnapshot.Record record) {
+		XBeeProtocol protocol = record.getProtocol();
+		XBee64BitAddress addr64 = record.get64BitAddress();
+		XBee16BitAddress addr16 = record.get16BitAddress();
+		String ni = record.getNodeID();
+		
+		RemoteXBeeDevice device;
+		switch (protocol) {
+		case ZIGBEE:
+			device = new RemoteZigBeeDevice(localDevice, addr64, addr16, ni);
+			break;
+		case DIGI_MESH:
+			device = new RemoteDigiMeshDevice(localDevice, addr64, ni);
+			break;
+		case DIGI_POINT:
+			device = new RemoteDigiPointDevice(localDevice, addr64, ni);
+			break;
+		case RAW_802_15_4:
+			device = new RemoteRaw802Device(localDevice, addr64, addr16, ni);
+			break;
+		default:
+			device = new RemoteXBeeDevice(localDevice, addr64, addr16, ni);
+			break;
+		}
+		device.restoreDeviceInfo(protocol, record.getHardwareVersion(), record.getFirmwareVersion());
+		return device;
+	}
+	
+	/**
+	 * Stores the current data of the given device in the snapshot, if any.
+	 * 
+	 * @param device The remote device to store.
+	 */
+	private void saveInSnapshot(RemoteXBeeDevice device) {
+		NetworkSnapshot s = snapshot;
+		if (s == null)
+			return;
+		try {
+			s.deviceChanged(device);
+		} catch (IOException e) {
+			logger.error("{}Error storing device '{}' in the network snapshot.", 
+					localDevice.toString(), device.toString(), e);
+		}
+	}
+	
+	/**
+	 * Removes the given device from the snapshot, if any.
+	 * 
+	 * @param device The removed remote device.
+	 */
+	private void removeFromSnapshot(RemoteXBeeDevice device) {
+		NetworkSnapshot s = snapshot;
+		if (s == null)
+			return;
+		try {
+			s.deviceRemoved(device);
+		} catch (IOException e) {
+			logger.error("{}Error removing device '{}' from the network snapshot.", 
+					localDevice.toString(), device.toString(), e);
+		}
+	}
+	
+	/**
+	 * Updates the 16-bit address index of the given device of the 64-bit map 
+	 * after its 16-bit address has been assigned or changed.
+	 * 
+	 * <p>If the device is not in the 64-bit map, this method does nothing.</p>
+	 * 
+	 * @param device The remote device whose 16-bit address changed.
+	 * @param oldAddress The previous 16-bit address of the device, 
+	 *                   {@code null} if it was not indexed.
+	 */
+	private void update16BitAddressIndex(RemoteXBeeDevice device, XBee16BitAddress oldAddress) {
+		XBee64BitAddress addr64 = device.get64BitAddress();
+		if (addr64 == null || remotesBy64BitAddr.get(addr64) != device)
+			return;
+		
+		XBee16BitAddress addr16 = get16BitAddress(device);
+		if (oldAddress != null && !oldAddress.equals(addr16))
+			remotes64By16BitAddr.remove(oldAddress, device);
+		// If the address was reassigned, the new owner replaces the old one.
+		if (addr16 != null && !addr16.equals(XBee16BitAddress.UNKNOWN_ADDRESS))
+			remotes64By16BitAddr.put(addr16, device);
+	}
+	
+	/**
+	 * Removes the given device from the 16-bit address index.
+	 * 
+	 * @param device The remote device removed from the 64-bit map.
+	 */
+	private void remove16BitAddressIndex(RemoteXBeeDevice device) {
+		XBee16BitAddress addr16 = get16BitAddress(device);
+		if (addr16 != null)
+			remotes64By16BitAddr.remove(addr16, device);
+	}
+	
+	/**
+	 * Returns the device of the 64-bit map whose 16-bit address matches the 
+	 * given one.
+	 * 
+	 * <p>Index entries whose device has changed its 16-bit address or is no 
+	 * longer in the 64-bit map are discarded.</p>
+	 * 
+	 * @param address The 16-bit address of the device to look for.
+	 * 
+	 * @return The device of the 64-bit map, {@code null} if it is not found.
+	 */
+	private RemoteXBeeDevice get64BitDevice(XBee16BitAddress address) {
+		RemoteXBeeDevice device = remotes64By16BitAddr.get(address);
+		if (device == null)
+			return null;
+		
+		XBee16BitAddress addr16 = get16BitAddress(device);
+		XBee64BitAddress addr64 = device.get64BitAddress();
+		if (addr16 != null && addr16.equals(address) 
+				&& addr64 != null && remotesBy64BitAddr.get(addr64) == device)
+			return device;
+		
+		// The entry is stale, so remove it.
+		remotes64By16BitAddr.remove(address, device);
+		return null;
+	}
+	
+	/**
+	 * Updates the node identifier index after the node identifier of the 
+	 * given device has been assigned or changed.
+	 * 
+	 * <p>If the device is not in the network, this method does nothing.</p>
+	 * 
+	 * @param device The remote device whose node identifier changed.
+	 * @param oldNodeID The previous node identifier of the device, 
+	 *                  {@code null} if it was not indexed.
+	 */
+	private void updateNodeIDIndex(RemoteXBeeDevice device, String oldNodeID) {
+		if (!contains(device))
+			return;
+		
+		String id = device.getNodeID();
+		if (oldNodeID != null && !oldNodeID.equals(id))
+			removeNodeIDIndex(device, oldNodeID);
+		if (id == null)
+			return;
+		
+		synchronized (remotesByNodeID) {
+			CopyOnWriteArraySet<RemoteXBeeDevice> devices = remotesByNodeID.get(id);
+			if (devices == null) {
+				devices = new CopyOnWriteArraySet<RemoteXBeeDevice>();
+				remotesByNodeID.put(id, devices);
+			}
+			devices.add(device);
+		}
+	}
+	
+	/**
+	 * Removes the given device from the node identifier index.
+	 * 
+	 * @param device The remote device to remove.
+	 * @param id The node identifier the device is indexed with.
+	 */
+	private void removeNodeIDIndex(RemoteXBeeDevice device, String id) {
+		if (id == null)
+			return;
+		
+		synchronized (remotesByNodeID) {
+			CopyOnWriteArraySet<RemoteXBeeDevice> devices = remotesByNodeID.get(id);
+			if (devices == null)
+				return;
+			devices.remove(device);
+			if (devices.isEmpty())
+				remotesByNodeID.remove(id);
+		}
+	}
+	
+	/**
+	 * Adds to the given list the indexed devices that are still in the 
+	 * network with the given node identifier.
+	 * 
+	 * <p>Index entries whose device has changed its node identifier or is no 
+	 * longer in the network are discarded.</p>
+	 * 
+	 * @param id The node identifier the devices are indexed with.
+	 * @param indexed The indexed devices, may be {@code null}.
+	 * @param devices The list to add the devices to.
+	 */
+	private void addIndexedDevices(String id, CopyOnWriteArraySet<RemoteXBeeDevice> indexed, List<RemoteXBeeDevice> devices) {
+		if (indexed == null)
+			return;
+		
+		for (RemoteXBeeDevice remote : indexed) {
+			if (id.equals(remote.getNodeID()) && contains(remote))
+				devices.add(remote);
+			else
+				removeNodeIDIndex(remote, id);
+		}
+	}
+	
+	/**
+	 * Returns whether the given device instance is in the network.
+	 * 
+	 * @param device The remote device.
+	 * 
+	 * @return {@code true} if the device is in the network, {@code false} 
+	 *         otherwise.
+	 */
+	private boolean contains(RemoteXBeeDevice device) {
+		XBee64BitAddress addr64 = device.get64BitAddress();
+		if (addr64 != null && !addr64.equals(XBee64BitAddress.UNKNOWN_ADDRESS))
+			return remotesBy64BitAddr.get(addr64) == device;
+		
+		XBee16BitAddress addr16 = get16BitAddress(device);
+		return addr16 != null && remotesBy16BitAddr.get(addr16) == device;
+	}
+	
+	/**
+	 * Returns whether the given node identifier matches the given pattern.
+	 * 
+	 * @param id The node identifier.
+	 * @param pattern The pattern, where {@code '*'} matches any sequence of 
+	 *                characters and {@code '?'} matches any character.
+	 * 
+	 * @return {@code true} if the node identifier matches the pattern, 
+	 *         {@code false} otherwise.
+	 */
+	private static boolean matches(String id, String pattern) {
+		int i = 0;
+		int p = 0;
+		int starP = -1;
+		int starI = 0;
+		while (i < id.length()) {
+			if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == id.charAt(i))) {
+				i++;
+				p++;
+			} else if (p < pattern.length() && pattern.charAt(p) == '*') {
+				starP = p++;
+				starI = i;
+			} else if (starP >= 0) {
+				// Let the last '*' match one more character.
+				p = starP + 1;
+				i = ++starI;
+			} else
+				return false;
+		}
+		while (p < pattern.length() && pattern.charAt(p) == '*')
+			p++;
+		return p == pattern.length();
+	}
+	
+	/**
+	 * Reads the information of all the remote devices of the network.
+	 * 
+	 * @param listener Listener to be notified as the information of each 
+	 *                 device is read, {@code null} not to be notified.
+	 * 
+	 * @return The list of remote devices whose information could not be read.
+	 * 
+	 * @see #readDevicesInfo(List, IInventoryListener)
+	 */
+	public List<RemoteXBeeDevice> readDevicesInfo(IInventoryListener listener) {
+		return readDevicesInfo(getDevices(), listener);
+	}
+	
+	/**
+	 * Reads the information of the given remote devices and blocks until all 
+	 * of them have been read or have failed.
+	 * 
+	 * <p>The information of several devices is read at the same time, up to 
+	 * the configured inventory concurrency. When reading a device fails 
+	 * because of a timeout or a transmission failure it is retried, waiting 
+	 * twice as long before each new attempt, up to the configured number of 
+	 * retries.</p>
+	 * 
+	 * <p>If the calling thread is interrupted, the pending devices are not 
+	 * read and the method returns immediately.</p>
+	 * 
+	 * @param devices The remote devices to read their information.
+	 * @param listener Listener to be notified as the information of each 
+	 *                 device is read, {@code null} not to be notified.
+	 * 
+	 * @return The list of remote devices whose information could not be read.
+	 * 
+	 * @throws NullPointerException if {@code devices == null} or 
+	 *                              if any of the devices is {@code null}.
+	 * 
+	 * @see #readDevicesInfo(IInventoryListener)
+	 * @see #setInventoryConcurrency(int)
+	 * @see #setInventoryRetries(int)
+	 * @see RemoteXBeeDevice#readDeviceInfo()
+	 * @see com.digi.xbee.api.listeners.IInventoryListener
+	 */
+	public List<RemoteXBeeDevice> readDevicesInfo(List<RemoteXBeeDevice> devices, IInventoryListener listener) {
+		if (devices == null)
+			throw new NullPointerException("List of remote devices cannot be null.");
+		for (RemoteXBeeDevice remoteDevice : devices) {
+			if (remoteDevice == null)
+				throw new NullPointerException("Remote device cannot be null.");
+		}
+		
+		logger.debug("{}Reading the information of {} devices.", localDevice.toString(), devices.size());
+		
+		final IInventoryListener inventoryListener = listener;
+		return runInventory(devices, new Inventory(devices.size(), inventoryRetries) {
+			/*
+			 * (non-Javadoc)
+			 * @see com.digi.xbee.api.XBeeNetwork.Inventory#process(com.digi.xbee.api.RemoteXBeeDevice)
+			 */
+			@Override
+			void process(RemoteXBeeDevice remoteDevice) throws XBeeException {
+				remoteDevice.readDeviceInfo();
+				if (inventoryListener != null)
+					inventoryListener.deviceInfoRead(remoteDevice);
+			}
+			
+			/*
+			 * (non-Javadoc)
+			 * @see com.digi.xbee.api.XBeeNetwork.Inventory#failed(com.digi.xbee.api.RemoteXBeeDevice, java.lang.String)
+			 */
+			@Override
+			void failed(RemoteXBeeDevice remoteDevice, String error) {
+				if (inventoryListener != null)
+					inventoryListener.deviceInfoError(remoteDevice, error);
+			}
+		});
+	}
+	
+	/**
+	 * Applies the given configuration profile to the given remote devices and 
+	 * blocks until all of them have been configured or have failed.
+	 * 
+	 * <p>Each device only receives the parameters whose value is different 
+	 * from the profile, and applies them at once. Several devices are 
+	 * configured at the same time and retried the same way as when reading 
+	 * their information.</p>
+	 * 
+	 * @param devices The remote devices to configure.
+	 * @param profile The configuration profile to apply.
+	 * @param writeChanges {@code true} to also write the changes so they 
+	 *                     persist through resets, {@code false} otherwise.
+	 * @param listener Listener to be notified as each device is configured, 
+	 *                 {@code null} not to be notified.
+	 * 
+	 * @return The list of remote devices that could not be configured.
+	 * 
+	 * @throws NullPointerException if {@code devices == null} or 
+	 *                              if any of the devices is {@code null} or 
+	 *                              if {@code profile == null}.
+	 * 
+	 * @see #readDevicesInfo(List, IInventoryListener)
+	 * @see #setInventoryConcurrency(int)
+	 * @see #setInventoryRetries(int)
+	 * @see AbstractXBeeDevice#applyConfigurationProfile(ConfigurationProfile, boolean)
+	 * @see com.digi.xbee.api.listeners.IConfigurationListener
+	 */
+	public List<RemoteXBeeDevice> applyConfigurationProfile(List<RemoteXBeeDevice> devices, 
+			final ConfigurationProfile profile, final boolean writeChanges, final IConfigurationListener listener) {
+		if (devices == null)
+			throw new NullPointerException("List of remote devices cannot be null.");
+		for (RemoteXBeeDevice remoteDevice : devices) {
+			if (remoteDevice == null)
+				throw new NullPointerException("Remote device cannot be null.");
+		}
+		if (profile == null)
+			throw new NullPointerException("Configuration profile cannot be null.");
+		
+		logger.debug("{}Applying the configuration profile to {} devices.", localDevice.toString(), devices.size());
+		
+		return runInventory(devices, new Inventory(devices.size(), inventoryRetries) {
+			/*
+			 * (non-Javadoc)
+			 * @see com.digi.xbee.api.XBeeNetwork.Inventory#process(com.digi.xbee.api.RemoteXBeeDevice)
+			 */
+			@Override
+			void process(RemoteXBeeDevice remoteDevice) throws XBeeException {
+				List<String> changes = remoteDevice.applyConfigurationProfile(profile, writeChanges);
+				if (listener != null)
+					listener.deviceConfigured(remoteDevice, changes);
+			}
+			
+			/*
+			 * (non-Javadoc)
+			 * @see com.digi.xbee.api.XBeeNetwork.Inventory#failed(com.digi.xbee.api.RemoteXBeeDevice, java.lang.String)
+			 */
+			@Override
+			void failed(RemoteXBeeDevice remoteDevice, String error) {
+				if (listener != null)
+					listener.deviceConfigurationError(remoteDevice, error);
+			}
+		});
+	}
+	
+	/**
+	 * Processes the given devices in the inventory executor and blocks until 
+	 * all of them have been processed or have failed.
+	 * 
+	 * <p>If the calling thread is interrupted, the pending devices are not 
+	 * processed and the method returns immediately.</p>
+	 * 
+	 * @param devices The remote devices to process.
+	 * @param inventory The inventory that processes each device.
+	 * 
+	 * @return The list of remote devices that were not processed.
+	 */
+	private List<RemoteXBeeDevice> runInventory(List<RemoteXBeeDevice> devices, Inventory inventory) {
+		ScheduledThreadPoolExecutor executor = getInventoryExecutor();
+		for (RemoteXBeeDevice remoteDevice : devices)
+			executor.execute(new InventoryTask(inventory, remoteDevice));
+		
+		try {
+			inventory.pending.await();
+		} catch (InterruptedException e) {
+			inventory.cancelled = true;
+			Thread.currentThread().interrupt();
+		}
+		
+		ArrayList<RemoteXBeeDevice> unprocessed = new ArrayList<RemoteXBeeDevice>();
+		for (RemoteXBeeDevice remoteDevice : devices) {
+			if (!inventory.processed.contains(remoteDevice))
+				unprocessed.add(remoteDevice);
+		}
+		return unprocessed;
+	}
+	
+	/**
+	 * Configures the maximum number of devices whose information is read at 
+	 * the same time during an inventory.
+	 * 
+	 * @param concurrency Maximum number of devices read at the same time.
+	 * 
+	 * @throws IllegalArgumentException if {@code concurrency < 1} or 
+	 *                                  if {@code concurrency > MAX_INVENTORY_CONCURRENCY}.
+	 * 
+	 * @see #getInventoryConcurrency()
+	 * @see #readDevicesInfo(List, IInventoryListener)
+	 * @see #MAX_INVENTORY_CONCURRENCY
+	 */
+	public synchronized void setInventoryConcurrency(int concurrency) {
+		if (concurrency < 1 || concurrency > MAX_INVENTORY_CONCURRENCY)
+			throw new IllegalArgumentException("Inventory concurrency must be between 1 and " + MAX_INVENTORY_CONCURRENCY + ".");
+		
+		inventoryConcurrency = concurrency;
+		if (inventoryExecutor != null)
+			inventoryExecutor.setCorePoolSize(concurrency);
+	}
+	
+	/**
+	 * Returns the maximum number of devices whose information is read at the 
+	 * same time during an inventory.
+	 * 
+	 * @return Maximum number of devices read at the same time.
+	 * 
+	 * @see #setInventoryConcurrency(int)
+	 */
+	public synchronized int getInventoryConcurrency() {
+		return inventoryConcurrency;
+	}
+	
+	/**
+	 * Configures the number of times the information of a device is read 
+	 * again during an inventory after a timeout or a transmission failure.
+	 * 
+	 * @param retries Number of retries, {@code 0} not to retry.
+	 * 
+	 * @throws IllegalArgumentException if {@code retries < 0}.
+	 * 
+	 * @see #getInventoryRetries()
+	 * @see #readDevicesInfo(List, IInventoryListener)
+	 */
+	public void setInventoryRetries(int retries) {
+		if (retries < 0)
+			throw new IllegalArgumentException("Inventory retries cannot be less than 0.");
+		
+		inventoryRetries = retries;
+	}
+	
+	/**
+	 * Returns the number of times the information of a device is read again 
+	 * during an inventory after a timeout or a transmission failure.
+	 * 
+	 * @return Number of retries.
+	 * 
+	 * @see #setInventoryRetries(int)
+	 */
+	public int getInventoryRetries() {
+		return inventoryRetries;
+	}
+	
+	/**
+	 * Returns the executor that processes the devices during an inventory, 
+	 * like reading their information, creating it the first time.
+	 * 
+	 * <p>Its threads are shared by all the inventories of the network, so 
+	 * the concurrency is a limit for the whole network. Retries are 
+	 * scheduled in it so the waiting devices do not hold any thread.</p>
+	 * 
+	 * @return The inventory executor.
+	 */
+	private synchronized ScheduledThreadPoolExecutor getInventoryExecutor() {
+		if (inventoryExecutor == null) {
+			inventoryExecutor = new ScheduledThreadPoolExecutor(inventoryConcurrency, new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+				
+				/*
+				 * (non-Javadoc)
+				 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+				 */
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "XBeeNetwork inventory " + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return inventoryExecutor;
+	}
+	
+	/**
+	 * Retrieves the 16-bit address of the given remote device.
+	 * 
+	 * @param device The remote device to get the 16-bit address.
+	 * 
+	 * @return The 16-bit address of the device, {@code null} if it does not
+	 *         contain a valid one.
+	 */
+	private XBee16BitAddress get16BitAddress(RemoteXBeeDevice device) {
+		if (device == null)
+			return null;
+		
+		XBee16BitAddress address = null;
+		
+		switch (device.getXBeeProtocol()) {
+		case RAW_802_15_4:
+			address = ((RemoteRaw802Device)device).get16BitAddress();
+			break;
+		case ZIGBEE:
+			address = ((RemoteZigBeeDevice)device).get16BitAddress();
+			break;
+		default:
+			// TODO should we allow this operation for general remote devices?
+			address = device.get16BitAddress();
+			break;
+		}
+		
+		return address;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString(){
+		return getClass().getName() + " [" + localDevice.toString() + "] @" + 
+				Integer.toHexString(hashCode());
+	}
+	
+	/**
+	 * Operation over many devices, like reading their information, with the 
+	 * state shared by the tasks that process each device.
+	 */
+	private abstract static class Inventory {
+		
+		// Variables.
+		private final CountDownLatch pending;
+		private final Set<RemoteXBeeDevice> processed = Collections.newSetFromMap(new ConcurrentHashMap<RemoteXBeeDevice, Boolean>());
+		private final int retries;
+		private volatile boolean cancelled = false;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Inventory} with the 
+		 * given parameters.
+		 * 
+		 * @param devices Number of devices of the inventory.
+		 * @param retries Number of retries of each device.
+		 */
+		private Inventory(int devices, int retries) {
+			this.pending = new CountDownLatch(devices);
+			this.retries = retries;
+		}
+		
+		/**
+		 * Processes the given device, notifying the result if it succeeds.
+		 * 
+		 * @param remoteDevice The remote device to process.
+		 * 
+		 * @throws XBeeException if the device could not be processed.
+		 */
+		abstract void process(RemoteXBeeDevice remoteDevice) throws XBeeException;
+		
+		/**
+		 * Notifies that the given device could not be processed.
+		 * 
+		 * @param remoteDevice The remote device that could not be processed.
+		 * @param error The error message.
+		 */
+		abstract void failed(RemoteXBeeDevice remoteDevice, String error);
+	}
+	
+	/**
+	 * Task that processes a device of an inventory, scheduling itself again 
+	 * when it must be retried.
+	 */
+	private class InventoryTask implements Runnable {
+		
+		// Variables.
+		private final Inventory inventory;
+		private final RemoteXBeeDevice remoteDevice;
+		private int attempt = 0;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code InventoryTask} with the 
+		 * given parameters.
+		 * 
+		 * @param inventory The inventory the device belongs to.
+		 * @param remoteDevice The remote device to process.
+		 */
+		private InventoryTask(Inventory inventory, RemoteXBeeDevice remoteDevice) {
+			this.inventory = inventory;
+			this.remoteDevice = remoteDevice;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			boolean finished = true;
+			try {
+				if (inventory.cancelled)
+					return;
+				
+				try {
+					inventory.process(remoteDevice);
+				} catch (XBeeException e) {
+					if (attempt < inventory.retries && isTransient(e)) {
+						long delay = Math.min(INVENTORY_RETRY_DELAY << attempt, MAX_INVENTORY_RETRY_DELAY);
+						attempt++;
+						logger.debug("{}Could not process {}, retrying in {} ms: {}", 
+								localDevice.toString(), remoteDevice, delay, e.getMessage());
+						getInventoryExecutor().schedule(this, delay, TimeUnit.MILLISECONDS);
+						finished = false;
+					} else {
+						inventory.failed(remoteDevice, e.getMessage());
+					}
+					return;
+				} catch (InterfaceNotOpenException e) {
+					inventory.failed(remoteDevice, e.getMessage());
+					return;
+				}
+				
+				inventory.processed.add(remoteDevice);
+			} finally {
+				if (finished)
+					inventory.pending.countDown();
+			}
+		}
+		
+		/**
+		 * Returns whether the given error may not happen again when retrying.
+		 * 
+		 * @param e The error processing the device.
+		 * 
+		 * @return {@code true} for timeouts and transmission failures, 
+		 *         {@code false} otherwise.
+		 */
+		private boolean isTransient(XBeeException e) {
+			if (e instanceof TimeoutException)
+				return true;
+			return e instanceof ATCommandException 
+					&& ((ATCommandException)e).getCommandStatus() == ATCommandStatus.TX_FAILURE;
+		}
 	}
 }
@@ -0,0 +1,528 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.digi.xbee.api.exceptions.InterfaceNotOpenException;
+import com.digi.xbee.api.exceptions.XBeeException;
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+import com.digi.xbee.api.models.XBeeProtocol;
+
+/**
+ * This class represents a durable store-and-forward queue of outgoing data 
+ * for a local XBee device.
+ * 
+ * <p>Queued data is appended to a journal file mapped in memory and the 
+ * method returns immediately, without waiting for the device. A background 
+ * thread transmits the queued entries in order through the regular 
+ * synchronous send methods whenever the connection of the device is open, 
+ * and marks them as done once a successful transmit status is received. 
+ * Entries that are still pending when the application is stopped (or 
+ * crashes) are transmitted again when the queue is enabled with the same 
+ * journal file.</p>
+ * 
+ * <p>If the transmission of an entry fails, it is retried later with an 
+ * increasing delay. Meanwhile, entries for other destinations keep being 
+ * transmitted, while the following entries for the same destination wait to 
+ * keep their order. After the maximum number of attempts, the entry is 
+ * moved to the dead letters of the queue, so it does not block its 
+ * destination forever. Dead letters are kept in the journal, so they are 
+ * not lost if the application is restarted, until they are requeued or 
+ * cleared.</p>
+ * 
+ * <p>Records are written to the memory mapped file, so they survive an 
+ * application crash. Use {@link #flush()} to also protect them against a 
+ * power loss.</p>
+ * 
+ * @see XBeeDevice#enableOutboundQueue(File)
+ * @see XBeeDevice#sendDataQueued(RemoteXBeeDevice, byte[])
+ */
+public class XBeeOutboundQueue {
+	
+	// Constants.
+	/**
+	 * Default size of the journal file in bytes (value: {@value}).
+	 */
+	public static final int DEFAULT_JOURNAL_CAPACITY = 1024 * 1024;
+	
+	/**
+	 * Default maximum number of transmission attempts of an entry 
+	 * (value: {@value}).
+	 */
+	public static final int DEFAULT_MAX_ATTEMPTS = 10;
+	
+	private static final int IDLE_CHECK_TIME = 1000;
+	private static final int MIN_RETRY_DELAY = 500;
+	private static final int MAX_RETRY_DELAY = 30000;
+	
+	// Variables.
+	private final XBeeDevice xbeeDevice;
+	
+	private final OutboundJournal journal;
+	
+	private final List<OutboundJournal.Entry> pendingEntries;
+	
+	private final AtomicLong sentEntries = new AtomicLong();
+	private final AtomicLong failedAttempts = new AtomicLong();
+	
+	private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+	
+	private volatile boolean running = false;
+	
+	private Thread drainThread;
+	
+	private Logger logger;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code XBeeOutboundQueue} for the 
+	 * given local device using the given journal file and loads the entries 
+	 * that were pending in the journal.
+	 * 
+	 * @param xbeeDevice Local XBee device used to transmit the queued data.
+	 * @param journalFile The journal file.
+	 * @param journalCapacity The size in bytes of the journal file.
+	 * 
+	 * @throws IllegalArgumentException if {@code journalCapacity < 1}.
+	 * @throws IOException if the journal file cannot be opened or it is not 
+	 *                     a valid journal file.
+	 * @throws NullPointerException if {@code xbeeDevice == null} or 
+	 *                              if {@code journalFile == null}.
+	 */
+	XBeeOutboundQueue(XBeeDevice xbeeDevice, File journalFile, int journalCapacity) throws IOException {
+		if (xbeeDevice == null)
+			throw new NullPointerException("Local XBee device cannot be null.");
+		if (journalFile == null)
+			throw new NullPointerException("Journal file cannot be null.");
+		if (journalCapacity < 1)
+			throw new IllegalArgumentException("Journal capacity must be greater than 0.");
+		
+		this.xbeeDevice = xbeeDevice;
+		this.journal = new OutboundJournal(journalFile, journalCapacity);
+		this.pendingEntries = journal.replay();
+		this.logger = LoggerFactory.getLogger(XBeeOutboundQueue.class);
+		
+		if (!pendingEntries.isEmpty())
+			logger.info("{}Replaying {} pending outbound entries.", xbeeDevice.toString(), pendingEntries.size());
+		if (!journal.getDeadEntries().isEmpty())
+			logger.warn("{}The outbound journal contains {} dead letters.", xbeeDevice.toString(), 
+					journal.getDeadEntries().size());
+	}
+	
+	/**
+	 * Queues the given data to be transmitted to the given destination.
+	 * 
+	 * <p>This method only appends the data to the journal and returns, the 
+	 * data is transmitted in the background as soon as possible.</p>
+	 * 
+	 * @param address64Bit The 64-bit address of the destination. If it is 
+	 *                     unknown, {@code XBee64BitAddress.UNKNOWN_ADDRESS} 
+	 *                     must be used.
+	 * @param address16Bit The 16-bit address of the destination. If it is 
+	 *                     unknown, {@code XBee16BitAddress.UNKNOWN_ADDRESS} 
+	 *                     must be used.
+	 * @param data Byte array containing the data to be sent.
+	 * 
+	 * @return The identifier of the queued entry.
+	 * 
+	 * @throws NullPointerException if {@code address64Bit == null} or 
+	 *                              if {@code address16Bit == null} or 
+	 *                              if {@code data == null}.
+	 * @throws XBeeException if the journal is full or it cannot be written.
+	 */
+	public long add(XBee64BitAddress address64Bit, XBee16BitAddress address16Bit, byte[] data) throws XBeeException {
+		if (address64Bit == null)
+			throw new NullPointerException("64-bit address cannot be null.");
+		if (address16Bit == null)
+			throw new NullPointerException("16-bit address cannot be null.");
+		if (data == null)
+			throw new NullPointerException("Data cannot be null.");
+		
+		OutboundJournal.Entry entry;
+		synchronized (pendingEntries) {
+			try {
+				entry = journal.append(address64Bit, address16Bit, data.clone(), pendingEntries);
+			} catch (IOException e) {
+				throw new XBeeException("Error queuing the outbound data.", e);
+			}
+			pendingEntries.add(entry);
+			pendingEntries.notifyAll();
+		}
+		return entry.id;
+	}
+	
+	/**
+	 * Returns the number of entries that are pending to be transmitted.
+	 * 
+	 * @return The number of pending entries.
+	 */
+	public int getPendingCount() {
+		synchronized (pendingEntries) {
+			return pendingEntries.size();
+		}
+	}
+	
+	/**
+	 * Returns the list of identifiers of the pending entries, in the order 
+	 * they will be transmitted.
+	 * 
+	 * @return The identifiers of the pending entries.
+	 */
+	public List<Long> getPendingIDs() {
+		synchronized (pendingEntries) {
+			List<Long> ids = new ArrayList<Long>(pendingEntries.size());
+			for (OutboundJournal.Entry entry:pendingEntries)
+				ids.add(entry.id);
+			return ids;
+		}
+	}
+	
+	/**
+	 * Returns the number of entries successfully transmitted since the queue 
+	 * was enabled.
+	 * 
+	 * @return The number of transmitted entries.
+	 */
+	public long getSentCount() {
+		return sentEntries.get();
+	}
+	
+	/**
+	 * Returns the number of failed transmission attempts since the queue was 
+	 * enabled.
+	 * 
+	 * @return The number of failed transmission attempts.
+	 */
+	public long getFailedAttempts() {
+		return failedAttempts.get();
+	}
+	
+	/**
+	 * Sets the maximum number of transmission attempts of an entry before it 
+	 * is moved to the dead letters.
+	 * 
+	 * @param maxAttempts The maximum number of attempts, 0 to retry the 
+	 *                    entries forever.
+	 * 
+	 * @throws IllegalArgumentException if {@code maxAttempts < 0}.
+	 * 
+	 * @see #getMaxAttempts()
+	 * @see #getDeadLetterIDs()
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 0)
+			throw new IllegalArgumentException("Maximum attempts cannot be less than 0.");
+		
+		this.maxAttempts = maxAttempts;
+	}
+	
+	/**
+	 * Returns the maximum number of transmission attempts of an entry before 
+	 * it is moved to the dead letters.
+	 * 
+	 * @return The maximum number of attempts, 0 if the entries are retried 
+	 *         forever.
+	 * 
+	 * @see #setMaxAttempts(int)
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+	
+	/**
+	 * Returns the list of identifiers of the entries that could not be 
+	 * transmitted after the maximum number of attempts.
+	 * 
+	 * <p>Dead letters are kept in the journal, so they are also available 
+	 * after the queue is enabled again with the same journal file. They 
+	 * keep taking space in the journal until they are requeued or cleared.
+	 * </p>
+	 * 
+	 * @return The identifiers of the dead letters.
+	 * 
+	 * @see #getDeadLetterData(long)
+	 * @see #requeueDeadLetters()
+	 * @see #clearDeadLetters()
+	 */
+	public List<Long> getDeadLetterIDs() {
+		synchronized (pendingEntries) {
+			List<OutboundJournal.Entry> deadEntries = journal.getDeadEntries();
+			List<Long> ids = new ArrayList<Long>(deadEntries.size());
+			for (OutboundJournal.Entry entry:deadEntries)
+				ids.add(entry.id);
+			return ids;
+		}
+	}
+	
+	/**
+	 * Returns the data of the dead letter with the given identifier.
+	 * 
+	 * @param id The identifier of the entry.
+	 * 
+	 * @return The data of the entry, {@code null} if it is not a dead letter.
+	 * 
+	 * @see #getDeadLetterIDs()
+	 */
+	public byte[] getDeadLetterData(long id) {
+		synchronized (pendingEntries) {
+			for (OutboundJournal.Entry entry:journal.getDeadEntries()) {
+				if (entry.id == id)
+					return entry.data.clone();
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * Queues again all the dead letters to be transmitted, after the entries 
+	 * that are already pending.
+	 * 
+	 * <p>Each dead letter is queued as a new entry with a new identifier and 
+	 * the maximum number of attempts starts again for it.</p>
+	 * 
+	 * @return The identifiers of the new entries, in the same order as the 
+	 *         dead letters.
+	 * 
+	 * @throws XBeeException if the journal is full or it cannot be written. 
+	 *                       The dead letters queued before the error are not 
+	 *                       dead letters anymore.
+	 * 
+	 * @see #getDeadLetterIDs()
+	 */
+	public List<Long> requeueDeadLetters() throws XBeeException {
+		synchronized (pendingEntries) {
+			List<OutboundJournal.Entry> deadEntries = new ArrayList<OutboundJournal.Entry>(journal.getDeadEntries());
+			List<Long> ids = new ArrayList<Long>(deadEntries.size());
+			try {
+				for (OutboundJournal.Entry deadEntry:deadEntries) {
+					OutboundJournal.Entry entry = journal.append(deadEntry.addr64, deadEntry.addr16, 
+							deadEntry.data, pendingEntries);
+					journal.markDone(deadEntry);
+					pendingEntries.add(entry);
+					ids.add(entry.id);
+				}
+			} catch (IOException e) {
+				throw new XBeeException("Error requeuing the dead letters.", e);
+			} finally {
+				pendingEntries.notifyAll();
+			}
+			return ids;
+		}
+	}
+	
+	/**
+	 * Discards all the dead letters, removing them from the journal.
+	 * 
+	 * @see #getDeadLetterIDs()
+	 */
+	public void clearDeadLetters() {
+		synchronized (pendingEntries) {
+			List<OutboundJournal.Entry> deadEntries = new ArrayList<OutboundJournal.Entry>(journal.getDeadEntries());
+			for (OutboundJournal.Entry entry:deadEntries)
+				journal.markDone(entry);
+		}
+	}
+	
+	/**
+	 * Forces the journal to be written to the storage device.
+	 */
+	public void flush() {
+		synchronized (pendingEntries) {
+			journal.flush();
+		}
+	}
+	
+	/**
+	 * Starts the thread that transmits the queued entries.
+	 */
+	void start() {
+		if (running)
+			return;
+		running = true;
+		drainThread = new Thread(new Runnable() {
+			/*
+			 * (non-Javadoc)
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "XBeeOutboundQueue");
+		drainThread.setDaemon(true);
+		drainThread.start();
+	}
+	
+	/**
+	 * Stops the thread that transmits the queued entries and closes the 
+	 * journal. Entries not transmitted yet remain in the journal.
+	 */
+	void stop() {
+		running = false;
+		wakeUp();
+		if (drainThread != null && drainThread != Thread.currentThread()) {
+			try {
+				drainThread.join(xbeeDevice.getReceiveTimeout() + IDLE_CHECK_TIME);
+			} catch (InterruptedException e) {}
+		}
+		synchronized (pendingEntries) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+	}
+	
+	/**
+	 * Wakes up the transmitting thread, for example, when the connection of 
+	 * the device has been opened.
+	 */
+	void wakeUp() {
+		synchronized (pendingEntries) {
+			pendingEntries.notifyAll();
+		}
+	}
+	
+	/**
+	 * Transmits the queued entries while the queue is running.
+	 */
+	private void drain() {
+		while (running) {
+			OutboundJournal.Entry entry;
+			synchronized (pendingEntries) {
+				long now = System.currentTimeMillis();
+				entry = xbeeDevice.isOpen() ? getNextReadyEntry(now) : null;
+				if (entry == null) {
+					try {
+						pendingEntries.wait(getWaitTime(now));
+					} catch (InterruptedException e) {}
+					continue;
+				}
+			}
+			
+			try {
+				transmit(entry);
+				synchronized (pendingEntries) {
+					journal.markDone(entry);
+					pendingEntries.remove(entry);
+				}
+				sentEntries.incrementAndGet();
+			} catch (InterfaceNotOpenException e) {
+				// The connection was closed, wait until it is open again.
+				logger.debug("{}Outbound queue waiting for the connection.", xbeeDevice.toString());
+			} catch (XBeeException e) {
+				logger.warn("{}Error transmitting queued entry {} (attempt {}): {}", 
+						xbeeDevice.toString(), entry.id, entry.attempts + 1, e.getMessage());
+				failed(entry);
+			} catch (RuntimeException e) {
+				// Do not let an invalid entry stop the queue.
+				logger.error(xbeeDevice.toString() + "Unexpected error transmitting queued entry " + entry.id + ".", e);
+				failed(entry);
+			}
+		}
+	}
+	
+	/**
+	 * Schedules the retry of the given entry after a failed attempt, or moves 
+	 * it to the dead letters if it has reached the maximum number of 
+	 * attempts.
+	 * 
+	 * @param entry The entry that could not be transmitted.
+	 */
+	private void failed(OutboundJournal.Entry entry) {
+		failedAttempts.incrementAndGet();
+		entry.attempts++;
+		
+		int max = maxAttempts;
+		if (max > 0 && entry.attempts >= max) {
+			logger.error("{}Moving queued entry {} to the dead letters after {} attempts.", 
+					xbeeDevice.toString(), entry.id, entry.attempts);
+			synchronized (pendingEntries) {
+				journal.markDead(entry);
+				pendingEntries.remove(entry);
+			}
+			return;
+		}
+		entry.nextAttempt = System.currentTimeMillis() 
+				+ Math.min(MAX_RETRY_DELAY, (long)MIN_RETRY_DELAY << Math.min(entry.attempts - 1, 6));
+	}
+	
+	/**
+	 * Returns the first pending entry that can be transmitted now.
+	 * 
+	 * <p>An entry cannot be transmitted if its retry delay has not expired or 
+	 * if a previous entry for the same destination is waiting to be retried.
+	 * </p>
+	 * 
+	 * @param now The current time in milliseconds.
+	 * 
+	 * @return The next entry to transmit, {@code null} if there is none.
+	 */
+	private OutboundJournal.Entry getNextReadyEntry(long now) {
+		HashSet<XBee64BitAddress> delayed = null;
+		for (OutboundJournal.Entry entry:pendingEntries) {
+			if (delayed != null && delayed.contains(entry.addr64))
+				continue;
+			if (entry.nextAttempt <= now)
+				return entry;
+			if (delayed == null)
+				delayed = new HashSet<XBee64BitAddress>();
+			delayed.add(entry.addr64);
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the time to wait until the next entry can be retried.
+	 * 
+	 * @param now The current time in milliseconds.
+	 * 
+	 * @return The time to wait in milliseconds.
+	 */
+	private long getWaitTime(long now) {
+		long wait = IDLE_CHECK_TIME;
+		for (OutboundJournal.Entry entry:pendingEntries)
+			wait = Math.min(wait, Math.max(1, entry.nextAttempt - now));
+		return wait;
+	}
+	
+	/**
+	 * Transmits the given entry using the synchronous send methods of the 
+	 * local device.
+	 * 
+	 * @param entry The entry to transmit.
+	 * 
+	 * @throws XBeeException if the transmission fails.
+	 */
+	private void transmit(OutboundJournal.Entry entry) throws XBeeException {
+		XBeeProtocol protocol = xbeeDevice.getXBeeProtocol();
+		boolean known16 = !entry.addr16.equals(XBee16BitAddress.UNKNOWN_ADDRESS);
+		boolean known64 = !entry.addr64.equals(XBee64BitAddress.UNKNOWN_ADDRESS);
+		
+		if (protocol == XBeeProtocol.RAW_802_15_4 && !known64 && xbeeDevice instanceof Raw802Device)
+			((Raw802Device)xbeeDevice).sendData(entry.addr16, entry.data);
+		else if ((protocol == XBeeProtocol.ZIGBEE || protocol == XBeeProtocol.DIGI_POINT) && known16)
+			xbeeDevice.sendData(entry.addr64, entry.addr16, entry.data);
+		else
+			xbeeDevice.sendData(entry.addr64, entry.data);
+	}
+}
@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.digi.xbee.api.exceptions.TimeoutException;
+import com.digi.xbee.api.exceptions.XBeeException;
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+
+/**
+ * This class implements a request/response correlation layer on top of the 
+ * data transmissions of a local XBee device.
+ * 
+ * <p>Every request is prefixed with a header containing a correlation ID 
+ * and sent asynchronously, so any number of calls can be pipelined to the 
+ * same or different remote devices without blocking a thread per call. The 
+ * remote device must answer with the same correlation ID (see 
+ * {@link #createResponse(int, byte[])}). Responses are matched in the data 
+ * reader thread, before the frame reaches the received packets queue or 
+ * any listener, and complete the corresponding {@link XBeeRPCFuture}. All 
+ * the timeouts are handled by a single timer thread shared by every local 
+ * device.</p>
+ * 
+ * <p>The header has the following format:</p>
+ * <pre>
+ * | MARKER (0xA7) | TYPE (0x01 request, 0x02 response) | CORRELATION ID (2 bytes) | DATA |
+ * </pre>
+ * 
+ * <p>Received responses that do not correspond to any pending call are 
+ * delivered as regular data.</p>
+ * 
+ * @see XBeeDevice#sendRPC(RemoteXBeeDevice, byte[], int)
+ * @see XBeeDevice#sendRPCAsync(RemoteXBeeDevice, byte[], int)
+ * @see XBeeRPCFuture
+ */
+public class XBeeRPC {
+	
+	// Constants.
+	/**
+	 * Byte marking the start of an RPC header (value: {@value}).
+	 */
+	public static final byte MARKER = (byte)0xA7;
+	
+	/**
+	 * Type of an RPC request (value: {@value}).
+	 */
+	public static final byte TYPE_REQUEST = 0x01;
+	
+	/**
+	 * Type of an RPC response (value: {@value}).
+	 */
+	public static final byte TYPE_RESPONSE = 0x02;
+	
+	/**
+	 * Length of the RPC header in bytes (value: {@value}).
+	 */
+	public static final int HEADER_LENGTH = 4;
+	
+	private static final int MAX_CORRELATION_IDS = 0x10000;
+	
+	private static final TimerWheel TIMER = new TimerWheel();
+	
+	// Variables.
+	private final XBeeDevice xbeeDevice;
+	
+	private final ConcurrentHashMap<Integer, XBeeRPCFuture> pendingCalls = new ConcurrentHashMap<Integer, XBeeRPCFuture>();
+	
+	private final AtomicInteger nextCorrelationID = new AtomicInteger();
+	
+	/**
+	 * Class constructor. Instantiates a new {@code XBeeRPC} for the given 
+	 * local device.
+	 * 
+	 * @param xbeeDevice Local XBee device used to send the requests.
+	 * 
+	 * @throws NullPointerException if {@code xbeeDevice == null}.
+	 */
+	XBeeRPC(XBeeDevice xbeeDevice) {
+		if (xbeeDevice == null)
+			throw new NullPointerException("Local XBee device cannot be null.");
+		
+		this.xbeeDevice = xbeeDevice;
+	}
+	
+	/**
+	 * Sends the given request to the given remote device and returns 
+	 * immediately a future that is completed with the response data.
+	 * 
+	 * @param remoteXBeeDevice The remote XBee device to send the request to.
+	 * @param data The request data.
+	 * @param timeout Maximum time in milliseconds to wait for the response.
+	 * 
+	 * @return The future of the call.
+	 * 
+	 * @throws IllegalArgumentException if {@code timeout < 1}.
+	 * @throws NullPointerException if {@code remoteXBeeDevice == null} or 
+	 *                              if {@code data == null}.
+	 * @throws XBeeException if there are too many pending calls or the 
+	 *                       request cannot be sent.
+	 * 
+	 * @see XBeeRPCFuture
+	 */
+	public XBeeRPCFuture call(RemoteXBeeDevice remoteXBeeDevice, byte[] data, int timeout) throws XBeeException {
+		if (remoteXBeeDevice == null)
+			throw new NullPointerException("Remote XBee device cannot be null.");
+		if (data == null)
+			throw new NullPointerException("Data cannot be null.");
+		if (timeout < 1)
+			throw new IllegalArgumentException("Timeout must be greater than 0.");
+		
+		final XBeeRPCFuture future = register(remoteXBeeDevice);
+		future.setTimeout(TIMER.schedule(new Runnable() {
+			/*
+			 * (non-Javadoc)
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() {
+				future.fail(new TimeoutException("No response received for the RPC request " 
+						+ future.getCorrelationID() + "."));
+			}
+		}, timeout));
+		
+		try {
+			xbeeDevice.sendDataAsync(remoteXBeeDevice, createMessage(TYPE_REQUEST, future.getCorrelationID(), data));
+		} catch (XBeeException e) {
+			future.fail(e);
+			throw e;
+		} catch (RuntimeException e) {
+			future.fail(e);
+			throw e;
+		}
+		return future;
+	}
+	
+	/**
+	 * Returns the number of calls waiting for their response.
+	 * 
+	 * @return The number of pending calls.
+	 */
+	public int getPendingCount() {
+		return pendingCalls.size();
+	}
+	
+	/**
+	 * Notifies that a data frame has been received and completes the pending 
+	 * call it answers, if any.
+	 * 
+	 * <p><b>This is for internal use only.</b></p>
+	 * 
+	 * @param address64Bit The 64-bit address of the sender, {@code null} if 
+	 *                     unknown.
+	 * @param address16Bit The 16-bit address of the sender, {@code null} if 
+	 *                     unknown.
+	 * @param data The received data.
+	 * 
+	 * @return {@code true} if the data was the response of a pending call 
+	 *         and must not be delivered as regular data, {@code false} 
+	 *         otherwise.
+	 */
+	public boolean responseReceived(XBee64BitAddress address64Bit, XBee16BitAddress address16Bit, byte[] data) {
+		if (!isResponse(data))
+			return false;
+		
+		XBeeRPCFuture future = pendingCalls.get(getCorrelationID(data));
+		if (future == null || !isSender(future.getRemoteXBeeDevice(), address64Bit, address16Bit))
+			return false;
+		
+		return future.complete(getPayload(data));
+	}
+	
+	/**
+	 * Removes the given call from the pending calls.
+	 * 
+	 * @param future The call to remove.
+	 */
+	void remove(XBeeRPCFuture future) {
+		pendingCalls.remove(future.getCorrelationID(), future);
+	}
+	
+	/**
+	 * Registers a new pending call for the given remote device with a free 
+	 * correlation ID.
+	 * 
+	 * @param remoteXBeeDevice The remote XBee device.
+	 * 
+	 * @return The registered call.
+	 * 
+	 * @throws XBeeException if all the correlation IDs are in use.
+	 */
+	private XBeeRPCFuture register(RemoteXBeeDevice remoteXBeeDevice) throws XBeeException {
+		for (int i = 0; i < MAX_CORRELATION_IDS; i++) {
+			int correlationID = nextCorrelationID.getAndIncrement() & 0xFFFF;
+			XBeeRPCFuture future = new XBeeRPCFuture(this, remoteXBeeDevice, correlationID);
+			if (pendingCalls.putIfAbsent(correlationID, future) == null)
+				return future;
+		}
+		throw new XBeeException("Too many pending RPC requests.");
+	}
+	
+	/**
+	 * Returns whether the given addresses correspond to the given remote 
+	 * device.
+	 * 
+	 * @param remoteXBeeDevice The remote XBee device.
+	 * @param address64Bit The 64-bit address of the sender.
+	 * @param address16Bit The 16-bit address of the sender.
+	 * 
+	 * @return {@code true} if the addresses correspond to the device, 
+	 *         {@code false} otherwise.
+	 */
+	private static boolean isSender(RemoteXBeeDevice remoteXBeeDevice, XBee64BitAddress address64Bit, XBee16BitAddress address16Bit) {
+		XBee64BitAddress remote64 = remoteXBeeDevice.get64BitAddress();
+		if (address64Bit != null && remote64 != null 
+				&& !address64Bit.equals(XBee64BitAddress.UNKNOWN_ADDRESS) 
+				&& !remote64.equals(XBee64BitAddress.UNKNOWN_ADDRESS))
+			return address64Bit.equals(remote64);
+		
+		XBee16BitAddress remote16 = remoteXBeeDevice.get16BitAddress();
+		return address16Bit != null && address16Bit.equals(remote16);
+	}
+	
+	/**
+	 * Creates the response to send for the request with the given 
+	 * correlation ID.
+	 * 
+	 * @param correlationID The correlation ID of the request.
+	 * @param data The response data.
+	 * 
+	 * @return The response message, including the RPC header.
+	 * 
+	 * @throws NullPointerException if {@code data == null}.
+	 * 
+	 * @see #getCorrelationID(byte[])
+	 * @see XBeeDevice#sendRPCResponse(RemoteXBeeDevice, int, byte[])
+	 */
+	public static byte[] createResponse(int correlationID, byte[] data) {
+		return createMessage(TYPE_RESPONSE, correlationID, data);
+	}
+	
+	/**
+	 * Returns whether the given received data is an RPC request.
+	 * 
+	 * @param data The received data.
+	 * 
+	 * @return {@code true} if the data is an RPC request, {@code false} 
+	 *         otherwise.
+	 */
+	public static boolean isRequest(byte[] data) {
+		return data != null && data.length >= HEADER_LENGTH 
+				&& data[0] == MARKER && data[1] == TYPE_REQUEST;
+	}
+	
+	/**
+	 * Returns whether the given received data is an RPC response.
+	 * 
+	 * @param data The received data.
+	 * 
+	 * @return {@code true} if the data is an RPC response, {@code false} 
+	 *         otherwise.
+	 */
+	public static boolean isResponse(byte[] data) {
+		return data != null && data.length >= HEADER_LENGTH 
+				&& data[0] == MARKER && data[1] == TYPE_RESPONSE;
+	}
+	
+	/**
+	 * Returns the correlation ID of the given RPC request or response.
+	 * 
+	 * @param data The RPC request or response.
+	 * 
+	 * @return The correlation ID.
+	 * 
+	 * @throws IllegalArgumentException if {@code data} is shorter than the 
+	 *                                  RPC header.
+	 * @throws NullPointerException if {@code data == null}.
+	 */
+	public static int getCorrelationID(byte[] data) {
+		if (data == null)
+			throw new NullPointerException("Data cannot be null.");
+		if (data.length < HEADER_LENGTH)
+			throw new IllegalArgumentException("Data length must be at least " + HEADER_LENGTH + ".");
+		
+		return (data[2] & 0xFF) << 8 | data[3] & 0xFF;
+	}
+	
+	/**
+	 * Returns the data of the given RPC request or response without the RPC 
+	 * header.
+	 * 
+	 * @param data The RPC request or response.
+	 * 
+	 * @return The data without the header.
+	 * 
+	 * @throws IllegalArgumentException if {@code data} is shorter than the 
+	 *                                  RPC header.
+	 * @throws NullPointerException if {@code data == null}.
+	 */
+	public static byte[] getPayload(byte[] data) {
+		if (data == null)
+			throw new NullPointerException("Data cannot be null.");
+		if (data.length < HEADER_LENGTH)
+			throw new IllegalArgumentException("Data length must be at least " + HEADER_LENGTH + ".");
+		
+		byte[] payload = new byte[data.length - HEADER_LENGTH];
+		System.arraycopy(data, HEADER_LENGTH, payload, 0, payload.length);
+		return payload;
+	}
+	
+	/**
+	 * Creates an RPC message of the given type.
+	 * 
+	 * @param type The message type.
+	 * @param correlationID The correlation ID.
+	 * @param data The message data.
+	 * 
+	 * @return The message, including the RPC header.
+	 * 
+	 * @throws NullPointerException if {@code data == null}.
+	 */
+	private static byte[] createMessage(byte type, int correlationID, byte[] data) {
+		if (data == null)
+			throw new NullPointerException("Data cannot be null.");
+		
+		byte[] message = new byte[HEADER_LENGTH + data.length];
+		message[0] = MARKER;
+		message[1] = type;
+		message[2] = (byte)(correlationID >> 8);
+		message[3] = (byte)correlationID;
+		System.arraycopy(data, 0, message, HEADER_LENGTH, data.length);
+		return message;
+	}
+}
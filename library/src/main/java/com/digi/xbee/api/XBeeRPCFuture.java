@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class represents the pending result of a request sent to a remote 
+ * XBee device through the RPC layer of a local XBee device.
+ * 
+ * <p>The future is completed by the data reader thread as soon as the 
+ * response with the same correlation ID is received, or with a 
+ * {@link com.digi.xbee.api.exceptions.TimeoutException} cause if no response 
+ * is received in time.</p>
+ * 
+ * @see XBeeDevice#sendRPCAsync(RemoteXBeeDevice, byte[], int)
+ * @see XBeeRPC
+ */
+public class XBeeRPCFuture implements Future<byte[]> {
+	
+	// Variables.
+	private final XBeeRPC rpc;
+	
+	private final RemoteXBeeDevice remoteXBeeDevice;
+	
+	private final int correlationID;
+	
+	private final CountDownLatch latch = new CountDownLatch(1);
+	
+	private final AtomicBoolean done = new AtomicBoolean(false);
+	
+	private volatile byte[] response;
+	
+	private volatile Exception error;
+	
+	private volatile boolean cancelled = false;
+	
+	private volatile TimerWheel.Timeout timeout;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code XBeeRPCFuture} with the 
+	 * given parameters.
+	 * 
+	 * @param rpc The RPC layer that owns this call.
+	 * @param remoteXBeeDevice The remote XBee device the request is sent to.
+	 * @param correlationID The correlation ID of the request.
+	 */
+	XBeeRPCFuture(XBeeRPC rpc, RemoteXBeeDevice remoteXBeeDevice, int correlationID) {
+		this.rpc = rpc;
+		this.remoteXBeeDevice = remoteXBeeDevice;
+		this.correlationID = correlationID;
+	}
+	
+	/**
+	 * Returns the remote XBee device the request was sent to.
+	 * 
+	 * @return The remote XBee device.
+	 * 
+	 * @see RemoteXBeeDevice
+	 */
+	public RemoteXBeeDevice getRemoteXBeeDevice() {
+		return remoteXBeeDevice;
+	}
+	
+	/**
+	 * Returns the correlation ID of the request.
+	 * 
+	 * @return The correlation ID.
+	 */
+	public int getCorrelationID() {
+		return correlationID;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#cancel(boolean)
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		if (!done.compareAndSet(false, true))
+			return false;
+		cancelled = true;
+		finish();
+		return true;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#isCancelled()
+	 */
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#isDone()
+	 */
+	@Override
+	public boolean isDone() {
+		return done.get();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#get()
+	 */
+	@Override
+	public byte[] get() throws InterruptedException, ExecutionException {
+		latch.await();
+		return getResult();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#get(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public byte[] get(long timeout, TimeUnit unit) throws InterruptedException, 
+			ExecutionException, java.util.concurrent.TimeoutException {
+		if (!latch.await(timeout, unit))
+			throw new java.util.concurrent.TimeoutException();
+		return getResult();
+	}
+	
+	/**
+	 * Returns the result of the completed call.
+	 * 
+	 * @return The response data.
+	 * 
+	 * @throws CancellationException if the call was cancelled.
+	 * @throws ExecutionException if the call failed.
+	 */
+	private byte[] getResult() throws ExecutionException {
+		if (cancelled)
+			throw new CancellationException();
+		if (error != null)
+			throw new ExecutionException(error.getMessage(), error);
+		return response;
+	}
+	
+	/**
+	 * Sets the timeout of this call in the timer wheel.
+	 * 
+	 * @param timeout The scheduled timeout.
+	 */
+	void setTimeout(TimerWheel.Timeout timeout) {
+		this.timeout = timeout;
+	}
+	
+	/**
+	 * Completes this call with the given response data.
+	 * 
+	 * @param data The response data.
+	 * 
+	 * @return {@code true} if the call was completed, {@code false} if it was 
+	 *         already done.
+	 */
+	boolean complete(byte[] data) {
+		if (!done.compareAndSet(false, true))
+			return false;
+		response = data;
+		finish();
+		return true;
+	}
+	
+	/**
+	 * Completes this call with the given error.
+	 * 
+	 * @param exception The cause of the failure.
+	 * 
+	 * @return {@code true} if the call was completed, {@code false} if it was 
+	 *         already done.
+	 */
+	boolean fail(Exception exception) {
+		if (!done.compareAndSet(false, true))
+			return false;
+		error = exception;
+		finish();
+		return true;
+	}
+	
+	/**
+	 * Releases the resources of this call and wakes up the waiting threads.
+	 */
+	private void finish() {
+		TimerWheel.Timeout t = timeout;
+		if (t != null)
+			t.cancel();
+		rpc.remove(this);
+		latch.countDown();
+	}
+}
@@ -14,12 +14,14 @@ package com.digi.xbee.api.connection;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.digi.xbee.api.ATParameterCache;
 import com.digi.xbee.api.RemoteDigiMeshDevice;
 import com.digi.xbee.api.RemoteDigiPointDevice;
 import com.digi.xbee.api.RemoteRaw802Device;
@@ -27,15 +29,19 @@ import com.digi.xbee.api.RemoteXBeeDevice;
 import com.digi.xbee.api.RemoteZigBeeDevice;
 import com.digi.xbee.api.XBeeDevice;
 import com.digi.xbee.api.XBeeNetwork;
+import com.digi.xbee.api.XBeeRPC;
 import com.digi.xbee.api.exceptions.InvalidPacketException;
 import com.digi.xbee.api.exceptions.XBeeException;
 import com.digi.xbee.api.io.IOSample;
 import com.digi.xbee.api.listeners.IExplicitDataReceiveListener;
+import com.digi.xbee.api.listeners.IFrameRingListener;
 import com.digi.xbee.api.listeners.IIOSampleReceiveListener;
 import com.digi.xbee.api.listeners.IModemStatusReceiveListener;
 import com.digi.xbee.api.listeners.IPacketReceiveListener;
+import com.digi.xbee.api.listeners.IRawFrameReceiveListener;
 import com.digi.xbee.api.listeners.IDataReceiveListener;
 import com.digi.xbee.api.models.ExplicitXBeeMessage;
+import com.digi.xbee.api.models.FrameWaitStrategy;
 import com.digi.xbee.api.models.ModemStatusEvent;
 import com.digi.xbee.api.models.SpecialByte;
 import com.digi.xbee.api.models.OperatingMode;
@@ -43,6 +49,8 @@ import com.digi.xbee.api.models.XBee16BitAddress;
 import com.digi.xbee.api.models.XBee64BitAddress;
 import com.digi.xbee.api.models.XBeeMessage;
 import com.digi.xbee.api.models.XBeePacketsQueue;
+import com.digi.xbee.api.models.XBeeProtocol;
+import com.digi.xbee.api.models.XBeeTransmitStatus;
 import com.digi.xbee.api.packet.XBeeAPIPacket;
 import com.digi.xbee.api.packet.APIFrameType;
 import com.digi.xbee.api.packet.XBeePacket;
@@ -51,6 +59,7 @@ import com.digi.xbee.api.packet.common.ExplicitRxIndicatorPacket;
 import com.digi.xbee.api.packet.common.IODataSampleRxIndicatorPacket;
 import com.digi.xbee.api.packet.common.ModemStatusPacket;
 import com.digi.xbee.api.packet.common.ReceivePacket;
+import com.digi.xbee.api.packet.common.TransmitStatusPacket;
 import com.digi.xbee.api.packet.raw.RX16IOPacket;
 import com.digi.xbee.api.packet.raw.RX16Packet;
 import com.digi.xbee.api.packet.raw.RX64IOPacket;
@@ -84,6 +93,25 @@ public class DataReader extends Thread {
 	private ArrayList<IIOSampleReceiveListener> ioSampleReceiveListeners = new ArrayList<IIOSampleReceiveListener>();
 	private ArrayList<IModemStatusReceiveListener> modemStatusListeners = new ArrayList<IModemStatusReceiveListener>();
 	private ArrayList<IExplicitDataReceiveListener> explicitDataReceiveListeners = new ArrayList<IExplicitDataReceiveListener>();
+	private ArrayList<IRawFrameReceiveListener> rawFrameListeners = new ArrayList<IRawFrameReceiveListener>();
+	// Copy of the raw frame listeners so the reader thread can notify them 
+	// without locking the list for every received frame.
+	private volatile IRawFrameReceiveListener[] rawFrameListenersSnapshot = new IRawFrameReceiveListener[0];
+	
+	private volatile boolean rawFrameMode = false;
+	// Frame types to deliver as raw frames indexed by the frame type value. 
+	// When it is null, all the frame types are delivered as raw frames.
+	private volatile boolean[] rawFrameTypeFilter = null;
+	
+	private byte[] frameBuffer;
+	
+	private volatile FrameRingBuffer frameRingBuffer;
+	
+	private volatile DuplicateFrameFilter duplicateFrameFilter;
+	
+	private volatile XBeeRPC rpc;
+	
+	private volatile List<IIOSampleReceiveListener> ioSampleProcessors;
 	
 	private Logger logger;
 	
@@ -379,6 +407,255 @@ public class DataReader extends Thread {
 		}
 	}
 	
+	/**
+	 * Adds the given raw frame receive listener to the list of listeners that 
+	 * will be notified when an API frame is received while the raw frame mode 
+	 * is enabled.
+	 * 
+	 * <p>If the listener has been already added, this method does nothing.</p>
+	 * 
+	 * <p>Raw frame listeners are called from the reader thread, so they should 
+	 * return as soon as possible.</p>
+	 * 
+	 * @param listener Listener to be notified when new API frames are received
+	 *                 in raw frame mode.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}.
+	 * 
+	 * @see #removeRawFrameReceiveListener(IRawFrameReceiveListener)
+	 * @see #setRawFrameMode(boolean)
+	 * @see com.digi.xbee.api.listeners.IRawFrameReceiveListener
+	 */
+	public void addRawFrameReceiveListener(IRawFrameReceiveListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		synchronized (rawFrameListeners) {
+			if (!rawFrameListeners.contains(listener)) {
+				rawFrameListeners.add(listener);
+				rawFrameListenersSnapshot = rawFrameListeners.toArray(new IRawFrameReceiveListener[rawFrameListeners.size()]);
+			}
+		}
+	}
+	
+	/**
+	 * Removes the given raw frame receive listener from the list of raw frame 
+	 * receive listeners.
+	 * 
+	 * <p>If the listener is not included in the list, this method does nothing.
+	 * </p>
+	 * 
+	 * @param listener Raw frame receive listener to remove from the list.
+	 * 
+	 * @see #addRawFrameReceiveListener(IRawFrameReceiveListener)
+	 * @see com.digi.xbee.api.listeners.IRawFrameReceiveListener
+	 */
+	public void removeRawFrameReceiveListener(IRawFrameReceiveListener listener) {
+		synchronized (rawFrameListeners) {
+			if (rawFrameListeners.contains(listener)) {
+				rawFrameListeners.remove(listener);
+				rawFrameListenersSnapshot = rawFrameListeners.toArray(new IRawFrameReceiveListener[rawFrameListeners.size()]);
+			}
+		}
+	}
+	
+	/**
+	 * Enables or disables the raw frame mode of this data reader.
+	 * 
+	 * <p>In raw frame mode, every received API frame is only validated (length 
+	 * and checksum) and delivered to the raw frame listeners as a range of a 
+	 * reusable buffer. Frames are not decoded into packets, so they are not 
+	 * added to the packets queue, their source is not looked up or added to 
+	 * the network and no other listener is notified about them.</p>
+	 * 
+	 * <p>Use {@link #setRawFrameTypeFilter(APIFrameType...)} to select the 
+	 * frame types delivered as raw frames. Frames of any other type are decoded 
+	 * and dispatched as usual.</p>
+	 * 
+	 * @param enabled {@code true} to enable the raw frame mode, {@code false} 
+	 *                to disable it.
+	 * 
+	 * @see #isRawFrameMode()
+	 * @see #setRawFrameTypeFilter(APIFrameType...)
+	 * @see #addRawFrameReceiveListener(IRawFrameReceiveListener)
+	 */
+	public void setRawFrameMode(boolean enabled) {
+		this.rawFrameMode = enabled;
+	}
+	
+	/**
+	 * Returns whether the raw frame mode of this data reader is enabled or not.
+	 * 
+	 * @return {@code true} if the raw frame mode is enabled, {@code false} 
+	 *         otherwise.
+	 * 
+	 * @see #setRawFrameMode(boolean)
+	 */
+	public boolean isRawFrameMode() {
+		return rawFrameMode;
+	}
+	
+	/**
+	 * Sets the API frame types that are delivered as raw frames when the raw 
+	 * frame mode is enabled.
+	 * 
+	 * <p>Frames of any other type are decoded and dispatched as usual, so 
+	 * synchronous operations of the local device (such as AT commands or 
+	 * transmissions waiting for a transmit status) keep working as long as 
+	 * their response types are not included in the filter.</p>
+	 * 
+	 * <p>If no frame type is provided (or {@code null}), all received frames 
+	 * are delivered as raw frames.</p>
+	 * 
+	 * @param frameTypes The API frame types to deliver as raw frames, 
+	 *                   {@code null} or none to deliver all of them.
+	 * 
+	 * @see #setRawFrameMode(boolean)
+	 * @see com.digi.xbee.api.packet.APIFrameType
+	 */
+	public void setRawFrameTypeFilter(APIFrameType... frameTypes) {
+		if (frameTypes == null || frameTypes.length == 0) {
+			rawFrameTypeFilter = null;
+			return;
+		}
+		
+		boolean[] filter = new boolean[256];
+		for (APIFrameType frameType:frameTypes) {
+			if (frameType != null && frameType != APIFrameType.UNKNOWN)
+				filter[frameType.getValue() & 0xFF] = true;
+		}
+		rawFrameTypeFilter = filter;
+	}
+	
+	/**
+	 * Sets the filter used to discard duplicated received data frames.
+	 * 
+	 * <p>Received data frames (receive packet, RX64, RX16 and explicit RX 
+	 * indicator) whose source and payload were already received within the 
+	 * time window of the filter are discarded before being added to the 
+	 * packets queue or notified to any listener.</p>
+	 * 
+	 * @param filter The duplicate frame filter, {@code null} to disable the 
+	 *               duplicates detection.
+	 * 
+	 * @see #getDuplicateFrameFilter()
+	 * @see DuplicateFrameFilter
+	 */
+	public void setDuplicateFrameFilter(DuplicateFrameFilter filter) {
+		this.duplicateFrameFilter = filter;
+	}
+	
+	/**
+	 * Returns the filter used to discard duplicated received data frames.
+	 * 
+	 * @return The duplicate frame filter, {@code null} if the duplicates 
+	 *         detection is disabled.
+	 * 
+	 * @see #setDuplicateFrameFilter(DuplicateFrameFilter)
+	 * @see DuplicateFrameFilter
+	 */
+	public DuplicateFrameFilter getDuplicateFrameFilter() {
+		return duplicateFrameFilter;
+	}
+	
+	/**
+	 * Sets the RPC layer whose responses are matched by this data reader.
+	 * 
+	 * <p>Received data frames that answer a pending RPC request complete it 
+	 * in the reader thread and are not added to the packets queue or 
+	 * notified to any listener.</p>
+	 * 
+	 * @param rpc The RPC layer, {@code null} to stop matching responses.
+	 * 
+	 * @see com.digi.xbee.api.XBeeRPC
+	 */
+	public void setRPC(XBeeRPC rpc) {
+		this.rpc = rpc;
+	}
+	
+	/**
+	 * Sets the list of IO sample processors of this data reader.
+	 * 
+	 * <p>Unlike the IO sample listeners, the processors are called in the 
+	 * reader thread as soon as each IO sample is received, so they must 
+	 * return quickly. The list can be modified while the reader is running 
+	 * if it supports concurrent iteration.</p>
+	 * 
+	 * @param ioSampleProcessors The list of IO sample processors, 
+	 *                           {@code null} to remove them.
+	 * 
+	 * @see com.digi.xbee.api.io.IOSampleHistory
+	 */
+	public void setIOSampleProcessors(List<IIOSampleReceiveListener> ioSampleProcessors) {
+		this.ioSampleProcessors = ioSampleProcessors;
+	}
+	
+	/**
+	 * Adds the given listener as a consumer of the frame ring buffer of this 
+	 * data reader, creating the ring buffer if it does not exist yet.
+	 * 
+	 * <p>Every received API frame is published in the ring buffer before 
+	 * being dispatched, and each consumer processes the frames in order from 
+	 * its own thread, waiting for new frames with the given strategy. If the 
+	 * slowest consumer falls a whole ring behind, the frames are dropped for 
+	 * the ring buffer after its maximum publish wait, see 
+	 * {@link FrameRingBuffer}.</p>
+	 * 
+	 * <p>If the listener has been already added, this method does nothing.</p>
+	 * 
+	 * @param listener Listener to be notified about every received frame.
+	 * @param waitStrategy Strategy the consumer uses to wait for new frames.
+	 * 
+	 * @throws NullPointerException if {@code listener == null} or
+	 *                              if {@code waitStrategy == null}.
+	 * 
+	 * @see #removeFrameRingListener(IFrameRingListener)
+	 * @see #getFrameRingBuffer()
+	 * @see com.digi.xbee.api.listeners.IFrameRingListener
+	 * @see com.digi.xbee.api.models.FrameWaitStrategy
+	 */
+	public void addFrameRingListener(IFrameRingListener listener, FrameWaitStrategy waitStrategy) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		if (waitStrategy == null)
+			throw new NullPointerException("Wait strategy cannot be null.");
+		
+		synchronized (this) {
+			if (frameRingBuffer == null)
+				frameRingBuffer = new FrameRingBuffer();
+		}
+		frameRingBuffer.addConsumer(listener, waitStrategy);
+	}
+	
+	/**
+	 * Removes the given listener from the consumers of the frame ring buffer.
+	 * 
+	 * <p>If the listener is not a consumer, this method does nothing.</p>
+	 * 
+	 * @param listener Listener to remove.
+	 * 
+	 * @see #addFrameRingListener(IFrameRingListener, FrameWaitStrategy)
+	 * @see com.digi.xbee.api.listeners.IFrameRingListener
+	 */
+	public void removeFrameRingListener(IFrameRingListener listener) {
+		FrameRingBuffer ringBuffer = frameRingBuffer;
+		if (ringBuffer != null)
+			ringBuffer.removeConsumer(listener);
+	}
+	
+	/**
+	 * Returns the frame ring buffer of this data reader.
+	 * 
+	 * @return The frame ring buffer, {@code null} if no consumer has been 
+	 *         added yet.
+	 * 
+	 * @see #addFrameRingListener(IFrameRingListener, FrameWaitStrategy)
+	 * @see FrameRingBuffer
+	 */
+	public FrameRingBuffer getFrameRingBuffer() {
+		return frameRingBuffer;
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see java.lang.Thread#run()
@@ -404,7 +681,10 @@ public class DataReader extends Thread {
 					case API_ESCAPE:
 						int headerByte = connectionInterface.getInputStream().read();
 						// If it is packet header parse the packet, if not discard this byte and continue.
-						if (headerByte == SpecialByte.HEADER_BYTE.getValue()) {
+						if (headerByte == SpecialByte.HEADER_BYTE.getValue() 
+								&& (rawFrameMode || frameRingBuffer != null))
+							frameReceived();
+						else if (headerByte == SpecialByte.HEADER_BYTE.getValue()) {
 							try {
 								XBeePacket packet = parser.parsePacket(connectionInterface.getInputStream(), mode);
 								packetReceived(packet);
@@ -441,6 +721,78 @@ public class DataReader extends Thread {
 		}
 	}
 	
+	/**
+	 * Reads the API frame that follows the start delimiter into the reusable 
+	 * frame buffer, publishes it in the frame ring buffer (if any) and 
+	 * delivers it to the raw frame listeners when the raw frame mode is 
+	 * enabled.
+	 * 
+	 * <p>If the raw frame mode is disabled or the frame type is not accepted 
+	 * by the raw frame type filter, the frame is decoded and dispatched as a 
+	 * regular packet.</p>
+	 * 
+	 * @see #setRawFrameMode(boolean)
+	 * @see #setRawFrameTypeFilter(APIFrameType...)
+	 * @see #addFrameRingListener(IFrameRingListener, FrameWaitStrategy)
+	 */
+	private void frameReceived() {
+		if (frameBuffer == null)
+			frameBuffer = new byte[XBeePacketParser.MAX_FRAME_DATA_LENGTH];
+		
+		int length;
+		try {
+			length = parser.readFrame(connectionInterface.getInputStream(), mode, frameBuffer);
+		} catch (InvalidPacketException e) {
+			logger.error("Error reading the API frame.", e);
+			return;
+		}
+		if (length == 0)
+			return;
+		
+		long timestamp = System.currentTimeMillis();
+		
+		FrameRingBuffer ringBuffer = frameRingBuffer;
+		if (ringBuffer != null)
+			ringBuffer.publish(frameBuffer, 0, length, timestamp);
+		
+		// Frames not accepted by the filter follow the regular path.
+		boolean[] filter = rawFrameTypeFilter;
+		if (!rawFrameMode || (filter != null && !filter[frameBuffer[0] & 0xFF])) {
+			try {
+				packetReceived(parser.parsePayload(frameBuffer, 0, length));
+			} catch (InvalidPacketException e) {
+				logger.error("Error parsing the API packet.", e);
+			}
+			return;
+		}
+		
+		notifyRawFrameReceived(frameBuffer, length, timestamp);
+	}
+	
+	/**
+	 * Notifies subscribed raw frame receive listeners that a new API frame has 
+	 * been received.
+	 * 
+	 * <p>Listeners are called sequentially from the reader thread, as the 
+	 * frame buffer is reused once all of them have returned.</p>
+	 * 
+	 * @param buffer Buffer containing the frame data.
+	 * @param length Number of bytes of frame data.
+	 * @param timestamp Time, in milliseconds, at which the frame was read.
+	 * 
+	 * @see com.digi.xbee.api.listeners.IRawFrameReceiveListener
+	 */
+	private void notifyRawFrameReceived(byte[] buffer, int length, long timestamp) {
+		IRawFrameReceiveListener[] listeners = rawFrameListenersSnapshot;
+		for (int i = 0; i < listeners.length; i++) {
+			try {
+				listeners[i].rawFrameReceived(buffer, 0, length, timestamp);
+			} catch (Exception e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+	}
+	
 	/**
 	 * Dispatches the received XBee packet to the corresponding listener(s).
 	 * 
@@ -451,6 +803,12 @@ public class DataReader extends Thread {
 	 * @see com.digi.xbee.api.packet.XBeePacket
 	 */
 	private void packetReceived(XBeePacket packet) {
+		// Discard the packet if it is a duplicate of a recently received one.
+		if (isDuplicate(packet))
+			return;
+		// Complete the pending RPC request if the packet is its response.
+		if (isRPCResponse(packet))
+			return;
 		// Add the packet to the packets queue.
 		xbeePacketsQueue.addPacket(packet);
 		// Notify that a packet has been received to the corresponding listeners.
@@ -469,6 +827,8 @@ public class DataReader extends Thread {
 		try {
 			// Obtain the remote device from the packet.
 			RemoteXBeeDevice remoteDevice = getRemoteXBeeDeviceFromPacket(apiPacket);
+			if (remoteDevice != null)
+				remoteDevice.frameReceived(System.currentTimeMillis());
 			byte[] data = null;
 			
 			switch(apiType) {
@@ -501,6 +861,13 @@ public class DataReader extends Thread {
 				break;
 			case MODEM_STATUS:
 				ModemStatusPacket modemStatusPacket = (ModemStatusPacket)apiPacket;
+				// After a reset the parameters may have been restored.
+				if (modemStatusPacket.getStatus() == ModemStatusEvent.STATUS_HARDWARE_RESET 
+						|| modemStatusPacket.getStatus() == ModemStatusEvent.STATUS_WATCHDOG_TIMER_RESET) {
+					ATParameterCache cache = xbeeDevice.getParameterCache();
+					if (cache != null)
+						cache.invalidateAll();
+				}
 				notifyModemStatusReceived(modemStatusPacket.getStatus());
 				break;
 			case EXPLICIT_RX_INDICATOR:
@@ -524,6 +891,9 @@ public class DataReader extends Thread {
 				}
 				notifyExplicitDataReceived(new ExplicitXBeeMessage(remoteDevice, sourceEndpoint, destEndpoint, clusterID, profileID, data, explicitDataPacket.isBroadcast()));
 				break;
+			case TRANSMIT_STATUS:
+				transmitStatusReceived((TransmitStatusPacket)apiPacket);
+				break;
 			default:
 				break;
 			}
@@ -533,6 +903,140 @@ public class DataReader extends Thread {
 		}
 	}
 	
+	/**
+	 * Records the given transmit status in the link statistics of the 
+	 * destination device.
+	 * 
+	 * <p>Only the transmit status frames of ZigBee devices identify the 
+	 * destination device by its 16-bit address.</p>
+	 * 
+	 * @param packet The received transmit status packet.
+	 * 
+	 * @throws XBeeException if there is an error looking for the device in 
+	 *                       the network.
+	 */
+	private void transmitStatusReceived(TransmitStatusPacket packet) throws XBeeException {
+		XBee16BitAddress addr16 = packet.get16bitDestinationAddress();
+		if (addr16 == null || addr16.equals(XBee16BitAddress.UNKNOWN_ADDRESS) 
+				|| addr16.equals(XBee16BitAddress.BROADCAST_ADDRESS))
+			return;
+		XBeeProtocol protocol = xbeeDevice.getXBeeProtocol();
+		if (protocol == XBeeProtocol.DIGI_MESH || protocol == XBeeProtocol.DIGI_POINT)
+			return;
+		
+		RemoteXBeeDevice remoteDevice = xbeeDevice.getNetwork().getDevice(addr16);
+		if (remoteDevice == null)
+			return;
+		
+		XBeeTransmitStatus status = packet.getTransmitStatus();
+		remoteDevice.transmitStatusReceived(packet.getTransmitRetryCount(), 
+				status == XBeeTransmitStatus.SUCCESS || status == XBeeTransmitStatus.SELF_ADDRESSED, 
+				System.currentTimeMillis());
+	}
+	
+	/**
+	 * Returns whether the given packet is a duplicate of a data packet 
+	 * received within the time window of the duplicate frame filter.
+	 * 
+	 * @param packet The received XBee packet.
+	 * 
+	 * @return {@code true} if the packet is a duplicated data packet, 
+	 *         {@code false} otherwise or if the duplicates detection is 
+	 *         disabled.
+	 * 
+	 * @see DuplicateFrameFilter
+	 */
+	private boolean isDuplicate(XBeePacket packet) {
+		DuplicateFrameFilter filter = duplicateFrameFilter;
+		if (filter == null || !(packet instanceof XBeeAPIPacket))
+			return false;
+		
+		XBeeAPIPacket apiPacket = (XBeeAPIPacket)packet;
+		APIFrameType apiType = apiPacket.getFrameType();
+		if (apiType == null)
+			return false;
+		
+		long source;
+		byte[] data;
+		switch (apiType) {
+		case RECEIVE_PACKET:
+			source = ((ReceivePacket)apiPacket).get64bitSourceAddress().toLong();
+			data = ((ReceivePacket)apiPacket).getRFData();
+			break;
+		case RX_64:
+			source = ((RX64Packet)apiPacket).get64bitSourceAddress().toLong();
+			data = ((RX64Packet)apiPacket).getRFData();
+			break;
+		case RX_16:
+			// Use a key that cannot collide with a 64-bit address.
+			source = ~((RX16Packet)apiPacket).get16bitSourceAddress().toInt();
+			data = ((RX16Packet)apiPacket).getRFData();
+			break;
+		case EXPLICIT_RX_INDICATOR:
+			ExplicitRxIndicatorPacket explicitPacket = (ExplicitRxIndicatorPacket)apiPacket;
+			source = explicitPacket.get64BitSourceAddress().toLong() 
+					^ ((long)explicitPacket.getClusterID() << 16 | explicitPacket.getProfileID()) * 31;
+			data = explicitPacket.getRFData();
+			break;
+		default:
+			return false;
+		}
+		if (data == null)
+			data = new byte[0];
+		
+		if (filter.isDuplicate(source, data, 0, data.length, System.currentTimeMillis())) {
+			logger.debug("Duplicated {} frame discarded.", apiType.getName());
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns whether the given packet is the response of a pending RPC 
+	 * request, completing the request if so.
+	 * 
+	 * @param packet The received XBee packet.
+	 * 
+	 * @return {@code true} if the packet was the response of a pending RPC 
+	 *         request, {@code false} otherwise.
+	 * 
+	 * @see com.digi.xbee.api.XBeeRPC
+	 */
+	private boolean isRPCResponse(XBeePacket packet) {
+		XBeeRPC rpc = this.rpc;
+		if (rpc == null || rpc.getPendingCount() == 0 || !(packet instanceof XBeeAPIPacket))
+			return false;
+		
+		XBeeAPIPacket apiPacket = (XBeeAPIPacket)packet;
+		APIFrameType apiType = apiPacket.getFrameType();
+		if (apiType == null)
+			return false;
+		
+		switch (apiType) {
+		case RECEIVE_PACKET:
+			ReceivePacket receivePacket = (ReceivePacket)apiPacket;
+			return rpc.responseReceived(receivePacket.get64bitSourceAddress(), 
+					receivePacket.get16bitSourceAddress(), receivePacket.getRFData());
+		case RX_64:
+			RX64Packet rx64Packet = (RX64Packet)apiPacket;
+			return rpc.responseReceived(rx64Packet.get64bitSourceAddress(), null, rx64Packet.getRFData());
+		case RX_16:
+			RX16Packet rx16Packet = (RX16Packet)apiPacket;
+			return rpc.responseReceived(null, rx16Packet.get16bitSourceAddress(), rx16Packet.getRFData());
+		case EXPLICIT_RX_INDICATOR:
+			ExplicitRxIndicatorPacket explicitPacket = (ExplicitRxIndicatorPacket)apiPacket;
+			if (explicitPacket.getSourceEndpoint() != ExplicitRxIndicatorPacket.DATA_ENDPOINT 
+					|| explicitPacket.getDestinationEndpoint() != ExplicitRxIndicatorPacket.DATA_ENDPOINT 
+					|| explicitPacket.getClusterID() != ExplicitRxIndicatorPacket.DATA_CLUSTER 
+					|| explicitPacket.getProfileID() != ExplicitRxIndicatorPacket.DIGI_PROFILE)
+				return false;
+			return rpc.responseReceived(explicitPacket.get64BitSourceAddress(), 
+					explicitPacket.get16BitSourceAddress(), explicitPacket.getRFData());
+		default:
+			return false;
+		}
+	}
+	
 	/**
 	 * Returns the remote XBee device from where the given package was sent 
 	 * from.
@@ -578,12 +1082,12 @@ public class DataReader extends Thread {
 			ReceivePacket receivePacket = (ReceivePacket)apiPacket;
 			addr64 = receivePacket.get64bitSourceAddress();
 			addr16 = receivePacket.get16bitSourceAddress();
-			remoteDevice = network.getDevice(addr64);
+			remoteDevice = network.getDevice(addr64.toLong());
 			break;
 		case RX_64:
 			RX64Packet rx64Packet = (RX64Packet)apiPacket;
 			addr64 = rx64Packet.get64bitSourceAddress();
-			remoteDevice = network.getDevice(addr64);
+			remoteDevice = network.getDevice(addr64.toLong());
 			break;
 		case RX_16:
 			RX16Packet rx16Packet = (RX16Packet)apiPacket;
@@ -595,12 +1099,12 @@ public class DataReader extends Thread {
 			IODataSampleRxIndicatorPacket ioSamplePacket = (IODataSampleRxIndicatorPacket)apiPacket;
 			addr64 = ioSamplePacket.get64bitSourceAddress();
 			addr16 = ioSamplePacket.get16bitSourceAddress();
-			remoteDevice = network.getDevice(addr64);
+			remoteDevice = network.getDevice(addr64.toLong());
 			break;
 		case RX_IO_64:
 			RX64IOPacket rx64IOPacket = (RX64IOPacket)apiPacket;
 			addr64 = rx64IOPacket.get64bitSourceAddress();
-			remoteDevice = network.getDevice(addr64);
+			remoteDevice = network.getDevice(addr64.toLong());
 			break;
 		case RX_IO_16:
 			RX16IOPacket rx16IOPacket = (RX16IOPacket)apiPacket;
@@ -612,7 +1116,7 @@ public class DataReader extends Thread {
 			ExplicitRxIndicatorPacket explicitDataPacket = (ExplicitRxIndicatorPacket)apiPacket;
 			addr64 = explicitDataPacket.get64BitSourceAddress();
 			addr16 = explicitDataPacket.get16BitSourceAddress();
-			remoteDevice = network.getDevice(addr64);
+			remoteDevice = network.getDevice(addr64.toLong());
 			break;
 		default:
 			// Rest of the types are considered not to contain information 
@@ -629,6 +1133,7 @@ public class DataReader extends Thread {
 		return remoteDevice;
 	}
 	
+	
 	/**
 	 * Creates a new remote XBee device with the provided 64-bit address, 
 	 * 16-bit address, node identifier and the XBee device that is using this 
@@ -782,6 +1287,17 @@ public class DataReader extends Thread {
 	private void notifyIOSampleReceived(final RemoteXBeeDevice remoteDevice, final IOSample ioSample) {
 		logger.debug(connectionInterface.toString() + "IO sample received.");
 		
+		List<IIOSampleReceiveListener> processors = ioSampleProcessors;
+		if (processors != null) {
+			for (IIOSampleReceiveListener processor:processors) {
+				try {
+					processor.ioSampleReceived(remoteDevice, ioSample);
+				} catch (Exception e) {
+					logger.error(e.getMessage(), e);
+				}
+			}
+		}
+		
 		try {
 			synchronized (ioSampleReceiveListeners) {
 				ScheduledExecutorService executor = Executors.newScheduledThreadPool(Math.min(MAXIMUM_PARALLEL_LISTENER_THREADS, 
@@ -911,6 +1427,9 @@ public class DataReader extends Thread {
 	 */
 	public void stopReader() {
 		running = false;
+		FrameRingBuffer ringBuffer = frameRingBuffer;
+		if (ringBuffer != null)
+			ringBuffer.stop();
 		synchronized (connectionInterface) {
 			connectionInterface.notify();
 		}
@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.connection;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class detects duplicated received data frames, that is, frames with 
+ * the same payload coming from the same source device within a configurable 
+ * time window.
+ * 
+ * <p>Each frame is reduced to a 64-bit fingerprint computed from the source 
+ * address and the payload. Fingerprints are stored in two fixed size 
+ * open addressing tables (the current and the previous time bucket) that are 
+ * rotated every time window, so the memory used is bounded and no objects 
+ * are created while filtering. A frame is considered duplicated if its 
+ * fingerprint is found in any of both buckets, which guarantees that 
+ * duplicates received within the time window are always detected.</p>
+ * 
+ * <p>If more distinct frames than the configured capacity are received 
+ * within a time window, the buckets are rotated earlier, reducing the 
+ * effective window. As fingerprints are hashes, two different frames may 
+ * be considered equal with a negligible probability.</p>
+ * 
+ * @see DataReader#setDuplicateFrameFilter(DuplicateFrameFilter)
+ */
+public class DuplicateFrameFilter {
+	
+	// Constants.
+	/**
+	 * Default time window in milliseconds (value: {@value}).
+	 */
+	public static final long DEFAULT_WINDOW = 5000;
+	
+	/**
+	 * Default maximum number of distinct frames remembered per time window 
+	 * (value: {@value}).
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+	
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	
+	private static final long EMPTY = 0;
+	
+	// Variables.
+	private final long window;
+	
+	private final int capacity;
+	private final int mask;
+	
+	private long[] currentBucket;
+	private long[] previousBucket;
+	
+	private int currentSize = 0;
+	
+	private long bucketStart = -1;
+	
+	private final AtomicLong suppressedFrames = new AtomicLong();
+	
+	/**
+	 * Class constructor. Instantiates a new {@code DuplicateFrameFilter} with 
+	 * the default time window and capacity.
+	 * 
+	 * @see #DuplicateFrameFilter(long, int)
+	 */
+	public DuplicateFrameFilter() {
+		this(DEFAULT_WINDOW, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Class constructor. Instantiates a new {@code DuplicateFrameFilter} with 
+	 * the given parameters.
+	 * 
+	 * @param window Time window in milliseconds during which a repeated frame 
+	 *               is considered a duplicate.
+	 * @param capacity Maximum number of distinct frames remembered per time 
+	 *                 window.
+	 * 
+	 * @throws IllegalArgumentException if {@code window < 1} or 
+	 *                                  if {@code capacity < 1}.
+	 */
+	public DuplicateFrameFilter(long window, int capacity) {
+		if (window < 1)
+			throw new IllegalArgumentException("Window must be greater than 0.");
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be greater than 0.");
+		
+		this.window = window;
+		this.capacity = capacity;
+		// Keep the load factor of the tables under 50%.
+		int tableSize = Integer.highestOneBit(capacity) << 2;
+		this.mask = tableSize - 1;
+		this.currentBucket = new long[tableSize];
+		this.previousBucket = new long[tableSize];
+	}
+	
+	/**
+	 * Returns whether the given frame is a duplicate of a frame received 
+	 * within the time window and remembers it otherwise.
+	 * 
+	 * @param source Key identifying the source device (for example, its 
+	 *               64-bit address as a {@code long}).
+	 * @param data Buffer containing the payload of the frame.
+	 * @param offset Position of the first byte of the payload.
+	 * @param length Number of bytes of the payload.
+	 * @param now Current time in milliseconds.
+	 * 
+	 * @return {@code true} if the frame is a duplicate, {@code false} 
+	 *         otherwise.
+	 * 
+	 * @throws NullPointerException if {@code data == null}.
+	 */
+	public synchronized boolean isDuplicate(long source, byte[] data, int offset, int length, long now) {
+		if (data == null)
+			throw new NullPointerException("Data cannot be null.");
+		
+		long fingerprint = fingerprint(source, data, offset, length);
+		
+		// Rotate the buckets if the window expired or the current one is full.
+		if (bucketStart < 0)
+			bucketStart = now;
+		else if (now - bucketStart >= 2 * window) {
+			clear();
+			bucketStart = now;
+		} else if (now - bucketStart >= window || currentSize >= capacity)
+			rotate(now);
+		
+		if (contains(currentBucket, fingerprint) || contains(previousBucket, fingerprint)) {
+			suppressedFrames.incrementAndGet();
+			return true;
+		}
+		
+		insert(currentBucket, fingerprint);
+		currentSize++;
+		return false;
+	}
+	
+	/**
+	 * Returns the number of frames suppressed as duplicates.
+	 * 
+	 * @return The number of suppressed frames.
+	 */
+	public long getSuppressedCount() {
+		return suppressedFrames.get();
+	}
+	
+	/**
+	 * Returns the time window of this filter.
+	 * 
+	 * @return The time window in milliseconds.
+	 */
+	public long getWindow() {
+		return window;
+	}
+	
+	/**
+	 * Forgets all the remembered frames.
+	 */
+	public synchronized void clear() {
+		Arrays.fill(currentBucket, EMPTY);
+		Arrays.fill(previousBucket, EMPTY);
+		currentSize = 0;
+		bucketStart = -1;
+	}
+	
+	/**
+	 * Makes the current bucket the previous one and starts a new empty 
+	 * current bucket reusing the old previous table.
+	 * 
+	 * @param now Current time in milliseconds.
+	 */
+	private void rotate(long now) {
+		long[] table = previousBucket;
+		previousBucket = currentBucket;
+		Arrays.fill(table, EMPTY);
+		currentBucket = table;
+		currentSize = 0;
+		bucketStart = now;
+	}
+	
+	/**
+	 * Returns whether the given table contains the given fingerprint.
+	 * 
+	 * @param table The open addressing table.
+	 * @param fingerprint The fingerprint to look for.
+	 * 
+	 * @return {@code true} if the table contains the fingerprint, 
+	 *         {@code false} otherwise.
+	 */
+	private boolean contains(long[] table, long fingerprint) {
+		int index = (int)(fingerprint ^ (fingerprint >>> 32)) & mask;
+		while (table[index] != EMPTY) {
+			if (table[index] == fingerprint)
+				return true;
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+	
+	/**
+	 * Inserts the given fingerprint in the given table.
+	 * 
+	 * @param table The open addressing table.
+	 * @param fingerprint The fingerprint to insert.
+	 */
+	private void insert(long[] table, long fingerprint) {
+		int index = (int)(fingerprint ^ (fingerprint >>> 32)) & mask;
+		while (table[index] != EMPTY)
+			index = (index + 1) & mask;
+		table[index] = fingerprint;
+	}
+	
+	/**
+	 * Computes the fingerprint of the given frame using the 64-bit FNV-1a 
+	 * hash function.
+	 * 
+	 * @param source Key identifying the source device.
+	 * @param data Buffer containing the payload of the frame.
+	 * @param offset Position of the first byte of the payload.
+	 * @param length Number of bytes of the payload.
+	 * 
+	 * @return The fingerprint, never {@code 0}.
+	 */
+	private static long fingerprint(long source, byte[] data, int offset, int length) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int i = 0; i < 8; i++) {
+			hash ^= (source >>> (i * 8)) & 0xFF;
+			hash *= FNV_PRIME;
+		}
+		for (int i = offset; i < offset + length; i++) {
+			hash ^= data[i] & 0xFF;
+			hash *= FNV_PRIME;
+		}
+		return hash == EMPTY ? 1 : hash;
+	}
+}
@@ -0,0 +1,461 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.connection;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.digi.xbee.api.listeners.IFrameRingListener;
+import com.digi.xbee.api.models.FrameWaitStrategy;
+
+/**
+ * This class implements a single producer, multiple consumer ring buffer used
+ * to fan out the received API frames to several independent consumers.
+ *
+ * <p>The ring buffer is made of a fixed number of preallocated
+ * {@link FrameRingEntry} objects that are reused for every published frame,
+ * so publishing does not create new objects. The only producer is the data
+ * reader thread. Every consumer runs in its own thread, keeps its own
+ * sequence and waits for new frames using its own
+ * {@link FrameWaitStrategy}.</p>
+ *
+ * <p>The producer never overwrites an entry that has not been processed by
+ * all the consumers: if the slowest consumer falls a whole ring behind, the
+ * reader waits for it up to the maximum publish wait. If the consumer does
+ * not release the entry in that time, the frame is not published in the
+ * ring and it is counted as dropped. The following frames are also dropped,
+ * without waiting, until the slowest consumer releases an entry, so a stuck
+ * consumer does not stall the data reader, which also dispatches the
+ * responses of the synchronous operations.</p>
+ *
+ * @see FrameRingEntry
+ * @see com.digi.xbee.api.listeners.IFrameRingListener
+ * @see com.digi.xbee.api.models.FrameWaitStrategy
+ */
+public class FrameRingBuffer {
+	
+	// Constants.
+	/**
+	 * Default number of entries of the ring buffer (value: {@value}).
+	 */
+	public static final int DEFAULT_SIZE = 1024;
+	
+	/**
+	 * Default maximum time, in milliseconds, the producer waits for the 
+	 * slowest consumer before dropping a frame (value: {@value}).
+	 */
+	public static final long DEFAULT_MAX_PUBLISH_WAIT = 500;
+	
+	private static final long INITIAL_SEQUENCE = -1;
+	
+	// Variables.
+	private final FrameRingEntry[] entries;
+	
+	private final int mask;
+	
+	// Sequence of the last published entry.
+	private final AtomicLong cursor = new AtomicLong(INITIAL_SEQUENCE);
+	
+	private final CopyOnWriteArrayList<Consumer> consumers = new CopyOnWriteArrayList<Consumer>();
+	
+	private final Object blockingLock = new Object();
+	
+	private volatile int blockingConsumers = 0;
+	
+	private final AtomicLong droppedFrames = new AtomicLong();
+	
+	private volatile long maxPublishWait = DEFAULT_MAX_PUBLISH_WAIT;
+	
+	private volatile boolean stopped = false;
+	
+	private long cachedGatingSequence = INITIAL_SEQUENCE;
+	
+	// Whether the last frame was dropped because the ring was full.
+	private boolean overrun = false;
+	
+	private Logger logger;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code FrameRingBuffer} with
+	 * {@link #DEFAULT_SIZE} entries.
+	 * 
+	 * @see #FrameRingBuffer(int)
+	 */
+	public FrameRingBuffer() {
+		this(DEFAULT_SIZE);
+	}
+	
+	/**
+	 * Class constructor. Instantiates a new {@code FrameRingBuffer} with the
+	 * given number of entries.
+	 * 
+	 * @param size Number of entries of the ring buffer. It must be a power of
+	 *             2.
+	 * 
+	 * @throws IllegalArgumentException if {@code size < 1} or
+	 *                                  if {@code size} is not a power of 2.
+	 * 
+	 * @see #FrameRingBuffer()
+	 */
+	public FrameRingBuffer(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("Size must be greater than 0.");
+		if (Integer.bitCount(size) != 1)
+			throw new IllegalArgumentException("Size must be a power of 2.");
+		
+		entries = new FrameRingEntry[size];
+		for (int i = 0; i < size; i++)
+			entries[i] = new FrameRingEntry();
+		mask = size - 1;
+		logger = LoggerFactory.getLogger(FrameRingBuffer.class);
+	}
+	
+	/**
+	 * Returns the number of entries of this ring buffer.
+	 * 
+	 * @return The number of entries.
+	 */
+	public int getSize() {
+		return entries.length;
+	}
+	
+	/**
+	 * Returns the sequence of the last published frame.
+	 * 
+	 * @return The sequence of the last published frame, {@code -1} if no
+	 *         frame has been published yet.
+	 */
+	public long getCursor() {
+		return cursor.get();
+	}
+	
+	/**
+	 * Returns the number of consumers attached to this ring buffer.
+	 * 
+	 * @return The number of consumers.
+	 */
+	public int getNumberOfConsumers() {
+		return consumers.size();
+	}
+	
+	/**
+	 * Returns the number of frames that were not published because the 
+	 * slowest consumer was a whole ring behind.
+	 * 
+	 * @return The number of dropped frames.
+	 * 
+	 * @see #setMaxPublishWait(long)
+	 */
+	public long getDroppedFrames() {
+		return droppedFrames.get();
+	}
+	
+	/**
+	 * Sets the maximum time the producer waits for the slowest consumer to 
+	 * release an entry before dropping the frame.
+	 * 
+	 * @param maxPublishWait The maximum wait in milliseconds.
+	 * 
+	 * @throws IllegalArgumentException if {@code maxPublishWait < 0}.
+	 * 
+	 * @see #getMaxPublishWait()
+	 * @see #getDroppedFrames()
+	 */
+	public void setMaxPublishWait(long maxPublishWait) {
+		if (maxPublishWait < 0)
+			throw new IllegalArgumentException("Maximum publish wait cannot be less than 0.");
+		
+		this.maxPublishWait = maxPublishWait;
+	}
+	
+	/**
+	 * Returns the maximum time the producer waits for the slowest consumer 
+	 * to release an entry before dropping the frame.
+	 * 
+	 * @return The maximum wait in milliseconds.
+	 * 
+	 * @see #setMaxPublishWait(long)
+	 */
+	public long getMaxPublishWait() {
+		return maxPublishWait;
+	}
+	
+	/**
+	 * Adds the given listener as a new consumer of this ring buffer.
+	 * 
+	 * <p>The consumer starts with the next published frame and runs in its
+	 * own daemon thread until it is removed or the ring buffer is stopped.</p>
+	 * 
+	 * <p>If the listener has been already added, this method does nothing.</p>
+	 * 
+	 * @param listener Listener to be notified about every published frame.
+	 * @param waitStrategy Strategy the consumer thread uses to wait for new
+	 *                     frames.
+	 * 
+	 * @throws NullPointerException if {@code listener == null} or
+	 *                              if {@code waitStrategy == null}.
+	 * 
+	 * @see #removeConsumer(IFrameRingListener)
+	 * @see com.digi.xbee.api.listeners.IFrameRingListener
+	 * @see com.digi.xbee.api.models.FrameWaitStrategy
+	 */
+	public void addConsumer(IFrameRingListener listener, FrameWaitStrategy waitStrategy) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		if (waitStrategy == null)
+			throw new NullPointerException("Wait strategy cannot be null.");
+		
+		Consumer consumer;
+		synchronized (consumers) {
+			if (getConsumer(listener) != null)
+				return;
+			consumer = new Consumer(listener, waitStrategy, cursor.get());
+			if (waitStrategy == FrameWaitStrategy.BLOCKING)
+				blockingConsumers++;
+			consumers.add(consumer);
+			stopped = false;
+		}
+		consumer.start();
+	}
+	
+	/**
+	 * Removes the given listener from the consumers of this ring buffer and
+	 * stops its thread.
+	 * 
+	 * <p>If the listener is not a consumer, this method does nothing.</p>
+	 * 
+	 * @param listener Listener to remove.
+	 * 
+	 * @see #addConsumer(IFrameRingListener, FrameWaitStrategy)
+	 * @see com.digi.xbee.api.listeners.IFrameRingListener
+	 */
+	public void removeConsumer(IFrameRingListener listener) {
+		Consumer consumer;
+		synchronized (consumers) {
+			consumer = getConsumer(listener);
+			if (consumer == null)
+				return;
+			consumers.remove(consumer);
+			if (consumer.waitStrategy == FrameWaitStrategy.BLOCKING)
+				blockingConsumers--;
+		}
+		consumer.halt();
+	}
+	
+	/**
+	 * Stops the threads of all the consumers of this ring buffer and removes
+	 * them.
+	 */
+	public void stop() {
+		synchronized (consumers) {
+			stopped = true;
+			for (Consumer consumer:consumers)
+				consumer.halt();
+			consumers.clear();
+			blockingConsumers = 0;
+		}
+	}
+	
+	/**
+	 * Publishes the given frame data in the next entry of the ring buffer.
+	 * 
+	 * <p><b>This method must only be called from the data reader thread.</b>
+	 * </p>
+	 * 
+	 * <p>If the slowest consumer is a whole ring behind, this method waits
+	 * until it processes the entry to be reused, the maximum publish wait 
+	 * expires or the ring buffer is stopped. In the last two cases the frame 
+	 * is dropped, and so are the following ones until the consumer releases 
+	 * an entry.</p>
+	 * 
+	 * @param buffer Buffer containing the frame data.
+	 * @param offset Position of the first byte of the frame data.
+	 * @param length Number of bytes of frame data.
+	 * @param timestamp Time, in milliseconds, at which the frame was read.
+	 */
+	void publish(byte[] buffer, int offset, int length, long timestamp) {
+		long next = cursor.get() + 1;
+		long wrapPoint = next - entries.length;
+		
+		// Wait until the slowest consumer has processed the entry to reuse.
+		if (wrapPoint > cachedGatingSequence) {
+			long minSequence = getMinimumSequence(next - 1);
+			if (wrapPoint > minSequence) {
+				// Do not wait again while the consumer is still behind.
+				if (overrun) {
+					droppedFrames.incrementAndGet();
+					return;
+				}
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxPublishWait);
+				while (wrapPoint > (minSequence = getMinimumSequence(next - 1))) {
+					if (stopped || System.nanoTime() - deadline >= 0) {
+						overrun = true;
+						droppedFrames.incrementAndGet();
+						logger.warn("Frame ring buffer full, dropping frames until the slowest consumer catches up.");
+						return;
+					}
+					LockSupport.parkNanos(1);
+				}
+			}
+			overrun = false;
+			cachedGatingSequence = minSequence;
+		}
+		
+		entries[(int)(next & mask)].set(buffer, offset, length, timestamp);
+		cursor.set(next);
+		
+		if (blockingConsumers > 0) {
+			synchronized (blockingLock) {
+				blockingLock.notifyAll();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the sequence of the slowest consumer.
+	 * 
+	 * @param defaultSequence Sequence to return if there are no consumers.
+	 * 
+	 * @return The minimum sequence of all the consumers.
+	 */
+	private long getMinimumSequence(long defaultSequence) {
+		long minimum = defaultSequence;
+		for (Consumer consumer:consumers)
+			minimum = Math.min(minimum, consumer.sequence.get());
+		return minimum;
+	}
+	
+	/**
+	 * Returns the consumer corresponding to the given listener.
+	 * 
+	 * @param listener The listener of the consumer to look for.
+	 * 
+	 * @return The consumer, {@code null} if there is no consumer for the
+	 *         given listener.
+	 */
+	private Consumer getConsumer(IFrameRingListener listener) {
+		for (Consumer consumer:consumers) {
+			if (consumer.listener == listener)
+				return consumer;
+		}
+		return null;
+	}
+	
+	/**
+	 * Thread that processes the entries of the ring buffer for one listener.
+	 */
+	private class Consumer extends Thread {
+		
+		// Variables.
+		private final IFrameRingListener listener;
+		
+		private final FrameWaitStrategy waitStrategy;
+		
+		// Sequence of the last processed entry.
+		private final AtomicLong sequence;
+		
+		private volatile boolean running = true;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Consumer} with the
+		 * given parameters.
+		 * 
+		 * @param listener Listener to notify.
+		 * @param waitStrategy Strategy to wait for new entries.
+		 * @param sequence Sequence of the last entry that is considered
+		 *                 processed.
+		 */
+		Consumer(IFrameRingListener listener, FrameWaitStrategy waitStrategy, long sequence) {
+			super("FrameRingConsumer-" + listener.getClass().getSimpleName());
+			this.listener = listener;
+			this.waitStrategy = waitStrategy;
+			this.sequence = new AtomicLong(sequence);
+			setDaemon(true);
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Thread#run()
+		 */
+		@Override
+		public void run() {
+			long next = sequence.get() + 1;
+			while (running) {
+				long available = waitFor(next);
+				if (available < next)
+					continue;
+				while (next <= available) {
+					try {
+						listener.frameReceived(entries[(int)(next & mask)], next, next == available);
+					} catch (Exception e) {
+						logger.error(e.getMessage(), e);
+					}
+					next++;
+				}
+				// Release the processed entries for the producer.
+				sequence.set(available);
+			}
+		}
+		
+		/**
+		 * Waits until the entry with the given sequence is published or the
+		 * consumer is stopped.
+		 * 
+		 * @param next Sequence of the entry to wait for.
+		 * 
+		 * @return The sequence of the last published entry.
+		 */
+		private long waitFor(long next) {
+			long available;
+			switch (waitStrategy) {
+			case BLOCKING:
+				if ((available = cursor.get()) < next) {
+					synchronized (blockingLock) {
+						while (running && (available = cursor.get()) < next) {
+							try {
+								blockingLock.wait();
+							} catch (InterruptedException e) {
+								// Check again whether the consumer was stopped.
+							}
+						}
+					}
+				}
+				return available;
+			case YIELD:
+				while (running && cursor.get() < next)
+					Thread.yield();
+				return cursor.get();
+			case BUSY_SPIN:
+			default:
+				while (running && cursor.get() < next) {
+					// Spin.
+				}
+				return cursor.get();
+			}
+		}
+		
+		/**
+		 * Stops this consumer thread.
+		 */
+		void halt() {
+			running = false;
+			synchronized (blockingLock) {
+				blockingLock.notifyAll();
+			}
+		}
+	}
+}
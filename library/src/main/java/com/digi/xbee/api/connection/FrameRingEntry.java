@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.connection;
+
+import java.util.Arrays;
+
+import com.digi.xbee.api.exceptions.InvalidPacketException;
+import com.digi.xbee.api.packet.APIFrameType;
+import com.digi.xbee.api.packet.XBeePacket;
+import com.digi.xbee.api.packet.XBeePacketParser;
+
+/**
+ * This class represents a preallocated entry of the {@link FrameRingBuffer}.
+ *
+ * <p>Entries are created once when the ring buffer is instantiated and are
+ * reused for every frame published in their slot. Each entry keeps the frame
+ * data (API frame type followed by the frame specific data) in its own
+ * buffer, which only grows when a bigger frame is received, together with
+ * the already decoded frame type and frame ID.</p>
+ *
+ * @see FrameRingBuffer
+ * @see com.digi.xbee.api.listeners.IFrameRingListener
+ */
+public class FrameRingEntry {
+	
+	// Constants.
+	private static final int INITIAL_CAPACITY = 128;
+	
+	/**
+	 * Frame ID value returned for frames that do not contain a frame ID
+	 * (value: {@value}).
+	 */
+	public static final int NO_FRAME_ID = -1;
+	
+	// Variables.
+	private byte[] data = new byte[INITIAL_CAPACITY];
+	
+	private int length;
+	private int frameTypeValue;
+	
+	private long timestamp;
+	
+	/**
+	 * Class constructor. Instantiates a new empty {@code FrameRingEntry}.
+	 */
+	FrameRingEntry() {
+	}
+	
+	/**
+	 * Copies the given frame data into this entry.
+	 * 
+	 * @param buffer Buffer containing the frame data.
+	 * @param offset Position of the first byte of the frame data.
+	 * @param length Number of bytes of frame data.
+	 * @param timestamp Time, in milliseconds, at which the frame was read.
+	 */
+	void set(byte[] buffer, int offset, int length, long timestamp) {
+		if (data.length < length)
+			data = new byte[Math.max(length, data.length * 2)];
+		System.arraycopy(buffer, offset, data, 0, length);
+		this.length = length;
+		this.frameTypeValue = length > 0 ? data[0] & 0xFF : APIFrameType.UNKNOWN.getValue();
+		this.timestamp = timestamp;
+	}
+	
+	/**
+	 * Returns the internal buffer of this entry that contains the frame data
+	 * from position 0 to {@link #getLength()} - 1.
+	 * 
+	 * <p>The buffer is not copied, so it must not be modified nor kept once
+	 * the listener returns. Use {@link #copyData()} to obtain a copy.</p>
+	 * 
+	 * @return The internal buffer containing the frame data.
+	 * 
+	 * @see #copyData()
+	 * @see #getLength()
+	 */
+	public byte[] getBuffer() {
+		return data;
+	}
+	
+	/**
+	 * Returns the number of bytes of frame data of this entry.
+	 * 
+	 * @return The number of bytes of frame data.
+	 */
+	public int getLength() {
+		return length;
+	}
+	
+	/**
+	 * Returns a copy of the frame data of this entry.
+	 * 
+	 * @return A copy of the frame data.
+	 */
+	public byte[] copyData() {
+		return Arrays.copyOf(data, length);
+	}
+	
+	/**
+	 * Returns the API frame type value of the frame in this entry.
+	 * 
+	 * @return The API frame type value.
+	 * 
+	 * @see #getFrameType()
+	 */
+	public int getFrameTypeValue() {
+		return frameTypeValue;
+	}
+	
+	/**
+	 * Returns the API frame type of the frame in this entry.
+	 * 
+	 * @return The API frame type, {@link APIFrameType#UNKNOWN} if it is not
+	 *         a known one.
+	 * 
+	 * @see #getFrameTypeValue()
+	 * @see com.digi.xbee.api.packet.APIFrameType
+	 */
+	public APIFrameType getFrameType() {
+		return APIFrameType.get(frameTypeValue);
+	}
+	
+	/**
+	 * Returns the frame ID of the frame in this entry.
+	 * 
+	 * <p>Only the frames sent as an answer to a request with frame ID (AT
+	 * command responses and transmit status frames) contain a frame ID.</p>
+	 * 
+	 * @return The frame ID of the frame, {@link #NO_FRAME_ID} if the frame
+	 *         does not contain a frame ID.
+	 */
+	public int getFrameID() {
+		if (length < 2)
+			return NO_FRAME_ID;
+		switch (getFrameType()) {
+		case AT_COMMAND_RESPONSE:
+		case REMOTE_AT_COMMAND_RESPONSE:
+		case TX_STATUS:
+		case TRANSMIT_STATUS:
+			return data[1] & 0xFF;
+		default:
+			return NO_FRAME_ID;
+		}
+	}
+	
+	/**
+	 * Returns the time, in milliseconds, at which the frame of this entry was
+	 * read.
+	 * 
+	 * @return The time the frame was read.
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+	
+	/**
+	 * Decodes the frame of this entry into a new XBee packet.
+	 * 
+	 * <p>Unlike the rest of methods of this class, this one creates new
+	 * objects every time it is called.</p>
+	 * 
+	 * @param parser The parser to decode the frame with.
+	 * 
+	 * @return The decoded XBee packet.
+	 * 
+	 * @throws InvalidPacketException if the frame data is not valid for its
+	 *                                frame type.
+	 * @throws NullPointerException if {@code parser == null}.
+	 * 
+	 * @see com.digi.xbee.api.packet.XBeePacket
+	 * @see com.digi.xbee.api.packet.XBeePacketParser
+	 */
+	public XBeePacket toPacket(XBeePacketParser parser) throws InvalidPacketException {
+		if (parser == null)
+			throw new NullPointerException("Parser cannot be null.");
+		
+		return parser.parsePayload(data, 0, length);
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+/**
+ * This class represents the statistics of the values of an analog IO line 
+ * received during a time window.
+ * 
+ * @see IOSampleAggregator
+ */
+public class IOAggregate {
+	
+	// Variables.
+	private final IOLine ioLine;
+	
+	private final long windowStart;
+	private final long windowEnd;
+	
+	private final int min;
+	private final int max;
+	private final int last;
+	private final int count;
+	
+	private final long sum;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code IOAggregate} with the 
+	 * given parameters.
+	 * 
+	 * @param ioLine The analog IO line.
+	 * @param windowStart The start time of the window in milliseconds.
+	 * @param windowEnd The end time of the window in milliseconds.
+	 * @param min The minimum value.
+	 * @param max The maximum value.
+	 * @param sum The sum of the values.
+	 * @param count The number of values.
+	 * @param last The last value.
+	 */
+	IOAggregate(IOLine ioLine, long windowStart, long windowEnd, int min, int max, long sum, int count, int last) {
+		this.ioLine = ioLine;
+		this.windowStart = windowStart;
+		this.windowEnd = windowEnd;
+		this.min = min;
+		this.max = max;
+		this.sum = sum;
+		this.count = count;
+		this.last = last;
+	}
+	
+	/**
+	 * Returns the analog IO line of the statistics.
+	 * 
+	 * @return The IO line.
+	 * 
+	 * @see IOLine
+	 */
+	public IOLine getIOLine() {
+		return ioLine;
+	}
+	
+	/**
+	 * Returns the start time of the window.
+	 * 
+	 * @return The start time of the window in milliseconds (inclusive).
+	 * 
+	 * @see #getWindowEnd()
+	 */
+	public long getWindowStart() {
+		return windowStart;
+	}
+	
+	/**
+	 * Returns the end time of the window.
+	 * 
+	 * @return The end time of the window in milliseconds (exclusive).
+	 * 
+	 * @see #getWindowStart()
+	 */
+	public long getWindowEnd() {
+		return windowEnd;
+	}
+	
+	/**
+	 * Returns the minimum value received in the window.
+	 * 
+	 * @return The minimum value.
+	 */
+	public int getMin() {
+		return min;
+	}
+	
+	/**
+	 * Returns the maximum value received in the window.
+	 * 
+	 * @return The maximum value.
+	 */
+	public int getMax() {
+		return max;
+	}
+	
+	/**
+	 * Returns the mean of the values received in the window.
+	 * 
+	 * @return The mean value.
+	 */
+	public double getMean() {
+		return (double)sum / count;
+	}
+	
+	/**
+	 * Returns the last value received in the window.
+	 * 
+	 * @return The last value.
+	 */
+	public int getLast() {
+		return last;
+	}
+	
+	/**
+	 * Returns the number of values received in the window.
+	 * 
+	 * @return The number of values.
+	 */
+	public int getCount() {
+		return count;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return ioLine + " [" + windowStart + ", " + windowEnd + "): min=" + min + ", max=" + max 
+				+ ", mean=" + getMean() + ", last=" + last + ", count=" + count;
+	}
+}
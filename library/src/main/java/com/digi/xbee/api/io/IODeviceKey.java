@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+
+/**
+ * Utility class to identify the remote devices that send IO samples by 
+ * their address.
+ * 
+ * <p>The local device may create a new {@code RemoteXBeeDevice} object for 
+ * each received sample, so the state kept for each device is indexed by its 
+ * 64-bit address or, if it is unknown, by its 16-bit address. The keys of 
+ * the 16-bit addresses are in the range of invalid 64-bit addresses that 
+ * starts with 0xFFFFFFFFFFFF, so they do not clash with the others.</p>
+ */
+class IODeviceKey {
+	
+	// Constants.
+	private static final long KEYS_16_BIT = 0xFFFFFFFFFFFF0000L;
+	
+	/**
+	 * Returns the key that identifies the given remote device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @return The key of the remote device.
+	 */
+	static long get(RemoteXBeeDevice remoteDevice) {
+		XBee64BitAddress address64 = remoteDevice.get64BitAddress();
+		if (address64 != null && !address64.equals(XBee64BitAddress.UNKNOWN_ADDRESS))
+			return address64.toLong();
+		
+		XBee16BitAddress address16 = remoteDevice.get16BitAddress();
+		if (address16 == null)
+			address16 = XBee16BitAddress.UNKNOWN_ADDRESS;
+		return KEYS_16_BIT | address16.toInt();
+	}
+}
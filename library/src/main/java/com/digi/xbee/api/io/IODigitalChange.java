@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents a change of the digital IO lines of a remote 
+ * device, computed by comparing a received IO sample with the previous one.
+ * 
+ * <p>The lines are represented as bit fields where each bit corresponds to 
+ * the IO line with the same index.</p>
+ * 
+ * @see IODigitalChangeDetector
+ */
+public class IODigitalChange {
+	
+	// Constants.
+	private static final int DIGITAL_LINES = 16;
+	
+	// Variables.
+	private final int changedLines;
+	private final int digitalMask;
+	private final int digitalStates;
+	private final int previousMask;
+	private final int previousStates;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code IODigitalChange} with the 
+	 * given parameters.
+	 * 
+	 * @param changedLines The bit field of the lines that changed.
+	 * @param digitalMask The digital mask of the received sample.
+	 * @param digitalStates The digital values of the received sample.
+	 * @param previousMask The lines with a known value before the sample.
+	 * @param previousStates The digital values before the sample.
+	 */
+	IODigitalChange(int changedLines, int digitalMask, int digitalStates, int previousMask, int previousStates) {
+		this.changedLines = changedLines;
+		this.digitalMask = digitalMask;
+		this.digitalStates = digitalStates;
+		this.previousMask = previousMask;
+		this.previousStates = previousStates;
+	}
+	
+	/**
+	 * Returns the lines that changed as a bit field.
+	 * 
+	 * <p>A line changes when its value is different from the previous sample 
+	 * or when it was not included in the previous sample.</p>
+	 * 
+	 * @return The bit field of the lines that changed.
+	 * 
+	 * @see #getChangedIOLines()
+	 * @see #hasChanged(IOLine)
+	 */
+	public int getChangedLines() {
+		return changedLines;
+	}
+	
+	/**
+	 * Returns the digital mask of the received sample.
+	 * 
+	 * @return The digital mask.
+	 * 
+	 * @see IOSample#getDigitalMask()
+	 */
+	public int getDigitalMask() {
+		return digitalMask;
+	}
+	
+	/**
+	 * Returns the digital values of the received sample as a bit field. Only 
+	 * the bits enabled in the digital mask are set.
+	 * 
+	 * @return The digital values bit field.
+	 * 
+	 * @see IOSample#getDigitalStates()
+	 */
+	public int getDigitalStates() {
+		return digitalStates;
+	}
+	
+	/**
+	 * Returns the lines with a known value before the received sample as a 
+	 * bit field.
+	 * 
+	 * @return The previous digital mask.
+	 * 
+	 * @see #getPreviousStates()
+	 */
+	public int getPreviousMask() {
+		return previousMask;
+	}
+	
+	/**
+	 * Returns the digital values before the received sample as a bit field. 
+	 * Only the bits enabled in the previous mask are set.
+	 * 
+	 * @return The previous digital values bit field.
+	 * 
+	 * @see #getDigitalStates()
+	 * @see #getPreviousMask()
+	 */
+	public int getPreviousStates() {
+		return previousStates;
+	}
+	
+	/**
+	 * Returns whether or not the given IO line changed.
+	 * 
+	 * @param ioLine The IO line.
+	 * 
+	 * @return {@code true} if the IO line changed, {@code false} otherwise.
+	 * 
+	 * @see #getChangedLines()
+	 */
+	public boolean hasChanged(IOLine ioLine) {
+		return ioLine != null && ioLine.getIndex() < DIGITAL_LINES 
+				&& (changedLines & (1 << ioLine.getIndex())) != 0;
+	}
+	
+	/**
+	 * Returns the value of the given IO line in the received sample.
+	 * 
+	 * @param ioLine The IO line.
+	 * 
+	 * @return The value of the IO line, {@code null} if the received sample 
+	 *         does not contain it.
+	 * 
+	 * @see #getPreviousValue(IOLine)
+	 * @see IOValue
+	 */
+	public IOValue getValue(IOLine ioLine) {
+		if (ioLine == null || ioLine.getIndex() >= DIGITAL_LINES 
+				|| (digitalMask & (1 << ioLine.getIndex())) == 0)
+			return null;
+		return (digitalStates & (1 << ioLine.getIndex())) != 0 ? IOValue.HIGH : IOValue.LOW;
+	}
+	
+	/**
+	 * Returns the value of the given IO line in the previous sample.
+	 * 
+	 * @param ioLine The IO line.
+	 * 
+	 * @return The previous value of the IO line, {@code null} if it was not 
+	 *         known.
+	 * 
+	 * @see #getValue(IOLine)
+	 * @see IOValue
+	 */
+	public IOValue getPreviousValue(IOLine ioLine) {
+		if (ioLine == null || ioLine.getIndex() >= DIGITAL_LINES)
+			return null;
+		int bit = 1 << ioLine.getIndex();
+		if ((previousMask & bit) == 0)
+			return null;
+		return (previousStates & bit) != 0 ? IOValue.HIGH : IOValue.LOW;
+	}
+	
+	/**
+	 * Returns the IO lines that changed.
+	 * 
+	 * @return The list of IO lines that changed.
+	 * 
+	 * @see #getChangedLines()
+	 */
+	public List<IOLine> getChangedIOLines() {
+		ArrayList<IOLine> ioLines = new ArrayList<IOLine>(Integer.bitCount(changedLines));
+		for (int lines = changedLines; lines != 0; lines &= lines - 1)
+			ioLines.add(IOLine.getDIO(Integer.numberOfTrailingZeros(lines)));
+		return ioLines;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		for (IOLine ioLine:getChangedIOLines()) {
+			if (sb.length() > 1)
+				sb.append(", ");
+			sb.append(ioLine).append("=").append(getValue(ioLine));
+		}
+		return sb.append("}").toString();
+	}
+}
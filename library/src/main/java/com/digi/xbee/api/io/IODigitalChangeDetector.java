@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+import com.digi.xbee.api.listeners.IIODigitalChangeListener;
+import com.digi.xbee.api.listeners.IIOSampleReceiveListener;
+
+/**
+ * This class detects the changes of the digital IO lines of the remote 
+ * devices and notifies them, ignoring the IO samples that do not change any 
+ * line.
+ * 
+ * <p>The last digital mask and values of each device are kept as integers 
+ * and compared with those of each received sample, so the samples without 
+ * changes do not create any object nor notify any listener. The first 
+ * sample of each device is only stored as the initial state. The devices 
+ * are identified by their address, so the samples of different 
+ * {@code RemoteXBeeDevice} objects of the same device are compared with 
+ * each other.</p>
+ * 
+ * @see com.digi.xbee.api.XBeeDevice#enableIODigitalChangeDetection()
+ * @see IIODigitalChangeListener
+ * @see IODigitalChange
+ */
+public class IODigitalChangeDetector implements IIOSampleReceiveListener {
+	
+	// Constants.
+	private static final int DIGITAL_LINES_MASK = 0xFFFF;
+	
+	private static final int MASK = 0;
+	private static final int STATES = 1;
+	
+	// Variables.
+	private final ConcurrentHashMap<Long, int[]> devices = new ConcurrentHashMap<Long, int[]>();
+	
+	private final CopyOnWriteArrayList<IIODigitalChangeListener> listeners = new CopyOnWriteArrayList<IIODigitalChangeListener>();
+	
+	private Logger logger;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code IODigitalChangeDetector}.
+	 */
+	public IODigitalChangeDetector() {
+		this.logger = LoggerFactory.getLogger(IODigitalChangeDetector.class);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.digi.xbee.api.listeners.IIOSampleReceiveListener#ioSampleReceived(com.digi.xbee.api.RemoteXBeeDevice, com.digi.xbee.api.io.IOSample)
+	 */
+	@Override
+	public void ioSampleReceived(RemoteXBeeDevice remoteDevice, IOSample ioSample) {
+		IODigitalChange change = addSample(remoteDevice, ioSample);
+		if (change == null)
+			return;
+		
+		for (IIODigitalChangeListener listener:listeners) {
+			try {
+				listener.digitalChangeReceived(remoteDevice, change);
+			} catch (Exception e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+	}
+	
+	/**
+	 * Compares the digital values of the given IO sample with the last ones 
+	 * of the given remote device and stores them.
+	 * 
+	 * <p>A line changes when its value is different from the last sample or 
+	 * when it was not included in the last sample. The lines that are not 
+	 * included in the given sample keep their last value.</p>
+	 * 
+	 * @param remoteDevice The remote device that sent the sample.
+	 * @param ioSample The IO sample.
+	 * 
+	 * @return The lines that changed, {@code null} if no line changed or it 
+	 *         is the first sample of the device.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null} or 
+	 *                              if {@code ioSample == null}.
+	 */
+	public IODigitalChange addSample(RemoteXBeeDevice remoteDevice, IOSample ioSample) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		if (ioSample == null)
+			throw new NullPointerException("IO sample cannot be null.");
+		
+		int mask = ioSample.getDigitalMask() & DIGITAL_LINES_MASK;
+		if (mask == 0)
+			return null;
+		int states = ioSample.getDigitalStates() & mask;
+		
+		Long key = IODeviceKey.get(remoteDevice);
+		int[] state = devices.get(key);
+		if (state == null) {
+			state = new int[]{mask, states};
+			int[] existing = devices.putIfAbsent(key, state);
+			if (existing == null)
+				return null;
+			state = existing;
+		}
+		
+		int previousMask;
+		int previousStates;
+		int changedLines;
+		synchronized (state) {
+			previousMask = state[MASK];
+			previousStates = state[STATES];
+			changedLines = ((previousStates ^ states) | ~previousMask) & mask;
+			state[MASK] |= mask;
+			state[STATES] = (previousStates & ~mask) | states;
+		}
+		if (changedLines == 0)
+			return null;
+		return new IODigitalChange(changedLines, mask, states, previousMask, previousStates);
+	}
+	
+	/**
+	 * Returns the last known digital values of the given device as a bit 
+	 * field.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @return The last digital values bit field, 0 if no sample was received 
+	 *         from the device.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null}.
+	 * 
+	 * @see #getDigitalMask(RemoteXBeeDevice)
+	 */
+	public int getDigitalStates(RemoteXBeeDevice remoteDevice) {
+		return getState(remoteDevice, STATES);
+	}
+	
+	/**
+	 * Returns the digital lines of the given device with a known value as a 
+	 * bit field.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @return The known digital lines bit field, 0 if no sample was received 
+	 *         from the device.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null}.
+	 * 
+	 * @see #getDigitalStates(RemoteXBeeDevice)
+	 */
+	public int getDigitalMask(RemoteXBeeDevice remoteDevice) {
+		return getState(remoteDevice, MASK);
+	}
+	
+	/**
+	 * Returns the given field of the state of the given device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param field The field of the state.
+	 * 
+	 * @return The value of the field, 0 if no sample was received from the 
+	 *         device.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null}.
+	 */
+	private int getState(RemoteXBeeDevice remoteDevice, int field) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		
+		int[] state = devices.get(IODeviceKey.get(remoteDevice));
+		if (state == null)
+			return 0;
+		synchronized (state) {
+			return state[field];
+		}
+	}
+	
+	/**
+	 * Adds the provided listener to the list of listeners to be notified 
+	 * when the digital IO lines of a remote device change.
+	 * 
+	 * <p>If the listener is already included this method does nothing.</p>
+	 * 
+	 * @param listener Listener to be notified when the digital IO lines 
+	 *                 change.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}
+	 * 
+	 * @see #removeChangeListener(IIODigitalChangeListener)
+	 */
+	public void addChangeListener(IIODigitalChangeListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		listeners.addIfAbsent(listener);
+	}
+	
+	/**
+	 * Removes the provided listener from the list of listeners.
+	 * 
+	 * <p>If the listener was not in the list this method does nothing.</p>
+	 * 
+	 * @param listener Listener to be removed from the list of listeners.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}
+	 * 
+	 * @see #addChangeListener(IIODigitalChangeListener)
+	 */
+	public void removeChangeListener(IIODigitalChangeListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Removes the last digital values of the given device, so its next 
+	 * sample is stored as the initial state.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @see #clear()
+	 */
+	public void remove(RemoteXBeeDevice remoteDevice) {
+		if (remoteDevice != null)
+			devices.remove(IODeviceKey.get(remoteDevice));
+	}
+	
+	/**
+	 * Removes the last digital values of all the devices.
+	 * 
+	 * @see #remove(RemoteXBeeDevice)
+	 */
+	public void clear() {
+		devices.clear();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [devices=" + devices.size() + "]";
+	}
+}
@@ -104,9 +104,23 @@ import com.digi.xbee.api.utils.ByteUtils;
  *      <p>Example: mask of {@code 0x03} means AD0, and AD1 enabled.</p>
  *      <p>0 0 0 0 0 0 1 1</p>
  * </BLOCKQUOTE>
+ * 
+ * <p>The values are stored as primitives: the digital values in a bit field 
+ * and the analog values in an array indexed by IO line. The methods 
+ * returning maps build them on each call, so samples received at high rates 
+ * should be consulted with {@link #getDigitalStates()}, 
+ * {@link #getAnalogLinesMask()} and {@link #getAnalogValue(IOLine, int)}, 
+ * which do not allocate any object.</p>
  */
 public class IOSample {
 	
+	// Constants.
+	/**
+	 * Maximum number of IO lines that can have an analog value (value: 
+	 * {@value}).
+	 */
+	public static final int MAX_ANALOG_LINES = 8;
+	
 	// Variables.
 	private final byte[] ioSamplePayload;
 	
@@ -119,8 +133,9 @@ public class IOSample {
 	private int digitalValues;
 	private int powerSupplyVoltage;
 	
-	private final HashMap<IOLine, Integer> analogValuesMap = new HashMap<IOLine, Integer>();
-	private final HashMap<IOLine, IOValue> digitalValuesMap = new HashMap<IOLine, IOValue>();
+	// One bit per IO line index with an analog value.
+	private int analogLinesMask;
+	private final int[] analogValues = new int[MAX_ANALOG_LINES];
 	
 	/**
 	 * Class constructor. Instantiates a new object of type {@code IOSample} 
@@ -169,15 +184,7 @@ public class IOSample {
 			digitalLSBValues = ioSamplePayload[4] & 0xFF;
 			// Combine the values.
 			digitalValues = (digitalHSBValues << 8) + digitalLSBValues;
-			
-			for (int i = 0; i < 16; i++) {
-				if (!ByteUtils.isBitEnabled(digitalMask, i))
-					continue;
-				if (ByteUtils.isBitEnabled(digitalValues, i))
-					digitalValuesMap.put(IOLine.getDIO(i), IOValue.HIGH);
-				else
-					digitalValuesMap.put(IOLine.getDIO(i), IOValue.LOW);
-			}
+
 			// Increase the data index to read the analog values.
 			dataIndex += 2;
 		}
@@ -192,7 +199,7 @@ public class IOSample {
 				continue;
 			}
 			// 802.15.4 protocol does not provide power supply value, so get just the ADC data.
-			analogValuesMap.put(IOLine.getDIO(adcIndex - 9), ((ioSamplePayload[dataIndex] & 0xFF) << 8) + (ioSamplePayload[dataIndex + 1] & 0xFF));
+			setAnalogValue(adcIndex - 9, ((ioSamplePayload[dataIndex] & 0xFF) << 8) + (ioSamplePayload[dataIndex + 1] & 0xFF));
 			// Increase the data index to read the next analog values.
 			dataIndex += 2;
 			adcIndex += 1;
@@ -223,15 +230,7 @@ public class IOSample {
 			digitalLSBValues = ioSamplePayload[5] & 0xFF;
 			// Combine the values.
 			digitalValues = (digitalHSBValues << 8) + digitalLSBValues;
-			
-			for (int i = 0; i < 16; i++) {
-				if (!ByteUtils.isBitEnabled(digitalMask, i))
-					continue;
-				if (ByteUtils.isBitEnabled(digitalValues, i))
-					digitalValuesMap.put(IOLine.getDIO(i), IOValue.HIGH);
-				else
-					digitalValuesMap.put(IOLine.getDIO(i), IOValue.LOW);
-			}
+
 			// Increase the data index to read the analog values.
 			dataIndex += 2;
 		}
@@ -250,13 +249,24 @@ public class IOSample {
 			if (adcIndex == 7)
 				powerSupplyVoltage = ((ioSamplePayload[dataIndex] & 0xFF) << 8) + (ioSamplePayload[dataIndex + 1] & 0xFF);
 			else
-				analogValuesMap.put(IOLine.getDIO(adcIndex), ((ioSamplePayload[dataIndex] & 0xFF) << 8) + (ioSamplePayload[dataIndex + 1] & 0xFF));
+				setAnalogValue(adcIndex, ((ioSamplePayload[dataIndex] & 0xFF) << 8) + (ioSamplePayload[dataIndex + 1] & 0xFF));
 			// Increase the data index to read the next analog values.
 			dataIndex += 2;
 			adcIndex += 1;
 		}
 	}
 	
+	/**
+	 * Stores the analog value of the IO line with the given index.
+	 * 
+	 * @param index The index of the IO line.
+	 * @param value The analog value.
+	 */
+	private void setAnalogValue(int index, int value) {
+		analogLinesMask |= 1 << index;
+		analogValues[index] = value;
+	}
+	
 	/**
 	 * Returns the HSB of the digital mask.
 	 * 
@@ -300,7 +310,7 @@ public class IOSample {
 	 *         otherwise.
 	 */
 	public boolean hasDigitalValues() {
-		return digitalValuesMap.size() > 0;
+		return digitalMask != 0;
 	}
 	
 	/**
@@ -316,7 +326,31 @@ public class IOSample {
 	 * @see IOLine
 	 */
 	public boolean hasDigitalValue(IOLine ioLine) {
-		return digitalValuesMap.containsKey(ioLine);
+		return ioLine != null && ioLine.getIndex() < 16 && ByteUtils.isBitEnabled(digitalMask, ioLine.getIndex());
+	}
+	
+	/**
+	 * Returns the digital values of all the IO lines as a bit field. Each 
+	 * bit corresponds to the IO line with the same index and is 1 if its 
+	 * value is {@link IOValue#HIGH}.
+	 * 
+	 * <p>Only the bits enabled in the digital mask are meaningful. This 
+	 * method does not allocate any object, so it is the preferred way to 
+	 * consult or compare the digital values of many samples.</p>
+	 * 
+	 * <pre>
+	 * {@code
+	 * int highLines = ioSample.getDigitalStates() & ioSample.getDigitalMask();
+	 * }
+	 * </pre>
+	 * 
+	 * @return The digital values bit field.
+	 * 
+	 * @see #getDigitalMask()
+	 * @see #getDigitalValue(IOLine)
+	 */
+	public int getDigitalStates() {
+		return digitalValues;
 	}
 	
 	/**
@@ -345,7 +379,12 @@ public class IOSample {
 	 * @see IOValue
 	 */
 	public HashMap<IOLine, IOValue> getDigitalValues() {
-		return (HashMap<IOLine, IOValue>) digitalValuesMap.clone();
+		HashMap<IOLine, IOValue> digitalValuesMap = new HashMap<IOLine, IOValue>();
+		for (int i = 0; i < 16; i++) {
+			if (ByteUtils.isBitEnabled(digitalMask, i))
+				digitalValuesMap.put(IOLine.getDIO(i), getDigitalValue(i));
+		}
+		return digitalValuesMap;
 	}
 	
 	/**
@@ -376,9 +415,20 @@ public class IOSample {
 	 * @see IOValue
 	 */
 	public IOValue getDigitalValue(IOLine ioLine) {
-		if (!digitalValuesMap.containsKey(ioLine))
+		if (!hasDigitalValue(ioLine))
 			return null;
-		return digitalValuesMap.get(ioLine);
+		return getDigitalValue(ioLine.getIndex());
+	}
+	
+	/**
+	 * Returns the digital value of the IO line with the given index.
+	 * 
+	 * @param index The index of the IO line.
+	 * 
+	 * @return The {@code IOValue} of the IO line.
+	 */
+	private IOValue getDigitalValue(int index) {
+		return ByteUtils.isBitEnabled(digitalValues, index) ? IOValue.HIGH : IOValue.LOW;
 	}
 	
 	/**
@@ -401,7 +451,7 @@ public class IOSample {
 	 * @see IOLine
 	 */
 	public boolean hasAnalogValues() {
-		return analogValuesMap.size() > 0;
+		return analogLinesMask != 0;
 	}
 	
 	/**
@@ -418,7 +468,35 @@ public class IOSample {
 	 * @see IOLine
 	 */
 	public boolean hasAnalogValue(IOLine ioLine) {
-		return analogValuesMap.containsKey(ioLine);
+		return ioLine != null && ioLine.getIndex() < MAX_ANALOG_LINES 
+				&& ByteUtils.isBitEnabled(analogLinesMask, ioLine.getIndex());
+	}
+	
+	/**
+	 * Returns the IO lines that have an analog value as a bit field. Each 
+	 * bit corresponds to the IO line with the same index.
+	 * 
+	 * <p>Unlike {@link #getAnalogMask()}, the bits do not depend on the 
+	 * protocol and the power supply voltage is not included. This allows 
+	 * iterating the analog values without allocating any object:</p>
+	 * 
+	 * <pre>
+	 * {@code
+	 * for (int lines = ioSample.getAnalogLinesMask(); lines != 0; lines &= lines - 1) {
+	 *     IOLine line = IOLine.getDIO(Integer.numberOfTrailingZeros(lines));
+	 *     int value = ioSample.getAnalogValue(line, 0);
+	 *     ...
+	 * }
+	 * }
+	 * </pre>
+	 * 
+	 * @return The bit field of the IO lines with an analog value.
+	 * 
+	 * @see #getAnalogValue(IOLine, int)
+	 * @see #hasAnalogValue(IOLine)
+	 */
+	public int getAnalogLinesMask() {
+		return analogLinesMask;
 	}
 	
 	/**
@@ -447,7 +525,12 @@ public class IOSample {
 	 * @see IOLine
 	 */
 	public HashMap<IOLine, Integer> getAnalogValues() {
-		return (HashMap<IOLine, Integer>) analogValuesMap.clone();
+		HashMap<IOLine, Integer> analogValuesMap = new HashMap<IOLine, Integer>();
+		for (int i = 0; i < MAX_ANALOG_LINES; i++) {
+			if (ByteUtils.isBitEnabled(analogLinesMask, i))
+				analogValuesMap.put(IOLine.getDIO(i), analogValues[i]);
+		}
+		return analogValuesMap;
 	}
 	
 	/**
@@ -478,9 +561,28 @@ public class IOSample {
 	 * @see IOLine
 	 */
 	public Integer getAnalogValue(IOLine ioLine) {
-		if (!analogValuesMap.containsKey(ioLine))
+		if (!hasAnalogValue(ioLine))
 			return null;
-		return analogValuesMap.get(ioLine);
+		return analogValues[ioLine.getIndex()];
+	}
+	
+	/**
+	 * Returns the analog value of the provided IO line without boxing it.
+	 * 
+	 * @param ioLine The IO line to get its analog value.
+	 * @param defaultValue The value to return if the IO sample does not 
+	 *                     contain an analog value for the given IO line.
+	 * 
+	 * @return The analog value of the given IO line or {@code defaultValue} 
+	 *         if the IO sample does not contain an analog value for it.
+	 * 
+	 * @see #getAnalogValue(IOLine)
+	 * @see #getAnalogLinesMask()
+	 */
+	public int getAnalogValue(IOLine ioLine, int defaultValue) {
+		if (!hasAnalogValue(ioLine))
+			return defaultValue;
+		return analogValues[ioLine.getIndex()];
 	}
 	
 	/**
@@ -532,15 +634,13 @@ public class IOSample {
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder("{");
-		if (hasDigitalValues()) {
-			for (IOLine line : digitalValuesMap.keySet()) {
-				sb.append("[").append(line).append(": ").append(digitalValuesMap.get(line)).append("], ");
-			}
+		for (int i = 0; i < 16; i++) {
+			if (ByteUtils.isBitEnabled(digitalMask, i))
+				sb.append("[").append(IOLine.getDIO(i)).append(": ").append(getDigitalValue(i)).append("], ");
 		}
-		if (hasAnalogValues()) {
-			for (IOLine line : analogValuesMap.keySet()) {
-				sb.append("[").append(line).append(": ").append(analogValuesMap.get(line)).append("], ");
-			}
+		for (int i = 0; i < MAX_ANALOG_LINES; i++) {
+			if (ByteUtils.isBitEnabled(analogLinesMask, i))
+				sb.append("[").append(IOLine.getDIO(i)).append(": ").append(analogValues[i]).append("], ");
 		}
 		if (hasPowerSupplyValue()) {
 			try {
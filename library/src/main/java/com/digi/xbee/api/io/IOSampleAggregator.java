@@ -0,0 +1,533 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+import com.digi.xbee.api.listeners.IIOAggregateListener;
+import com.digi.xbee.api.listeners.IIOSampleReceiveListener;
+
+/**
+ * This class computes the minimum, maximum, mean and last value of every 
+ * analog IO line of every remote device over time windows, as the IO samples 
+ * are received.
+ * 
+ * <p>Windows have a fixed size and start every slide milliseconds. When the 
+ * slide is equal to the size, the windows are tumbling. Otherwise they are 
+ * sliding, and the size must be a multiple of the slide. The statistics of 
+ * each slide are kept in primitive arrays and combined when a window is 
+ * closed, so no objects are created for each received sample.</p>
+ * 
+ * <p>A window is closed when a sample of a later window is received for the 
+ * same IO line or when {@link #closeWindows(long)} is called, and its 
+ * statistics are notified to the registered listeners. Samples older than 
+ * the open window are ignored.</p>
+ * 
+ * <p>The devices are identified by their address, so the samples of 
+ * different {@code RemoteXBeeDevice} objects of the same device are 
+ * aggregated together.</p>
+ * 
+ * @see com.digi.xbee.api.XBeeDevice#enableIOSampleAggregation(long, long)
+ * @see IIOAggregateListener
+ * @see IOAggregate
+ */
+public class IOSampleAggregator implements IIOSampleReceiveListener {
+	
+	// Constants.
+	private static final int ANALOG_LINES = 8;
+	
+	// Variables.
+	private final long windowSize;
+	private final long slide;
+	private final int slices;
+	
+	private final ConcurrentHashMap<Long, DeviceWindows> devices = new ConcurrentHashMap<Long, DeviceWindows>();
+	
+	private final CopyOnWriteArrayList<IIOAggregateListener> listeners = new CopyOnWriteArrayList<IIOAggregateListener>();
+	
+	private Logger logger;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code IOSampleAggregator} with 
+	 * the given parameters.
+	 * 
+	 * @param windowSize Size of the windows in milliseconds.
+	 * @param slide Time between the start of two consecutive windows in 
+	 *              milliseconds, equal to {@code windowSize} for tumbling 
+	 *              windows.
+	 * 
+	 * @throws IllegalArgumentException if {@code slide < 1} or 
+	 *                                  if {@code windowSize < slide} or 
+	 *                                  if {@code windowSize} is not a 
+	 *                                  multiple of {@code slide}.
+	 */
+	public IOSampleAggregator(long windowSize, long slide) {
+		if (slide < 1)
+			throw new IllegalArgumentException("Slide must be greater than 0.");
+		if (windowSize < slide)
+			throw new IllegalArgumentException("Window size cannot be less than the slide.");
+		if (windowSize % slide != 0)
+			throw new IllegalArgumentException("Window size must be a multiple of the slide.");
+		if (windowSize / slide > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Window size cannot be greater than " + Integer.MAX_VALUE + " slides.");
+		
+		this.windowSize = windowSize;
+		this.slide = slide;
+		this.slices = (int)(windowSize / slide);
+		this.logger = LoggerFactory.getLogger(IOSampleAggregator.class);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.digi.xbee.api.listeners.IIOSampleReceiveListener#ioSampleReceived(com.digi.xbee.api.RemoteXBeeDevice, com.digi.xbee.api.io.IOSample)
+	 */
+	@Override
+	public void ioSampleReceived(RemoteXBeeDevice remoteDevice, IOSample ioSample) {
+		addSample(remoteDevice, ioSample, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Adds the analog values of the given IO sample of the given remote 
+	 * device to the open windows, closing the previous ones if the sample 
+	 * belongs to a later window.
+	 * 
+	 * @param remoteDevice The remote device that sent the sample.
+	 * @param ioSample The IO sample.
+	 * @param timestamp The time the sample was received in milliseconds.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null} or 
+	 *                              if {@code ioSample == null}.
+	 */
+	public void addSample(RemoteXBeeDevice remoteDevice, IOSample ioSample, long timestamp) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		if (ioSample == null)
+			throw new NullPointerException("IO sample cannot be null.");
+		
+		int analogLines = ioSample.getAnalogLinesMask() & ((1 << ANALOG_LINES) - 1);
+		if (analogLines == 0)
+			return;
+		
+		Long key = IODeviceKey.get(remoteDevice);
+		DeviceWindows device = devices.get(key);
+		if (device == null) {
+			device = new DeviceWindows();
+			DeviceWindows existing = devices.putIfAbsent(key, device);
+			if (existing != null)
+				device = existing;
+		}
+		device.remoteDevice = remoteDevice;
+		Window[] windows = device.windows;
+		
+		long slice = getSlice(timestamp);
+		List<IOAggregate> closed = null;
+		for (int lines = analogLines; lines != 0; lines &= lines - 1) {
+			int index = Integer.numberOfTrailingZeros(lines);
+			IOLine ioLine = IOLine.getDIO(index);
+			closed = getWindow(windows, index).add(ioLine, slice, timestamp, 
+					ioSample.getAnalogValue(ioLine, 0), closed);
+		}
+		notifyAggregates(remoteDevice, closed);
+	}
+	
+	/**
+	 * Closes the windows of all the devices that end before the given time, 
+	 * notifying their statistics to the listeners.
+	 * 
+	 * <p>Use this method to close the windows of the devices that stop 
+	 * sending samples.</p>
+	 * 
+	 * @param timestamp The current time in milliseconds.
+	 */
+	public void closeWindows(long timestamp) {
+		long slice = getSlice(timestamp);
+		for (DeviceWindows device:devices.values()) {
+			List<IOAggregate> closed = null;
+			Window[] windows = device.windows;
+			for (int i = 0; i < windows.length; i++) {
+				Window window;
+				synchronized (windows) {
+					window = windows[i];
+				}
+				if (window != null)
+					closed = window.advance(IOLine.getDIO(i), slice, closed);
+			}
+			notifyAggregates(device.remoteDevice, closed);
+		}
+	}
+	
+	/**
+	 * Returns the statistics of the open window of the given analog IO line 
+	 * of the given device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param ioLine The analog IO line.
+	 * 
+	 * @return The statistics of the open window, {@code null} if it has no 
+	 *         values.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null} or 
+	 *                              if {@code ioLine == null}.
+	 */
+	public IOAggregate getSnapshot(RemoteXBeeDevice remoteDevice, IOLine ioLine) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		if (ioLine == null)
+			throw new NullPointerException("IO line cannot be null.");
+		
+		DeviceWindows device = devices.get(IODeviceKey.get(remoteDevice));
+		if (device == null || ioLine.getIndex() >= ANALOG_LINES)
+			return null;
+		Window[] windows = device.windows;
+		Window window;
+		synchronized (windows) {
+			window = windows[ioLine.getIndex()];
+		}
+		if (window == null)
+			return null;
+		return window.getSnapshot(ioLine);
+	}
+	
+	/**
+	 * Returns the window of the analog IO line with the given index, creating 
+	 * it if it does not exist.
+	 * 
+	 * @param windows The windows of a device.
+	 * @param index The index of the analog IO line.
+	 * 
+	 * @return The window of the IO line.
+	 */
+	private Window getWindow(Window[] windows, int index) {
+		synchronized (windows) {
+			if (windows[index] == null)
+				windows[index] = new Window(slices);
+			return windows[index];
+		}
+	}
+	
+	/**
+	 * Returns the slide the given time belongs to.
+	 * 
+	 * @param timestamp The time in milliseconds.
+	 * 
+	 * @return The number of the slide.
+	 */
+	private long getSlice(long timestamp) {
+		long slice = timestamp / slide;
+		if (timestamp < 0 && timestamp % slide != 0)
+			slice--;
+		return slice;
+	}
+	
+	/**
+	 * Notifies the given statistics to the listeners.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param aggregates The statistics of the closed windows, {@code null} if 
+	 *                   no window was closed.
+	 */
+	private void notifyAggregates(RemoteXBeeDevice remoteDevice, List<IOAggregate> aggregates) {
+		if (aggregates == null)
+			return;
+		
+		for (IOAggregate aggregate:aggregates) {
+			for (IIOAggregateListener listener:listeners) {
+				try {
+					listener.aggregateReceived(remoteDevice, aggregate);
+				} catch (Exception e) {
+					logger.error(e.getMessage(), e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds the provided listener to the list of listeners to be notified 
+	 * when a window is closed.
+	 * 
+	 * <p>If the listener is already included this method does nothing.</p>
+	 * 
+	 * @param listener Listener to be notified when a window is closed.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}
+	 * 
+	 * @see #removeAggregateListener(IIOAggregateListener)
+	 */
+	public void addAggregateListener(IIOAggregateListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		listeners.addIfAbsent(listener);
+	}
+	
+	/**
+	 * Removes the provided listener from the list of listeners.
+	 * 
+	 * <p>If the listener was not in the list this method does nothing.</p>
+	 * 
+	 * @param listener Listener to be removed from the list of listeners.
+	 * 
+	 * @throws NullPointerException if {@code listener == null}
+	 * 
+	 * @see #addAggregateListener(IIOAggregateListener)
+	 */
+	public void removeAggregateListener(IIOAggregateListener listener) {
+		if (listener == null)
+			throw new NullPointerException("Listener cannot be null.");
+		
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Removes the windows of the given device without notifying them.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @see #clear()
+	 */
+	public void remove(RemoteXBeeDevice remoteDevice) {
+		if (remoteDevice != null)
+			devices.remove(IODeviceKey.get(remoteDevice));
+	}
+	
+	/**
+	 * Removes the windows of all the devices without notifying them.
+	 * 
+	 * @see #remove(RemoteXBeeDevice)
+	 */
+	public void clear() {
+		devices.clear();
+	}
+	
+	/**
+	 * Returns the size of the windows.
+	 * 
+	 * @return The size of the windows in milliseconds.
+	 */
+	public long getWindowSize() {
+		return windowSize;
+	}
+	
+	/**
+	 * Returns the time between the start of two consecutive windows.
+	 * 
+	 * @return The slide in milliseconds.
+	 */
+	public long getSlide() {
+		return slide;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [windowSize=" + windowSize + ", slide=" + slide 
+				+ ", devices=" + devices.size() + "]";
+	}
+	
+	/**
+	 * Open windows of the analog IO lines of a remote device.
+	 */
+	private static class DeviceWindows {
+		
+		// Variables.
+		private volatile RemoteXBeeDevice remoteDevice;
+		
+		private final Window[] windows = new Window[ANALOG_LINES];
+	}
+	
+	/**
+	 * Statistics of the slides of the open windows of an analog IO line, 
+	 * stored in a ring indexed by the slide number.
+	 */
+	private class Window {
+		
+		// Variables.
+		private final int[] min;
+		private final int[] max;
+		private final int[] last;
+		private final int[] count;
+		
+		private final long[] sum;
+		private final long[] lastTime;
+		
+		// Number of the latest slide, Long.MIN_VALUE if there are no values.
+		private long current = Long.MIN_VALUE;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Window} with the 
+		 * given number of slides.
+		 * 
+		 * @param slices Number of slides of a window.
+		 */
+		private Window(int slices) {
+			min = new int[slices];
+			max = new int[slices];
+			last = new int[slices];
+			count = new int[slices];
+			sum = new long[slices];
+			lastTime = new long[slices];
+		}
+		
+		/**
+		 * Adds the given value, closing the windows that end before its 
+		 * slide.
+		 * 
+		 * @param ioLine The IO line of the window.
+		 * @param slice The slide of the value.
+		 * @param timestamp The time of the value in milliseconds.
+		 * @param value The value.
+		 * @param closed The statistics of the closed windows so far, 
+		 *               {@code null} if none.
+		 * 
+		 * @return The statistics of the closed windows, {@code null} if none.
+		 */
+		private synchronized List<IOAggregate> add(IOLine ioLine, long slice, long timestamp, int value, List<IOAggregate> closed) {
+			if (current == Long.MIN_VALUE)
+				current = slice;
+			else if (slice > current)
+				closed = advance(ioLine, slice, closed);
+			else if (slice <= current - slices)
+				return closed;
+			
+			int position = getPosition(slice);
+			if (count[position] == 0 || value < min[position])
+				min[position] = value;
+			if (count[position] == 0 || value > max[position])
+				max[position] = value;
+			if (count[position] == 0 || timestamp >= lastTime[position]) {
+				last[position] = value;
+				lastTime[position] = timestamp;
+			}
+			sum[position] += value;
+			count[position]++;
+			return closed;
+		}
+		
+		/**
+		 * Closes the windows that end before the given slide.
+		 * 
+		 * @param ioLine The IO line of the window.
+		 * @param slice The current slide.
+		 * @param closed The statistics of the closed windows so far, 
+		 *               {@code null} if none.
+		 * 
+		 * @return The statistics of the closed windows, {@code null} if none.
+		 */
+		private synchronized List<IOAggregate> advance(IOLine ioLine, long slice, List<IOAggregate> closed) {
+			if (current == Long.MIN_VALUE || slice <= current)
+				return closed;
+			
+			long latest = current;
+			while (current < slice) {
+				IOAggregate aggregate = combine(ioLine, current);
+				if (aggregate != null) {
+					if (closed == null)
+						closed = new ArrayList<IOAggregate>();
+					closed.add(aggregate);
+				}
+				current++;
+				clear(getPosition(current));
+				// All the slides with values are discarded.
+				if (current - latest >= slices) {
+					current = slice;
+					break;
+				}
+			}
+			return closed;
+		}
+		
+		/**
+		 * Returns the statistics of the open window.
+		 * 
+		 * @param ioLine The IO line of the window.
+		 * 
+		 * @return The statistics of the open window, {@code null} if it has 
+		 *         no values.
+		 */
+		private synchronized IOAggregate getSnapshot(IOLine ioLine) {
+			if (current == Long.MIN_VALUE)
+				return null;
+			return combine(ioLine, current);
+		}
+		
+		/**
+		 * Combines the statistics of the slides of the window that ends with 
+		 * the given slide.
+		 * 
+		 * @param ioLine The IO line of the window.
+		 * @param slice The last slide of the window.
+		 * 
+		 * @return The statistics of the window, {@code null} if it has no 
+		 *         values.
+		 */
+		private IOAggregate combine(IOLine ioLine, long slice) {
+			int windowMin = 0;
+			int windowMax = 0;
+			int windowLast = 0;
+			int windowCount = 0;
+			long windowSum = 0;
+			long windowLastTime = 0;
+			for (int i = 0; i < slices; i++) {
+				int position = getPosition(slice - i);
+				if (count[position] == 0)
+					continue;
+				if (windowCount == 0 || min[position] < windowMin)
+					windowMin = min[position];
+				if (windowCount == 0 || max[position] > windowMax)
+					windowMax = max[position];
+				if (windowCount == 0 || lastTime[position] > windowLastTime) {
+					windowLast = last[position];
+					windowLastTime = lastTime[position];
+				}
+				windowSum += sum[position];
+				windowCount += count[position];
+			}
+			if (windowCount == 0)
+				return null;
+			long end = (slice + 1) * slide;
+			return new IOAggregate(ioLine, end - windowSize, end, windowMin, windowMax, 
+					windowSum, windowCount, windowLast);
+		}
+		
+		/**
+		 * Discards the statistics at the given position of the ring.
+		 * 
+		 * @param position The position of the slide.
+		 */
+		private void clear(int position) {
+			count[position] = 0;
+			sum[position] = 0;
+		}
+		
+		/**
+		 * Returns the position of the given slide in the ring.
+		 * 
+		 * @param slice The slide.
+		 * 
+		 * @return The position of the slide.
+		 */
+		private int getPosition(long slice) {
+			int position = (int)(slice % slices);
+			return position < 0 ? position + slices : position;
+		}
+	}
+}
@@ -0,0 +1,540 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+import com.digi.xbee.api.listeners.IIOSampleReceiveListener;
+
+/**
+ * This class keeps in memory the recent values of the IO lines of the remote 
+ * devices, as they are received in IO samples.
+ * 
+ * <p>Each IO line of each device has its own ring buffer with the time and 
+ * the value of its last samples, stored in primitive arrays. The oldest 
+ * values are discarded when the buffer is full or when they are older than 
+ * the retention time. Analog lines store the ADC values and digital lines 
+ * store 1 for {@link IOValue#HIGH} and 0 for {@link IOValue#LOW}.</p>
+ * 
+ * <p>The history is fed by the local device as soon as each sample is 
+ * received, so the latest values, ranges and downsampled series can be 
+ * consulted without reading them from the remote devices. The devices are 
+ * identified by their address, so any {@code RemoteXBeeDevice} object of a 
+ * device can be used to consult its values.</p>
+ * 
+ * @see com.digi.xbee.api.XBeeDevice#enableIOSampleHistory(int, long)
+ * @see IOTimeSeries
+ */
+public class IOSampleHistory implements IIOSampleReceiveListener {
+	
+	// Constants.
+	private static final int DIGITAL_LINES = 16;
+	
+	// Variables.
+	private final int capacity;
+	
+	private volatile long retention;
+	
+	private final ConcurrentHashMap<Long, DeviceSeries> devices = new ConcurrentHashMap<Long, DeviceSeries>();
+	
+	/**
+	 * Class constructor. Instantiates a new {@code IOSampleHistory} with the 
+	 * given parameters.
+	 * 
+	 * @param capacity Maximum number of values stored for each IO line of 
+	 *                 each device.
+	 * @param retention Time to keep the values in milliseconds, 0 to keep 
+	 *                  them until the buffer is full.
+	 * 
+	 * @throws IllegalArgumentException if {@code capacity < 1} or 
+	 *                                  if {@code retention < 0}.
+	 */
+	public IOSampleHistory(int capacity, long retention) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be greater than 0.");
+		if (retention < 0)
+			throw new IllegalArgumentException("Retention cannot be less than 0.");
+		
+		this.capacity = capacity;
+		this.retention = retention;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.digi.xbee.api.listeners.IIOSampleReceiveListener#ioSampleReceived(com.digi.xbee.api.RemoteXBeeDevice, com.digi.xbee.api.io.IOSample)
+	 */
+	@Override
+	public void ioSampleReceived(RemoteXBeeDevice remoteDevice, IOSample ioSample) {
+		addSample(remoteDevice, ioSample, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Stores the values of the given IO sample of the given remote device.
+	 * 
+	 * @param remoteDevice The remote device that sent the sample.
+	 * @param ioSample The IO sample.
+	 * @param timestamp The time the sample was received in milliseconds.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null} or 
+	 *                              if {@code ioSample == null}.
+	 */
+	public void addSample(RemoteXBeeDevice remoteDevice, IOSample ioSample, long timestamp) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		if (ioSample == null)
+			throw new NullPointerException("IO sample cannot be null.");
+		
+		Long key = IODeviceKey.get(remoteDevice);
+		DeviceSeries device = devices.get(key);
+		if (device == null) {
+			device = new DeviceSeries();
+			DeviceSeries existing = devices.putIfAbsent(key, device);
+			if (existing != null)
+				device = existing;
+		}
+		device.remoteDevice = remoteDevice;
+		Series[] series = device.series;
+		
+		long oldest = getOldest(timestamp);
+		int digitalMask = ioSample.getDigitalMask();
+		int digitalStates = ioSample.getDigitalStates();
+		int analogLines = ioSample.getAnalogLinesMask();
+		for (int lines = digitalMask | analogLines; lines != 0; lines &= lines - 1) {
+			int index = Integer.numberOfTrailingZeros(lines);
+			if (index >= DIGITAL_LINES)
+				break;
+			int value;
+			if ((analogLines & (1 << index)) != 0)
+				value = ioSample.getAnalogValue(IOLine.getDIO(index), 0);
+			else
+				value = (digitalStates >> index) & 0x01;
+			getSeries(series, index).add(timestamp, value, oldest);
+		}
+	}
+	
+	/**
+	 * Returns the series of the IO line with the given index, creating it if 
+	 * it does not exist.
+	 * 
+	 * @param series The series of a device.
+	 * @param index The index of the IO line.
+	 * 
+	 * @return The series of the IO line.
+	 */
+	private Series getSeries(Series[] series, int index) {
+		synchronized (series) {
+			if (series[index] == null)
+				series[index] = new Series(capacity);
+			return series[index];
+		}
+	}
+	
+	/**
+	 * Returns the series of the given IO line of the given device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param ioLine The IO line.
+	 * 
+	 * @return The series of the IO line, {@code null} if there are no values.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null} or 
+	 *                              if {@code ioLine == null}.
+	 */
+	private Series findSeries(RemoteXBeeDevice remoteDevice, IOLine ioLine) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		if (ioLine == null)
+			throw new NullPointerException("IO line cannot be null.");
+		
+		DeviceSeries device = devices.get(IODeviceKey.get(remoteDevice));
+		if (device == null || ioLine.getIndex() >= DIGITAL_LINES)
+			return null;
+		Series[] series = device.series;
+		synchronized (series) {
+			return series[ioLine.getIndex()];
+		}
+	}
+	
+	/**
+	 * Returns the time of the oldest value to keep.
+	 * 
+	 * @param now The current time in milliseconds.
+	 * 
+	 * @return The time of the oldest value to keep in milliseconds.
+	 */
+	private long getOldest(long now) {
+		long retention = this.retention;
+		return retention == 0 ? Long.MIN_VALUE : now - retention;
+	}
+	
+	/**
+	 * Returns the latest value of the given IO line of the given device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param ioLine The IO line.
+	 * @param defaultValue The value to return if there are no values.
+	 * 
+	 * @return The latest value of the IO line or {@code defaultValue} if 
+	 *         there are no values.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null} or 
+	 *                              if {@code ioLine == null}.
+	 * 
+	 * @see #getLatestTimestamp(RemoteXBeeDevice, IOLine)
+	 */
+	public int getLatestValue(RemoteXBeeDevice remoteDevice, IOLine ioLine, int defaultValue) {
+		Series series = findSeries(remoteDevice, ioLine);
+		if (series == null)
+			return defaultValue;
+		return series.getLatestValue(getOldest(System.currentTimeMillis()), defaultValue);
+	}
+	
+	/**
+	 * Returns the time of the latest value of the given IO line of the given 
+	 * device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param ioLine The IO line.
+	 * 
+	 * @return The time of the latest value in milliseconds, -1 if there are 
+	 *         no values.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null} or 
+	 *                              if {@code ioLine == null}.
+	 * 
+	 * @see #getLatestValue(RemoteXBeeDevice, IOLine, int)
+	 */
+	public long getLatestTimestamp(RemoteXBeeDevice remoteDevice, IOLine ioLine) {
+		Series series = findSeries(remoteDevice, ioLine);
+		if (series == null)
+			return -1;
+		return series.getLatestTimestamp(getOldest(System.currentTimeMillis()));
+	}
+	
+	/**
+	 * Returns the values of the given IO line of the given device received 
+	 * between the given times.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param ioLine The IO line.
+	 * @param from The start time in milliseconds (inclusive).
+	 * @param to The end time in milliseconds (exclusive).
+	 * 
+	 * @return The values received between the given times.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null} or 
+	 *                              if {@code ioLine == null}.
+	 * 
+	 * @see #getDownsampledRange(RemoteXBeeDevice, IOLine, long, long, long)
+	 */
+	public IOTimeSeries getRange(RemoteXBeeDevice remoteDevice, IOLine ioLine, long from, long to) {
+		Series series = findSeries(remoteDevice, ioLine);
+		if (series == null)
+			return new IOTimeSeries(ioLine, new long[0], new int[0]);
+		return series.getRange(ioLine, Math.max(from, getOldest(System.currentTimeMillis())), to, 0);
+	}
+	
+	/**
+	 * Returns the values of the given IO line of the given device received 
+	 * between the given times, averaged in intervals of the given length.
+	 * 
+	 * <p>Each value of the returned series is the mean of the values of an 
+	 * interval, with the start time of the interval. Intervals without 
+	 * values are skipped.</p>
+	 * 
+	 * @param remoteDevice The remote device.
+	 * @param ioLine The IO line.
+	 * @param from The start time in milliseconds (inclusive).
+	 * @param to The end time in milliseconds (exclusive).
+	 * @param interval The length of each interval in milliseconds.
+	 * 
+	 * @return The averaged values received between the given times.
+	 * 
+	 * @throws IllegalArgumentException if {@code interval < 1}.
+	 * @throws NullPointerException if {@code remoteDevice == null} or 
+	 *                              if {@code ioLine == null}.
+	 * 
+	 * @see #getRange(RemoteXBeeDevice, IOLine, long, long)
+	 */
+	public IOTimeSeries getDownsampledRange(RemoteXBeeDevice remoteDevice, IOLine ioLine, long from, long to, long interval) {
+		if (interval < 1)
+			throw new IllegalArgumentException("Interval must be greater than 0.");
+		
+		Series series = findSeries(remoteDevice, ioLine);
+		if (series == null)
+			return new IOTimeSeries(ioLine, new long[0], new int[0]);
+		return series.getRange(ioLine, Math.max(from, getOldest(System.currentTimeMillis())), to, interval);
+	}
+	
+	/**
+	 * Returns the remote devices with values in the history.
+	 * 
+	 * @return The list of remote devices, with the object of the last 
+	 *         sample received from each one.
+	 */
+	public List<RemoteXBeeDevice> getDevices() {
+		ArrayList<RemoteXBeeDevice> remoteDevices = new ArrayList<RemoteXBeeDevice>();
+		for (DeviceSeries device : devices.values())
+			remoteDevices.add(device.remoteDevice);
+		return remoteDevices;
+	}
+	
+	/**
+	 * Returns the IO lines of the given device with values in the history.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @return The list of IO lines.
+	 * 
+	 * @throws NullPointerException if {@code remoteDevice == null}.
+	 */
+	public List<IOLine> getIOLines(RemoteXBeeDevice remoteDevice) {
+		if (remoteDevice == null)
+			throw new NullPointerException("Remote device cannot be null.");
+		
+		ArrayList<IOLine> ioLines = new ArrayList<IOLine>();
+		DeviceSeries device = devices.get(IODeviceKey.get(remoteDevice));
+		if (device == null)
+			return ioLines;
+		Series[] series = device.series;
+		synchronized (series) {
+			for (int i = 0; i < series.length; i++) {
+				if (series[i] != null)
+					ioLines.add(IOLine.getDIO(i));
+			}
+		}
+		return ioLines;
+	}
+	
+	/**
+	 * Removes the values of the given device.
+	 * 
+	 * @param remoteDevice The remote device.
+	 * 
+	 * @see #clear()
+	 */
+	public void remove(RemoteXBeeDevice remoteDevice) {
+		if (remoteDevice != null)
+			devices.remove(IODeviceKey.get(remoteDevice));
+	}
+	
+	/**
+	 * Removes the values of all the devices.
+	 * 
+	 * @see #remove(RemoteXBeeDevice)
+	 */
+	public void clear() {
+		devices.clear();
+	}
+	
+	/**
+	 * Returns the maximum number of values stored for each IO line of each 
+	 * device.
+	 * 
+	 * @return The capacity of each IO line.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Sets the time to keep the values.
+	 * 
+	 * @param retention Time to keep the values in milliseconds, 0 to keep 
+	 *                  them until the buffer is full.
+	 * 
+	 * @throws IllegalArgumentException if {@code retention < 0}.
+	 * 
+	 * @see #getRetention()
+	 */
+	public void setRetention(long retention) {
+		if (retention < 0)
+			throw new IllegalArgumentException("Retention cannot be less than 0.");
+		
+		this.retention = retention;
+	}
+	
+	/**
+	 * Returns the time to keep the values.
+	 * 
+	 * @return Time to keep the values in milliseconds, 0 if they are kept 
+	 *         until the buffer is full.
+	 * 
+	 * @see #setRetention(long)
+	 */
+	public long getRetention() {
+		return retention;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [capacity=" + capacity + ", retention=" + retention 
+				+ ", devices=" + devices.size() + "]";
+	}
+	
+	/**
+	 * Series of the IO lines of a remote device.
+	 */
+	private static class DeviceSeries {
+		
+		// Variables.
+		private volatile RemoteXBeeDevice remoteDevice;
+		
+		private final Series[] series = new Series[DIGITAL_LINES];
+	}
+	
+	/**
+	 * Ring buffer with the time and the value of the last samples of an IO 
+	 * line.
+	 */
+	private static class Series {
+		
+		// Variables.
+		private final long[] timestamps;
+		private final int[] values;
+		
+		// Position of the oldest value and number of values.
+		private int start = 0;
+		private int size = 0;
+		
+		/**
+		 * Class constructor. Instantiates a new {@code Series} with the 
+		 * given capacity.
+		 * 
+		 * @param capacity Maximum number of values.
+		 */
+		private Series(int capacity) {
+			this.timestamps = new long[capacity];
+			this.values = new int[capacity];
+		}
+		
+		/**
+		 * Adds the given value, overwriting the oldest one if the buffer is 
+		 * full.
+		 * 
+		 * @param timestamp The time of the value in milliseconds.
+		 * @param value The value.
+		 * @param oldest The time of the oldest value to keep.
+		 */
+		private synchronized void add(long timestamp, int value, long oldest) {
+			expire(oldest);
+			int position = (start + size) % values.length;
+			timestamps[position] = timestamp;
+			values[position] = value;
+			if (size < values.length)
+				size++;
+			else
+				start = (start + 1) % values.length;
+		}
+		
+		/**
+		 * Discards the values older than the given time.
+		 * 
+		 * @param oldest The time of the oldest value to keep.
+		 */
+		private void expire(long oldest) {
+			while (size > 0 && timestamps[start] < oldest) {
+				start = (start + 1) % values.length;
+				size--;
+			}
+		}
+		
+		/**
+		 * Returns the latest value.
+		 * 
+		 * @param oldest The time of the oldest value to keep.
+		 * @param defaultValue The value to return if there are no values.
+		 * 
+		 * @return The latest value or {@code defaultValue}.
+		 */
+		private synchronized int getLatestValue(long oldest, int defaultValue) {
+			expire(oldest);
+			if (size == 0)
+				return defaultValue;
+			return values[(start + size - 1) % values.length];
+		}
+		
+		/**
+		 * Returns the time of the latest value.
+		 * 
+		 * @param oldest The time of the oldest value to keep.
+		 * 
+		 * @return The time of the latest value or -1 if there are no values.
+		 */
+		private synchronized long getLatestTimestamp(long oldest) {
+			expire(oldest);
+			if (size == 0)
+				return -1;
+			return timestamps[(start + size - 1) % values.length];
+		}
+		
+		/**
+		 * Returns the values between the given times, optionally averaged in 
+		 * intervals.
+		 * 
+		 * @param ioLine The IO line of the series.
+		 * @param from The start time in milliseconds (inclusive).
+		 * @param to The end time in milliseconds (exclusive).
+		 * @param interval The length of each interval in milliseconds, 0 not 
+		 *                 to average the values.
+		 * 
+		 * @return The values between the given times.
+		 */
+		private synchronized IOTimeSeries getRange(IOLine ioLine, long from, long to, long interval) {
+			long[] resultTimestamps = new long[size];
+			int[] resultValues = new int[size];
+			int count = 0;
+			
+			long intervalStart = 0;
+			long sum = 0;
+			int samples = 0;
+			for (int i = 0; i < size; i++) {
+				int position = (start + i) % values.length;
+				long timestamp = timestamps[position];
+				if (timestamp < from || timestamp >= to)
+					continue;
+				if (interval == 0) {
+					resultTimestamps[count] = timestamp;
+					resultValues[count++] = values[position];
+					continue;
+				}
+				long valueInterval = from + (timestamp - from) / interval * interval;
+				if (samples > 0 && valueInterval != intervalStart) {
+					resultTimestamps[count] = intervalStart;
+					resultValues[count++] = (int)Math.round((double)sum / samples);
+					sum = 0;
+					samples = 0;
+				}
+				intervalStart = valueInterval;
+				sum += values[position];
+				samples++;
+			}
+			if (samples > 0) {
+				resultTimestamps[count] = intervalStart;
+				resultValues[count++] = (int)Math.round((double)sum / samples);
+			}
+			
+			long[] finalTimestamps = new long[count];
+			int[] finalValues = new int[count];
+			System.arraycopy(resultTimestamps, 0, finalTimestamps, 0, count);
+			System.arraycopy(resultValues, 0, finalValues, 0, count);
+			return new IOTimeSeries(ioLine, finalTimestamps, finalValues);
+		}
+	}
+}
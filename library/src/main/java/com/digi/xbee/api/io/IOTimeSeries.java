@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+/**
+ * This class represents a series of values of an IO line, each one with the 
+ * time it was received.
+ * 
+ * <p>The values are stored in primitive arrays ordered by time. Analog 
+ * lines contain the ADC values and digital lines contain 1 for 
+ * {@link IOValue#HIGH} and 0 for {@link IOValue#LOW}.</p>
+ * 
+ * @see IOSampleHistory
+ */
+public class IOTimeSeries {
+	
+	// Variables.
+	private final IOLine ioLine;
+	
+	private final long[] timestamps;
+	private final int[] values;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code IOTimeSeries} with the 
+	 * given parameters.
+	 * 
+	 * @param ioLine The IO line of the values.
+	 * @param timestamps The time of each value in milliseconds.
+	 * @param values The values.
+	 */
+	IOTimeSeries(IOLine ioLine, long[] timestamps, int[] values) {
+		this.ioLine = ioLine;
+		this.timestamps = timestamps;
+		this.values = values;
+	}
+	
+	/**
+	 * Returns the IO line of the values.
+	 * 
+	 * @return The IO line.
+	 * 
+	 * @see IOLine
+	 */
+	public IOLine getIOLine() {
+		return ioLine;
+	}
+	
+	/**
+	 * Returns the number of values of the series.
+	 * 
+	 * @return The number of values.
+	 */
+	public int size() {
+		return values.length;
+	}
+	
+	/**
+	 * Returns the time of the value at the given position.
+	 * 
+	 * @param index The position of the value, 0 being the oldest one.
+	 * 
+	 * @return The time of the value in milliseconds.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code index < 0} or 
+	 *                                   if {@code index >= size()}.
+	 */
+	public long getTimestamp(int index) {
+		return timestamps[index];
+	}
+	
+	/**
+	 * Returns the value at the given position.
+	 * 
+	 * @param index The position of the value, 0 being the oldest one.
+	 * 
+	 * @return The value.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code index < 0} or 
+	 *                                   if {@code index >= size()}.
+	 */
+	public int getValue(int index) {
+		return values[index];
+	}
+	
+	/**
+	 * Returns the times of all the values.
+	 * 
+	 * @return A copy of the times in milliseconds.
+	 */
+	public long[] getTimestamps() {
+		return timestamps.clone();
+	}
+	
+	/**
+	 * Returns all the values.
+	 * 
+	 * @return A copy of the values.
+	 */
+	public int[] getValues() {
+		return values.clone();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(ioLine.toString()).append(" {");
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append("[").append(timestamps[i]).append(": ").append(values[i]).append("]");
+		}
+		return sb.append("}").toString();
+	}
+}
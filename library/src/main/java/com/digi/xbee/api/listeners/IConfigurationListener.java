@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.listeners;
+
+import java.util.List;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+
+/**
+ * Interface defining the required methods that an object should implement to 
+ * be notified about the progress of applying a configuration profile to many 
+ * remote devices.
+ * 
+ * <p>The notifications are sent from the inventory threads as soon as each 
+ * device is configured, so several of them may arrive at the same time.</p>
+ * 
+ * @see com.digi.xbee.api.models.ConfigurationProfile
+ */
+public interface IConfigurationListener {
+	
+	/**
+	 * Notifies that the configuration profile was applied to a remote device.
+	 * 
+	 * @param remoteDevice The configured remote device.
+	 * @param changedParameters The parameters that were changed, empty if 
+	 *                          the device already had the configuration.
+	 * 
+	 * @see com.digi.xbee.api.RemoteXBeeDevice
+	 */
+	public void deviceConfigured(RemoteXBeeDevice remoteDevice, List<String> changedParameters);
+	
+	/**
+	 * Notifies that the configuration profile could not be applied to a 
+	 * remote device, after retrying it if the error was transient.
+	 * 
+	 * @param remoteDevice The remote device that was not configured.
+	 * @param error The error message.
+	 * 
+	 * @see com.digi.xbee.api.RemoteXBeeDevice
+	 */
+	public void deviceConfigurationError(RemoteXBeeDevice remoteDevice, String error);
+}
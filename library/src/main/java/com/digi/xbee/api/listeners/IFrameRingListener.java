@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.listeners;
+
+import com.digi.xbee.api.connection.FrameRingEntry;
+
+/**
+ * This interface defines the required methods that an object should implement
+ * to behave as a consumer of the frame ring buffer and be notified, in order,
+ * about every API frame published by the reader thread.
+ *
+ * <p>Each consumer runs in its own thread and keeps its own sequence, so a
+ * slow consumer does not delay the rest of them until the ring buffer wraps.
+ * </p>
+ */
+public interface IFrameRingListener {
+	
+	/**
+	 * Called when a new API frame is available in the ring buffer.
+	 * 
+	 * <p><b>The entry is reused for later frames</b> once every consumer has
+	 * processed it, so its contents are only valid until this method
+	 * returns.</p>
+	 * 
+	 * @param entry The ring buffer entry containing the frame.
+	 * @param sequence The sequence number of the frame.
+	 * @param endOfBatch {@code true} if this is the last frame currently
+	 *                   available for this consumer, {@code false} otherwise.
+	 * 
+	 * @see com.digi.xbee.api.connection.FrameRingEntry
+	 */
+	public void frameReceived(FrameRingEntry entry, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.listeners;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+import com.digi.xbee.api.io.IOAggregate;
+
+/**
+ * This interface defines the required methods that an object should implement
+ * to be notified when a window of analog IO values of a remote XBee device 
+ * is closed.
+ * 
+ * <p>The notifications are sent from the thread that closes the window, 
+ * usually the reader thread of the local device, so they must return 
+ * quickly.</p>
+ * 
+ * @see com.digi.xbee.api.io.IOSampleAggregator
+ */
+public interface IIOAggregateListener {
+	
+	/**
+	 * Called when a window of analog IO values is closed.
+	 * 
+	 * @param remoteDevice The remote XBee device that sent the values.
+	 * @param aggregate The statistics of the values of the window.
+	 * 
+	 * @see com.digi.xbee.api.RemoteXBeeDevice
+	 * @see com.digi.xbee.api.io.IOAggregate
+	 */
+	public void aggregateReceived(RemoteXBeeDevice remoteDevice, IOAggregate aggregate);
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.listeners;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+import com.digi.xbee.api.io.IODigitalChange;
+
+/**
+ * This interface defines the required methods that an object should implement
+ * to be notified when the digital IO lines of a remote XBee device change.
+ * 
+ * <p>The notifications are sent from the reader thread of the local device 
+ * as soon as the IO sample is received, so they must return quickly.</p>
+ * 
+ * @see com.digi.xbee.api.io.IODigitalChangeDetector
+ */
+public interface IIODigitalChangeListener {
+	
+	/**
+	 * Called when a received IO sample changes the value of any digital IO 
+	 * line of a remote XBee device.
+	 * 
+	 * @param remoteDevice The remote XBee device that sent the sample.
+	 * @param change The digital IO lines that changed.
+	 * 
+	 * @see com.digi.xbee.api.RemoteXBeeDevice
+	 * @see com.digi.xbee.api.io.IODigitalChange
+	 */
+	public void digitalChangeReceived(RemoteXBeeDevice remoteDevice, IODigitalChange change);
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.listeners;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+
+/**
+ * Interface defining the required methods that an object should implement to 
+ * be notified about the progress of an inventory of the network, that is, 
+ * reading the information of many remote devices.
+ * 
+ * <p>The notifications are sent from the inventory threads as soon as the 
+ * information of each device is read, so several of them may arrive at the 
+ * same time.</p>
+ */
+public interface IInventoryListener {
+	
+	/**
+	 * Notifies that the information of a remote device was read.
+	 * 
+	 * @param remoteDevice The remote device whose information was read.
+	 * 
+	 * @see com.digi.xbee.api.RemoteXBeeDevice
+	 */
+	public void deviceInfoRead(RemoteXBeeDevice remoteDevice);
+	
+	/**
+	 * Notifies that the information of a remote device could not be read, 
+	 * after retrying it if the error was transient.
+	 * 
+	 * @param remoteDevice The remote device whose information was not read.
+	 * @param error The error message.
+	 * 
+	 * @see com.digi.xbee.api.RemoteXBeeDevice
+	 */
+	public void deviceInfoError(RemoteXBeeDevice remoteDevice, String error);
+}
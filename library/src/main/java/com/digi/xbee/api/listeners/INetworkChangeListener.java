@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.listeners;
+
+import com.digi.xbee.api.models.NetworkChange;
+
+/**
+ * Interface defining the required methods that an object should implement to 
+ * be notified about the changes of the devices of an XBee network.
+ * 
+ * <p>The changes are notified in order from a single background thread.</p>
+ */
+public interface INetworkChangeListener {
+	
+	/**
+	 * Notifies that a device has been added to, updated in, readdressed in 
+	 * or removed from the network.
+	 * 
+	 * @param change The network change.
+	 * 
+	 * @see com.digi.xbee.api.models.NetworkChange
+	 */
+	public void networkChanged(NetworkChange change);
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.listeners;
+
+/**
+ * This interface defines the required methods that an object should implement
+ * to behave as a raw frame listener and be notified when new API frames are
+ * received while the data reader works in raw frame mode.
+ *
+ * <p>Raw frames are delivered without being decoded into packet objects. The
+ * length and checksum of every frame have already been verified when this
+ * listener is called.</p>
+ */
+public interface IRawFrameReceiveListener {
+	
+	/**
+	 * Called when a valid API frame is received through the connection
+	 * interface while the raw frame mode is enabled.
+	 * 
+	 * <p>The frame data (API frame type followed by the frame specific data,
+	 * without start delimiter, length, escaping nor checksum) is located in
+	 * {@code buffer} from {@code offset} to {@code offset + length - 1}.</p>
+	 * 
+	 * <p><b>The buffer is reused by the reader for the next frames</b>, so
+	 * its contents are only valid until this method returns. Copy the bytes
+	 * if they must be kept.</p>
+	 * 
+	 * @param buffer Buffer containing the frame data.
+	 * @param offset Position of the first byte of the frame data (the API
+	 *               frame type) within {@code buffer}.
+	 * @param length Number of bytes of the frame data.
+	 * @param timestamp Time, in milliseconds, at which the frame was
+	 *                  completely read.
+	 * 
+	 * @see com.digi.xbee.api.packet.APIFrameType
+	 */
+	public void rawFrameReceived(byte[] buffer, int offset, int length, long timestamp);
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.models;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.digi.xbee.api.utils.HexUtils;
+
+/**
+ * This class represents a configuration profile, that is, the desired value 
+ * of a set of AT parameters of an XBee device.
+ * 
+ * <p>Applying a profile to a device only sets the parameters whose current 
+ * value is different, and applies all of them at once.</p>
+ * 
+ * @see com.digi.xbee.api.AbstractXBeeDevice#applyConfigurationProfile(ConfigurationProfile, boolean)
+ */
+public class ConfigurationProfile {
+	
+	// Variables
+	private final LinkedHashMap<String, byte[]> parameters = new LinkedHashMap<String, byte[]>();
+	
+	/**
+	 * Class constructor. Instantiates a new empty {@code ConfigurationProfile}.
+	 */
+	public ConfigurationProfile() {
+	}
+	
+	/**
+	 * Class constructor. Instantiates a new {@code ConfigurationProfile} with 
+	 * the parameters of the given map.
+	 * 
+	 * @param parameters Map with the value of each parameter.
+	 * 
+	 * @throws IllegalArgumentException if the length of any parameter is not 2.
+	 * @throws NullPointerException if {@code parameters == null} or 
+	 *                              if any parameter or value is {@code null}.
+	 */
+	public ConfigurationProfile(Map<String, byte[]> parameters) {
+		if (parameters == null)
+			throw new NullPointerException("Parameters cannot be null.");
+		
+		for (Map.Entry<String, byte[]> parameter : parameters.entrySet())
+			setParameter(parameter.getKey(), parameter.getValue());
+	}
+	
+	/**
+	 * Sets the desired value of the given parameter.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * @param value The desired value of the parameter.
+	 * 
+	 * @throws IllegalArgumentException if {@code parameter.length() != 2}.
+	 * @throws NullPointerException if {@code parameter == null} or 
+	 *                              if {@code value == null}.
+	 * 
+	 * @see #getParameter(String)
+	 * @see #removeParameter(String)
+	 */
+	public void setParameter(String parameter, byte[] value) {
+		if (parameter == null)
+			throw new NullPointerException("Parameter cannot be null.");
+		if (value == null)
+			throw new NullPointerException("Value of the parameter cannot be null.");
+		if (parameter.length() != 2)
+			throw new IllegalArgumentException("Parameter must contain exactly 2 characters.");
+		
+		parameters.put(parameter.toUpperCase(Locale.ENGLISH), value.clone());
+	}
+	
+	/**
+	 * Sets the desired value of the given parameter as a string, for example, 
+	 * the node identifier.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * @param value The desired value of the parameter.
+	 * 
+	 * @throws IllegalArgumentException if {@code parameter.length() != 2}.
+	 * @throws NullPointerException if {@code parameter == null} or 
+	 *                              if {@code value == null}.
+	 * 
+	 * @see #setParameter(String, byte[])
+	 */
+	public void setParameter(String parameter, String value) {
+		if (value == null)
+			throw new NullPointerException("Value of the parameter cannot be null.");
+		
+		setParameter(parameter, value.getBytes());
+	}
+	
+	/**
+	 * Returns the desired value of the given parameter.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * 
+	 * @return A copy of the desired value, {@code null} if the parameter is 
+	 *         not in the profile.
+	 * 
+	 * @throws NullPointerException if {@code parameter == null}.
+	 * 
+	 * @see #setParameter(String, byte[])
+	 */
+	public byte[] getParameter(String parameter) {
+		if (parameter == null)
+			throw new NullPointerException("Parameter cannot be null.");
+		
+		byte[] value = parameters.get(parameter.toUpperCase(Locale.ENGLISH));
+		return value == null ? null : value.clone();
+	}
+	
+	/**
+	 * Removes the given parameter from the profile.
+	 * 
+	 * @param parameter The name of the parameter.
+	 * 
+	 * @throws NullPointerException if {@code parameter == null}.
+	 * 
+	 * @see #setParameter(String, byte[])
+	 */
+	public void removeParameter(String parameter) {
+		if (parameter == null)
+			throw new NullPointerException("Parameter cannot be null.");
+		
+		parameters.remove(parameter.toUpperCase(Locale.ENGLISH));
+	}
+	
+	/**
+	 * Returns the names of the parameters of the profile, in the order they 
+	 * were added.
+	 * 
+	 * @return The list of parameters of the profile.
+	 */
+	public List<String> getParameters() {
+		return new ArrayList<String>(parameters.keySet());
+	}
+	
+	/**
+	 * Returns the number of parameters of the profile.
+	 * 
+	 * @return The number of parameters.
+	 */
+	public int size() {
+		return parameters.size();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		for (Map.Entry<String, byte[]> parameter : parameters.entrySet()) {
+			if (sb.length() > 1)
+				sb.append(", ");
+			sb.append(parameter.getKey()).append("=").append(HexUtils.byteArrayToHexString(parameter.getValue()));
+		}
+		return sb.append("}").toString();
+	}
+}
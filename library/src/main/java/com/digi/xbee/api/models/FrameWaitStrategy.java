@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.models;
+
+/**
+ * Enumerates the different strategies a frame ring buffer consumer can use
+ * to wait for new frames to be published by the reader thread.
+ *
+ * <p>Busy spin gives the lowest latency at the cost of keeping a CPU core
+ * busy, yield gives up the CPU between checks and blocking parks the consumer
+ * thread until the reader publishes a new frame.</p>
+ */
+public enum FrameWaitStrategy {
+	
+	// Enumeration types
+	BUSY_SPIN(0, "Busy spin"),
+	YIELD(1, "Yield"),
+	BLOCKING(2, "Blocking");
+	
+	// Variables
+	private final int id;
+	
+	private final String name;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code FrameWaitStrategy}
+	 * enumeration entry with the given parameters.
+	 * 
+	 * @param id Wait strategy ID.
+	 * @param name Wait strategy name.
+	 */
+	private FrameWaitStrategy(int id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+	
+	/**
+	 * Returns the wait strategy ID.
+	 * 
+	 * @return Wait strategy ID.
+	 */
+	public int getID() {
+		return id;
+	}
+	
+	/**
+	 * Returns the wait strategy name.
+	 * 
+	 * @return Wait strategy name.
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Enum#toString()
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.models;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+
+/**
+ * This class represents a change of the devices of an XBee network: a 
+ * device that has been added to, updated in, readdressed in or removed 
+ * from the network.
+ * 
+ * <p>Every change has a version, which increases by one with every change 
+ * of the network, so the changes can be requested incrementally.</p>
+ * 
+ * @see NetworkChangeType
+ * @see com.digi.xbee.api.XBeeNetwork#getChangesSince(long)
+ * @see com.digi.xbee.api.listeners.INetworkChangeListener
+ */
+public class NetworkChange {
+	
+	// Variables.
+	private final long version;
+	
+	private final NetworkChangeType type;
+	
+	private final RemoteXBeeDevice device;
+	
+	/**
+	 * Class constructor. Instantiates a new object of type 
+	 * {@code NetworkChange} with the given parameters.
+	 * 
+	 * @param version The version of the network after the change.
+	 * @param type The type of change.
+	 * @param device The remote device that changed.
+	 * 
+	 * @throws NullPointerException if {@code type == null} or 
+	 *                              if {@code device == null}.
+	 * 
+	 * @see NetworkChangeType
+	 * @see com.digi.xbee.api.RemoteXBeeDevice
+	 */
+	public NetworkChange(long version, NetworkChangeType type, RemoteXBeeDevice device) {
+		if (type == null)
+			throw new NullPointerException("Change type cannot be null.");
+		if (device == null)
+			throw new NullPointerException("Remote XBee device cannot be null.");
+		
+		this.version = version;
+		this.type = type;
+		this.device = device;
+	}
+	
+	/**
+	 * Returns the version of the network after this change.
+	 * 
+	 * @return The version of the change.
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Returns the type of this change.
+	 * 
+	 * @return The type of change.
+	 * 
+	 * @see NetworkChangeType
+	 */
+	public NetworkChangeType getType() {
+		return type;
+	}
+	
+	/**
+	 * Returns the remote device that changed.
+	 * 
+	 * @return The remote device.
+	 * 
+	 * @see com.digi.xbee.api.RemoteXBeeDevice
+	 */
+	public RemoteXBeeDevice getDevice() {
+		return device;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return version + " " + type + ": " + device;
+	}
+}
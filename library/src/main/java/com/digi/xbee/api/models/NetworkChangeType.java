@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.models;
+
+/**
+ * Enumerates the different changes of the devices of an XBee network.
+ * 
+ * @see NetworkChange
+ */
+public enum NetworkChangeType {
+	
+	// Enumeration types
+	ADDED(0, "Device added"),
+	UPDATED(1, "Device updated"),
+	READDRESSED(2, "Device readdressed"),
+	REMOVED(3, "Device removed");
+	
+	// Variables
+	private final int id;
+	
+	private final String name;
+	
+	/**
+	 * Class constructor. Instantiates a new {@code NetworkChangeType} 
+	 * enumeration entry with the given parameters.
+	 * 
+	 * @param id Network change type ID.
+	 * @param name Network change type name.
+	 */
+	private NetworkChangeType(int id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+	
+	/**
+	 * Returns the network change type ID.
+	 * 
+	 * @return Network change type ID.
+	 */
+	public int getID() {
+		return id;
+	}
+	
+	/**
+	 * Returns the network change type name.
+	 * 
+	 * @return Network change type name.
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Enum#toString()
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -11,7 +11,7 @@
  */
 package com.digi.xbee.api.models;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 
 import com.digi.xbee.api.utils.HexUtils;
 
@@ -33,6 +33,9 @@ import com.digi.xbee.api.utils.HexUtils;
  * It is automatically assigned when the radio joins the network for ZigBee 
  * and ZNet 2.5, and manually configured in 802.15.4 radios.</p>
  * 
+ * <p>The address is stored as an {@code int}, so it can be compared, hashed 
+ * and written without creating any object. Use {@link #fromInt(int)} and 
+ * {@link #toInt()} to convert it from and to its primitive value.</p>
  */
 public final class XBee16BitAddress {
 
@@ -40,25 +43,34 @@ public final class XBee16BitAddress {
 	/**
 	 * 16-bit address reserved for the coordinator (value: 0000).
 	 */
-	public static final XBee16BitAddress COORDINATOR_ADDRESS = new XBee16BitAddress("0000");
+	public static final XBee16BitAddress COORDINATOR_ADDRESS = new XBee16BitAddress(0x0000);
 	/**
 	 * 16-bit broadcast address (value: FFFF).
 	 */
-	public static final XBee16BitAddress BROADCAST_ADDRESS = new XBee16BitAddress("FFFF");
+	public static final XBee16BitAddress BROADCAST_ADDRESS = new XBee16BitAddress(0xFFFF);
 	/**
 	 * 16-bit unknown address (value: FFFE).
 	 */
-	public static final XBee16BitAddress UNKNOWN_ADDRESS = new XBee16BitAddress("FFFE");
+	public static final XBee16BitAddress UNKNOWN_ADDRESS = new XBee16BitAddress(0xFFFE);
 	
-	/**
-	 * Pattern for the 16-bit address string: {@value}.
-	 */
-	private static final String XBEE_16_BIT_ADDRESS_PATTERN = "(0[xX])?[0-9a-fA-F]{1,4}";
+	private static final String HEX_CHARS = "0123456789ABCDEF";
+	
+	private static final int MAX_DIGITS = 4;
 	
 	private static final int HASH_SEED = 23;
 	
 	// Variables
-	private final byte[] address;
+	private final int address;
+	
+	/**
+	 * Class constructor. Instantiates a new object of type 
+	 * {@code XBee16BitAddress} with the given value.
+	 * 
+	 * @param address The 16-bit address as {@code int}.
+	 */
+	private XBee16BitAddress(int address) {
+		this.address = address;
+	}
 	
 	/**
 	 * Class constructor. Instantiates a new object of type 
@@ -78,9 +90,7 @@ public final class XBee16BitAddress {
 		if (lsb > 255 || lsb < 0)
 			throw new IllegalArgumentException("LSB must be between 0 and 255.");
 		
-		address = new byte[2];
-		address[0] = (byte) hsb;
-		address[1] = (byte) lsb;
+		address = hsb << 8 | lsb;
 	}
 	
 	/**
@@ -101,13 +111,10 @@ public final class XBee16BitAddress {
 		if (address.length > 2)
 			throw new IllegalArgumentException("Address cannot contain more than 2 bytes.");
 		
-		// Check array size.
-		this.address = new byte[2];
-		int diff = this.address.length - address.length;
-		for (int i = 0; i < diff; i++)
-			this.address[i] = 0;
-		for (int i = diff; i < this.address.length; i++)
-			this.address[i] = address[i - diff];
+		int value = 0;
+		for (int i = 0; i < address.length; i++)
+			value = value << 8 | address[i] & 0xFF;
+		this.address = value;
 	}
 	
 	/**
@@ -130,18 +137,37 @@ public final class XBee16BitAddress {
 			throw new NullPointerException("Address cannot be null.");
 		if (address.length() < 1)
 			throw new IllegalArgumentException("Address must contain at least 1 character.");
-		if (!address.matches(XBEE_16_BIT_ADDRESS_PATTERN))
-			throw new IllegalArgumentException("Address must follow this pattern: (0x)XXXX.");
 		
-		// Convert the string into a byte array.
-		byte[] byteAddress = HexUtils.hexStringToByteArray(address);
-		// Check array size.
-		this.address = new byte[2];
-		int diff = this.address.length - byteAddress.length;
-		for (int i = 0; i < diff; i++)
-			this.address[i] = 0;
-		for (int i = diff; i < this.address.length; i++)
-			this.address[i] = byteAddress[i - diff];
+		this.address = parse(address);
+	}
+	
+	/**
+	 * Returns the {@code XBee16BitAddress} with the given value.
+	 * 
+	 * <p>The coordinator, broadcast and unknown addresses are not 
+	 * instantiated again, the corresponding constant is returned instead.</p>
+	 * 
+	 * @param address The 16-bit address as {@code int}, being its high 
+	 *                significant byte the first byte of the address.
+	 * 
+	 * @return The 16-bit address.
+	 * 
+	 * @throws IllegalArgumentException if {@code address > 0xFFFF} or 
+	 *                                  if {@code address < 0}.
+	 * 
+	 * @see #toInt()
+	 */
+	public static XBee16BitAddress fromInt(int address) {
+		if (address > 0xFFFF || address < 0)
+			throw new IllegalArgumentException("Address must be between 0 and 0xFFFF.");
+		
+		if (address == COORDINATOR_ADDRESS.address)
+			return COORDINATOR_ADDRESS;
+		if (address == BROADCAST_ADDRESS.address)
+			return BROADCAST_ADDRESS;
+		if (address == UNKNOWN_ADDRESS.address)
+			return UNKNOWN_ADDRESS;
+		return new XBee16BitAddress(address);
 	}
 	
 	/**
@@ -150,7 +176,7 @@ public final class XBee16BitAddress {
 	 * @return Address high significant byte.
 	 */
 	public int getHsb() {
-		return address[0];
+		return (byte)(address >>> 8);
 	}
 	
 	/**
@@ -159,7 +185,7 @@ public final class XBee16BitAddress {
 	 * @return Address low significant byte.
 	 */
 	public int getLsb() {
-		return address[1];
+		return (byte)address;
 	}
 	
 	/**
@@ -168,7 +194,37 @@ public final class XBee16BitAddress {
 	 * @return Address value as byte array.
 	 */
 	public byte[] getValue() {
-		return Arrays.copyOf(address, address.length);
+		return new byte[] {(byte)(address >>> 8), (byte)address};
+	}
+	
+	/**
+	 * Returns the 16-bit address value as {@code int}.
+	 * 
+	 * @return Address value as {@code int}, being its high significant byte 
+	 *         the first byte of the address.
+	 * 
+	 * @see #fromInt(int)
+	 */
+	public int toInt() {
+		return address;
+	}
+	
+	/**
+	 * Writes the 2 bytes of this address in the given buffer, high 
+	 * significant byte first, regardless of the byte order of the buffer.
+	 * 
+	 * @param buffer The buffer to write the address in.
+	 * 
+	 * @throws java.nio.BufferOverflowException if there are less than 2 bytes 
+	 *                                          remaining in the buffer.
+	 * @throws NullPointerException if {@code buffer == null}.
+	 */
+	public void writeTo(ByteBuffer buffer) {
+		if (buffer == null)
+			throw new NullPointerException("Buffer cannot be null.");
+		
+		buffer.put((byte)(address >>> 8));
+		buffer.put((byte)address);
 	}
 	
 	/*
@@ -180,7 +236,7 @@ public final class XBee16BitAddress {
 		if (!(obj instanceof XBee16BitAddress))
 			return false;
 		XBee16BitAddress addr = (XBee16BitAddress)obj;
-		return Arrays.equals(addr.getValue(), getValue());
+		return addr.address == address;
 	}
 	
 	/*
@@ -190,8 +246,8 @@ public final class XBee16BitAddress {
 	@Override
 	public int hashCode() {
 		int hash = HASH_SEED;
-		for (byte b:getValue())
-			hash = hash * (hash + b);
+		hash = hash * (hash + (byte)(address >>> 8));
+		hash = hash * (hash + (byte)address);
 		return hash;
 	}
 	
@@ -201,6 +257,38 @@ public final class XBee16BitAddress {
 	 */
 	@Override
 	public String toString() {
-		return HexUtils.byteArrayToHexString(address);
+		char[] hex = new char[MAX_DIGITS];
+		for (int i = 0; i < hex.length; i++)
+			hex[i] = HEX_CHARS.charAt(address >>> (12 - 4 * i) & 0x0F);
+		return new String(hex);
+	}
+	
+	/**
+	 * Parses the given hexadecimal representation of a 16-bit address.
+	 * 
+	 * @param address The string to parse, with an optional {@code 0x} 
+	 *                prefix followed by 1 to 4 hexadecimal digits.
+	 * 
+	 * @return The 16-bit address as {@code int}.
+	 * 
+	 * @throws IllegalArgumentException if {@code address} does not follow 
+	 *                                  the expected format.
+	 */
+	private static int parse(String address) {
+		int start = 0;
+		if (address.length() > 2 && address.charAt(0) == '0' 
+				&& (address.charAt(1) == 'x' || address.charAt(1) == 'X'))
+			start = 2;
+		if (address.length() - start > MAX_DIGITS)
+			throw new IllegalArgumentException("Address must follow this pattern: (0x)XXXX.");
+		
+		int value = 0;
+		for (int i = start; i < address.length(); i++) {
+			int digit = HexUtils.hexCharToInt(address.charAt(i));
+			if (digit < 0)
+				throw new IllegalArgumentException("Address must follow this pattern: (0x)XXXX.");
+			value = value << 4 | digit;
+		}
+		return value;
 	}
 }
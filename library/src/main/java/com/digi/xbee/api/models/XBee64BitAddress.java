@@ -11,7 +11,7 @@
  */
 package com.digi.xbee.api.models;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 
 import com.digi.xbee.api.utils.HexUtils;
 
@@ -20,6 +20,10 @@ import com.digi.xbee.api.utils.HexUtils;
  * 
  * <p>The 64-bit address is a unique device address assigned during 
  * manufacturing. This address is unique to each physical device.</p>
+ * 
+ * <p>The address is stored as a {@code long}, so it can be compared, hashed 
+ * and written without creating any object. Use {@link #fromLong(long)} and 
+ * {@link #toLong()} to convert it from and to its primitive value.</p>
  */
 public final class XBee64BitAddress {
 
@@ -27,28 +31,37 @@ public final class XBee64BitAddress {
 	/**
 	 * 64-bit address reserved for the coordinator (value: 0000000000000000).
 	 */
-	public static final XBee64BitAddress COORDINATOR_ADDRESS = new XBee64BitAddress("0000");
+	public static final XBee64BitAddress COORDINATOR_ADDRESS = new XBee64BitAddress(0x0000000000000000L);
 	/**
 	 * 64-bit broadcast address (value: 000000000000FFFF).
 	 */
-	public static final XBee64BitAddress BROADCAST_ADDRESS = new XBee64BitAddress("FFFF");
+	public static final XBee64BitAddress BROADCAST_ADDRESS = new XBee64BitAddress(0x000000000000FFFFL);
 	/**
 	 * 64-bit unknown address (value: FFFFFFFFFFFFFFFF).
 	 */
-	public static final XBee64BitAddress UNKNOWN_ADDRESS = new XBee64BitAddress("FFFFFFFFFFFFFFFF");
+	public static final XBee64BitAddress UNKNOWN_ADDRESS = new XBee64BitAddress(0xFFFFFFFFFFFFFFFFL);
 	
 	private static final String DEVICE_ID_SEPARATOR = "-";
 	private static final String DEVICE_ID_MAC_SEPARATOR = "FF";
 	
-	/**
-	 * Pattern for the 64-bit address string: {@value}.
-	 */
-	private static final String XBEE_64_BIT_ADDRESS_PATTERN = "(0[xX])?[0-9a-fA-F]{1,16}";
+	private static final String HEX_CHARS = "0123456789ABCDEF";
+	
+	private static final int MAX_DIGITS = 16;
 	
 	private static final int HASH_SEED = 23;
 	
 	// Variables
-	private final byte[] address;
+	private final long address;
+	
+	/**
+	 * Class constructor. Instantiates a new object of type 
+	 * {@code XBee64BitAddress} with the given value.
+	 * 
+	 * @param address The XBee 64-bit address as {@code long}.
+	 */
+	private XBee64BitAddress(long address) {
+		this.address = address;
+	}
 	
 	/**
 	 * Class constructor. Instantiates a new object of type 
@@ -68,12 +81,10 @@ public final class XBee64BitAddress {
 		if (address.length > 8)
 			throw new IllegalArgumentException("Address cannot contain more than 8 bytes.");
 		
-		this.address = new byte[8];
-		int diff = this.address.length - address.length;
-		for (int i = 0; i < diff; i++)
-			this.address[i] = 0;
-		for (int i = diff; i < this.address.length; i++)
-			this.address[i] = address[i - diff];
+		long value = 0;
+		for (int i = 0; i < address.length; i++)
+			value = value << 8 | address[i] & 0xFF;
+		this.address = value;
 	}
 	
 	/**
@@ -96,16 +107,8 @@ public final class XBee64BitAddress {
 			throw new NullPointerException("Address cannot be null.");
 		if (address.length() < 1)
 			throw new IllegalArgumentException("Address must contain at least 1 character.");
-		if (!address.matches(XBEE_64_BIT_ADDRESS_PATTERN))
-			throw new IllegalArgumentException("Address must follow this pattern: (0x)0013A20040XXXXXX.");
 		
-		byte[] byteAddress = HexUtils.hexStringToByteArray(address);
-		this.address = new byte[8];
-		int diff = this.address.length - byteAddress.length;
-		for (int i = 0; i < diff; i++)
-			this.address[i] = 0;
-		for (int i = diff; i < this.address.length; i++)
-			this.address[i] = byteAddress[i - diff];
+		this.address = parse(address);
 	}
 	
 	/**
@@ -157,15 +160,31 @@ public final class XBee64BitAddress {
 		if (b7 > 255 || b7 < 0)
 			throw new IllegalArgumentException("B7 must be between 0 and 255.");
 		
-		address = new byte[8];
-		address[0] = (byte) b0;
-		address[1] = (byte) b1;
-		address[2] = (byte) b2;
-		address[3] = (byte) b3;
-		address[4] = (byte) b4;
-		address[5] = (byte) b5;
-		address[6] = (byte) b6;
-		address[7] = (byte) b7;
+		address = (long)b0 << 56 | (long)b1 << 48 | (long)b2 << 40 | (long)b3 << 32 
+				| (long)b4 << 24 | (long)b5 << 16 | (long)b6 << 8 | b7;
+	}
+	
+	/**
+	 * Returns the {@code XBee64BitAddress} with the given value.
+	 * 
+	 * <p>The coordinator, broadcast and unknown addresses are not 
+	 * instantiated again, the corresponding constant is returned instead.</p>
+	 * 
+	 * @param address The XBee 64-bit address as {@code long}, being its most 
+	 *                significant byte the first byte of the address.
+	 * 
+	 * @return The XBee 64-bit address.
+	 * 
+	 * @see #toLong()
+	 */
+	public static XBee64BitAddress fromLong(long address) {
+		if (address == COORDINATOR_ADDRESS.address)
+			return COORDINATOR_ADDRESS;
+		if (address == BROADCAST_ADDRESS.address)
+			return BROADCAST_ADDRESS;
+		if (address == UNKNOWN_ADDRESS.address)
+			return UNKNOWN_ADDRESS;
+		return new XBee64BitAddress(address);
 	}
 	
 	/**
@@ -174,7 +193,40 @@ public final class XBee64BitAddress {
 	 * @return XBee 64-bit address value as byte array.
 	 */
 	public byte[] getValue() {
-		return Arrays.copyOf(address, address.length);
+		byte[] value = new byte[8];
+		for (int i = 0; i < value.length; i++)
+			value[i] = getByte(i);
+		return value;
+	}
+	
+	/**
+	 * Returns the XBee 64-bit address value as {@code long}.
+	 * 
+	 * @return XBee 64-bit address value as {@code long}, being its most 
+	 *         significant byte the first byte of the address.
+	 * 
+	 * @see #fromLong(long)
+	 */
+	public long toLong() {
+		return address;
+	}
+	
+	/**
+	 * Writes the 8 bytes of this address in the given buffer, most 
+	 * significant byte first, regardless of the byte order of the buffer.
+	 * 
+	 * @param buffer The buffer to write the address in.
+	 * 
+	 * @throws java.nio.BufferOverflowException if there are less than 8 bytes 
+	 *                                          remaining in the buffer.
+	 * @throws NullPointerException if {@code buffer == null}.
+	 */
+	public void writeTo(ByteBuffer buffer) {
+		if (buffer == null)
+			throw new NullPointerException("Buffer cannot be null.");
+		
+		for (int i = 0; i < 8; i++)
+			buffer.put(getByte(i));
 	}
 	
 	/**
@@ -192,13 +244,13 @@ public final class XBee64BitAddress {
 		}
 		// Here we should have "00000000-00000000-"
 		// Append first three bytes of the MAC Address, discard first 2.
-		sb.append(HexUtils.byteArrayToHexString(new byte[]{address[2], address[3], address[4]}));
+		sb.append(HexUtils.byteArrayToHexString(new byte[]{getByte(2), getByte(3), getByte(4)}));
 		sb.append(DEVICE_ID_MAC_SEPARATOR);
 		sb.append(DEVICE_ID_SEPARATOR);
 		sb.append(DEVICE_ID_MAC_SEPARATOR);
 		// Here we should have "00000000-00000000-XXXXXXFF-FF"
 		// Append second three bytes of the MAC Address.
-		sb.append(HexUtils.byteArrayToHexString(new byte[]{address[5], address[6], address[7]}));
+		sb.append(HexUtils.byteArrayToHexString(new byte[]{getByte(5), getByte(6), getByte(7)}));
 		return sb.toString();
 	}
 	
@@ -211,7 +263,7 @@ public final class XBee64BitAddress {
 		if (!(obj instanceof XBee64BitAddress))
 			return false;
 		XBee64BitAddress addr = (XBee64BitAddress)obj;
-		return Arrays.equals(addr.getValue(), getValue());
+		return addr.address == address;
 	}
 	
 	/*
@@ -221,8 +273,8 @@ public final class XBee64BitAddress {
 	@Override
 	public int hashCode() {
 		int hash = HASH_SEED;
-		for (byte b:getValue())
-			hash = hash * (hash + b);
+		for (int i = 0; i < 8; i++)
+			hash = hash * (hash + getByte(i));
 		return hash;
 	}
 	
@@ -232,6 +284,50 @@ public final class XBee64BitAddress {
 	 */
 	@Override
 	public String toString() {
-		return HexUtils.byteArrayToHexString(address);
+		char[] hex = new char[MAX_DIGITS];
+		for (int i = 0; i < hex.length; i++)
+			hex[i] = HEX_CHARS.charAt((int)(address >>> (60 - 4 * i)) & 0x0F);
+		return new String(hex);
+	}
+	
+	/**
+	 * Returns the byte of the address at the given position.
+	 * 
+	 * @param index The position of the byte, being 0 the most significant 
+	 *              one.
+	 * 
+	 * @return The byte of the address.
+	 */
+	private byte getByte(int index) {
+		return (byte)(address >>> (56 - 8 * index));
+	}
+	
+	/**
+	 * Parses the given hexadecimal representation of a 64-bit address.
+	 * 
+	 * @param address The string to parse, with an optional {@code 0x} 
+	 *                prefix followed by 1 to 16 hexadecimal digits.
+	 * 
+	 * @return The XBee 64-bit address as {@code long}.
+	 * 
+	 * @throws IllegalArgumentException if {@code address} does not follow 
+	 *                                  the expected format.
+	 */
+	private static long parse(String address) {
+		int start = 0;
+		if (address.length() > 2 && address.charAt(0) == '0' 
+				&& (address.charAt(1) == 'x' || address.charAt(1) == 'X'))
+			start = 2;
+		if (address.length() - start > MAX_DIGITS)
+			throw new IllegalArgumentException("Address must follow this pattern: (0x)0013A20040XXXXXX.");
+		
+		long value = 0;
+		for (int i = start; i < address.length(); i++) {
+			int digit = HexUtils.hexCharToInt(address.charAt(i));
+			if (digit < 0)
+				throw new IllegalArgumentException("Address must follow this pattern: (0x)0013A20040XXXXXX.");
+			value = value << 4 | digit;
+		}
+		return value;
 	}
 }
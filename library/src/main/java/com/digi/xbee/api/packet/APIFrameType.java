@@ -51,10 +51,16 @@ public enum APIFrameType {
 	private final String name;
 	
 	private static final HashMap<Integer, APIFrameType> lookupTable = new HashMap<Integer, APIFrameType>();
+	// Frame types indexed by their byte value, so the reader does not need to 
+	// box the frame type of every received frame to look it up.
+	private static final APIFrameType[] byteLookupTable = new APIFrameType[256];
 	
 	static {
-		for (APIFrameType type:values())
+		for (APIFrameType type:values()) {
 			lookupTable.put(type.getValue(), type);
+			if (type.getValue() >= 0 && type.getValue() <= 0xFF)
+				byteLookupTable[type.getValue()] = type;
+		}
 	}
 	
 	/**
@@ -78,7 +84,11 @@ public enum APIFrameType {
 	 *         if it does not supported.
 	 */
 	public static APIFrameType get(int value) {
-		APIFrameType type = lookupTable.get(value);
+		APIFrameType type;
+		if (value >= 0 && value <= 0xFF)
+			type = byteLookupTable[value];
+		else
+			type = lookupTable.get(value);
 		if (type == null)
 			return UNKNOWN;
 		return type; 
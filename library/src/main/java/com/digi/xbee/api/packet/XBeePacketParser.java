@@ -14,6 +14,7 @@ package com.digi.xbee.api.packet;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Date;
 
 import com.digi.xbee.api.exceptions.InvalidPacketException;
@@ -135,6 +136,13 @@ import com.digi.xbee.api.utils.HexUtils;
  */
 public class XBeePacketParser {
 	
+	// Constants.
+	/**
+	 * Maximum number of bytes of frame data that an API frame can contain 
+	 * (value: {@value}), as the length field is 2 bytes long.
+	 */
+	public static final int MAX_FRAME_DATA_LENGTH = 0xFFFF;
+	
 	/**
 	 * Parses the bytes from the given input stream depending on the provided 
 	 * operating mode and returns the API packet.
@@ -245,6 +253,123 @@ public class XBeePacketParser {
 		return parsePacket(new ByteArrayInputStream(packetByteArray, 1, packetByteArray.length - 1), mode);
 	}
 	
+	/**
+	 * Reads a complete API frame from the given input stream depending on the 
+	 * provided operating mode and stores its frame data (API frame type 
+	 * followed by the frame specific data, already unescaped) in the given 
+	 * buffer, starting at position 0.
+	 * 
+	 * <p>This method must be called once the start delimiter has been read. 
+	 * The length and the checksum of the frame are verified, but the frame 
+	 * data is not decoded, so no packet object is created. This allows the 
+	 * same buffer to be reused for every received frame.</p>
+	 * 
+	 * <p>The operating mode must be {@link OperatingMode#API} or 
+	 * {@link OperatingMode#API_ESCAPE}.</p>
+	 * 
+	 * @param inputStream Input stream to read bytes from.
+	 * @param mode XBee device operating mode.
+	 * @param buffer Buffer to store the frame data in. It should be at least 
+	 *               {@link #MAX_FRAME_DATA_LENGTH} bytes long.
+	 * 
+	 * @return The number of bytes of frame data stored in the buffer.
+	 * 
+	 * @throws IllegalArgumentException if {@code mode != OperatingMode.API } and
+	 *                              if {@code mode != OperatingMode.API_ESCAPE}.
+	 * @throws InvalidPacketException if there is not enough data in the stream or 
+	 *                                if the frame does not fit in the buffer or
+	 *                                if there is an error verifying the checksum.
+	 * @throws NullPointerException if {@code inputStream == null} or 
+	 *                              if {@code mode == null} or
+	 *                              if {@code buffer == null}.
+	 * 
+	 * @see #parsePayload(byte[], int, int)
+	 * @see com.digi.xbee.api.models.OperatingMode#API
+	 * @see com.digi.xbee.api.models.OperatingMode#API_ESCAPE
+	 */
+	public int readFrame(InputStream inputStream, OperatingMode mode, byte[] buffer) throws InvalidPacketException {
+		if (inputStream == null)
+			throw new NullPointerException("Input stream cannot be null.");
+		
+		if (mode == null)
+			throw new NullPointerException("Operating mode cannot be null.");
+		
+		if (buffer == null)
+			throw new NullPointerException("Buffer cannot be null.");
+		
+		if (mode != OperatingMode.API && mode != OperatingMode.API_ESCAPE)
+			throw new IllegalArgumentException("Operating mode must be API or API Escaped.");
+		
+		try {
+			// Read packet size.
+			int hSize = readByte(inputStream, mode);
+			int lSize = readByte(inputStream, mode);
+			int length = hSize << 8 | lSize;
+			
+			if (length > buffer.length)
+				throw new InvalidPacketException("Error parsing packet: Frame length (" 
+							+ length + ") exceeds the buffer size.");
+			
+			// Read the frame data into the buffer calculating the checksum.
+			int sum = 0;
+			for (int i = 0; i < length; i++) {
+				int b = readByte(inputStream, mode);
+				buffer[i] = (byte)b;
+				sum += b;
+			}
+			byte expectedChecksum = (byte)(0xFF - (sum & 0xFF));
+			
+			// Read checksum from the input stream.
+			byte readChecksum = (byte)(readByte(inputStream, mode) & 0xFF);
+			
+			// Verify the checksum of the read bytes.
+			if (readChecksum != expectedChecksum)
+				throw new InvalidPacketException("Invalid checksum (expected 0x" 
+							+ HexUtils.byteToHexString(expectedChecksum) + ").");
+			
+			return length;
+			
+		} catch (IOException e) {
+			throw new InvalidPacketException("Error parsing packet: " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Parses the API payload contained in the given range of the buffer to 
+	 * get the right API packet, depending on its API type 
+	 * ({@code buffer[offset]}).
+	 * 
+	 * @param buffer Buffer containing the payload of the API frame.
+	 * @param offset Position of the first byte of the payload.
+	 * @param length Number of bytes of the payload.
+	 * 
+	 * @return The corresponding API packet or {@code UnknownXBeePacket} if 
+	 *         the frame API type is unknown.
+	 * 
+	 * @throws IllegalArgumentException if {@code offset < 0} or
+	 *                                  if {@code length < 1} or
+	 *                                  if {@code offset + length > buffer.length}.
+	 * @throws InvalidPacketException if the payload is invalid for the 
+	 *                                specified frame type.
+	 * @throws NullPointerException if {@code buffer == null}.
+	 * 
+	 * @see #readFrame(InputStream, OperatingMode, byte[])
+	 * @see APIFrameType
+	 * @see XBeePacket
+	 */
+	public XBeePacket parsePayload(byte[] buffer, int offset, int length) throws InvalidPacketException {
+		if (buffer == null)
+			throw new NullPointerException("Buffer cannot be null.");
+		if (offset < 0)
+			throw new IllegalArgumentException("Offset cannot be negative.");
+		if (length < 1)
+			throw new IllegalArgumentException("Length must be greater than 0.");
+		if (offset + length > buffer.length)
+			throw new IllegalArgumentException("Offset plus length cannot exceed the buffer length.");
+		
+		return parsePayload(Arrays.copyOfRange(buffer, offset, offset + length));
+	}
+	
 	/**
 	 * Parses the given API payload to get the right API packet, depending 
 	 * on its API type ({@code payload[0]}).
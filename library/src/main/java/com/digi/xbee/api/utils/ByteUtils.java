@@ -425,4 +425,36 @@ public class ByteUtils {
 			swapped[source.length - i - 1] = source[i];
 		return swapped;
 	}
+	
+	/**
+	 * Returns whether the given byte arrays represent the same value, 
+	 * ignoring the leading zeros of both of them.
+	 * 
+	 * <p>XBee devices return the numeric parameters without leading zeros, 
+	 * so {@code 00 12 34} and {@code 12 34} are the same value.</p>
+	 * 
+	 * @param value1 First value.
+	 * @param value2 Second value.
+	 * 
+	 * @return {@code true} if both arrays represent the same value or both are 
+	 *         {@code null}, {@code false} otherwise.
+	 */
+	public static boolean isSameValue(byte[] value1, byte[] value2) {
+		if (value1 == null || value2 == null)
+			return value1 == value2;
+		
+		int i = 0;
+		while (i < value1.length && value1[i] == 0)
+			i++;
+		int j = 0;
+		while (j < value2.length && value2[j] == 0)
+			j++;
+		if (value1.length - i != value2.length - j)
+			return false;
+		for (; i < value1.length; i++, j++) {
+			if (value1[i] != value2[j])
+				return false;
+		}
+		return true;
+	}
 }
@@ -90,6 +90,27 @@ public class HexUtils {
 		return data;
 	}
 	
+	/**
+	 * Converts the given hexadecimal character into its value.
+	 * 
+	 * <p>Unlike {@link Character#digit(char, int)}, only the ASCII characters 
+	 * {@code 0-9}, {@code a-f} and {@code A-F} are accepted.</p>
+	 * 
+	 * @param value Hexadecimal character to convert.
+	 * 
+	 * @return The value of the character (0 - 15), {@code -1} if it is not an 
+	 *         hexadecimal character.
+	 */
+	public static int hexCharToInt(char value) {
+		if (value >= '0' && value <= '9')
+			return value - '0';
+		if (value >= 'a' && value <= 'f')
+			return value - 'a' + 10;
+		if (value >= 'A' && value <= 'F')
+			return value - 'A' + 10;
+		return -1;
+	}
+	
 	/**
 	 * Checks whether the given parameter is a string or a numeric value.
 	 * 
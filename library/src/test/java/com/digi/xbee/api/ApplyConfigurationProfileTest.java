@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.powermock.api.mockito.PowerMockito;
+
+import com.digi.xbee.api.connection.serial.SerialPortRxTx;
+import com.digi.xbee.api.exceptions.ATCommandException;
+import com.digi.xbee.api.models.ATCommand;
+import com.digi.xbee.api.models.ATCommandResponse;
+import com.digi.xbee.api.models.ATCommandStatus;
+import com.digi.xbee.api.models.ConfigurationProfile;
+import com.digi.xbee.api.models.OperatingMode;
+
+public class ApplyConfigurationProfileTest {
+	
+	// Constants.
+	private static final String PARAM_NI = "NI";
+	private static final String PARAM_ID = "ID";
+	private static final String PARAM_SP = "SP";
+	
+	// Variables.
+	private SerialPortRxTx mockedPort;
+	private XBeeDevice xbeeDevice;
+	
+	private HashMap<String, byte[]> deviceValues;
+	private List<List<ATCommand>> writes;
+	private List<Boolean> applies;
+	private ATCommandStatus writeStatus;
+	
+	@Before
+	public void setup() throws Exception {
+		// Mock an RxTx IConnectionInterface.
+		mockedPort = Mockito.mock(SerialPortRxTx.class);
+		Mockito.when(mockedPort.isOpen()).thenReturn(true);
+		
+		// Instantiate an XBeeDevice object with basic parameters.
+		xbeeDevice = PowerMockito.spy(new XBeeDevice(mockedPort));
+		Mockito.when(xbeeDevice.getOperatingMode()).thenReturn(OperatingMode.API);
+		Mockito.doNothing().when(xbeeDevice).writeChanges();
+		
+		deviceValues = new HashMap<String, byte[]>();
+		deviceValues.put(PARAM_NI, "Yoda".getBytes());
+		deviceValues.put(PARAM_ID, new byte[]{0x7F, (byte)0xFF});
+		deviceValues.put(PARAM_SP, new byte[]{0x20});
+		writes = new ArrayList<List<ATCommand>>();
+		applies = new ArrayList<Boolean>();
+		writeStatus = ATCommandStatus.OK;
+		
+		// Answer the reads with the values of the device and record the writes.
+		Mockito.doAnswer(new Answer<List<ATCommandResponse>>() {
+			@SuppressWarnings("unchecked")
+			public List<ATCommandResponse> answer(InvocationOnMock invocation) throws Throwable {
+				List<ATCommand> commands = (List<ATCommand>)invocation.getArguments()[0];
+				ArrayList<ATCommandResponse> responses = new ArrayList<ATCommandResponse>();
+				if (!commands.isEmpty() && commands.get(0).getParameter() != null) {
+					writes.add(new ArrayList<ATCommand>(commands));
+					applies.add((Boolean)invocation.getArguments()[1]);
+					for (ATCommand command : commands)
+						responses.add(new ATCommandResponse(command, null, writeStatus));
+				} else {
+					for (ATCommand command : commands)
+						responses.add(new ATCommandResponse(command, deviceValues.get(command.getCommand()), ATCommandStatus.OK));
+				}
+				return responses;
+			}
+		}).when(xbeeDevice).sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#applyConfigurationProfile(ConfigurationProfile, boolean)}.
+	 * 
+	 * <p>Verify that nothing is sent when the device already has the values of the profile, 
+	 * even if they are written with a different length.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testApplyConfigurationProfileNoChanges() throws Exception {
+		// Setup the resources for the test.
+		ConfigurationProfile profile = new ConfigurationProfile();
+		profile.setParameter(PARAM_NI, "Yoda");
+		profile.setParameter(PARAM_SP, new byte[]{0x00, 0x20});
+		
+		// Call the method under test.
+		List<String> changes = xbeeDevice.applyConfigurationProfile(profile, true);
+		
+		// Verify the result.
+		assertThat(changes, is(equalTo(Collections.<String>emptyList())));
+		assertTrue(writes.isEmpty());
+		Mockito.verify(xbeeDevice, Mockito.never()).writeChanges();
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#applyConfigurationProfile(ConfigurationProfile, boolean)}.
+	 * 
+	 * <p>Verify that only the different parameters are sent, and that the changes are 
+	 * applied with the last of them.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testApplyConfigurationProfileChanges() throws Exception {
+		// Setup the resources for the test.
+		ConfigurationProfile profile = new ConfigurationProfile();
+		profile.setParameter(PARAM_NI, "Yoda");
+		profile.setParameter(PARAM_ID, new byte[]{0x12, 0x34});
+		profile.setParameter(PARAM_SP, new byte[]{0x40});
+		
+		// Call the method under test.
+		List<String> changes = xbeeDevice.applyConfigurationProfile(profile, true);
+		
+		// Verify the result.
+		assertThat(changes, is(equalTo(Arrays.asList(PARAM_ID, PARAM_SP))));
+		assertThat(writes.size(), is(equalTo(2)));
+		assertThat(writes.get(0).get(0).getCommand(), is(equalTo(PARAM_ID)));
+		assertThat(writes.get(1).get(0).getCommand(), is(equalTo(PARAM_SP)));
+		assertThat(applies, is(equalTo(Arrays.asList(false, true))));
+		Mockito.verify(xbeeDevice, Mockito.times(1)).writeChanges();
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#applyConfigurationProfile(ConfigurationProfile, boolean)}.
+	 * 
+	 * <p>Verify that an {@code ATCommandException} is thrown and the changes are not written 
+	 * when the device rejects a value.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testApplyConfigurationProfileInvalidValue() throws Exception {
+		// Setup the resources for the test.
+		ConfigurationProfile profile = new ConfigurationProfile();
+		profile.setParameter(PARAM_SP, new byte[]{0x40});
+		writeStatus = ATCommandStatus.INVALID_PARAMETER;
+		
+		// Call the method under test.
+		try {
+			xbeeDevice.applyConfigurationProfile(profile, true);
+			fail("An ATCommandException should have been thrown.");
+		} catch (ATCommandException e) {
+			// Expected.
+		}
+		
+		// Verify the result.
+		Mockito.verify(xbeeDevice, Mockito.never()).writeChanges();
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#applyConfigurationProfile(ConfigurationProfile, boolean)}.
+	 * 
+	 * <p>Verify that a {@code NullPointerException} is thrown when the profile is 
+	 * {@code null}.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test(expected=NullPointerException.class)
+	public void testApplyConfigurationProfileNull() throws Exception {
+		xbeeDevice.applyConfigurationProfile(null, false);
+	}
+}
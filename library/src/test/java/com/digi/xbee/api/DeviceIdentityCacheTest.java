@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileWriter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import com.digi.xbee.api.models.HardwareVersion;
+import com.digi.xbee.api.models.OperatingMode;
+import com.digi.xbee.api.models.XBee64BitAddress;
+import com.digi.xbee.api.models.XBeeProtocol;
+
+public class DeviceIdentityCacheTest {
+	
+	// Constants.
+	private static final String PORT = "COM1";
+	
+	private static final XBee64BitAddress ADDR_64 = new XBee64BitAddress("0013A20040A9E77E");
+	
+	private static final String FIRMWARE_VERSION = "23A7";
+	
+	// Variables.
+	private File cacheFile;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Before
+	public void setUp() throws Exception {
+		cacheFile = new File(folder.getRoot(), "identities.properties");
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.DeviceIdentityCache#DeviceIdentityCache(File)}.
+	 * 
+	 * <p>Verify that the stored identities are loaded after creating the cache again with 
+	 * the same file.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testLoadStoredIdentity() throws Exception {
+		// Setup the resources for the test.
+		DeviceIdentityCache cache = new DeviceIdentityCache(cacheFile);
+		cache.put(PORT, createDevice(OperatingMode.API_ESCAPE, ADDR_64, FIRMWARE_VERSION));
+		
+		// Call the method under test.
+		DeviceIdentityCache.Identity identity = new DeviceIdentityCache(cacheFile).get(PORT);
+		
+		// Verify the result.
+		assertThat(identity.operatingMode, is(equalTo(OperatingMode.API_ESCAPE)));
+		assertThat(identity.address64, is(equalTo(ADDR_64)));
+		assertThat(identity.hardwareVersion, is(equalTo(HardwareVersion.get(0x19))));
+		assertThat(identity.firmwareVersion, is(equalTo(FIRMWARE_VERSION)));
+		assertThat(identity.protocol, is(equalTo(XBeeProtocol.ZIGBEE)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.DeviceIdentityCache#put(String, XBeeDevice)}.
+	 * 
+	 * <p>Verify that the identity of a device that is not completely known is not 
+	 * stored.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testPutIncompleteIdentity() throws Exception {
+		// Setup the resources for the test.
+		DeviceIdentityCache cache = new DeviceIdentityCache(cacheFile);
+		
+		// Call the method under test.
+		cache.put(PORT, createDevice(OperatingMode.API, XBee64BitAddress.UNKNOWN_ADDRESS, FIRMWARE_VERSION));
+		cache.put(PORT, createDevice(OperatingMode.AT, ADDR_64, FIRMWARE_VERSION));
+		cache.put(PORT, createDevice(OperatingMode.API, ADDR_64, null));
+		
+		// Verify the result.
+		assertThat(cache.contains(PORT), is(equalTo(false)));
+		assertThat(cacheFile.exists(), is(equalTo(false)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.DeviceIdentityCache#remove(String)}.
+	 * 
+	 * <p>Verify that a removed identity is not loaded again.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testRemove() throws Exception {
+		// Setup the resources for the test.
+		DeviceIdentityCache cache = new DeviceIdentityCache(cacheFile);
+		cache.put(PORT, createDevice(OperatingMode.API, ADDR_64, FIRMWARE_VERSION));
+		
+		// Call the method under test.
+		cache.remove(PORT);
+		
+		// Verify the result.
+		assertThat(cache.size(), is(equalTo(0)));
+		assertThat(new DeviceIdentityCache(cacheFile).get(PORT), is(nullValue()));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.DeviceIdentityCache#DeviceIdentityCache(File)}.
+	 * 
+	 * <p>Verify that the invalid identities of the file are ignored.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testLoadInvalidIdentity() throws Exception {
+		// Setup the resources for the test.
+		FileWriter writer = new FileWriter(cacheFile);
+		writer.write("COM2.mode=API\nCOM2.address=0013A20040A9E77E\nCOM2.hardware=zz\n"
+				+ "COM2.firmware=23A7\nCOM2.protocol=ZIGBEE\n");
+		writer.close();
+		
+		// Call the method under test.
+		DeviceIdentityCache cache = new DeviceIdentityCache(cacheFile);
+		
+		// Verify the result.
+		assertThat(cache.size(), is(equalTo(0)));
+	}
+	
+	/**
+	 * Creates a mocked local device with the given identity.
+	 * 
+	 * @param operatingMode The operating mode.
+	 * @param address64 The 64-bit address.
+	 * @param firmwareVersion The firmware version.
+	 * 
+	 * @return The mocked device.
+	 */
+	private XBeeDevice createDevice(OperatingMode operatingMode, XBee64BitAddress address64, String firmwareVersion) {
+		XBeeDevice device = Mockito.mock(XBeeDevice.class);
+		Mockito.when(device.getOperatingMode()).thenReturn(operatingMode);
+		Mockito.when(device.get64BitAddress()).thenReturn(address64);
+		Mockito.when(device.getHardwareVersion()).thenReturn(HardwareVersion.get(0x19));
+		Mockito.when(device.getFirmwareVersion()).thenReturn(firmwareVersion);
+		Mockito.when(device.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		return device;
+	}
+}
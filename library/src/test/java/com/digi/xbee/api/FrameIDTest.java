@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.powermock.api.mockito.PowerMockito;
+
+import com.digi.xbee.api.connection.serial.SerialPortRxTx;
+import com.digi.xbee.api.listeners.IPacketReceiveListener;
+import com.digi.xbee.api.models.ATCommand;
+import com.digi.xbee.api.models.ATCommandResponse;
+import com.digi.xbee.api.models.ATCommandStatus;
+import com.digi.xbee.api.models.OperatingMode;
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+import com.digi.xbee.api.packet.XBeePacket;
+import com.digi.xbee.api.packet.common.RemoteATCommandPacket;
+import com.digi.xbee.api.packet.common.RemoteATCommandResponsePacket;
+
+public class FrameIDTest {
+	
+	// Constants.
+	private static final XBee64BitAddress ADDRESS_A = new XBee64BitAddress("0013A20040000001");
+	private static final XBee64BitAddress ADDRESS_B = new XBee64BitAddress("0013A20040000002");
+	
+	// Variables.
+	private SerialPortRxTx mockedPort;
+	private XBeeDevice xbeeDevice;
+	
+	private IPacketReceiveListener listener;
+	
+	@Before
+	public void setup() throws Exception {
+		// Mock an RxTx IConnectionInterface.
+		mockedPort = Mockito.mock(SerialPortRxTx.class);
+		Mockito.when(mockedPort.isOpen()).thenReturn(true);
+		
+		// Instantiate an XBeeDevice object with basic parameters.
+		xbeeDevice = PowerMockito.spy(new XBeeDevice(mockedPort));
+		Mockito.when(xbeeDevice.getOperatingMode()).thenReturn(OperatingMode.API);
+		
+		// Keep the packet listener to deliver the answers.
+		Mockito.doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				listener = (IPacketReceiveListener)invocation.getArguments()[0];
+				return null;
+			}
+		}).when(xbeeDevice).addPacketListener(Mockito.any(IPacketReceiveListener.class));
+		Mockito.doNothing().when(xbeeDevice).removePacketListener(Mockito.any(IPacketReceiveListener.class));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#reserveFrameIDs(int)}.
+	 * 
+	 * <p>Verify that the reserved frame IDs are not given to other packets until they are
+	 * released.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReserveFrameIDs() throws Exception {
+		// Setup the resources for the test.
+		int[] reserved = xbeeDevice.reserveFrameIDs(2);
+		
+		// Call the method under test.
+		Set<Integer> frameIDs = new HashSet<Integer>();
+		for (int i = 0; i < 0x200; i++)
+			frameIDs.add(xbeeDevice.getNextFrameID());
+		
+		// Verify the result.
+		assertThat(frameIDs.size(), is(equalTo(0xFF - 2)));
+		assertFalse(frameIDs.contains(reserved[0]));
+		assertFalse(frameIDs.contains(reserved[1]));
+		assertFalse(frameIDs.contains(0));
+		
+		xbeeDevice.releaseFrameIDs(reserved);
+		frameIDs.clear();
+		for (int i = 0; i < 0x200; i++)
+			frameIDs.add(xbeeDevice.getNextFrameID());
+		assertThat(frameIDs.size(), is(equalTo(0xFF)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#reserveFrameIDs(int)}.
+	 * 
+	 * <p>Verify that reserving frame IDs waits until enough of them are released.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReserveFrameIDsWaitsForRelease() throws Exception {
+		// Setup the resources for the test.
+		final int[] reserved = xbeeDevice.reserveFrameIDs(0xFF);
+		new Thread() {
+			public void run() {
+				try {
+					Thread.sleep(500);
+				} catch (InterruptedException e) { }
+				xbeeDevice.releaseFrameIDs(new int[]{reserved[10]});
+			}
+		}.start();
+		
+		// Call the method under test.
+		long start = System.currentTimeMillis();
+		int[] frameIDs = xbeeDevice.reserveFrameIDs(1);
+		
+		// Verify the result.
+		assertTrue(System.currentTimeMillis() - start >= 400);
+		assertThat(frameIDs[0], is(equalTo(reserved[10])));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#reserveFrameIDs(int)}.
+	 * 
+	 * <p>Verify that an {@code IllegalArgumentException} is thrown when the number of frame IDs
+	 * to reserve is not valid.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testReserveFrameIDsInvalidCount() throws Exception {
+		xbeeDevice.reserveFrameIDs(0);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#sendATCommands(List, boolean, int)}.
+	 * 
+	 * <p>Verify that the answers of other remote devices with the same frame ID and command are
+	 * not stored as the answers of the remote device.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testSendATCommandsRemoteOtherDeviceAnswer() throws Exception {
+		// Setup the resources for the test.
+		RemoteXBeeDevice remoteDevice = new RemoteXBeeDevice(xbeeDevice, ADDRESS_A);
+		
+		// Answer each command first from other device and then from the remote one.
+		Mockito.doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				RemoteATCommandPacket packet = (RemoteATCommandPacket)invocation.getArguments()[0];
+				listener.packetReceived(new RemoteATCommandResponsePacket(packet.getFrameID(), ADDRESS_B,
+						XBee16BitAddress.UNKNOWN_ADDRESS, packet.getCommand(), ATCommandStatus.OK, "B".getBytes()));
+				listener.packetReceived(new RemoteATCommandResponsePacket(packet.getFrameID(), ADDRESS_A,
+						XBee16BitAddress.UNKNOWN_ADDRESS, packet.getCommand(), ATCommandStatus.OK, "A".getBytes()));
+				return null;
+			}
+		}).when(xbeeDevice).sendXBeePacketAsync(Mockito.any(XBeePacket.class));
+		
+		// Call the method under test.
+		List<ATCommandResponse> responses = remoteDevice.sendATCommands(
+				Arrays.asList(new ATCommand("NI"), new ATCommand("VR")), false, 1000);
+		
+		// Verify the result.
+		assertThat(responses.size(), is(equalTo(2)));
+		assertArrayEquals("A".getBytes(), responses.get(0).getResponse());
+		assertArrayEquals("A".getBytes(), responses.get(1).getResponse());
+	}
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+
+import com.digi.xbee.api.connection.serial.SerialPortRxTx;
+import com.digi.xbee.api.exceptions.ATCommandException;
+import com.digi.xbee.api.exceptions.InterfaceNotOpenException;
+import com.digi.xbee.api.exceptions.TimeoutException;
+import com.digi.xbee.api.exceptions.XBeeException;
+import com.digi.xbee.api.models.ATCommand;
+import com.digi.xbee.api.models.ATCommandResponse;
+import com.digi.xbee.api.models.ATCommandStatus;
+import com.digi.xbee.api.models.OperatingMode;
+
+public class GetParametersTest {
+	
+	// Constants
+	private static final String PARAM_NI = "NI";
+	private static final String PARAM_VR = "VR";
+	private static final byte[] VALUE_NI = "Yoda".getBytes();
+	private static final byte[] VALUE_VR = new byte[]{0x23, (byte)0xA7};
+	
+	// Variables.
+	private SerialPortRxTx mockedPort;
+	private XBeeDevice xbeeDevice;
+	
+	@Before
+	public void setup() {
+		// Mock an RxTx IConnectionInterface.
+		mockedPort = Mockito.mock(SerialPortRxTx.class);
+		Mockito.when(mockedPort.isOpen()).thenReturn(true);
+		
+		// Instantiate an XBeeDevice object with basic parameters.
+		xbeeDevice = PowerMockito.spy(new XBeeDevice(mockedPort));
+		Mockito.when(xbeeDevice.getOperatingMode()).thenReturn(OperatingMode.API);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#getParameters(String...)}.
+	 * 
+	 * <p>Verify that if any parameter is not valid, an {@code IllegalArgumentException} is 
+	 * thrown and no command is sent.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetParametersInvalidParameter() throws Exception {
+		try {
+			xbeeDevice.getParameters(PARAM_NI, "N");
+			fail("An IllegalArgumentException should have been thrown.");
+		} catch (IllegalArgumentException e) {
+			// Expected.
+		}
+		
+		Mockito.verify(xbeeDevice, Mockito.never()).sendATCommands(Mockito.anyListOf(ATCommand.class));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#getParameters(String...)}.
+	 * 
+	 * <p>Verify that an {@code InterfaceNotOpenException} is thrown when trying to get the 
+	 * parameters with the connection closed.</p>
+	 * 
+	 * @throws XBeeException 
+	 */
+	@Test(expected=InterfaceNotOpenException.class)
+	public void testGetParametersConnectionClosed() throws XBeeException {
+		// Configure the connection to indicate it is closed when asked.
+		Mockito.when(mockedPort.isOpen()).thenReturn(false);
+		
+		xbeeDevice.getParameters(PARAM_NI, PARAM_VR);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#getParameters(String...)}.
+	 * 
+	 * <p>Verify that all the parameters are sent in a single batch and their values are 
+	 * returned in the same order.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetParametersSuccess() throws Exception {
+		// Setup the resources for the test.
+		Mockito.doReturn(Arrays.asList(
+				new ATCommandResponse(new ATCommand(PARAM_NI), VALUE_NI, ATCommandStatus.OK),
+				new ATCommandResponse(new ATCommand(PARAM_VR), VALUE_VR, ATCommandStatus.OK)))
+				.when(xbeeDevice).sendATCommands(Mockito.anyListOf(ATCommand.class));
+		
+		// Call the method under test.
+		Map<String, byte[]> values = xbeeDevice.getParameters(PARAM_NI, PARAM_VR);
+		
+		// Verify the result.
+		assertThat(new ArrayList<String>(values.keySet()), is(equalTo(Arrays.asList(PARAM_NI, PARAM_VR))));
+		assertArrayEquals(VALUE_NI, values.get(PARAM_NI));
+		assertArrayEquals(VALUE_VR, values.get(PARAM_VR));
+		
+		Mockito.verify(xbeeDevice, Mockito.times(1)).sendATCommands(Mockito.anyListOf(ATCommand.class));
+		Mockito.verify(xbeeDevice, Mockito.never()).sendATCommand((ATCommand)Mockito.any());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#getParameters(String...)}.
+	 * 
+	 * <p>Verify that a {@code TimeoutException} is thrown when one of the parameters is not 
+	 * answered.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test(expected=TimeoutException.class)
+	public void testGetParametersTimeout() throws Exception {
+		// Setup the resources for the test.
+		List<ATCommandResponse> responses = new ArrayList<ATCommandResponse>();
+		responses.add(new ATCommandResponse(new ATCommand(PARAM_NI), VALUE_NI, ATCommandStatus.OK));
+		responses.add(null);
+		Mockito.doReturn(responses).when(xbeeDevice).sendATCommands(Mockito.anyListOf(ATCommand.class));
+		
+		// Call the method under test.
+		xbeeDevice.getParameters(PARAM_NI, PARAM_VR);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#getParameters(String...)}.
+	 * 
+	 * <p>Verify that an {@code ATCommandException} is thrown when one of the parameters is 
+	 * answered with an error status.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test(expected=ATCommandException.class)
+	public void testGetParametersInvalidStatus() throws Exception {
+		// Setup the resources for the test.
+		Mockito.doReturn(Arrays.asList(
+				new ATCommandResponse(new ATCommand(PARAM_NI), VALUE_NI, ATCommandStatus.OK),
+				new ATCommandResponse(new ATCommand(PARAM_VR), null, ATCommandStatus.INVALID_COMMAND)))
+				.when(xbeeDevice).sendATCommands(Mockito.anyListOf(ATCommand.class));
+		
+		// Call the method under test.
+		xbeeDevice.getParameters(PARAM_NI, PARAM_VR);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#readParameters(String...)}.
+	 * 
+	 * <p>Verify that only the parameters answered successfully are returned.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReadParametersPartial() throws Exception {
+		// Setup the resources for the test.
+		List<ATCommandResponse> responses = new ArrayList<ATCommandResponse>();
+		responses.add(new ATCommandResponse(new ATCommand(PARAM_NI), VALUE_NI, ATCommandStatus.OK));
+		responses.add(null);
+		Mockito.doReturn(responses).when(xbeeDevice).sendATCommands(Mockito.anyListOf(ATCommand.class));
+		
+		// Call the method under test.
+		Map<String, byte[]> values = xbeeDevice.readParameters(PARAM_NI, PARAM_VR);
+		
+		// Verify the result.
+		assertThat(values.size(), is(equalTo(1)));
+		assertArrayEquals(VALUE_NI, values.get(PARAM_NI));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#readParameters(String...)}.
+	 * 
+	 * <p>Verify that a {@code TimeoutException} is thrown when none of the parameters is 
+	 * answered.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test(expected=TimeoutException.class)
+	public void testReadParametersTimeout() throws Exception {
+		// Setup the resources for the test.
+		List<ATCommandResponse> responses = new ArrayList<ATCommandResponse>();
+		responses.add(null);
+		responses.add(null);
+		Mockito.doReturn(responses).when(xbeeDevice).sendATCommands(Mockito.anyListOf(ATCommand.class));
+		
+		// Call the method under test.
+		xbeeDevice.readParameters(PARAM_NI, PARAM_VR);
+	}
+}
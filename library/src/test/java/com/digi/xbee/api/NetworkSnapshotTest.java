@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import com.digi.xbee.api.connection.IConnectionInterface;
+import com.digi.xbee.api.models.HardwareVersion;
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+import com.digi.xbee.api.models.XBeeProtocol;
+
+public class NetworkSnapshotTest {
+	
+	// Constants.
+	private static final int CAPACITY = 300;
+	
+	private static final XBee64BitAddress ADDR_64 = new XBee64BitAddress("0013A20040A9E77E");
+	private static final XBee16BitAddress ADDR_16 = new XBee16BitAddress("1234");
+	
+	private static final String FIRMWARE_VERSION = "21A7";
+	
+	private static final long LAST_SEEN = 1400000000000L;
+	
+	// Variables.
+	private File snapshotFile;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Before
+	public void setUp() throws Exception {
+		snapshotFile = new File(folder.getRoot(), "network.snapshot");
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.NetworkSnapshot#load()}.
+	 * 
+	 * <p>Verify that the last stored data of every device that was not 
+	 * removed is loaded after reopening the snapshot.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testLoadStoredDevices() throws Exception {
+		// Setup the resources for the test.
+		NetworkSnapshot snapshot = new NetworkSnapshot(snapshotFile, CAPACITY);
+		snapshot.load();
+		RemoteXBeeDevice device = createDevice(ADDR_64, ADDR_16, "OLD");
+		snapshot.deviceChanged(device);
+		Mockito.when(device.getNodeID()).thenReturn("NEW");
+		snapshot.deviceChanged(device);
+		RemoteXBeeDevice removed = createDevice(new XBee64BitAddress("0013A20040A9E77F"), ADDR_16, "REMOVED");
+		snapshot.deviceChanged(removed);
+		snapshot.deviceRemoved(removed);
+		snapshot.close();
+		
+		// Call the method under test.
+		List<NetworkSnapshot.Record> records = new NetworkSnapshot(snapshotFile, CAPACITY).load();
+		
+		// Verify the result.
+		assertThat(records.size(), is(equalTo(1)));
+		NetworkSnapshot.Record record = records.get(0);
+		assertThat(record.get64BitAddress(), is(equalTo(ADDR_64)));
+		assertThat(record.get16BitAddress(), is(equalTo(ADDR_16)));
+		assertThat(record.getNodeID(), is(equalTo("NEW")));
+		assertThat(record.getProtocol(), is(equalTo(XBeeProtocol.ZIGBEE)));
+		assertThat(record.getHardwareVersion().getValue(), is(equalTo(0x19)));
+		assertThat(record.getFirmwareVersion(), is(equalTo(FIRMWARE_VERSION)));
+		assertThat(record.getLastSeen(), is(equalTo(LAST_SEEN)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.NetworkSnapshot#deviceChanged(RemoteXBeeDevice)}.
+	 * 
+	 * <p>Verify that the snapshot is compacted when it is full, keeping the 
+	 * last data of every device.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCompactWhenFull() throws Exception {
+		// Setup the resources for the test.
+		NetworkSnapshot snapshot = new NetworkSnapshot(snapshotFile, CAPACITY);
+		snapshot.load();
+		RemoteXBeeDevice device = createDevice(ADDR_64, ADDR_16, null);
+		
+		// Call the method under test.
+		for (int i = 0; i < 50; i++) {
+			Mockito.when(device.getNodeID()).thenReturn("NODE " + i);
+			snapshot.deviceChanged(device);
+		}
+		snapshot.close();
+		
+		// Verify the result.
+		assertThat(snapshotFile.length(), is(equalTo((long)CAPACITY)));
+		List<NetworkSnapshot.Record> records = new NetworkSnapshot(snapshotFile, CAPACITY).load();
+		assertThat(records.size(), is(equalTo(1)));
+		assertThat(records.get(0).getNodeID(), is(equalTo("NODE 49")));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.NetworkSnapshot#deviceChanged(RemoteXBeeDevice)}.
+	 * 
+	 * <p>Verify that a device only known by its 16-bit address is replaced 
+	 * once its 64-bit address is known.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testDeviceObtains64BitAddress() throws Exception {
+		// Setup the resources for the test.
+		NetworkSnapshot snapshot = new NetworkSnapshot(snapshotFile, CAPACITY);
+		snapshot.load();
+		RemoteXBeeDevice device = createDevice(XBee64BitAddress.UNKNOWN_ADDRESS, ADDR_16, null);
+		snapshot.deviceChanged(device);
+		
+		// Call the method under test.
+		Mockito.when(device.get64BitAddress()).thenReturn(ADDR_64);
+		snapshot.deviceChanged(device);
+		snapshot.close();
+		
+		// Verify the result.
+		List<NetworkSnapshot.Record> records = new NetworkSnapshot(snapshotFile, CAPACITY).load();
+		assertThat(records.size(), is(equalTo(1)));
+		assertThat(records.get(0).get64BitAddress(), is(equalTo(ADDR_64)));
+		assertThat(records.get(0).getNodeID(), is(nullValue()));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#setSnapshot(NetworkSnapshot)}.
+	 * 
+	 * <p>Verify that the restored devices are created with the class of the 
+	 * protocol of the local device and that the devices of another protocol 
+	 * are ignored.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testRestoreDevicesWithProtocolClass() throws Exception {
+		// Setup the resources for the test.
+		NetworkSnapshot snapshot = new NetworkSnapshot(snapshotFile, CAPACITY);
+		snapshot.load();
+		snapshot.deviceChanged(createDevice(ADDR_64, ADDR_16, "ZIGBEE"));
+		RemoteXBeeDevice digiMeshDevice = createDevice(new XBee64BitAddress("0013A20040A9E77F"), null, "DIGIMESH");
+		Mockito.when(digiMeshDevice.getXBeeProtocol()).thenReturn(XBeeProtocol.DIGI_MESH);
+		snapshot.deviceChanged(digiMeshDevice);
+		snapshot.close();
+		
+		XBeeNetwork network = new XBeeNetwork(new ZigBeeDevice(Mockito.mock(IConnectionInterface.class)));
+		
+		// Call the method under test.
+		network.setSnapshot(new NetworkSnapshot(snapshotFile, CAPACITY));
+		
+		// Verify the result.
+		assertThat(network.getNumberOfDevices(), is(equalTo(1)));
+		RemoteXBeeDevice restored = network.getDevice(ADDR_64);
+		assertThat(restored, is(instanceOf(RemoteZigBeeDevice.class)));
+		assertThat(restored.get16BitAddress(), is(equalTo(ADDR_16)));
+		assertThat(restored.getLastSeen(), is(equalTo(LAST_SEEN)));
+	}
+	
+	/**
+	 * Returns a mocked remote ZigBee device with the given data.
+	 * 
+	 * @param addr64 The 64-bit address of the device.
+	 * @param addr16 The 16-bit address of the device.
+	 * @param ni The node identifier of the device.
+	 * 
+	 * @return The mocked remote device.
+	 */
+	private RemoteXBeeDevice createDevice(XBee64BitAddress addr64, XBee16BitAddress addr16, String ni) {
+		RemoteXBeeDevice device = Mockito.mock(RemoteXBeeDevice.class);
+		Mockito.when(device.get64BitAddress()).thenReturn(addr64);
+		Mockito.when(device.get16BitAddress()).thenReturn(addr16);
+		Mockito.when(device.getNodeID()).thenReturn(ni);
+		Mockito.when(device.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		Mockito.when(device.getHardwareVersion()).thenReturn(HardwareVersion.get(0x19));
+		Mockito.when(device.getFirmwareVersion()).thenReturn(FIRMWARE_VERSION);
+		Mockito.when(device.getLastSeen()).thenReturn(LAST_SEEN);
+		return device;
+	}
+}
@@ -38,6 +38,7 @@ import com.digi.xbee.api.XBeeNetwork;
 import com.digi.xbee.api.connection.IConnectionInterface;
 import com.digi.xbee.api.exceptions.InterfaceNotOpenException;
 import com.digi.xbee.api.exceptions.XBeeException;
+import com.digi.xbee.api.listeners.IDiscoveryListener;
 import com.digi.xbee.api.listeners.IPacketReceiveListener;
 import com.digi.xbee.api.models.ATCommandStatus;
 import com.digi.xbee.api.models.XBee16BitAddress;
@@ -496,6 +497,8 @@ public class NodeDiscoveryDiscoverDevicesBlockTest {
 	/**
 	 * Test method for {@link com.digi.xbee.api.NodeDiscovery#discoverDevices(List)}.
 	 * 
+	 * <p>Only the first device found for the identifier must be reported.</p>
+	 * 
 	 * @throws Exception 
 	 */
 	@Test
@@ -528,7 +531,8 @@ public class NodeDiscoveryDiscoverDevicesBlockTest {
 		List<RemoteXBeeDevice> remotes = nd.discoverDevices(list);
 		
 		// Verify the result.
-		assertThat("The discovered devices list must have a size of " + ndAnswers.size(), remotes.size(), is(equalTo(ndAnswers.size())));
+		assertThat("The discovered devices list must have a size of 1", remotes.size(), is(equalTo(1)));
+		assertThat("The discovered device should be the first one found", remotes.get(0).get64BitAddress(), is(equalTo(macs[0])));
 		
 		PowerMockito.verifyPrivate(nd, Mockito.times(1)).invoke(SEND_NODE_DISCOVERY_COMMAND_METHOD, Mockito.anyString());
 		Mockito.verify(deviceMock, Mockito.times(1)).addPacketListener(packetListener);
@@ -537,7 +541,7 @@ public class NodeDiscoveryDiscoverDevicesBlockTest {
 		PowerMockito.verifyPrivate(nd, Mockito.times(1)).invoke(DISCOVER_DEVICES_API_METHOD, null, null);
 		
 		Mockito.verify(networkMock, Mockito.never()).addRemoteDevices(Mockito.anyListOf(RemoteXBeeDevice.class));
-		Mockito.verify(networkMock, Mockito.times(2)).addRemoteDevice(Mockito.any(RemoteXBeeDevice.class));
+		Mockito.verify(networkMock, Mockito.times(1)).addRemoteDevice(Mockito.any(RemoteXBeeDevice.class));
 	}
 	
 	/**
@@ -625,9 +629,183 @@ public class NodeDiscoveryDiscoverDevicesBlockTest {
 		PowerMockito.verifyPrivate(nd, Mockito.times(1)).invoke(DISCOVER_DEVICES_API_METHOD, null, null);
 		
 		Mockito.verify(networkMock, Mockito.never()).addRemoteDevices(Mockito.anyListOf(RemoteXBeeDevice.class));
+		Mockito.verify(networkMock, Mockito.times(1)).addRemoteDevice(Mockito.any(RemoteXBeeDevice.class));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.NodeDiscovery#discoverDevices(List, IDiscoveryListener)}.
+	 * 
+	 * <p>The discovery must finish as soon as a device has been found for 
+	 * every identifier, without waiting for the discovery timeout.</p>
+	 * 
+	 * @throws Exception 
+	 */
+	@Test
+	public final void testDiscoverDevicesUntilFound() throws Exception {
+		// Setup the resources for the test.
+		String[] nIds = new String[]{"id", "id2"};
+		List<String> list = new ArrayList<String>();
+		list.add(nIds[0]);
+		list.add(nIds[1]);
+		
+		// 10 seconds timeout.
+		byte[] deviceTimeoutByteArray = new byte[]{0x64};
+		
+		PowerMockito.when(deviceMock.getParameter("NT")).thenReturn(deviceTimeoutByteArray);
+		PowerMockito.when(deviceMock.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		ndAnswers.add(createPacket(1, ATCommandStatus.OK, new XBee16BitAddress("0000"), 
+				new XBee64BitAddress("0013A20040A6A0DB"), nIds[0], new XBee16BitAddress("FFFE"), 
+				(byte)0x00, (byte)0x49, false));
+		ndAnswers.add(createPacket(1, ATCommandStatus.OK, new XBee16BitAddress("7971"), 
+				new XBee64BitAddress("0013A20040AD1585"), nIds[1], new XBee16BitAddress("0000"), 
+				(byte)0x01, (byte)0x67, false));
+		
+		IDiscoveryListener listenerMock = Mockito.mock(IDiscoveryListener.class);
+		
+		// Call the method under test.
+		long start = System.currentTimeMillis();
+		List<RemoteXBeeDevice> remotes = nd.discoverDevices(list, listenerMock);
+		long elapsed = System.currentTimeMillis() - start;
+		
+		// Verify the result.
+		assertThat("The discovered devices list must have a size of " + ndAnswers.size(), remotes.size(), is(equalTo(ndAnswers.size())));
+		assertThat("The discovery should not wait for the timeout", elapsed < 5000, is(equalTo(true)));
+		
+		Mockito.verify(listenerMock, Mockito.times(2)).deviceDiscovered(Mockito.any(RemoteXBeeDevice.class));
+		Mockito.verify(listenerMock, Mockito.times(1)).discoveryFinished(null);
+		
+		Mockito.verify(deviceMock, Mockito.times(1)).addPacketListener(packetListener);
+		Mockito.verify(deviceMock, Mockito.times(1)).removePacketListener(packetListener);
 		Mockito.verify(networkMock, Mockito.times(list.size())).addRemoteDevice(Mockito.any(RemoteXBeeDevice.class));
 	}
 	
+	/**
+	 * Test method for {@link com.digi.xbee.api.NodeDiscovery#discoverDevices(List)}.
+	 * 
+	 * <p>The discovery must finish as soon as the end of discovery response 
+	 * is received, without waiting for the discovery timeout.</p>
+	 * 
+	 * @throws Exception 
+	 */
+	@Test
+	public final void testDiscoverDevicesEndOfDiscovery() throws Exception {
+		// Setup the resources for the test.
+		String[] nIds = new String[]{"id", "id2"};
+		List<String> list = new ArrayList<String>();
+		list.add(nIds[0]);
+		list.add(nIds[1]);
+		
+		// 10 seconds timeout.
+		byte[] deviceTimeoutByteArray = new byte[]{0x64};
+		
+		PowerMockito.when(deviceMock.getParameter("NT")).thenReturn(deviceTimeoutByteArray);
+		PowerMockito.when(deviceMock.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		ndAnswers.add(createPacket(1, ATCommandStatus.OK, new XBee16BitAddress("0000"), 
+				new XBee64BitAddress("0013A20040A6A0DB"), nIds[0], new XBee16BitAddress("FFFE"), 
+				(byte)0x00, (byte)0x49, false));
+		ndAnswers.add(new ATCommandResponsePacket(1, 
+				ATCommandStatus.OK, "ND", new byte[0])); // End of discovery packet.
+		
+		// Call the method under test.
+		long start = System.currentTimeMillis();
+		List<RemoteXBeeDevice> remotes = nd.discoverDevices(list);
+		long elapsed = System.currentTimeMillis() - start;
+		
+		// Verify the result.
+		assertThat("The discovered devices list must have a size of 1", remotes.size(), is(equalTo(1)));
+		assertThat("The Node ID of the discovered device should be '" + nIds[0] + "'", remotes.get(0).getNodeID(), is(equalTo(nIds[0])));
+		assertThat("The discovery should not wait for the timeout", elapsed < 5000, is(equalTo(true)));
+		
+		Mockito.verify(deviceMock, Mockito.times(1)).addPacketListener(packetListener);
+		Mockito.verify(deviceMock, Mockito.times(1)).removePacketListener(packetListener);
+		Mockito.verify(networkMock, Mockito.times(1)).addRemoteDevice(Mockito.any(RemoteXBeeDevice.class));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.NodeDiscovery#discoverDevices(List)}.
+	 * 
+	 * <p>The discovery must finish as soon as it is stopped with 
+	 * {@link com.digi.xbee.api.NodeDiscovery#stopDiscoveryProcess()}, without 
+	 * waiting for the discovery timeout.</p>
+	 * 
+	 * @throws Exception 
+	 */
+	@Test
+	public final void testDiscoverDevicesStopped() throws Exception {
+		// Setup the resources for the test.
+		List<String> list = new ArrayList<String>();
+		list.add("id");
+		
+		// 10 seconds timeout.
+		byte[] deviceTimeoutByteArray = new byte[]{0x64};
+		
+		PowerMockito.when(deviceMock.getParameter("NT")).thenReturn(deviceTimeoutByteArray);
+		PowerMockito.when(deviceMock.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		Thread stopThread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					sleep(500);
+				} catch (InterruptedException e) {e.printStackTrace();}
+				nd.stopDiscoveryProcess();
+			}
+		};
+		stopThread.start();
+		
+		// Call the method under test.
+		long start = System.currentTimeMillis();
+		List<RemoteXBeeDevice> remotes = nd.discoverDevices(list);
+		long elapsed = System.currentTimeMillis() - start;
+		
+		// Verify the result.
+		assertThat("The discovered devices list should be empty", remotes.size(), is(equalTo(0)));
+		assertThat("The discovery should not wait for the timeout", elapsed < 5000, is(equalTo(true)));
+		assertThat("The discovery should not be running", nd.isRunning(), is(equalTo(false)));
+		
+		Mockito.verify(deviceMock, Mockito.times(1)).addPacketListener(packetListener);
+		Mockito.verify(deviceMock, Mockito.times(1)).removePacketListener(packetListener);
+		Mockito.verify(networkMock, Mockito.never()).addRemoteDevice(Mockito.any(RemoteXBeeDevice.class));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.NodeDiscovery#discoverDevices(List)}.
+	 * 
+	 * <p>When no device answers, the discovery must finish once the 
+	 * discovery timeout expires.</p>
+	 * 
+	 * @throws Exception 
+	 */
+	@Test
+	public final void testDiscoverDevicesTimeout() throws Exception {
+		// Setup the resources for the test.
+		List<String> list = new ArrayList<String>();
+		list.add("id");
+		
+		// 500 milliseconds timeout.
+		byte[] deviceTimeoutByteArray = new byte[]{0x05};
+		
+		PowerMockito.when(deviceMock.getParameter("NT")).thenReturn(deviceTimeoutByteArray);
+		PowerMockito.when(deviceMock.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		// Call the method under test.
+		long start = System.currentTimeMillis();
+		List<RemoteXBeeDevice> remotes = nd.discoverDevices(list);
+		long elapsed = System.currentTimeMillis() - start;
+		
+		// Verify the result.
+		assertThat("The discovered devices list should be empty", remotes.size(), is(equalTo(0)));
+		assertThat("The discovery should wait for the timeout", elapsed >= 500, is(equalTo(true)));
+		assertThat("The discovery should finish after the timeout", elapsed < 5000, is(equalTo(true)));
+		assertThat("The discovery should not be running", nd.isRunning(), is(equalTo(false)));
+		
+		Mockito.verify(deviceMock, Mockito.times(1)).addPacketListener(packetListener);
+		Mockito.verify(deviceMock, Mockito.times(1)).removePacketListener(packetListener);
+		Mockito.verify(networkMock, Mockito.never()).addRemoteDevice(Mockito.any(RemoteXBeeDevice.class));
+	}
+	
 	/**
 	 * Helper method to create ND responses.
 	 * 
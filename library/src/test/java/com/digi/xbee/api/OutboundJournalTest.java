@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+
+public class OutboundJournalTest {
+	
+	// Constants.
+	private static final int CAPACITY = 200;
+	
+	private static final XBee64BitAddress ADDR_64 = new XBee64BitAddress("0013A20040A9E77E");
+	private static final XBee16BitAddress ADDR_16 = new XBee16BitAddress("1234");
+	
+	// Variables.
+	private File journalFile;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	@Before
+	public void setUp() throws Exception {
+		journalFile = new File(folder.getRoot(), "outbound.journal");
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.OutboundJournal#replay()}.
+	 * 
+	 * <p>Verify that only the entries not marked as done are replayed after 
+	 * reopening the journal, in the same order and with the same data.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReplayPendingEntries() throws Exception {
+		// Setup the resources for the test.
+		OutboundJournal journal = new OutboundJournal(journalFile, CAPACITY);
+		List<OutboundJournal.Entry> pending = journal.replay();
+		for (int i = 0; i < 3; i++)
+			pending.add(journal.append(ADDR_64, ADDR_16, new byte[]{(byte)i, 0x01}, pending));
+		journal.markDone(pending.remove(1));
+		journal.close();
+		
+		// Call the method under test.
+		List<OutboundJournal.Entry> replayed = new OutboundJournal(journalFile, CAPACITY).replay();
+		
+		// Verify the result.
+		assertThat(replayed.size(), is(equalTo(2)));
+		assertThat(replayed.get(0).id, is(equalTo(1L)));
+		assertThat(replayed.get(1).id, is(equalTo(3L)));
+		assertThat(replayed.get(1).data, is(equalTo(new byte[]{0x02, 0x01})));
+		assertThat(replayed.get(1).addr64, is(equalTo(ADDR_64)));
+		assertThat(replayed.get(1).addr16, is(equalTo(ADDR_16)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.OutboundJournal#markDead(OutboundJournal.Entry)}.
+	 * 
+	 * <p>Verify that the dead entries are not replayed as pending entries but 
+	 * they are kept in the journal, also after compacting it, until they are 
+	 * marked as done.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReplayDeadEntries() throws Exception {
+		// Setup the resources for the test.
+		OutboundJournal journal = new OutboundJournal(journalFile, CAPACITY);
+		List<OutboundJournal.Entry> pending = journal.replay();
+		for (int i = 0; i < 3; i++)
+			pending.add(journal.append(ADDR_64, ADDR_16, new byte[]{(byte)i}, pending));
+		journal.markDead(pending.remove(0));
+		journal.markDead(pending.remove(0));
+		journal.markDone(journal.getDeadEntries().get(1));
+		
+		// Call the method under test.
+		for (int i = 0; i < 20; i++)
+			journal.markDone(journal.append(ADDR_64, ADDR_16, new byte[]{0x03}, pending));
+		journal.close();
+		
+		// Verify the result.
+		journal = new OutboundJournal(journalFile, CAPACITY);
+		List<OutboundJournal.Entry> replayed = journal.replay();
+		assertThat(replayed.size(), is(equalTo(1)));
+		assertThat(replayed.get(0).id, is(equalTo(3L)));
+		assertThat(journal.getDeadEntries().size(), is(equalTo(1)));
+		assertThat(journal.getDeadEntries().get(0).id, is(equalTo(1L)));
+		assertThat(journal.getDeadEntries().get(0).data, is(equalTo(new byte[]{0x00})));
+		
+		journal.markDone(journal.getDeadEntries().get(0));
+		journal.close();
+		journal = new OutboundJournal(journalFile, CAPACITY);
+		journal.replay();
+		assertThat(journal.getDeadEntries().size(), is(equalTo(0)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.OutboundJournal#append(XBee64BitAddress, XBee16BitAddress, byte[], List)}.
+	 * 
+	 * <p>Verify that the journal is compacted when it is full, keeping the 
+	 * pending entries and the entry identifiers sequence.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testAppendCompactsFullJournal() throws Exception {
+		// Setup the resources for the test.
+		OutboundJournal journal = new OutboundJournal(journalFile, CAPACITY);
+		List<OutboundJournal.Entry> pending = journal.replay();
+		pending.add(journal.append(ADDR_64, ADDR_16, new byte[]{0x01}, pending));
+		
+		// Call the method under test.
+		for (int i = 0; i < 20; i++)
+			journal.markDone(journal.append(ADDR_64, ADDR_16, new byte[]{0x02}, pending));
+		OutboundJournal.Entry last = journal.append(ADDR_64, ADDR_16, new byte[]{0x03}, pending);
+		pending.add(last);
+		journal.close();
+		
+		// Verify the result.
+		assertThat(last.id, is(equalTo(22L)));
+		List<OutboundJournal.Entry> replayed = new OutboundJournal(journalFile, CAPACITY).replay();
+		assertThat(replayed.size(), is(equalTo(2)));
+		assertThat(replayed.get(0).data, is(equalTo(new byte[]{0x01})));
+		assertThat(replayed.get(1).id, is(equalTo(22L)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.OutboundJournal#append(XBee64BitAddress, XBee16BitAddress, byte[], List)}.
+	 * 
+	 * <p>An {@code IOException} must be thrown if the entry does not fit in 
+	 * the journal even after compacting it.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testAppendJournalFull() throws Exception {
+		// Setup the resources for the test.
+		OutboundJournal journal = new OutboundJournal(journalFile, CAPACITY);
+		List<OutboundJournal.Entry> pending = journal.replay();
+		exception.expect(IOException.class);
+		exception.expectMessage(is(equalTo("Outbound journal is full.")));
+		
+		// Call the method under test that should throw an IOException.
+		journal.append(ADDR_64, ADDR_16, new byte[CAPACITY], pending);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.OutboundJournal#append(XBee64BitAddress, XBee16BitAddress, byte[], List)}.
+	 * 
+	 * <p>Verify that if the compaction fails, the pending entries keep their 
+	 * records in the old journal and can still be marked as done.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCompactErrorKeepsPositions() throws Exception {
+		// Setup the resources for the test.
+		OutboundJournal journal = new OutboundJournal(journalFile, CAPACITY);
+		List<OutboundJournal.Entry> pending = journal.replay();
+		OutboundJournal.Entry first = journal.append(ADDR_64, ADDR_16, new byte[]{0x01}, pending);
+		pending.add(first);
+		pending.add(journal.append(ADDR_64, ADDR_16, new byte[]{0x02}, pending));
+		for (int i = 0; i < 5; i++)
+			journal.markDone(journal.append(ADDR_64, ADDR_16, new byte[]{0x03}, pending));
+		// The temporary file of the compaction cannot be created.
+		File tmpDir = new File(journalFile.getPath() + ".tmp");
+		tmpDir.mkdir();
+		new File(tmpDir, "file").createNewFile();
+		
+		// Call the method under test.
+		try {
+			journal.append(ADDR_64, ADDR_16, new byte[CAPACITY / 2], pending);
+		} catch (IOException e) {
+			// Expected.
+		}
+		journal.markDone(first);
+		journal.close();
+		
+		// Verify the result.
+		List<OutboundJournal.Entry> replayed = new OutboundJournal(journalFile, CAPACITY).replay();
+		assertThat(replayed.size(), is(equalTo(1)));
+		assertThat(replayed.get(0).data, is(equalTo(new byte[]{0x02})));
+	}
+}
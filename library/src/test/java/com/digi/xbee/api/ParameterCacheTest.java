@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+
+import com.digi.xbee.api.connection.serial.SerialPortRxTx;
+import com.digi.xbee.api.models.ATCommand;
+import com.digi.xbee.api.models.ATCommandResponse;
+import com.digi.xbee.api.models.ATCommandStatus;
+import com.digi.xbee.api.models.OperatingMode;
+
+public class ParameterCacheTest {
+	
+	// Constants
+	private static final String PARAM_ID = "ID";
+	private static final String PARAM_DB = "DB";
+	private static final byte[] VALUE = new byte[]{0x12, 0x34};
+	
+	// Variables.
+	private XBeeDevice xbeeDevice;
+	
+	private ATParameterCache cache;
+	
+	@Before
+	public void setup() throws Exception {
+		// Mock an RxTx IConnectionInterface.
+		SerialPortRxTx mockedPort = Mockito.mock(SerialPortRxTx.class);
+		Mockito.when(mockedPort.isOpen()).thenReturn(true);
+		
+		// Instantiate an XBeeDevice object with basic parameters.
+		xbeeDevice = PowerMockito.spy(new XBeeDevice(mockedPort));
+		Mockito.when(xbeeDevice.getOperatingMode()).thenReturn(OperatingMode.API);
+		
+		// Return a valid response for any AT command.
+		Mockito.doReturn(new ATCommandResponse(new ATCommand(PARAM_ID), VALUE, ATCommandStatus.OK))
+				.when(xbeeDevice).sendATCommand((ATCommand)Mockito.any());
+		
+		cache = xbeeDevice.enableParameterCache(60000);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#getParameter(String)}.
+	 * 
+	 * <p>Verify that a cached parameter is not read again from the device.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetParameterCached() throws Exception {
+		// Call the method under test.
+		byte[] value1 = xbeeDevice.getParameter(PARAM_ID);
+		byte[] value2 = xbeeDevice.getParameter(PARAM_ID.toLowerCase());
+		
+		// Verify the result.
+		assertArrayEquals(VALUE, value1);
+		assertArrayEquals(VALUE, value2);
+		Mockito.verify(xbeeDevice, Mockito.times(1)).sendATCommand((ATCommand)Mockito.any());
+		assertThat(cache.getHits(), is(equalTo(1L)));
+		assertThat(cache.getMisses(), is(equalTo(1L)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#getParameter(String)}.
+	 * 
+	 * <p>Verify that the parameters whose value changes by itself are not cached.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetParameterVolatile() throws Exception {
+		// Call the method under test.
+		xbeeDevice.getParameter(PARAM_DB);
+		xbeeDevice.getParameter(PARAM_DB);
+		
+		// Verify the result.
+		Mockito.verify(xbeeDevice, Mockito.times(2)).sendATCommand((ATCommand)Mockito.any());
+		assertThat(cache.getTimeToLive(PARAM_DB), is(equalTo(0L)));
+		assertThat(cache.size(), is(equalTo(0)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#setParameter(String, byte[])}.
+	 * 
+	 * <p>Verify that setting a parameter discards its cached value.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testSetParameterInvalidates() throws Exception {
+		// Setup the resources for the test.
+		xbeeDevice.getParameter(PARAM_ID);
+		
+		// Call the method under test.
+		xbeeDevice.setParameter(PARAM_ID, VALUE);
+		xbeeDevice.getParameter(PARAM_ID);
+		
+		// Verify the result.
+		Mockito.verify(xbeeDevice, Mockito.times(3)).sendATCommand((ATCommand)Mockito.any());
+		assertThat(cache.getMisses(), is(equalTo(2L)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#applyChanges()}.
+	 * 
+	 * <p>Verify that executing a command discards all the cached values.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testApplyChangesInvalidates() throws Exception {
+		// Setup the resources for the test.
+		xbeeDevice.getParameter(PARAM_ID);
+		
+		// Call the method under test.
+		xbeeDevice.applyChanges();
+		
+		// Verify the result.
+		assertThat(cache.size(), is(equalTo(0)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#readParameters(String...)}.
+	 * 
+	 * <p>Verify that the parameters are read from the device although they are 
+	 * cached, and that the cache is refreshed with the read values.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReadParametersBypassesCache() throws Exception {
+		// Setup the resources for the test.
+		byte[] newValue = new byte[]{0x56, 0x78};
+		xbeeDevice.getParameter(PARAM_ID);
+		
+		List<ATCommandResponse> responses = new ArrayList<ATCommandResponse>();
+		responses.add(new ATCommandResponse(new ATCommand(PARAM_ID), newValue, ATCommandStatus.OK));
+		Mockito.doReturn(responses).when(xbeeDevice).sendATCommands(Mockito.anyListOf(ATCommand.class));
+		
+		// Call the method under test.
+		Map<String, byte[]> values = xbeeDevice.readParameters(PARAM_ID);
+		
+		// Verify the result.
+		assertArrayEquals(newValue, values.get(PARAM_ID));
+		assertArrayEquals(newValue, xbeeDevice.getParameter(PARAM_ID));
+		Mockito.verify(xbeeDevice, Mockito.times(1)).sendATCommands(Mockito.anyListOf(ATCommand.class));
+		Mockito.verify(xbeeDevice, Mockito.times(1)).sendATCommand((ATCommand)Mockito.any());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.ATParameterCache#setTimeToLive(String, long)}.
+	 * 
+	 * <p>Verify that a parameter with a time to live of 0 is not cached.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testTimeToLiveZero() throws Exception {
+		// Setup the resources for the test.
+		cache.setTimeToLive(PARAM_ID, 0);
+		
+		// Call the method under test.
+		xbeeDevice.getParameter(PARAM_ID);
+		xbeeDevice.getParameter(PARAM_ID);
+		
+		// Verify the result.
+		Mockito.verify(xbeeDevice, Mockito.times(2)).sendATCommand((ATCommand)Mockito.any());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#disableParameterCache()}.
+	 * 
+	 * <p>Verify that the parameters are read from the device when the cache is disabled.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testDisableParameterCache() throws Exception {
+		// Setup the resources for the test.
+		xbeeDevice.getParameter(PARAM_ID);
+		
+		// Call the method under test.
+		xbeeDevice.disableParameterCache();
+		xbeeDevice.getParameter(PARAM_ID);
+		
+		// Verify the result.
+		assertNull(xbeeDevice.getParameterCache());
+		Mockito.verify(xbeeDevice, Mockito.times(2)).sendATCommand((ATCommand)Mockito.any());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.AbstractXBeeDevice#enableParameterCache(long)}.
+	 * 
+	 * <p>Verify that an {@code IllegalArgumentException} is thrown if the time to live is 
+	 * not greater than 0.</p>
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testEnableParameterCacheInvalidTimeToLive() {
+		xbeeDevice.enableParameterCache(0);
+	}
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.digi.xbee.api.models.ATCommand;
+import com.digi.xbee.api.models.ATCommandResponse;
+import com.digi.xbee.api.models.ATCommandStatus;
+
+public class RemoteATSchedulerTest {
+	
+	// Constants.
+	private static final String PARAM_DB = "DB";
+	private static final byte[] VALUE_DB = new byte[]{0x28};
+	
+	// Variables.
+	private XBeeDevice localDevice;
+	private RemoteATScheduler scheduler;
+	
+	@Before
+	public void setup() {
+		localDevice = Mockito.mock(XBeeDevice.class);
+		scheduler = new RemoteATScheduler(localDevice);
+	}
+	
+	@After
+	public void tearDown() {
+		scheduler.shutdown();
+	}
+	
+	/**
+	 * Creates a mocked remote device answering the given responses, one per 
+	 * call.
+	 * 
+	 * @param statuses The status of each answer, {@code null} for no answer.
+	 * 
+	 * @return The mocked remote device.
+	 * 
+	 * @throws Exception
+	 */
+	@SuppressWarnings("unchecked")
+	private RemoteXBeeDevice createRemoteDevice(ATCommandStatus... statuses) throws Exception {
+		RemoteXBeeDevice remoteDevice = Mockito.mock(RemoteXBeeDevice.class);
+		ArrayList<List<ATCommandResponse>> answers = new ArrayList<List<ATCommandResponse>>();
+		for (ATCommandStatus status : statuses) {
+			ATCommandResponse response = null;
+			if (status != null)
+				response = new ATCommandResponse(new ATCommand(PARAM_DB), status == ATCommandStatus.OK ? VALUE_DB : null, status);
+			answers.add(Collections.singletonList(response));
+		}
+		Mockito.when(remoteDevice.sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean(), Mockito.anyInt()))
+				.thenReturn(answers.get(0), answers.subList(1, answers.size()).toArray(new List[0]));
+		return remoteDevice;
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteATScheduler#getParameter(java.util.Collection, String)}.
+	 * 
+	 * <p>Verify that a {@code NullPointerException} is thrown when any of the devices is 
+	 * {@code null}.</p>
+	 */
+	@Test(expected=NullPointerException.class)
+	public void testGetParameterNullDevice() {
+		scheduler.getParameter(Arrays.asList((RemoteXBeeDevice)null), PARAM_DB);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteATScheduler#getParameter(java.util.Collection, String)}.
+	 * 
+	 * <p>Verify that an {@code IllegalArgumentException} is thrown when the parameter is 
+	 * not valid.</p>
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testGetParameterInvalidParameter() {
+		scheduler.getParameter(new ArrayList<RemoteXBeeDevice>(), "D");
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteATScheduler#getParameter(java.util.Collection, String)}.
+	 * 
+	 * <p>Verify that the values of all the devices are collected, each one waiting the 
+	 * timeout corresponding to its hops.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetParameterSuccess() throws Exception {
+		// Setup the resources for the test.
+		RemoteXBeeDevice remote1 = createRemoteDevice(ATCommandStatus.OK);
+		RemoteXBeeDevice remote2 = createRemoteDevice(ATCommandStatus.OK);
+		scheduler.setTimeouts(1000, 200);
+		scheduler.setHops(remote2, 4);
+		
+		// Call the method under test.
+		RemoteATBatch batch = scheduler.getParameter(Arrays.asList(remote1, remote2), PARAM_DB);
+		
+		// Verify the result.
+		assertTrue(batch.await(5, TimeUnit.SECONDS));
+		assertThat(batch.getSucceededCount(), is(equalTo(2)));
+		assertThat(batch.getFailedCount(), is(equalTo(0)));
+		assertArrayEquals(VALUE_DB, batch.getValue(remote1));
+		assertArrayEquals(VALUE_DB, batch.getValue(remote2));
+		Mockito.verify(remote1).sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean(), Mockito.eq(1400));
+		Mockito.verify(remote2).sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean(), Mockito.eq(1800));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteATScheduler#getParameter(java.util.Collection, String)}.
+	 * 
+	 * <p>Verify that the operations not answered are retried and the ones rejected by the 
+	 * device are not.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetParameterRetries() throws Exception {
+		// Setup the resources for the test.
+		RemoteXBeeDevice remote1 = createRemoteDevice(null, ATCommandStatus.OK);
+		RemoteXBeeDevice remote2 = createRemoteDevice(ATCommandStatus.INVALID_COMMAND);
+		scheduler.setRetries(1);
+		
+		// Call the method under test.
+		RemoteATBatch batch = scheduler.getParameter(Arrays.asList(remote1, remote2), PARAM_DB);
+		
+		// Verify the result.
+		assertTrue(batch.await(5, TimeUnit.SECONDS));
+		assertTrue(batch.isSucceeded(remote1));
+		assertThat(batch.getFailedDevices(), is(equalTo(Arrays.asList(remote2))));
+		assertThat(batch.getRetryCount(), is(equalTo(1)));
+		assertThat(batch.getFailureStatistics().get(ATCommandStatus.INVALID_COMMAND.getDescription()), is(equalTo(1)));
+		Mockito.verify(remote1, Mockito.times(2)).sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean(), Mockito.anyInt());
+		Mockito.verify(remote2, Mockito.times(1)).sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean(), Mockito.anyInt());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteATBatch#cancel()}.
+	 * 
+	 * <p>Verify that the operations of a cancelled batch are not sent.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCancel() throws Exception {
+		// Setup the resources for the test.
+		RemoteXBeeDevice remote = createRemoteDevice(null, ATCommandStatus.OK);
+		
+		// Call the method under test.
+		RemoteATBatch batch = scheduler.getParameter(Arrays.asList(remote), PARAM_DB);
+		batch.cancel();
+		
+		// Verify the result.
+		assertTrue(batch.await(5, TimeUnit.SECONDS));
+		assertThat(batch.getSucceededCount(), is(equalTo(0)));
+		Mockito.verify(remote, Mockito.atMost(1)).sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean(), Mockito.anyInt());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteATBatch#cancel()}.
+	 * 
+	 * <p>Verify that cancelling a batch removes its queued operations and the ones 
+	 * waiting for a retry right away, without waiting for the operations of other 
+	 * batches or the retry delay.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCancelRemovesPendingOperations() throws Exception {
+		// Setup the resources for the test.
+		RemoteXBeeDevice slowRemote = Mockito.mock(RemoteXBeeDevice.class);
+		Mockito.when(slowRemote.sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean(), Mockito.anyInt()))
+				.thenAnswer(new Answer<List<ATCommandResponse>>() {
+					public List<ATCommandResponse> answer(InvocationOnMock invocation) throws Exception {
+						Thread.sleep(1000);
+						return Collections.singletonList(new ATCommandResponse(new ATCommand(PARAM_DB), VALUE_DB, ATCommandStatus.OK));
+					}
+				});
+		RemoteXBeeDevice retriedRemote = createRemoteDevice(null, null, null, null);
+		scheduler.setRetries(3);
+		
+		RemoteATBatch running = scheduler.getParameter(Arrays.asList(slowRemote), PARAM_DB);
+		RemoteATBatch queued = scheduler.getParameter(Arrays.asList(slowRemote), PARAM_DB);
+		RemoteATBatch retried = scheduler.getParameter(Arrays.asList(retriedRemote), PARAM_DB);
+		while (retried.getRetryCount() == 0)
+			Thread.sleep(10);
+		
+		// Call the method under test.
+		queued.cancel();
+		retried.cancel();
+		
+		// Verify the result.
+		assertTrue(queued.await(200, TimeUnit.MILLISECONDS));
+		assertTrue(retried.await(200, TimeUnit.MILLISECONDS));
+		assertFalse(running.isDone());
+		assertThat(queued.getCancelledCount(), is(equalTo(1)));
+		assertThat(retried.getCancelledCount(), is(equalTo(1)));
+		
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		assertThat(running.getSucceededCount(), is(equalTo(1)));
+		Mockito.verify(slowRemote, Mockito.times(1)).sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean(), Mockito.anyInt());
+		Mockito.verify(retriedRemote, Mockito.times(1)).sendATCommands(Mockito.anyListOf(ATCommand.class), Mockito.anyBoolean(), Mockito.anyInt());
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.Is.is;
+
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class RemoteDeviceRegistryTest {
+	
+	// Variables.
+	private RemoteXBeeDevice[] devices;
+	
+	// Class under test
+	private RemoteDeviceRegistry registry;
+	
+	@Before
+	public void setup() {
+		devices = new RemoteXBeeDevice[200];
+		for (int i = 0; i < devices.length; i++)
+			devices[i] = Mockito.mock(RemoteXBeeDevice.class);
+		
+		registry = new RemoteDeviceRegistry();
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteDeviceRegistry#get(long)}.
+	 * 
+	 * <p>Every added device must be found by its address, also after the 
+	 * table grows.</p>
+	 */
+	@Test
+	public void testPutAndGet() {
+		// Call the method under test.
+		for (int i = 0; i < devices.length; i++)
+			registry.put(0x0013A20040000000L + i, devices[i]);
+		
+		// Verify the result.
+		assertThat("Size is not the expected one", registry.size(), is(equalTo(devices.length)));
+		for (int i = 0; i < devices.length; i++)
+			assertThat("Device " + i + " is not the expected one", registry.get(0x0013A20040000000L + i), is(equalTo(devices[i])));
+		assertThat("No device should be found", registry.get(0x0013A20040FFFFFFL), is(nullValue()));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteDeviceRegistry#put(long, RemoteXBeeDevice)}.
+	 * 
+	 * <p>Adding a device with an existing address must replace the previous 
+	 * one.</p>
+	 */
+	@Test
+	public void testPutReplace() {
+		// Setup the resources for the test.
+		registry.put(1, devices[0]);
+		
+		// Call the method under test.
+		registry.put(1, devices[1]);
+		
+		// Verify the result.
+		assertThat("Size is not the expected one", registry.size(), is(equalTo(1)));
+		assertThat("Device is not the expected one", registry.get(1), is(equalTo(devices[1])));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteDeviceRegistry#remove(long)}.
+	 * 
+	 * <p>Removing a device must keep the rest of them reachable.</p>
+	 */
+	@Test
+	public void testRemove() {
+		// Setup the resources for the test.
+		for (int i = 0; i < devices.length; i++)
+			registry.put(i, devices[i]);
+		
+		// Call the method under test.
+		for (int i = 0; i < devices.length; i += 2)
+			registry.remove(i);
+		
+		// Verify the result.
+		assertThat("Size is not the expected one", registry.size(), is(equalTo(devices.length / 2)));
+		for (int i = 0; i < devices.length; i++)
+			assertThat("Device " + i + " is not the expected one", registry.get(i), is(i % 2 == 0 ? null : devices[i]));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteDeviceRegistry#remove(long)}.
+	 * 
+	 * <p>Random additions and removals must keep the registry equal to a 
+	 * regular map, also when the removed devices are in the middle of a 
+	 * probe sequence.</p>
+	 */
+	@Test
+	public void testRandomPutAndRemove() {
+		// Setup the resources for the test.
+		HashMap<Long, RemoteXBeeDevice> expected = new HashMap<Long, RemoteXBeeDevice>();
+		Random random = new Random(1);
+		
+		// Call the method under test.
+		for (int i = 0; i < 20000; i++) {
+			long address = random.nextInt(300);
+			if (random.nextBoolean()) {
+				RemoteXBeeDevice device = devices[random.nextInt(devices.length)];
+				registry.put(address, device);
+				expected.put(address, device);
+			} else {
+				registry.remove(address);
+				expected.remove(address);
+			}
+		}
+		
+		// Verify the result.
+		assertThat("Size is not the expected one", registry.size(), is(equalTo(expected.size())));
+		for (long address = 0; address < 300; address++)
+			assertThat("Device " + address + " is not the expected one", registry.get(address), is(expected.get(address)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteDeviceRegistry#toLong(byte[], int)}.
+	 */
+	@Test
+	public void testToLong() {
+		// Setup the resources for the test.
+		byte[] buffer = {0x10, 0x00, 0x13, (byte)0xA2, 0x00, 0x40, (byte)0xA9, (byte)0xE7, 0x7F};
+		
+		// Call the method under test.
+		long address = RemoteDeviceRegistry.toLong(buffer, 1);
+		
+		// Verify the result.
+		assertThat("Address is not the expected one", address, is(equalTo(0x0013A20040A9E77FL)));
+	}
+}
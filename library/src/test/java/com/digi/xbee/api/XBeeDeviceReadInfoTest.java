@@ -16,6 +16,8 @@ import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -1159,4 +1161,174 @@ public class XBeeDeviceReadInfoTest {
 		assertEquals("4567", xbeeDevice.getFirmwareVersion());
 		assertEquals(XBeeProtocol.UNKNOWN, xbeeDevice.getXBeeProtocol());
 	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeDevice#readDeviceInfo()}.
+	 * 
+	 * <p>Verify that when all the parameters are read at once, they are not requested again 
+	 * one by one.</p>
+	 * 
+	 * @throws XBeeException
+	 * @throws IOException
+	 */
+	@Test
+	public void testReadDeviceInfoSuccessBatch() throws XBeeException, IOException {
+		// Return the values of all the parameters when requesting them at once.
+		Map<String, byte[]> values = new HashMap<String, byte[]>();
+		values.put(PARAMETER_SH, RESPONSE_SH);
+		values.put(PARAMETER_SL, RESPONSE_SL);
+		values.put(PARAMETER_NI, RESPONSE_NI);
+		values.put(PARAMETER_HV, RESPONSE_HV);
+		values.put(PARAMETER_VR, RESPONSE_VR);
+		values.put(PARAMETER_MY, RESPONSE_MY);
+		Mockito.doReturn(values).when(zbDevice).readParameters(Mockito.<String>anyVararg());
+		
+		// Return the "real" value of the module protocol.
+		PowerMockito.mockStatic(XBeeProtocol.class);
+		PowerMockito.when(XBeeProtocol.determineProtocol(Mockito.any(HardwareVersion.class), Mockito.anyString())).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		// Initialize the device.
+		zbDevice.readDeviceInfo();
+		
+		// Verify that all the parameters were read in a single batch.
+		Mockito.verify(zbDevice, Mockito.times(1)).readParameters(Mockito.<String>anyVararg());
+		Mockito.verify(zbDevice, Mockito.never()).getParameter(Mockito.anyString());
+		assertEquals("0123456789ABCDEF", zbDevice.get64BitAddress().toString());
+		assertEquals(new XBee16BitAddress("7654"), zbDevice.get16BitAddress());
+		assertEquals("XBEE", zbDevice.getNodeID());
+		assertEquals("4567", zbDevice.getFirmwareVersion());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeDevice#readDeviceInfo()}.
+	 * 
+	 * <p>Verify that when none of the parameters read at once is answered, a timeout 
+	 * exception is thrown without requesting them again one by one.</p>
+	 * 
+	 * @throws XBeeException
+	 * @throws IOException
+	 */
+	@Test
+	public void testReadDeviceInfoErrorBatchTimeout() throws XBeeException, IOException {
+		// Throw a timeout exception when requesting the parameters at once.
+		Mockito.doThrow(new TimeoutException()).when(zbDevice).readParameters(Mockito.<String>anyVararg());
+		
+		// Initialize the device.
+		try {
+			zbDevice.readDeviceInfo();
+			fail("A TimeoutException should have been thrown.");
+		} catch (TimeoutException e) {
+			// Expected.
+		}
+		
+		// Verify that the parameters were not requested again.
+		Mockito.verify(zbDevice, Mockito.never()).getParameter(Mockito.anyString());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeDevice#readDeviceInfo()}.
+	 * 
+	 * <p>Verify that only the parameters that could not be read at once are requested 
+	 * again one by one.</p>
+	 * 
+	 * @throws XBeeException
+	 * @throws IOException
+	 */
+	@Test
+	public void testReadDeviceInfoBatchMissingParameter() throws XBeeException, IOException {
+		// Return the values of all the parameters but HV when requesting them at once.
+		Map<String, byte[]> values = new HashMap<String, byte[]>();
+		values.put(PARAMETER_SH, RESPONSE_SH);
+		values.put(PARAMETER_SL, RESPONSE_SL);
+		values.put(PARAMETER_NI, RESPONSE_NI);
+		values.put(PARAMETER_VR, RESPONSE_VR);
+		values.put(PARAMETER_MY, RESPONSE_MY);
+		Mockito.doReturn(values).when(zbDevice).readParameters(Mockito.<String>anyVararg());
+		
+		// Return a valid response when requesting the HV parameter value.
+		Mockito.doReturn(RESPONSE_HV).when(zbDevice).getParameter(PARAMETER_HV);
+		
+		// Return the "real" value of the module protocol.
+		PowerMockito.mockStatic(XBeeProtocol.class);
+		PowerMockito.when(XBeeProtocol.determineProtocol(Mockito.any(HardwareVersion.class), Mockito.anyString())).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		// Initialize the device.
+		zbDevice.readDeviceInfo();
+		
+		// Verify that only the HV parameter was requested again.
+		Mockito.verify(zbDevice, Mockito.times(1)).getParameter(Mockito.anyString());
+		Mockito.verify(zbDevice, Mockito.times(1)).getParameter(PARAMETER_HV);
+		assertEquals(HardwareVersion.get(0x01), zbDevice.getHardwareVersion());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeDevice#readDeviceInfo(boolean)}.
+	 * 
+	 * <p>Verify that refreshing the restored identity of a ZigBee local device 
+	 * fails if the module is now of another protocol.</p>
+	 * 
+	 * @throws XBeeException
+	 * @throws IOException
+	 */
+	@Test
+	public void testReadDeviceInfoRefreshInvalidZigBeeClassForDMDevice() throws XBeeException, IOException {
+		// Setup the resources for the test.
+		XBeeProtocol realProtocol = XBeeProtocol.DIGI_MESH;
+		zbDevice.restoreDeviceInfo(XBeeProtocol.ZIGBEE, HardwareVersion.get(0x01), "4567");
+		
+		exception.expect(XBeeException.class);
+		exception.expectMessage(is(equalTo("Error reading device information: "
+				+ "Your module seems to be " + realProtocol 
+				+ " and NOT " + XBeeProtocol.ZIGBEE + ". Check if you are using" 
+				+ " the appropriate device class.")));
+		
+		Map<String, byte[]> values = new HashMap<String, byte[]>();
+		values.put(PARAMETER_SH, RESPONSE_SH);
+		values.put(PARAMETER_SL, RESPONSE_SL);
+		values.put(PARAMETER_NI, RESPONSE_NI);
+		values.put(PARAMETER_HV, RESPONSE_HV);
+		values.put(PARAMETER_VR, RESPONSE_VR);
+		values.put(PARAMETER_MY, RESPONSE_MY);
+		Mockito.doReturn(values).when(zbDevice).readParameters(Mockito.<String>anyVararg());
+		
+		// Return the "real" value of the module protocol.
+		PowerMockito.mockStatic(XBeeProtocol.class);
+		PowerMockito.when(XBeeProtocol.determineProtocol(Mockito.any(HardwareVersion.class), Mockito.anyString())).thenReturn(realProtocol);
+		
+		// Execute the method under test.
+		zbDevice.readDeviceInfo(true);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeDevice#readDeviceInfo(boolean)}.
+	 * 
+	 * <p>Verify that refreshing the restored identity of a generic local 
+	 * device determines its protocol again.</p>
+	 * 
+	 * @throws XBeeException
+	 * @throws IOException
+	 */
+	@Test
+	public void testReadDeviceInfoRefreshGenericDevice() throws XBeeException, IOException {
+		// Setup the resources for the test.
+		xbeeDevice.restoreDeviceInfo(XBeeProtocol.ZIGBEE, HardwareVersion.get(0x01), "4567");
+		
+		Map<String, byte[]> values = new HashMap<String, byte[]>();
+		values.put(PARAMETER_SH, RESPONSE_SH);
+		values.put(PARAMETER_SL, RESPONSE_SL);
+		values.put(PARAMETER_NI, RESPONSE_NI);
+		values.put(PARAMETER_HV, RESPONSE_HV);
+		values.put(PARAMETER_VR, RESPONSE_VR);
+		Mockito.doReturn(values).when(xbeeDevice).readParameters(Mockito.<String>anyVararg());
+		
+		// Return the "real" value of the module protocol.
+		PowerMockito.mockStatic(XBeeProtocol.class);
+		PowerMockito.when(XBeeProtocol.determineProtocol(Mockito.any(HardwareVersion.class), Mockito.anyString())).thenReturn(XBeeProtocol.DIGI_MESH);
+		
+		// Execute the method under test.
+		xbeeDevice.readDeviceInfo(true);
+		
+		// Verify the result.
+		assertEquals(XBeeProtocol.DIGI_MESH, xbeeDevice.getXBeeProtocol());
+	}
 }
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.digi.xbee.api.connection.IConnectionInterface;
+import com.digi.xbee.api.listeners.INetworkChangeListener;
+import com.digi.xbee.api.models.NetworkChange;
+import com.digi.xbee.api.models.NetworkChangeType;
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+import com.digi.xbee.api.models.XBeeProtocol;
+
+@RunWith(PowerMockRunner.class)
+public class XBeeNetworkChangesTest {
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	// Variables.
+	private XBeeNetwork network;
+	
+	private XBeeDevice localDevice;
+	
+	@Before
+	public void setUp() {
+		// Mock the local device.
+		localDevice = PowerMockito.mock(XBeeDevice.class);
+		Mockito.when(localDevice.getConnectionInterface()).thenReturn(Mockito.mock(IConnectionInterface.class));
+		Mockito.when(localDevice.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		network = new XBeeNetwork(localDevice);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getChangesSince(long)}.
+	 */
+	@Test
+	public void testGetChangesSince() {
+		// Setup the resources for the test.
+		RemoteXBeeDevice remote16 = new RemoteXBeeDevice(localDevice, XBee64BitAddress.UNKNOWN_ADDRESS, 
+				new XBee16BitAddress("1111"), "id");
+		RemoteXBeeDevice remote64 = new RemoteXBeeDevice(localDevice, new XBee64BitAddress("0013A20040A6A0DB"), 
+				new XBee16BitAddress("1111"), "id");
+		
+		network.addRemoteDevice(remote16);
+		long version = network.getVersion();
+		network.addRemoteDevice(remote64);
+		network.removeRemoteDevice(remote64);
+		
+		// Call the method under test.
+		List<NetworkChange> changes = network.getChangesSince(version);
+		
+		// Verify the result.
+		assertThat(version, is(equalTo(1L)));
+		assertThat(network.getVersion(), is(equalTo(3L)));
+		assertThat(changes.size(), is(equalTo(2)));
+		assertThat(changes.get(0).getVersion(), is(equalTo(2L)));
+		assertThat(changes.get(0).getType(), is(equalTo(NetworkChangeType.READDRESSED)));
+		assertThat(changes.get(0).getDevice(), is(equalTo(remote16)));
+		assertThat(changes.get(1).getVersion(), is(equalTo(3L)));
+		assertThat(changes.get(1).getType(), is(equalTo(NetworkChangeType.REMOVED)));
+		assertThat(network.getChangesSince(network.getVersion()).size(), is(equalTo(0)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getChangesSince(long)}.
+	 * 
+	 * <p>Verify that {@code null} is returned when the requested changes are 
+	 * no longer available.</p>
+	 */
+	@Test
+	public void testGetChangesSinceTooOld() {
+		// Setup the resources for the test.
+		for (int i = 0; i < 5000; i++)
+			network.addRemoteDevice(new RemoteXBeeDevice(localDevice, XBee64BitAddress.fromLong(0x0013A20000000000L + i)));
+		
+		// Call the method under test.
+		List<NetworkChange> changes = network.getChangesSince(0);
+		
+		// Verify the result.
+		assertThat(changes, is(nullValue()));
+		assertThat(network.getChangesSince(network.getVersion() - 10).size(), is(equalTo(10)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getChangesSince(long)}.
+	 * 
+	 * <p>An {@code IllegalArgumentException} exception must be thrown when 
+	 * passing a version greater than the current one.</p>
+	 */
+	@Test
+	public void testGetChangesSinceFutureVersion() {
+		// Setup the resources for the test.
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage(is(equalTo("Version cannot be greater than the current version.")));
+		
+		// Call the method under test.
+		network.getChangesSince(1);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#addNetworkChangeListener(INetworkChangeListener)}.
+	 */
+	@Test
+	public void testNetworkChangeListener() {
+		// Setup the resources for the test.
+		INetworkChangeListener listener = Mockito.mock(INetworkChangeListener.class);
+		RemoteXBeeDevice remote = new RemoteXBeeDevice(localDevice, new XBee64BitAddress("0013A20040A6A0DB"));
+		
+		// Call the method under test.
+		network.addNetworkChangeListener(listener);
+		network.addRemoteDevice(remote);
+		network.clearDeviceList();
+		
+		// Verify the result.
+		ArgumentCaptor<NetworkChange> captor = ArgumentCaptor.forClass(NetworkChange.class);
+		Mockito.verify(listener, Mockito.timeout(1000).times(2)).networkChanged(captor.capture());
+		assertThat(captor.getAllValues().get(0).getType(), is(equalTo(NetworkChangeType.ADDED)));
+		assertThat(captor.getAllValues().get(1).getType(), is(equalTo(NetworkChangeType.REMOVED)));
+		assertThat(captor.getAllValues().get(1).getDevice(), is(equalTo(remote)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#addNetworkChangeListener(INetworkChangeListener)}.
+	 * 
+	 * <p>A {@code NullPointerException} exception must be thrown when passing 
+	 * a {@code null} listener.</p>
+	 */
+	@Test
+	public void testAddNetworkChangeListenerNull() {
+		// Setup the resources for the test.
+		exception.expect(NullPointerException.class);
+		exception.expectMessage(is(equalTo("Listener cannot be null.")));
+		
+		// Call the method under test.
+		network.addNetworkChangeListener(null);
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.digi.xbee.api.connection.IConnectionInterface;
+import com.digi.xbee.api.models.XBee64BitAddress;
+import com.digi.xbee.api.models.XBeeProtocol;
+
+@RunWith(PowerMockRunner.class)
+public class XBeeNetworkEvictionTest {
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	// Variables.
+	private XBeeNetwork network;
+	
+	private XBeeDevice localDevice;
+	
+	@Before
+	public void setUp() {
+		// Mock the local device.
+		localDevice = PowerMockito.mock(XBeeDevice.class);
+		Mockito.when(localDevice.getConnectionInterface()).thenReturn(Mockito.mock(IConnectionInterface.class));
+		Mockito.when(localDevice.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		network = new XBeeNetwork(localDevice);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#setMaximumDevices(int)}.
+	 */
+	@Test
+	public void testMaximumDevices() {
+		// Setup the resources for the test.
+		network.setMaximumDevices(50);
+		
+		// Call the method under test.
+		for (int i = 0; i < 200; i++)
+			network.addRemoteDevice(new RemoteXBeeDevice(localDevice, XBee64BitAddress.fromLong(i + 1)));
+		
+		// Verify the result.
+		assertThat(network.getNumberOfDevices(), is(equalTo(50)));
+		assertThat(network.getEvictedDevices(), is(equalTo(150L)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#setMaximumDevices(int)}.
+	 * 
+	 * <p>Verify that the pinned devices and the devices that keep sending 
+	 * frames are not evicted.</p>
+	 */
+	@Test
+	public void testMaximumDevicesPinnedAndActive() {
+		// Setup the resources for the test.
+		RemoteXBeeDevice pinned = network.pinDevice(new RemoteXBeeDevice(localDevice, XBee64BitAddress.fromLong(1)));
+		RemoteXBeeDevice active = network.addRemoteDevice(new RemoteXBeeDevice(localDevice, XBee64BitAddress.fromLong(2)));
+		network.setMaximumDevices(10);
+		
+		// Call the method under test.
+		for (int i = 0; i < 100; i++) {
+			network.addRemoteDevice(new RemoteXBeeDevice(localDevice, XBee64BitAddress.fromLong(i + 100)));
+			active.frameReceived(System.currentTimeMillis());
+		}
+		
+		// Verify the result.
+		assertThat(network.getNumberOfDevices(), is(equalTo(10)));
+		assertThat(network.getDevice(1L), is(equalTo(pinned)));
+		assertThat(network.getDevice(2L), is(equalTo(active)));
+		assertThat(pinned.isPinned(), is(equalTo(true)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#unpinDevice(RemoteXBeeDevice)}.
+	 */
+	@Test
+	public void testUnpinDevice() {
+		// Setup the resources for the test.
+		RemoteXBeeDevice pinned = network.pinDevice(new RemoteXBeeDevice(localDevice, XBee64BitAddress.fromLong(1)));
+		network.addRemoteDevice(new RemoteXBeeDevice(localDevice, XBee64BitAddress.fromLong(2)));
+		
+		// Call the method under test.
+		network.unpinDevice(new RemoteXBeeDevice(localDevice, XBee64BitAddress.fromLong(1)));
+		network.setMaximumDevices(1);
+		
+		// Verify the result.
+		assertThat(pinned.isPinned(), is(equalTo(false)));
+		assertThat(network.getNumberOfDevices(), is(equalTo(1)));
+		assertThat(network.getEvictedDevices(), is(equalTo(1L)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#setMaximumDevices(int)}.
+	 * 
+	 * <p>An {@code IllegalArgumentException} exception must be thrown when 
+	 * passing a negative maximum.</p>
+	 */
+	@Test
+	public void testSetMaximumDevicesNegative() {
+		// Setup the resources for the test.
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage(is(equalTo("Maximum number of devices cannot be less than 0.")));
+		
+		// Call the method under test.
+		network.setMaximumDevices(-1);
+	}
+}
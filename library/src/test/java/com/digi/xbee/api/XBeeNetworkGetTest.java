@@ -739,4 +739,110 @@ public class XBeeNetworkGetTest {
 		// Verify the result.
 		assertEquals(remoteDeviceUN64Addr, found);
 	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getDevice(XBee16BitAddress)}.
+	 * 
+	 * <p>Verify that when the 16-bit address of a device of the network is 
+	 * updated, the device is found by its new 16-bit address and the old 
+	 * address can be reassigned to another device.</p>
+	 * 
+	 * @throws OperationNotSupportedException 
+	 */
+	@Test
+	public void testGetDeviceBy16BitAddrReassigned() throws OperationNotSupportedException {
+		// Setup the resources for the test.
+		XBee64BitAddress addr64A = new XBee64BitAddress("0013A20040A9E77F");
+		XBee64BitAddress addr64B = new XBee64BitAddress("0013A20040A9E780");
+		XBee16BitAddress oldAddr16 = new XBee16BitAddress("1111");
+		XBee16BitAddress newAddr16 = new XBee16BitAddress("3333");
+		RemoteXBeeDevice deviceA = new RemoteXBeeDevice(localDevice, addr64A, oldAddr16, "A");
+		RemoteXBeeDevice deviceB = new RemoteXBeeDevice(localDevice, addr64B, new XBee16BitAddress("2222"), "B");
+		network.addRemoteDevice(deviceA);
+		network.addRemoteDevice(deviceB);
+		
+		// Update the 16-bit addresses of the devices.
+		network.addRemoteDevice(new RemoteXBeeDevice(localDevice, addr64A, newAddr16, "A"));
+		network.addRemoteDevice(new RemoteXBeeDevice(localDevice, addr64B, oldAddr16, "B"));
+		
+		// Call the method under test.
+		RemoteXBeeDevice foundNew = network.getDevice(newAddr16);
+		RemoteXBeeDevice foundOld = network.getDevice(oldAddr16);
+		RemoteXBeeDevice foundUnused = network.getDevice(new XBee16BitAddress("2222"));
+		
+		// Verify the result.
+		assertEquals(deviceA, foundNew);
+		assertEquals(deviceB, foundOld);
+		assertNull(foundUnused);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getDevice(XBee16BitAddress)}.
+	 * 
+	 * <p>Verify that a device removed from the network is not found by its 
+	 * 16-bit address.</p>
+	 * 
+	 * @throws OperationNotSupportedException 
+	 */
+	@Test
+	public void testGetDeviceBy16BitAddrRemoved() throws OperationNotSupportedException {
+		// Setup the resources for the test.
+		XBee16BitAddress address = new XBee16BitAddress("2222");
+		network.addRemoteDevice(remoteDevice1);
+		network.removeRemoteDevice(remoteDevice1);
+		
+		// Call the method under test.
+		RemoteXBeeDevice found = network.getDevice(address);
+		
+		// Verify the result.
+		assertNull(found);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getDevicesByPattern(String)}.
+	 * 
+	 * <p>Verify that the devices whose node identifier matches the pattern 
+	 * are returned.</p>
+	 */
+	@Test
+	public void testGetDevicesByPattern() {
+		// Add several remote devices to the network.
+		network.addRemoteDevice(remoteDevice1);
+		network.addRemoteDevice(remoteDevice3);
+		network.addRemoteDevice(remoteDeviceUN64Addr);
+		network.addRemoteDevice(remoteDeviceUNI);
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> remotes = network.getDevicesByPattern("id*");
+		List<RemoteXBeeDevice> single = network.getDevicesByPattern("?d2");
+		
+		// Verify the result.
+		assertEquals(remotes.size(), 2);
+		assertThat(remotes.contains(remoteDevice1), is(equalTo(true)));
+		assertThat(remotes.contains(remoteDevice3), is(equalTo(true)));
+		assertEquals(single.size(), 1);
+		assertThat(single.contains(remoteDevice3), is(equalTo(true)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getDevicesByPrefix(String)}.
+	 * 
+	 * <p>Verify that the devices whose node identifier starts with the prefix 
+	 * are returned and removed devices are not.</p>
+	 */
+	@Test
+	public void testGetDevicesByPrefix() {
+		// Add several remote devices to the network.
+		network.addRemoteDevice(remoteDevice1);
+		network.addRemoteDevice(remoteDevice3);
+		network.addRemoteDevice(remoteDeviceUN64Addr);
+		network.removeRemoteDevice(remoteDevice3);
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> remotes = network.getDevicesByPrefix("id");
+		
+		// Verify the result.
+		assertEquals(remotes.size(), 1);
+		assertThat(remotes.contains(remoteDevice1), is(equalTo(true)));
+	}
 }
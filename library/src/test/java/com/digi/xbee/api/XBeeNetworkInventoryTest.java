@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.digi.xbee.api.connection.IConnectionInterface;
+import com.digi.xbee.api.exceptions.ATCommandException;
+import com.digi.xbee.api.exceptions.TimeoutException;
+import com.digi.xbee.api.listeners.IInventoryListener;
+import com.digi.xbee.api.models.ATCommandStatus;
+import com.digi.xbee.api.models.XBeeProtocol;
+
+@RunWith(PowerMockRunner.class)
+public class XBeeNetworkInventoryTest {
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	// Variables.
+	private XBeeNetwork network;
+	
+	private RemoteXBeeDevice remoteDevice1;
+	private RemoteXBeeDevice remoteDevice2;
+	private RemoteXBeeDevice remoteDevice3;
+	
+	private IInventoryListener listener;
+	
+	@Before
+	public void setUp() {
+		// Mock the local device.
+		XBeeDevice localDevice = PowerMockito.mock(XBeeDevice.class);
+		Mockito.when(localDevice.getConnectionInterface()).thenReturn(Mockito.mock(IConnectionInterface.class));
+		Mockito.when(localDevice.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		network = new XBeeNetwork(localDevice);
+		
+		remoteDevice1 = PowerMockito.mock(RemoteXBeeDevice.class);
+		remoteDevice2 = PowerMockito.mock(RemoteXBeeDevice.class);
+		remoteDevice3 = PowerMockito.mock(RemoteXBeeDevice.class);
+		
+		listener = Mockito.mock(IInventoryListener.class);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#readDevicesInfo(List, IInventoryListener)}.
+	 * 
+	 * <p>Verify that the information of all the devices is read and each one is notified.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReadDevicesInfo() throws Exception {
+		// Call the method under test.
+		List<RemoteXBeeDevice> unread = network.readDevicesInfo(
+				Arrays.asList(remoteDevice1, remoteDevice2, remoteDevice3), listener);
+		
+		// Verify the result.
+		assertThat(unread.size(), is(equalTo(0)));
+		for (RemoteXBeeDevice remoteDevice : Arrays.asList(remoteDevice1, remoteDevice2, remoteDevice3)) {
+			Mockito.verify(remoteDevice, Mockito.times(1)).readDeviceInfo();
+			Mockito.verify(listener, Mockito.times(1)).deviceInfoRead(remoteDevice);
+		}
+		Mockito.verify(listener, Mockito.never()).deviceInfoError(Mockito.any(RemoteXBeeDevice.class), Mockito.anyString());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#readDevicesInfo(List, IInventoryListener)}.
+	 * 
+	 * <p>Verify that a device that times out is read again.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReadDevicesInfoRetryTimeout() throws Exception {
+		// Setup the resources for the test.
+		Mockito.doThrow(new TimeoutException()).doNothing().when(remoteDevice2).readDeviceInfo();
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> unread = network.readDevicesInfo(
+				Arrays.asList(remoteDevice1, remoteDevice2), listener);
+		
+		// Verify the result.
+		assertThat(unread.size(), is(equalTo(0)));
+		Mockito.verify(remoteDevice2, Mockito.times(2)).readDeviceInfo();
+		Mockito.verify(listener, Mockito.times(1)).deviceInfoRead(remoteDevice2);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#readDevicesInfo(List, IInventoryListener)}.
+	 * 
+	 * <p>Verify that a device that fails with a non transient error is not read again and 
+	 * is returned as unread.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReadDevicesInfoNotTransientError() throws Exception {
+		// Setup the resources for the test.
+		Mockito.doThrow(new ATCommandException(ATCommandStatus.INVALID_COMMAND)).when(remoteDevice3).readDeviceInfo();
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> unread = network.readDevicesInfo(
+				Arrays.asList(remoteDevice1, remoteDevice3), listener);
+		
+		// Verify the result.
+		assertThat(unread, is(equalTo((List<RemoteXBeeDevice>)new ArrayList<RemoteXBeeDevice>(Arrays.asList(remoteDevice3)))));
+		Mockito.verify(remoteDevice3, Mockito.times(1)).readDeviceInfo();
+		Mockito.verify(listener, Mockito.times(1)).deviceInfoError(Mockito.eq(remoteDevice3), Mockito.anyString());
+		Mockito.verify(listener, Mockito.never()).deviceInfoRead(remoteDevice3);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#readDevicesInfo(List, IInventoryListener)}.
+	 * 
+	 * <p>Verify that a device that keeps failing is retried the configured number of times.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testReadDevicesInfoRetriesExhausted() throws Exception {
+		// Setup the resources for the test.
+		network.setInventoryRetries(1);
+		Mockito.doThrow(new ATCommandException(ATCommandStatus.TX_FAILURE)).when(remoteDevice1).readDeviceInfo();
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> unread = network.readDevicesInfo(Arrays.asList(remoteDevice1), null);
+		
+		// Verify the result.
+		assertThat(unread.size(), is(equalTo(1)));
+		Mockito.verify(remoteDevice1, Mockito.times(2)).readDeviceInfo();
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#setInventoryConcurrency(int)}.
+	 * 
+	 * <p>An {@code IllegalArgumentException} exception must be thrown when 
+	 * the concurrency exceeds the number of frame IDs available.</p>
+	 */
+	@Test
+	public void testSetInventoryConcurrencyTooBig() {
+		// Setup the resources for the test.
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage(is(equalTo("Inventory concurrency must be between 1 and " 
+				+ XBeeNetwork.MAX_INVENTORY_CONCURRENCY + ".")));
+		
+		// Call the method under test.
+		network.setInventoryConcurrency(XBeeNetwork.MAX_INVENTORY_CONCURRENCY + 1);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#readDevicesInfo(List, IInventoryListener)}.
+	 * 
+	 * <p>A {@code NullPointerException} exception must be thrown when 
+	 * passing a {@code null} list.</p>
+	 */
+	@Test
+	public void testReadDevicesInfoNullList() {
+		// Setup the resources for the test.
+		exception.expect(NullPointerException.class);
+		exception.expectMessage(is(equalTo("List of remote devices cannot be null.")));
+		
+		// Call the method under test.
+		network.readDevicesInfo(null, listener);
+	}
+}
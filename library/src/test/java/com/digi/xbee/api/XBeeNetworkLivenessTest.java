@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.digi.xbee.api.connection.IConnectionInterface;
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+import com.digi.xbee.api.models.XBeeProtocol;
+
+@RunWith(PowerMockRunner.class)
+public class XBeeNetworkLivenessTest {
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	// Variables.
+	private XBeeNetwork network;
+	
+	private XBeeDevice localDevice;
+	
+	private RemoteXBeeDevice remoteDevice1;
+	private RemoteXBeeDevice remoteDevice2;
+	private RemoteXBeeDevice remoteDevice3;
+	
+	@Before
+	public void setUp() {
+		// Mock the local device.
+		localDevice = PowerMockito.mock(XBeeDevice.class);
+		Mockito.when(localDevice.getConnectionInterface()).thenReturn(Mockito.mock(IConnectionInterface.class));
+		Mockito.when(localDevice.getXBeeProtocol()).thenReturn(XBeeProtocol.ZIGBEE);
+		
+		network = new XBeeNetwork(localDevice);
+		
+		remoteDevice1 = new RemoteXBeeDevice(localDevice, new XBee64BitAddress("0013A20040A6A0DB"), 
+				new XBee16BitAddress("1111"), "id1");
+		remoteDevice2 = new RemoteXBeeDevice(localDevice, new XBee64BitAddress("0013A20040AD1585"), 
+				new XBee16BitAddress("2222"), "id2");
+		remoteDevice3 = new RemoteXBeeDevice(localDevice, new XBee64BitAddress("0013A20040AD1586"), 
+				new XBee16BitAddress("3333"), "id3");
+		
+		network.addRemoteDevice(remoteDevice1);
+		network.addRemoteDevice(remoteDevice2);
+		network.addRemoteDevice(remoteDevice3);
+	}
+	
+	@After
+	public void tearDown() {
+		network.setDeviceTimeToLive(0);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteXBeeDevice#frameReceived(long)}.
+	 */
+	@Test
+	public void testFrameReceived() {
+		// Call the method under test.
+		remoteDevice1.frameReceived(1000);
+		remoteDevice1.frameReceived(2000);
+		
+		// Verify the result.
+		assertThat(remoteDevice1.getReceivedFrames(), is(equalTo(2L)));
+		assertThat(remoteDevice1.getLastSeen(), is(equalTo(2000L)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.RemoteXBeeDevice#transmitStatusReceived(int, boolean, long)}.
+	 */
+	@Test
+	public void testTransmitStatusReceived() {
+		// Setup the resources for the test.
+		long lastSeen = remoteDevice1.getLastSeen();
+		
+		// Call the method under test.
+		remoteDevice1.transmitStatusReceived(2, true, lastSeen + 1000);
+		remoteDevice1.transmitStatusReceived(1, false, lastSeen + 2000);
+		
+		// Verify the result.
+		assertThat(remoteDevice1.getTransmissions(), is(equalTo(2L)));
+		assertThat(remoteDevice1.getFailedTransmissions(), is(equalTo(1L)));
+		assertThat(remoteDevice1.getTransmitRetries(), is(equalTo(3L)));
+		assertThat(remoteDevice1.getAverageTransmitRetries(), is(equalTo(1.5)));
+		assertThat(remoteDevice1.getFailedTransmissionsRatio(), is(equalTo(0.5)));
+		// Only the delivered transmissions update the last seen time.
+		assertThat(remoteDevice1.getLastSeen(), is(equalTo(lastSeen + 1000)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getStaleDevices(long)}.
+	 */
+	@Test
+	public void testGetStaleDevices() {
+		// Setup the resources for the test.
+		long now = System.currentTimeMillis();
+		remoteDevice1.setLastSeen(now - 20000);
+		remoteDevice2.setLastSeen(now);
+		remoteDevice3.setLastSeen(now - 30000);
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> stale = network.getStaleDevices(10000);
+		
+		// Verify the result.
+		assertThat(stale.size(), is(equalTo(2)));
+		assertThat(stale.get(0), is(equalTo(remoteDevice3)));
+		assertThat(stale.get(1), is(equalTo(remoteDevice1)));
+		assertThat(network.getNumberOfDevices(), is(equalTo(3)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getStaleDevices(long)}.
+	 * 
+	 * <p>An {@code IllegalArgumentException} exception must be thrown when 
+	 * passing a negative age.</p>
+	 */
+	@Test
+	public void testGetStaleDevicesNegativeAge() {
+		// Setup the resources for the test.
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage(is(equalTo("Maximum age cannot be less than 0.")));
+		
+		// Call the method under test.
+		network.getStaleDevices(-1);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#removeStaleDevices(long)}.
+	 */
+	@Test
+	public void testRemoveStaleDevices() {
+		// Setup the resources for the test.
+		long now = System.currentTimeMillis();
+		remoteDevice1.setLastSeen(now - 20000);
+		remoteDevice2.setLastSeen(now);
+		remoteDevice3.setLastSeen(now);
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> removed = network.removeStaleDevices(10000);
+		
+		// Verify the result.
+		assertThat(removed.size(), is(equalTo(1)));
+		assertThat(removed.get(0), is(equalTo(remoteDevice1)));
+		assertThat(network.getNumberOfDevices(), is(equalTo(2)));
+		assertThat(network.getDevice(remoteDevice1.get64BitAddress()), is(equalTo(null)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#removeStaleDevices(long)}.
+	 * 
+	 * <p>Verify that the pinned devices are not removed although they are 
+	 * stale.</p>
+	 */
+	@Test
+	public void testRemoveStaleDevicesPinned() {
+		// Setup the resources for the test.
+		network.pinDevice(remoteDevice1);
+		
+		long now = System.currentTimeMillis();
+		remoteDevice1.setLastSeen(now - 20000);
+		remoteDevice2.setLastSeen(now - 20000);
+		remoteDevice3.setLastSeen(now);
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> removed = network.removeStaleDevices(10000);
+		
+		// Verify the result.
+		assertThat(removed.size(), is(equalTo(1)));
+		assertThat(removed.get(0), is(equalTo(remoteDevice2)));
+		assertThat(network.getNumberOfDevices(), is(equalTo(2)));
+		assertThat(network.getDevice(remoteDevice1.get64BitAddress()), is(equalTo(remoteDevice1)));
+		assertThat(network.getStaleDevices(10000).contains(remoteDevice1), is(equalTo(true)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#setDeviceTimeToLive(long)}.
+	 * 
+	 * @throws InterruptedException 
+	 */
+	@Test
+	public void testDeviceTimeToLive() throws InterruptedException {
+		// Setup the resources for the test.
+		long now = System.currentTimeMillis();
+		remoteDevice1.setLastSeen(now - 20000);
+		remoteDevice2.setLastSeen(now + 20000);
+		remoteDevice3.setLastSeen(now + 20000);
+		
+		// Call the method under test.
+		network.setDeviceTimeToLive(1000);
+		Thread.sleep(2000);
+		
+		// Verify the result.
+		assertThat(network.getDeviceTimeToLive(), is(equalTo(1000L)));
+		assertThat(network.getNumberOfDevices(), is(equalTo(2)));
+		assertThat(network.getDevice(remoteDevice1.get64BitAddress()), is(equalTo(null)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getWorstLinkDevices(int)}.
+	 */
+	@Test
+	public void testGetWorstLinkDevices() {
+		// Setup the resources for the test.
+		remoteDevice1.transmitStatusReceived(1, true, 0);
+		remoteDevice2.transmitStatusReceived(3, true, 0);
+		remoteDevice3.transmitStatusReceived(0, true, 0);
+		remoteDevice3.transmitStatusReceived(0, false, 0);
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> worst = network.getWorstLinkDevices(2);
+		
+		// Verify the result.
+		assertThat(worst.size(), is(equalTo(2)));
+		assertThat(worst.get(0), is(equalTo(remoteDevice3)));
+		assertThat(worst.get(1), is(equalTo(remoteDevice2)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeNetwork#getWorstLinkDevices(int)}.
+	 * 
+	 * <p>With the same transmission statistics, the device with the weakest 
+	 * signal has the worst link.</p>
+	 */
+	@Test
+	public void testGetWorstLinkDevicesRSSI() {
+		// Setup the resources for the test.
+		remoteDevice1.setRSSI(-40);
+		remoteDevice2.setRSSI(-85);
+		
+		// Call the method under test.
+		List<RemoteXBeeDevice> worst = network.getWorstLinkDevices(3);
+		
+		// Verify the result.
+		assertThat(worst.size(), is(equalTo(3)));
+		assertThat(worst.get(0), is(equalTo(remoteDevice2)));
+		assertThat(worst.get(1), is(equalTo(remoteDevice1)));
+		assertThat(worst.get(2), is(equalTo(remoteDevice3)));
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.Is.is;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.digi.xbee.api.exceptions.TimeoutException;
+import com.digi.xbee.api.models.XBee16BitAddress;
+import com.digi.xbee.api.models.XBee64BitAddress;
+
+public class XBeeRPCTest {
+	
+	// Constants.
+	private static final XBee16BitAddress XBEE_16BIT_ADDRESS = new XBee16BitAddress("0123");
+	private static final XBee64BitAddress XBEE_64BIT_ADDRESS = new XBee64BitAddress("0123456789ABCDEF");
+	private static final XBee64BitAddress OTHER_64BIT_ADDRESS = new XBee64BitAddress("0013A20040A9E77F");
+	
+	private static final byte[] REQUEST = "request".getBytes();
+	private static final byte[] RESPONSE = "response".getBytes();
+	
+	// Variables.
+	private XBeeDevice mockedDevice;
+	private RemoteXBeeDevice mockedRemoteDevice;
+	
+	// Class under test
+	private XBeeRPC rpc;
+	
+	@Before
+	public void setup() throws Exception {
+		mockedDevice = Mockito.mock(XBeeDevice.class);
+		
+		mockedRemoteDevice = Mockito.mock(RemoteXBeeDevice.class);
+		Mockito.when(mockedRemoteDevice.get64BitAddress()).thenReturn(XBEE_64BIT_ADDRESS);
+		Mockito.when(mockedRemoteDevice.get16BitAddress()).thenReturn(XBEE_16BIT_ADDRESS);
+		
+		rpc = new XBeeRPC(mockedDevice);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeRPC#call(RemoteXBeeDevice, byte[], int)}.
+	 * 
+	 * <p>Verify that the request is sent with the RPC header and the future is 
+	 * completed when the response with the same correlation ID is received.</p>
+	 * 
+	 * @throws Exception 
+	 */
+	@Test
+	public void testCallCompletedByResponse() throws Exception {
+		// Call the method under test.
+		XBeeRPCFuture future = rpc.call(mockedRemoteDevice, REQUEST, 5000);
+		
+		// Verify the sent request.
+		ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+		Mockito.verify(mockedDevice, Mockito.times(1)).sendDataAsync(Mockito.eq(mockedRemoteDevice), captor.capture());
+		byte[] sent = captor.getValue();
+		assertThat("Sent data is not a request", XBeeRPC.isRequest(sent), is(equalTo(true)));
+		assertThat("Correlation ID is not the expected one", XBeeRPC.getCorrelationID(sent), is(equalTo(future.getCorrelationID())));
+		assertThat("Request payload is not the expected one", XBeeRPC.getPayload(sent), is(equalTo(REQUEST)));
+		
+		// Receive the response.
+		boolean consumed = rpc.responseReceived(XBEE_64BIT_ADDRESS, XBEE_16BIT_ADDRESS, 
+				XBeeRPC.createResponse(future.getCorrelationID(), RESPONSE));
+		
+		// Verify the result.
+		assertThat("Response must be consumed", consumed, is(equalTo(true)));
+		assertThat("Future must be done", future.isDone(), is(equalTo(true)));
+		assertThat("Response is not the expected one", future.get(), is(equalTo(RESPONSE)));
+		assertThat("There must not be pending calls", rpc.getPendingCount(), is(equalTo(0)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeRPC#responseReceived(XBee64BitAddress, XBee16BitAddress, byte[])}.
+	 * 
+	 * <p>Verify that pipelined calls are matched by their correlation ID and 
+	 * that responses from a different device are not consumed.</p>
+	 * 
+	 * @throws Exception 
+	 */
+	@Test
+	public void testResponseReceivedPipelined() throws Exception {
+		// Setup the resources for the test.
+		XBeeRPCFuture first = rpc.call(mockedRemoteDevice, REQUEST, 5000);
+		XBeeRPCFuture second = rpc.call(mockedRemoteDevice, REQUEST, 5000);
+		
+		// Call the method under test.
+		boolean otherSender = rpc.responseReceived(OTHER_64BIT_ADDRESS, XBEE_16BIT_ADDRESS, 
+				XBeeRPC.createResponse(second.getCorrelationID(), RESPONSE));
+		boolean consumed = rpc.responseReceived(XBEE_64BIT_ADDRESS, XBEE_16BIT_ADDRESS, 
+				XBeeRPC.createResponse(second.getCorrelationID(), RESPONSE));
+		
+		// Verify the result.
+		assertThat("Response from other device must not be consumed", otherSender, is(equalTo(false)));
+		assertThat("Response must be consumed", consumed, is(equalTo(true)));
+		assertThat("Second call must be done", second.isDone(), is(equalTo(true)));
+		assertThat("First call must be pending", first.isDone(), is(equalTo(false)));
+		assertThat("Pending calls count is not the expected one", rpc.getPendingCount(), is(equalTo(1)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeRPC#responseReceived(XBee64BitAddress, XBee16BitAddress, byte[])}.
+	 * 
+	 * <p>Verify that regular data is not consumed.</p>
+	 */
+	@Test
+	public void testResponseReceivedRegularData() {
+		// Call the method under test.
+		boolean consumed = rpc.responseReceived(XBEE_64BIT_ADDRESS, XBEE_16BIT_ADDRESS, RESPONSE);
+		
+		// Verify the result.
+		assertThat("Regular data must not be consumed", consumed, is(equalTo(false)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.XBeeRPC#call(RemoteXBeeDevice, byte[], int)}.
+	 * 
+	 * <p>Verify that the future fails with a {@code TimeoutException} if no 
+	 * response is received in time.</p>
+	 * 
+	 * @throws Exception 
+	 */
+	@Test
+	public void testCallTimeout() throws Exception {
+		// Call the method under test.
+		XBeeRPCFuture future = rpc.call(mockedRemoteDevice, REQUEST, 50);
+		
+		// Verify the result.
+		try {
+			future.get();
+			fail("Future must fail with a timeout");
+		} catch (ExecutionException e) {
+			assertThat("Cause is not the expected one", e.getCause(), is(instanceOf(TimeoutException.class)));
+		}
+		assertThat("There must not be pending calls", rpc.getPendingCount(), is(equalTo(0)));
+	}
+}
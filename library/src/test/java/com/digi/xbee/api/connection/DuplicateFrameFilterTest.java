@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.connection;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.Is.is;
+
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class DuplicateFrameFilterTest {
+	
+	// Constants.
+	private static final long SOURCE = 0x0013A20040A9E77FL;
+	private static final long WINDOW = 1000;
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	// Class under test
+	private DuplicateFrameFilter filter;
+	
+	private byte[] data;
+	
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		filter = new DuplicateFrameFilter(WINDOW, 16);
+		data = new byte[]{0x48, 0x6F, 0x6C, 0x61};
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.DuplicateFrameFilter#DuplicateFrameFilter(long, int)}.
+	 * 
+	 * <p>An {@code IllegalArgumentException} exception must be thrown when the 
+	 * window is not greater than 0.</p>
+	 */
+	@Test
+	public final void testCreateInvalidWindow() {
+		// Setup the resources for the test.
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage(is(equalTo("Window must be greater than 0.")));
+		
+		// Call the method under test that should throw an IllegalArgumentException.
+		new DuplicateFrameFilter(0, 16);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.DuplicateFrameFilter#isDuplicate(long, byte[], int, int, long)}.
+	 * 
+	 * <p>A repeated frame received within the window must be a duplicate and 
+	 * be counted as suppressed.</p>
+	 */
+	@Test
+	public final void testIsDuplicateWithinWindow() {
+		// Call the method under test.
+		boolean first = filter.isDuplicate(SOURCE, data, 0, data.length, 0);
+		boolean second = filter.isDuplicate(SOURCE, data, 0, data.length, WINDOW - 1);
+		
+		// Verify the result.
+		assertThat("First frame must not be a duplicate", first, is(equalTo(false)));
+		assertThat("Repeated frame must be a duplicate", second, is(equalTo(true)));
+		assertThat("Suppressed count is not the expected one", filter.getSuppressedCount(), is(equalTo(1L)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.DuplicateFrameFilter#isDuplicate(long, byte[], int, int, long)}.
+	 * 
+	 * <p>Frames with a different source or payload must not be duplicates.</p>
+	 */
+	@Test
+	public final void testIsDuplicateDifferentFrames() {
+		// Setup the resources for the test.
+		byte[] otherData = {0x48, 0x6F, 0x6C, 0x62};
+		filter.isDuplicate(SOURCE, data, 0, data.length, 0);
+		
+		// Call the method under test.
+		boolean otherSource = filter.isDuplicate(SOURCE + 1, data, 0, data.length, 1);
+		boolean otherPayload = filter.isDuplicate(SOURCE, otherData, 0, otherData.length, 2);
+		
+		// Verify the result.
+		assertThat("Frame from other source must not be a duplicate", otherSource, is(equalTo(false)));
+		assertThat("Frame with other payload must not be a duplicate", otherPayload, is(equalTo(false)));
+		assertThat("Suppressed count is not the expected one", filter.getSuppressedCount(), is(equalTo(0L)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.DuplicateFrameFilter#isDuplicate(long, byte[], int, int, long)}.
+	 * 
+	 * <p>A repeated frame received once the window expired must not be a 
+	 * duplicate.</p>
+	 */
+	@Test
+	public final void testIsDuplicateWindowExpired() {
+		// Setup the resources for the test.
+		filter.isDuplicate(SOURCE, data, 0, data.length, 0);
+		
+		// Call the method under test.
+		boolean result = filter.isDuplicate(SOURCE, data, 0, data.length, 2 * WINDOW);
+		
+		// Verify the result.
+		assertThat("Frame received after the window must not be a duplicate", result, is(equalTo(false)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.DuplicateFrameFilter#isDuplicate(long, byte[], int, int, long)}.
+	 * 
+	 * <p>The memory used must be bounded: once more distinct frames than the 
+	 * capacity are received, the oldest ones are forgotten.</p>
+	 */
+	@Test
+	public final void testIsDuplicateCapacityBounded() {
+		// Setup the resources for the test.
+		byte[] frame = new byte[1];
+		for (int i = 0; i < 40; i++) {
+			frame[0] = (byte)i;
+			filter.isDuplicate(SOURCE, frame, 0, 1, 0);
+		}
+		
+		// Call the method under test.
+		frame[0] = 0;
+		boolean oldest = filter.isDuplicate(SOURCE, frame, 0, 1, 0);
+		frame[0] = 39;
+		boolean newest = filter.isDuplicate(SOURCE, frame, 0, 1, 0);
+		
+		// Verify the result.
+		assertThat("Oldest frame must have been forgotten", oldest, is(equalTo(false)));
+		assertThat("Newest frame must be a duplicate", newest, is(equalTo(true)));
+	}
+}
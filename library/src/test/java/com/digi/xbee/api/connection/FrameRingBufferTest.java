@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.connection;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.digi.xbee.api.listeners.IFrameRingListener;
+import com.digi.xbee.api.models.FrameWaitStrategy;
+import com.digi.xbee.api.packet.APIFrameType;
+
+public class FrameRingBufferTest {
+	
+	// Constants.
+	private static final int RING_SIZE = 4;
+	
+	private static final byte[] TRANSMIT_STATUS_FRAME = new byte[] {(byte)0x8B, 0x2A, (byte)0xFF, (byte)0xFE, 0x00, 0x00, 0x00};
+	
+	// Variables.
+	private FrameRingBuffer ringBuffer;
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	/**
+	 * Listener that records the received entries and sequences.
+	 */
+	class TestRingListener implements IFrameRingListener {
+		
+		ArrayList<FrameRingEntry> entries = new ArrayList<FrameRingEntry>();
+		ArrayList<Long> sequences = new ArrayList<Long>();
+		ArrayList<Integer> frameIDs = new ArrayList<Integer>();
+		CountDownLatch latch;
+		
+		TestRingListener(int expectedFrames) {
+			latch = new CountDownLatch(expectedFrames);
+		}
+		
+		@Override
+		public void frameReceived(FrameRingEntry entry, long sequence, boolean endOfBatch) {
+			entries.add(entry);
+			sequences.add(sequence);
+			frameIDs.add(entry.getFrameID());
+			latch.countDown();
+		}
+	}
+	
+	@Before
+	public void setUp() throws Exception {
+		ringBuffer = new FrameRingBuffer(RING_SIZE);
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		ringBuffer.stop();
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.FrameRingBuffer#FrameRingBuffer(int)}.
+	 * 
+	 * <p>An {@code IllegalArgumentException} exception must be thrown when the 
+	 * size is not a power of 2.</p>
+	 */
+	@Test
+	public void testCreateRingBufferSizeNotPowerOfTwo() {
+		// Setup the resources for the test.
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage(is(equalTo("Size must be a power of 2.")));
+		
+		// Call the method under test that should throw an IllegalArgumentException.
+		new FrameRingBuffer(6);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.FrameRingBuffer#addConsumer(IFrameRingListener, FrameWaitStrategy)}.
+	 * 
+	 * <p>A {@code NullPointerException} exception must be thrown when the 
+	 * wait strategy is {@code null}.</p>
+	 */
+	@Test
+	public void testAddConsumerNullWaitStrategy() {
+		// Setup the resources for the test.
+		exception.expect(NullPointerException.class);
+		exception.expectMessage(is(equalTo("Wait strategy cannot be null.")));
+		
+		// Call the method under test that should throw a NullPointerException.
+		ringBuffer.addConsumer(new TestRingListener(0), null);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.FrameRingBuffer#publish(byte[], int, int, long)}.
+	 * 
+	 * <p>Every consumer must receive all the published frames in order, 
+	 * whatever its wait strategy is, and the entries must be reused once the 
+	 * ring wraps.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testPublishAllConsumersReceiveFramesInOrder() throws Exception {
+		// Setup the resources for the test.
+		int frames = RING_SIZE * 3;
+		ArrayList<TestRingListener> listeners = new ArrayList<TestRingListener>();
+		for (FrameWaitStrategy waitStrategy:FrameWaitStrategy.values()) {
+			TestRingListener listener = new TestRingListener(frames);
+			listeners.add(listener);
+			ringBuffer.addConsumer(listener, waitStrategy);
+		}
+		
+		// Call the method under test.
+		for (int i = 0; i < frames; i++)
+			ringBuffer.publish(TRANSMIT_STATUS_FRAME, 0, TRANSMIT_STATUS_FRAME.length, i);
+		
+		// Verify the result.
+		assertThat(ringBuffer.getCursor(), is(equalTo((long)frames - 1)));
+		for (TestRingListener listener:listeners) {
+			assertThat(listener.latch.await(5, TimeUnit.SECONDS), is(equalTo(true)));
+			for (int i = 0; i < frames; i++) {
+				assertThat(listener.sequences.get(i), is(equalTo((long)i)));
+				assertThat(listener.frameIDs.get(i), is(equalTo(0x2A)));
+			}
+			assertThat(listener.entries.get(RING_SIZE), is(sameInstance(listener.entries.get(0))));
+		}
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.FrameRingBuffer#publish(byte[], int, int, long)}.
+	 * 
+	 * <p>If the slowest consumer is a whole ring behind, the producer must 
+	 * wait for it only up to the maximum publish wait and then drop the 
+	 * frames until the consumer catches up.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testPublishSlowConsumerDropsFrames() throws Exception {
+		// Setup the resources for the test.
+		final CountDownLatch release = new CountDownLatch(1);
+		TestRingListener listener = new TestRingListener(RING_SIZE + 1);
+		ringBuffer.addConsumer(new IFrameRingListener() {
+			@Override
+			public void frameReceived(FrameRingEntry entry, long sequence, boolean endOfBatch) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {}
+			}
+		}, FrameWaitStrategy.BLOCKING);
+		ringBuffer.addConsumer(listener, FrameWaitStrategy.BLOCKING);
+		ringBuffer.setMaxPublishWait(100);
+		
+		// Call the method under test.
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < RING_SIZE * 3; i++)
+			ringBuffer.publish(TRANSMIT_STATUS_FRAME, 0, TRANSMIT_STATUS_FRAME.length, i);
+		long elapsed = System.currentTimeMillis() - start;
+		
+		// Verify the result.
+		assertThat(elapsed < 1000, is(equalTo(true)));
+		assertThat(ringBuffer.getCursor(), is(equalTo((long)RING_SIZE - 1)));
+		assertThat(ringBuffer.getDroppedFrames(), is(equalTo((long)RING_SIZE * 2)));
+		
+		// Once the slow consumer catches up, the frames are published again.
+		release.countDown();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (ringBuffer.getCursor() < RING_SIZE && System.currentTimeMillis() < deadline) {
+			ringBuffer.publish(TRANSMIT_STATUS_FRAME, 0, TRANSMIT_STATUS_FRAME.length, 0);
+			Thread.sleep(10);
+		}
+		assertThat(listener.latch.await(5, TimeUnit.SECONDS), is(equalTo(true)));
+		assertThat(ringBuffer.getCursor(), is(equalTo((long)RING_SIZE)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.FrameRingBuffer#setMaxPublishWait(long)}.
+	 * 
+	 * <p>An {@code IllegalArgumentException} must be thrown if the maximum 
+	 * wait is negative.</p>
+	 */
+	@Test
+	public void testSetMaxPublishWaitNegative() {
+		// Setup the resources for the test.
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage(is(equalTo("Maximum publish wait cannot be less than 0.")));
+		
+		// Call the method under test.
+		ringBuffer.setMaxPublishWait(-1);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.connection.FrameRingEntry#getFrameType()}.
+	 * 
+	 * <p>The entry must contain a copy of the published frame data.</p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testPublishEntryContents() throws Exception {
+		// Setup the resources for the test.
+		TestRingListener listener = new TestRingListener(1);
+		final byte[][] copiedData = new byte[1][];
+		final APIFrameType[] frameType = new APIFrameType[1];
+		ringBuffer.addConsumer(new IFrameRingListener() {
+			@Override
+			public void frameReceived(FrameRingEntry entry, long sequence, boolean endOfBatch) {
+				copiedData[0] = entry.copyData();
+				frameType[0] = entry.getFrameType();
+			}
+		}, FrameWaitStrategy.BLOCKING);
+		ringBuffer.addConsumer(listener, FrameWaitStrategy.BLOCKING);
+		
+		// Call the method under test.
+		ringBuffer.publish(TRANSMIT_STATUS_FRAME, 0, TRANSMIT_STATUS_FRAME.length, 1234);
+		
+		// Verify the result.
+		assertThat(listener.latch.await(5, TimeUnit.SECONDS), is(equalTo(true)));
+		assertThat(listener.entries.get(0).getTimestamp(), is(equalTo(1234L)));
+		assertThat(listener.entries.get(0).getLength(), is(equalTo(TRANSMIT_STATUS_FRAME.length)));
+		
+		ringBuffer.removeConsumer(listener);
+		assertThat(ringBuffer.getNumberOfConsumers(), is(equalTo(1)));
+		
+		// Wait for the other consumer.
+		long deadline = System.currentTimeMillis() + 5000;
+		while (copiedData[0] == null && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+		assertThat(copiedData[0], is(equalTo(TRANSMIT_STATUS_FRAME)));
+		assertThat(frameType[0], is(equalTo(APIFrameType.TRANSMIT_STATUS)));
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+import com.digi.xbee.api.listeners.IIODigitalChangeListener;
+import com.digi.xbee.api.models.XBee64BitAddress;
+
+public class IODigitalChangeDetectorTest {
+	
+	// Constants.
+	private static final XBee64BitAddress ADDRESS = new XBee64BitAddress("0013A20040A6A0DB");
+	
+	// Variables.
+	private RemoteXBeeDevice remoteDevice;
+	
+	private IODigitalChangeDetector detector;
+	
+	@Before
+	public void setup() {
+		remoteDevice = Mockito.mock(RemoteXBeeDevice.class);
+		Mockito.when(remoteDevice.get64BitAddress()).thenReturn(ADDRESS);
+		detector = new IODigitalChangeDetector();
+	}
+	
+	/**
+	 * Creates an IO sample with the given digital lines.
+	 * 
+	 * @param mask The digital mask.
+	 * @param states The digital values.
+	 * 
+	 * @return The IO sample.
+	 */
+	private IOSample createSample(int mask, int states) {
+		return new IOSample(new byte[]{0x01, (byte)(mask >> 8), (byte)mask, 0x00, 
+				(byte)(states >> 8), (byte)states});
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IODigitalChangeDetector#addSample(RemoteXBeeDevice, IOSample)}.
+	 * 
+	 * <p>Verify that the first sample and the samples without changes are 
+	 * not reported.</p>
+	 */
+	@Test
+	public void testAddSampleNoChanges() {
+		// Call the method under test.
+		IODigitalChange first = detector.addSample(remoteDevice, createSample(0x0011, 0x0001));
+		IODigitalChange second = detector.addSample(remoteDevice, createSample(0x0011, 0x0001));
+		
+		// Verify the result.
+		assertThat(first, is(nullValue()));
+		assertThat(second, is(nullValue()));
+		assertThat(detector.getDigitalMask(remoteDevice), is(equalTo(0x0011)));
+		assertThat(detector.getDigitalStates(remoteDevice), is(equalTo(0x0001)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IODigitalChangeDetector#addSample(RemoteXBeeDevice, IOSample)}.
+	 * 
+	 * <p>Verify that only the lines whose value changed or that were not in 
+	 * the previous sample are reported.</p>
+	 */
+	@Test
+	public void testAddSampleChanges() {
+		// Setup the resources for the test.
+		detector.addSample(remoteDevice, createSample(0x0011, 0x0001));
+		
+		// Call the method under test.
+		IODigitalChange change = detector.addSample(remoteDevice, createSample(0x0211, 0x0210));
+		
+		// Verify the result.
+		assertThat(change.getChangedLines(), is(equalTo(0x0211)));
+		assertThat(change.getChangedIOLines(), is(equalTo(Arrays.asList(IOLine.DIO0_AD0, IOLine.DIO4_AD4, IOLine.DIO9))));
+		assertThat(change.getValue(IOLine.DIO0_AD0), is(equalTo(IOValue.LOW)));
+		assertThat(change.getPreviousValue(IOLine.DIO0_AD0), is(equalTo(IOValue.HIGH)));
+		assertThat(change.getValue(IOLine.DIO9), is(equalTo(IOValue.HIGH)));
+		assertThat(change.getPreviousValue(IOLine.DIO9), is(nullValue()));
+		assertThat(change.hasChanged(IOLine.DIO1_AD1), is(equalTo(false)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IODigitalChangeDetector#ioSampleReceived(RemoteXBeeDevice, IOSample)}.
+	 * 
+	 * <p>Verify that the listeners are only notified when a line changes.</p>
+	 */
+	@Test
+	public void testListenerNotifiedOnlyOnChanges() {
+		// Setup the resources for the test.
+		IIODigitalChangeListener listener = Mockito.mock(IIODigitalChangeListener.class);
+		detector.addChangeListener(listener);
+		
+		// Call the method under test.
+		detector.ioSampleReceived(remoteDevice, createSample(0x0001, 0x0000));
+		detector.ioSampleReceived(remoteDevice, createSample(0x0001, 0x0000));
+		detector.ioSampleReceived(remoteDevice, createSample(0x0001, 0x0001));
+		detector.ioSampleReceived(remoteDevice, createSample(0x0001, 0x0001));
+		
+		// Verify the result.
+		Mockito.verify(listener, Mockito.times(1)).digitalChangeReceived(Mockito.eq(remoteDevice), Mockito.any(IODigitalChange.class));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IODigitalChangeDetector#addSample(RemoteXBeeDevice, IOSample)}.
+	 * 
+	 * <p>Verify that the samples of different objects of the same device are 
+	 * compared with each other.</p>
+	 */
+	@Test
+	public void testAddSampleSameAddress() {
+		// Setup the resources for the test.
+		RemoteXBeeDevice sameDevice = Mockito.mock(RemoteXBeeDevice.class);
+		Mockito.when(sameDevice.get64BitAddress()).thenReturn(new XBee64BitAddress(ADDRESS.getValue()));
+		detector.addSample(remoteDevice, createSample(0x0011, 0x0001));
+		
+		// Call the method under test.
+		IODigitalChange change = detector.addSample(sameDevice, createSample(0x0011, 0x0000));
+		
+		// Verify the result.
+		assertThat(change.getChangedLines(), is(equalTo(0x0001)));
+		assertThat(detector.getDigitalStates(remoteDevice), is(equalTo(0x0000)));
+	}
+}
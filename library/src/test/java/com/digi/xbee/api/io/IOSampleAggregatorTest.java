@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+import com.digi.xbee.api.listeners.IIOAggregateListener;
+import com.digi.xbee.api.models.XBee64BitAddress;
+
+public class IOSampleAggregatorTest {
+	
+	// Constants.
+	private static final XBee64BitAddress ADDRESS = new XBee64BitAddress("0013A20040A6A0DB");
+	
+	// Variables.
+	private RemoteXBeeDevice remoteDevice;
+	
+	private List<IOAggregate> aggregates;
+	
+	private IIOAggregateListener listener;
+	
+	@Before
+	public void setup() {
+		remoteDevice = Mockito.mock(RemoteXBeeDevice.class);
+		Mockito.when(remoteDevice.get64BitAddress()).thenReturn(ADDRESS);
+		aggregates = new ArrayList<IOAggregate>();
+		listener = new IIOAggregateListener() {
+			@Override
+			public void aggregateReceived(RemoteXBeeDevice remoteDevice, IOAggregate aggregate) {
+				aggregates.add(aggregate);
+			}
+		};
+	}
+	
+	/**
+	 * Creates an IO sample with DIO1 as analog line.
+	 * 
+	 * @param analogValue The value of DIO1.
+	 * 
+	 * @return The IO sample.
+	 */
+	private IOSample createSample(int analogValue) {
+		return new IOSample(new byte[]{0x01, 0x00, 0x00, 0x02, (byte)(analogValue >> 8), (byte)analogValue});
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleAggregator#IOSampleAggregator(long, long)}.
+	 * 
+	 * <p>Verify that the aggregator cannot be created with a window size 
+	 * that is not a multiple of the slide.</p>
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testCreateAggregatorInvalidWindowSize() {
+		new IOSampleAggregator(1500, 1000);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleAggregator#addSample(RemoteXBeeDevice, IOSample, long)}.
+	 * 
+	 * <p>Verify that tumbling windows are notified when a sample of a later 
+	 * window is received.</p>
+	 */
+	@Test
+	public void testTumblingWindows() {
+		// Setup the resources for the test.
+		IOSampleAggregator aggregator = new IOSampleAggregator(1000, 1000);
+		aggregator.addAggregateListener(listener);
+		
+		// Call the method under test.
+		aggregator.addSample(remoteDevice, createSample(10), 100);
+		aggregator.addSample(remoteDevice, createSample(30), 900);
+		aggregator.addSample(remoteDevice, createSample(50), 5200);
+		
+		// Verify the result.
+		assertThat(aggregates.size(), is(equalTo(1)));
+		IOAggregate aggregate = aggregates.get(0);
+		assertThat(aggregate.getIOLine(), is(equalTo(IOLine.DIO1_AD1)));
+		assertThat(aggregate.getWindowStart(), is(equalTo(0L)));
+		assertThat(aggregate.getWindowEnd(), is(equalTo(1000L)));
+		assertThat(aggregate.getMin(), is(equalTo(10)));
+		assertThat(aggregate.getMax(), is(equalTo(30)));
+		assertThat(aggregate.getMean(), is(equalTo(20.0)));
+		assertThat(aggregate.getLast(), is(equalTo(30)));
+		assertThat(aggregate.getCount(), is(equalTo(2)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleAggregator#closeWindows(long)}.
+	 * 
+	 * <p>Verify that sliding windows combine the values of their slides and 
+	 * are notified when they are closed.</p>
+	 */
+	@Test
+	public void testSlidingWindows() {
+		// Setup the resources for the test.
+		IOSampleAggregator aggregator = new IOSampleAggregator(2000, 1000);
+		aggregator.addAggregateListener(listener);
+		aggregator.addSample(remoteDevice, createSample(10), 500);
+		aggregator.addSample(remoteDevice, createSample(20), 1500);
+		
+		// Call the method under test.
+		aggregator.closeWindows(3000);
+		
+		// Verify the result.
+		assertThat(aggregates.size(), is(equalTo(3)));
+		assertThat(aggregates.get(0).getWindowStart(), is(equalTo(-1000L)));
+		assertThat(aggregates.get(0).getCount(), is(equalTo(1)));
+		assertThat(aggregates.get(1).getWindowStart(), is(equalTo(0L)));
+		assertThat(aggregates.get(1).getMean(), is(equalTo(15.0)));
+		assertThat(aggregates.get(1).getLast(), is(equalTo(20)));
+		assertThat(aggregates.get(2).getWindowStart(), is(equalTo(1000L)));
+		assertThat(aggregates.get(2).getMin(), is(equalTo(20)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleAggregator#getSnapshot(RemoteXBeeDevice, IOLine)}.
+	 * 
+	 * <p>Verify that the statistics of the open window are returned without 
+	 * closing it.</p>
+	 */
+	@Test
+	public void testGetSnapshot() {
+		// Setup the resources for the test.
+		IOSampleAggregator aggregator = new IOSampleAggregator(1000, 1000);
+		aggregator.addAggregateListener(listener);
+		aggregator.addSample(remoteDevice, createSample(40), 2100);
+		aggregator.addSample(remoteDevice, createSample(20), 2200);
+		
+		// Call the method under test.
+		IOAggregate snapshot = aggregator.getSnapshot(remoteDevice, IOLine.DIO1_AD1);
+		
+		// Verify the result.
+		assertThat(snapshot.getWindowStart(), is(equalTo(2000L)));
+		assertThat(snapshot.getMin(), is(equalTo(20)));
+		assertThat(snapshot.getMax(), is(equalTo(40)));
+		assertThat(aggregates.size(), is(equalTo(0)));
+		assertThat(aggregator.getSnapshot(remoteDevice, IOLine.DIO2_AD2), is(nullValue()));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleAggregator#addSample(RemoteXBeeDevice, IOSample, long)}.
+	 * 
+	 * <p>Verify that the samples of different objects of the same device are 
+	 * aggregated in the same windows.</p>
+	 */
+	@Test
+	public void testAddSampleSameAddress() {
+		// Setup the resources for the test.
+		RemoteXBeeDevice sameDevice = Mockito.mock(RemoteXBeeDevice.class);
+		Mockito.when(sameDevice.get64BitAddress()).thenReturn(new XBee64BitAddress(ADDRESS.getValue()));
+		IOSampleAggregator aggregator = new IOSampleAggregator(1000, 1000);
+		aggregator.addAggregateListener(listener);
+		aggregator.addSample(remoteDevice, createSample(40), 2100);
+		
+		// Call the method under test.
+		aggregator.addSample(sameDevice, createSample(20), 2200);
+		
+		// Verify the result.
+		IOAggregate snapshot = aggregator.getSnapshot(remoteDevice, IOLine.DIO1_AD1);
+		assertThat(snapshot.getMin(), is(equalTo(20)));
+		assertThat(snapshot.getMax(), is(equalTo(40)));
+	}
+}
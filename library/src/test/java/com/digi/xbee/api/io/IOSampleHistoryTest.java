@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.io;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.digi.xbee.api.RemoteXBeeDevice;
+import com.digi.xbee.api.models.XBee64BitAddress;
+
+public class IOSampleHistoryTest {
+	
+	// Constants.
+	private static final XBee64BitAddress ADDRESS = new XBee64BitAddress("0013A20040A6A0DB");
+	
+	// Variables.
+	private RemoteXBeeDevice remoteDevice;
+	
+	@Before
+	public void setup() {
+		remoteDevice = Mockito.mock(RemoteXBeeDevice.class);
+		Mockito.when(remoteDevice.get64BitAddress()).thenReturn(ADDRESS);
+	}
+	
+	/**
+	 * Creates an IO sample with DIO0 as digital line and DIO1 as analog line.
+	 * 
+	 * @param digitalValue The value of DIO0.
+	 * @param analogValue The value of DIO1.
+	 * 
+	 * @return The IO sample.
+	 */
+	private IOSample createSample(int digitalValue, int analogValue) {
+		return new IOSample(new byte[]{0x01, 0x00, 0x01, 0x02, 0x00, (byte)digitalValue, 
+				(byte)(analogValue >> 8), (byte)analogValue});
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleHistory#IOSampleHistory(int, long)}.
+	 * 
+	 * <p>Verify that the history cannot be created with a capacity less 
+	 * than 1.</p>
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testCreateHistoryInvalidCapacity() {
+		new IOSampleHistory(0, 0);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleHistory#getLatestValue(RemoteXBeeDevice, IOLine, int)}.
+	 * 
+	 * <p>Verify that the latest values of the digital and analog lines are 
+	 * returned and the default value is returned for unknown lines.</p>
+	 */
+	@Test
+	public void testGetLatestValue() {
+		// Setup the resources for the test.
+		IOSampleHistory history = new IOSampleHistory(4, 0);
+		history.addSample(remoteDevice, createSample(1, 100), 1000);
+		history.addSample(remoteDevice, createSample(0, 200), 2000);
+		
+		// Verify the result.
+		assertThat(history.getLatestValue(remoteDevice, IOLine.DIO0_AD0, -1), is(equalTo(0)));
+		assertThat(history.getLatestValue(remoteDevice, IOLine.DIO1_AD1, -1), is(equalTo(200)));
+		assertThat(history.getLatestTimestamp(remoteDevice, IOLine.DIO1_AD1), is(equalTo(2000L)));
+		assertThat(history.getLatestValue(remoteDevice, IOLine.DIO2_AD2, -1), is(equalTo(-1)));
+		assertThat(history.getLatestTimestamp(remoteDevice, IOLine.DIO2_AD2), is(equalTo(-1L)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleHistory#getRange(RemoteXBeeDevice, IOLine, long, long)}.
+	 * 
+	 * <p>Verify that the oldest values are discarded when the buffer is full 
+	 * and only the values of the range are returned.</p>
+	 */
+	@Test
+	public void testGetRangeCapacity() {
+		// Setup the resources for the test.
+		IOSampleHistory history = new IOSampleHistory(3, 0);
+		for (int i = 1; i <= 5; i++)
+			history.addSample(remoteDevice, createSample(i % 2, i * 10), i * 1000);
+		
+		// Call the method under test.
+		IOTimeSeries all = history.getRange(remoteDevice, IOLine.DIO1_AD1, 0, Long.MAX_VALUE);
+		IOTimeSeries range = history.getRange(remoteDevice, IOLine.DIO1_AD1, 4000, 5000);
+		
+		// Verify the result.
+		assertArrayEquals(new long[]{3000, 4000, 5000}, all.getTimestamps());
+		assertArrayEquals(new int[]{30, 40, 50}, all.getValues());
+		assertArrayEquals(new long[]{4000}, range.getTimestamps());
+		assertArrayEquals(new int[]{40}, range.getValues());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleHistory#getDownsampledRange(RemoteXBeeDevice, IOLine, long, long, long)}.
+	 * 
+	 * <p>Verify that the values are averaged in intervals and the intervals 
+	 * without values are skipped.</p>
+	 */
+	@Test
+	public void testGetDownsampledRange() {
+		// Setup the resources for the test.
+		IOSampleHistory history = new IOSampleHistory(10, 0);
+		history.addSample(remoteDevice, createSample(0, 10), 0);
+		history.addSample(remoteDevice, createSample(0, 20), 500);
+		history.addSample(remoteDevice, createSample(0, 60), 2100);
+		
+		// Call the method under test.
+		IOTimeSeries series = history.getDownsampledRange(remoteDevice, IOLine.DIO1_AD1, 0, 3000, 1000);
+		
+		// Verify the result.
+		assertArrayEquals(new long[]{0, 2000}, series.getTimestamps());
+		assertArrayEquals(new int[]{15, 60}, series.getValues());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleHistory#addSample(RemoteXBeeDevice, IOSample, long)}.
+	 * 
+	 * <p>Verify that the values older than the retention time are 
+	 * discarded.</p>
+	 */
+	@Test
+	public void testRetention() {
+		// Setup the resources for the test.
+		long now = System.currentTimeMillis();
+		IOSampleHistory history = new IOSampleHistory(10, 60000);
+		history.addSample(remoteDevice, createSample(1, 10), now - 120000);
+		history.addSample(remoteDevice, createSample(1, 20), now);
+		
+		// Call the method under test.
+		IOTimeSeries series = history.getRange(remoteDevice, IOLine.DIO0_AD0, 0, Long.MAX_VALUE);
+		
+		// Verify the result.
+		assertArrayEquals(new long[]{now}, series.getTimestamps());
+		assertArrayEquals(new int[]{1}, series.getValues());
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSampleHistory#addSample(RemoteXBeeDevice, IOSample, long)}.
+	 * 
+	 * <p>Verify that the samples of different objects of the same device are 
+	 * stored in the same history.</p>
+	 */
+	@Test
+	public void testAddSampleSameAddress() {
+		// Setup the resources for the test.
+		RemoteXBeeDevice sameDevice = Mockito.mock(RemoteXBeeDevice.class);
+		Mockito.when(sameDevice.get64BitAddress()).thenReturn(new XBee64BitAddress(ADDRESS.getValue()));
+		IOSampleHistory history = new IOSampleHistory(4, 0);
+		history.addSample(remoteDevice, createSample(1, 100), 1000);
+		
+		// Call the method under test.
+		history.addSample(sameDevice, createSample(0, 200), 2000);
+		
+		// Verify the result.
+		assertThat(history.getDevices().size(), is(equalTo(1)));
+		assertThat(history.getDevices().get(0), is(equalTo(sameDevice)));
+		assertThat(history.getLatestValue(remoteDevice, IOLine.DIO1_AD1, -1), is(equalTo(200)));
+		assertArrayEquals(new long[]{1000, 2000}, history.getRange(remoteDevice, IOLine.DIO0_AD0, 0, Long.MAX_VALUE).getTimestamps());
+	}
+}
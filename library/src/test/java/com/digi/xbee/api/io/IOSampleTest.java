@@ -457,4 +457,50 @@ public class IOSampleTest {
 		// Verify the result.
 		assertThat(result, is(equalTo(expected)));
 	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSample#getDigitalStates()}.
+	 */
+	@Test
+	public void testGetDigitalStates() {
+		// Setup the resources for the test.
+		IOSample ioSample = new IOSample(IO_DATA_MIXED);
+		
+		// Call the method under test.
+		int result = ioSample.getDigitalStates() & ioSample.getDigitalMask();
+		
+		// Verify the result, DIO0 and DIO9 are HIGH.
+		assertThat(result, is(equalTo(0x0201)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSample#getAnalogLinesMask()}.
+	 */
+	@Test
+	public void testGetAnalogLinesMask() {
+		// Setup the resources for the test.
+		IOSample ioSample = new IOSample(IO_DATA_MIXED);
+		
+		// Call the method under test.
+		int result = ioSample.getAnalogLinesMask();
+		
+		// Verify the result, DIO1 and DIO3 without the power supply voltage.
+		assertThat(result, is(equalTo(0x0A)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.io.IOSample#getAnalogValue(IOLine, int)}.
+	 */
+	@Test
+	public void testGetAnalogValueWithDefault() {
+		// Setup the resources for the test.
+		IOSample ioSample = new IOSample(IO_DATA_MIXED);
+		
+		// Call the method under test and verify the result.
+		assertThat(ioSample.getAnalogValue(IOLine.DIO1_AD1, -1), is(equalTo(DIO1_ANALOG_VALUE)));
+		assertThat(ioSample.getAnalogValue(IOLine.DIO3_AD3, -1), is(equalTo(DIO3_ANALOG_VALUE)));
+		assertThat(ioSample.getAnalogValue(IOLine.DIO2_AD2, -1), is(equalTo(-1)));
+		assertThat(ioSample.getAnalogValue(IOLine.DIO19, -1), is(equalTo(-1)));
+		assertThat(ioSample.getAnalogValue(null, -1), is(equalTo(-1)));
+	}
 }
@@ -19,6 +19,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.nio.ByteBuffer;
+
 import org.junit.Test;
 
 public class XBee16BitAddressTest {
@@ -419,4 +421,49 @@ public class XBee16BitAddressTest {
 		assertThat("Consistent hashcode test fails", addr.hashCode(), is(equalTo(initialHashCode)));
 		assertThat("Consistent hashcode test fails", addr.hashCode(), is(equalTo(initialHashCode)));
 	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.models.XBee16BitAddress#toInt()} 
+	 * and {@link com.digi.xbee.api.models.XBee16BitAddress#fromInt(int)}.
+	 */
+	@Test
+	public final void testToIntFromInt() {
+		// Setup the resources for the test.
+		XBee16BitAddress addr = new XBee16BitAddress(VALID_STRING);
+		
+		// Call the method under test.
+		int value = addr.toInt();
+		XBee16BitAddress result = XBee16BitAddress.fromInt(value);
+		
+		// Verify the result.
+		assertThat("Returned value is not the expected one", value, is(equalTo(0x2142)));
+		assertThat("Returned address is not the expected one", result, is(equalTo(addr)));
+		assertArrayEquals(VALID_BYTE_ARRAY, result.getValue());
+		assertThat("Unknown address must be interned", XBee16BitAddress.fromInt(0xFFFE) == XBee16BitAddress.UNKNOWN_ADDRESS, is(equalTo(true)));
+		assertThat("Broadcast address must be interned", XBee16BitAddress.fromInt(0xFFFF) == XBee16BitAddress.BROADCAST_ADDRESS, is(equalTo(true)));
+		assertThat("Coordinator address must be interned", XBee16BitAddress.fromInt(0) == XBee16BitAddress.COORDINATOR_ADDRESS, is(equalTo(true)));
+		// Test with out of range value.
+		try {
+			XBee16BitAddress.fromInt(0x10000);
+			fail("Object should not have been created.");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), IllegalArgumentException.class);
+		}
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.models.XBee16BitAddress#writeTo(ByteBuffer)}.
+	 */
+	@Test
+	public final void testWriteTo() {
+		// Setup the resources for the test.
+		XBee16BitAddress addr = new XBee16BitAddress(VALID_BYTE_ARRAY);
+		ByteBuffer buffer = ByteBuffer.allocate(2);
+		
+		// Call the method under test.
+		addr.writeTo(buffer);
+		
+		// Verify the result.
+		assertArrayEquals(VALID_BYTE_ARRAY, buffer.array());
+	}
 }
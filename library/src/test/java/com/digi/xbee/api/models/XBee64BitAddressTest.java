@@ -19,6 +19,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import org.junit.Test;
 
 public class XBee64BitAddressTest {
@@ -494,4 +497,74 @@ public class XBee64BitAddressTest {
 		assertThat("Consistent hashcode test fails", addr.hashCode(), is(equalTo(initialHashCode)));
 		assertThat("Consistent hashcode test fails", addr.hashCode(), is(equalTo(initialHashCode)));
 	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.models.XBee64BitAddress#toLong()} 
+	 * and {@link com.digi.xbee.api.models.XBee64BitAddress#fromLong(long)}.
+	 */
+	@Test
+	public final void testToLongFromLong() {
+		// Setup the resources for the test.
+		XBee64BitAddress addr = new XBee64BitAddress(VALID_STRING);
+		
+		// Call the method under test.
+		long value = addr.toLong();
+		XBee64BitAddress result = XBee64BitAddress.fromLong(value);
+		
+		// Verify the result.
+		assertThat("Returned value is not the expected one", value, is(equalTo(0x0013A20040A9E7EDL)));
+		assertThat("Returned address is not the expected one", result, is(equalTo(addr)));
+		assertArrayEquals(VALID_BYTE_ARRAY, result.getValue());
+		assertThat("Unknown address must be interned", XBee64BitAddress.fromLong(-1) == XBee64BitAddress.UNKNOWN_ADDRESS, is(equalTo(true)));
+		assertThat("Broadcast address must be interned", XBee64BitAddress.fromLong(0xFFFF) == XBee64BitAddress.BROADCAST_ADDRESS, is(equalTo(true)));
+		assertThat("Coordinator address must be interned", XBee64BitAddress.fromLong(0) == XBee64BitAddress.COORDINATOR_ADDRESS, is(equalTo(true)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.models.XBee64BitAddress#writeTo(ByteBuffer)}.
+	 * 
+	 * <p>The address must be written most significant byte first even if the 
+	 * buffer is little endian.</p>
+	 */
+	@Test
+	public final void testWriteTo() {
+		// Setup the resources for the test.
+		XBee64BitAddress addr = new XBee64BitAddress(VALID_BYTE_ARRAY);
+		ByteBuffer buffer = ByteBuffer.allocate(9).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put((byte)0x7E);
+		
+		// Call the method under test.
+		addr.writeTo(buffer);
+		
+		// Verify the result.
+		byte[] written = new byte[8];
+		buffer.position(1);
+		buffer.get(written);
+		assertArrayEquals(VALID_BYTE_ARRAY, written);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.models.XBee64BitAddress#XBee64BitAddress(String)}.
+	 */
+	@Test
+	public final void testCreateWithStringFormats() {
+		// Verify the result.
+		assertThat("Upper case prefix is not accepted", new XBee64BitAddress("0X13A20040A9E7ED").toString(), is(equalTo(VALID_STRING_NO_PREFIX)));
+		assertThat("Lower case digits are not accepted", new XBee64BitAddress("0013a20040a9e7ed").toString(), is(equalTo(VALID_STRING_NO_PREFIX)));
+		assertThat("Odd number of digits is not accepted", new XBee64BitAddress("FFF").toLong(), is(equalTo(0xFFFL)));
+		// Test with prefix only.
+		try {
+			new XBee64BitAddress("0x");
+			fail("Object should not have been created.");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), IllegalArgumentException.class);
+		}
+		// Test with too many digits.
+		try {
+			new XBee64BitAddress("0x0013A20040A9E7ED0");
+			fail("Object should not have been created.");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), IllegalArgumentException.class);
+		}
+	}
 }
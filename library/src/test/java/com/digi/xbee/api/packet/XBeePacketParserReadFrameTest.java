@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2014-2016 Digi International Inc.,
+ * All rights not expressly granted are reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ * Digi International Inc. 11001 Bren Road East, Minnetonka, MN 55343
+ * =======================================================================
+ */
+package com.digi.xbee.api.packet;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.Is.is;
+
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.digi.xbee.api.exceptions.InvalidPacketException;
+import com.digi.xbee.api.models.OperatingMode;
+import com.digi.xbee.api.packet.common.ATCommandResponsePacket;
+import com.digi.xbee.api.packet.common.RemoteATCommandPacket;
+import com.digi.xbee.api.utils.HexUtils;
+
+public class XBeePacketParserReadFrameTest {
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	// Class under test
+	private XBeePacketParser packetParser;
+	
+	private byte[] buffer;
+	
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		packetParser = new XBeePacketParser();
+		buffer = new byte[XBeePacketParser.MAX_FRAME_DATA_LENGTH];
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.packet.XBeePacketParser#readFrame(java.io.InputStream, com.digi.xbee.api.models.OperatingMode, byte[])}.
+	 * 
+	 * <p>A {@code NullPointerException} exception must be thrown when the
+	 * buffer is {@code null}.</p>
+	 * 
+	 * @throws InvalidPacketException
+	 */
+	@Test
+	public final void testReadFrameNullBuffer() throws InvalidPacketException {
+		// Setup the resources for the test.
+		byte[] byteArray = {0x7E, 0x00, 0x06, 0x08, 0x01, 0x4E, 0x49, 0x41, 0x54, (byte)0xCA};
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(byteArray, 1, byteArray.length - 1);
+		exception.expect(NullPointerException.class);
+		exception.expectMessage(is(equalTo("Buffer cannot be null.")));
+		
+		// Call the method under test that should throw a NullPointerException.
+		packetParser.readFrame(inputStream, OperatingMode.API, null);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.packet.XBeePacketParser#readFrame(java.io.InputStream, com.digi.xbee.api.models.OperatingMode, byte[])}.
+	 * 
+	 * <p>An {@code IllegalArgumentException} exception must be thrown when the
+	 * operating mode is not API or API escaped.</p>
+	 * 
+	 * @throws InvalidPacketException
+	 */
+	@Test
+	public final void testReadFrameAtMode() throws InvalidPacketException {
+		// Setup the resources for the test.
+		byte[] byteArray = {0x7E, 0x00, 0x06, 0x08, 0x01, 0x4E, 0x49, 0x41, 0x54, (byte)0xCA};
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(byteArray, 1, byteArray.length - 1);
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage(is(equalTo("Operating mode must be API or API Escaped.")));
+		
+		// Call the method under test that should throw an IllegalArgumentException.
+		packetParser.readFrame(inputStream, OperatingMode.AT, buffer);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.packet.XBeePacketParser#readFrame(java.io.InputStream, com.digi.xbee.api.models.OperatingMode, byte[])}.
+	 * 
+	 * <p>An {@code InvalidPacketException} exception must be thrown when the
+	 * checksum in the frame is not well calculated.</p>
+	 * 
+	 * @throws InvalidPacketException
+	 */
+	@Test
+	public final void testReadFrameInvalidChecksumApiMode() throws InvalidPacketException {
+		// Setup the resources for the test.
+		// Real package: {0x7E, 0x00, 0x06, 0x08, 0x01, 0x4E, 0x49, 0x41, 0x54, (byte)0xCA};
+		byte[] byteArray = {0x7E, 0x00, 0x06, 0x08, 0x01, 0x4E, 0x49, 0x41, 0x54, (byte)0xCB};
+		byte expectedChecksum = (byte)0xCA;
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(byteArray, 1, byteArray.length - 1);
+		exception.expect(InvalidPacketException.class);
+		exception.expectMessage(is(equalTo("Invalid checksum (expected 0x"
+				+ HexUtils.byteToHexString(expectedChecksum) + ").")));
+		
+		// Call the method under test that should throw an InvalidPacketException.
+		packetParser.readFrame(inputStream, OperatingMode.API, buffer);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.packet.XBeePacketParser#readFrame(java.io.InputStream, com.digi.xbee.api.models.OperatingMode, byte[])}.
+	 * 
+	 * <p>An {@code InvalidPacketException} exception must be thrown when the
+	 * frame does not fit in the given buffer.</p>
+	 * 
+	 * @throws InvalidPacketException
+	 */
+	@Test
+	public final void testReadFrameBufferTooSmall() throws InvalidPacketException {
+		// Setup the resources for the test.
+		byte[] byteArray = {0x7E, 0x00, 0x06, 0x08, 0x01, 0x4E, 0x49, 0x41, 0x54, (byte)0xCA};
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(byteArray, 1, byteArray.length - 1);
+		exception.expect(InvalidPacketException.class);
+		exception.expectMessage(is(equalTo("Error parsing packet: Frame length (6) exceeds the buffer size.")));
+		
+		// Call the method under test that should throw an InvalidPacketException.
+		packetParser.readFrame(inputStream, OperatingMode.API, new byte[5]);
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.packet.XBeePacketParser#readFrame(java.io.InputStream, com.digi.xbee.api.models.OperatingMode, byte[])}.
+	 * 
+	 * <p>A valid API frame must be stored in the buffer as is.</p>
+	 * 
+	 * @throws InvalidPacketException
+	 */
+	@Test
+	public final void testReadFrameApiModeValidFrame() throws InvalidPacketException {
+		// Setup the resources for the test.
+		byte[] byteData = {0x17, 0x01, 0x00, 0x00, 0x00, 0x40, (byte)0x9D, 0x5E, 0x49, (byte)0xD5, (byte)0xFF, (byte)0xFE, 0x02, 0x4E, 0x49};
+		byte[] byteArray = new byte[byteData.length + 4];
+		byteArray[0] = 0x7E;
+		byteArray[1] = 0x00;
+		byteArray[2] = 0x0F;
+		System.arraycopy(byteData, 0, byteArray, 3, byteData.length);
+		byteArray[byteArray.length - 1] = (byte)0xF8;
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(byteArray, 1, byteArray.length - 1);
+		
+		// Call the method under test.
+		int length = packetParser.readFrame(inputStream, OperatingMode.API, buffer);
+		
+		// Verify the result.
+		assertThat("Returned length is not the expected one", length, is(equalTo(byteData.length)));
+		assertThat("Frame data in the buffer is not the expected one", Arrays.copyOf(buffer, length), is(equalTo(byteData)));
+		assertThat("Parsed packet is not of the expected type", packetParser.parsePayload(buffer, 0, length), is(instanceOf(RemoteATCommandPacket.class)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.packet.XBeePacketParser#readFrame(java.io.InputStream, com.digi.xbee.api.models.OperatingMode, byte[])}.
+	 * 
+	 * <p>A valid API escaped frame must be stored in the buffer unescaped.</p>
+	 * 
+	 * @throws InvalidPacketException
+	 */
+	@Test
+	public final void testReadFrameApiEscapeModeValidFrame() throws InvalidPacketException {
+		// Setup the resources for the test.
+		byte[] byteArray = {0x7E, 0x00, 0x09, (byte)0x88, 0x07, 0x53, 0x48, 0x00, 0x00, 0x7D, 0x33, (byte)0xA2, 0x00, 0x20};
+		byte[] expectedData = {(byte)0x88, 0x07, 0x53, 0x48, 0x00, 0x00, 0x13, (byte)0xA2, 0x00};
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(byteArray, 1, byteArray.length - 1);
+		
+		// Call the method under test.
+		int length = packetParser.readFrame(inputStream, OperatingMode.API_ESCAPE, buffer);
+		
+		// Verify the result.
+		assertThat("Returned length is not the expected one", length, is(equalTo(expectedData.length)));
+		assertThat("Frame data in the buffer is not the expected one", Arrays.copyOf(buffer, length), is(equalTo(expectedData)));
+		assertThat("Parsed packet is not of the expected type", packetParser.parsePayload(buffer, 0, length), is(instanceOf(ATCommandResponsePacket.class)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.packet.XBeePacketParser#parsePayload(byte[], int, int)}.
+	 * 
+	 * <p>An {@code IllegalArgumentException} exception must be thrown when the
+	 * range exceeds the buffer.</p>
+	 * 
+	 * @throws InvalidPacketException
+	 */
+	@Test
+	public final void testParsePayloadRangeOutOfBuffer() throws InvalidPacketException {
+		// Setup the resources for the test.
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage(is(equalTo("Offset plus length cannot exceed the buffer length.")));
+		
+		// Call the method under test that should throw an IllegalArgumentException.
+		packetParser.parsePayload(new byte[4], 2, 3);
+	}
+}
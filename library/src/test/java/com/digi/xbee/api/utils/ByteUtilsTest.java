@@ -1111,4 +1111,46 @@ public class ByteUtilsTest {
 		// Verify the result.
 		assertThat("Result byte array must be equal to 'expectedResult'", result, is(equalTo(expectedResult)));
 	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.utils.ByteUtils#isSameValue(byte[], byte[])}.
+	 */
+	@Test
+	public final void testIsSameValueLeadingZeros() {
+		// Setup the resources for the test.
+		byte[] value1 = new byte[] {0x00, 0x00, 0x12, 0x34};
+		byte[] value2 = new byte[] {0x12, 0x34};
+		
+		// Call the method under test.
+		boolean result = ByteUtils.isSameValue(value1, value2);
+		
+		// Verify the result.
+		assertThat("Values must be the same", result, is(equalTo(true)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.utils.ByteUtils#isSameValue(byte[], byte[])}.
+	 */
+	@Test
+	public final void testIsSameValueDifferent() {
+		// Setup the resources for the test.
+		byte[] value1 = new byte[] {0x12, 0x34};
+		byte[] value2 = new byte[] {0x12, 0x34, 0x00};
+		
+		// Call the method under test.
+		boolean result = ByteUtils.isSameValue(value1, value2);
+		
+		// Verify the result.
+		assertThat("Values must not be the same", result, is(equalTo(false)));
+	}
+	
+	/**
+	 * Test method for {@link com.digi.xbee.api.utils.ByteUtils#isSameValue(byte[], byte[])}.
+	 */
+	@Test
+	public final void testIsSameValueNull() {
+		// Call the method under test and verify the result.
+		assertThat("Null must not be the same as an empty value", ByteUtils.isSameValue(null, new byte[0]), is(equalTo(false)));
+		assertThat("Null must be the same as null", ByteUtils.isSameValue(null, null), is(equalTo(true)));
+	}
 }